@@ -0,0 +1,130 @@
+package application.dashboard;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import application.SpreadInfo;
+import application.SpreadSnapshot;
+import application.Utils;
+import application.configuration.DashboardConfig;
+
+/**
+ * Compares a dashboard frame (a page of the ranking, only the changed cells
+ * written) with the console output of the whole table, for a large ranking
+ * where a share of the prices move between two cycles. The output goes to a
+ * writer counting the characters.
+ *
+ * Run with : mvn compile exec:exec -Pjmh -Djmh.benchmarks=AnsiDashboard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnsiDashboardBenchmark {
+
+	@Param("5000")
+	private int pairs;
+
+	@Param("50")
+	private int rows;
+
+	/**
+	 * Share of the pairs whose prices change between two cycles
+	 */
+	@Param("0.2")
+	private double changes;
+
+	private CountingWriter writer;
+	private AnsiDashboard dashboard;
+
+	/**
+	 * Two successive cycles, drawn in turn
+	 */
+	private SpreadSnapshot[] snapshots;
+	private int cycle;
+
+	@Setup
+	public void setUp() throws IOException {
+		final Random random = new Random(42);
+		final List<SpreadInfo> first = new ArrayList<>(pairs);
+		final List<SpreadInfo> second = new ArrayList<>(pairs);
+		for (int pair = 0; pair < pairs; pair++) {
+			final double bid = 1 + random.nextDouble() * 10000;
+			final double spread = random.nextDouble() * 0.05;
+			first.add(createSpread(pair, bid, spread));
+			second.add(random.nextDouble() < changes
+					? createSpread(pair, bid * (1 + random.nextDouble() * 0.001), spread) : first.get(pair));
+		}
+		snapshots = new SpreadSnapshot[] {
+				new SpreadSnapshot(1, System.currentTimeMillis(), first, Collections.emptyMap()),
+				new SpreadSnapshot(2, System.currentTimeMillis(), second, Collections.emptyMap()) };
+
+		final DashboardConfig config = new DashboardConfig();
+		config.setRows(rows);
+		writer = new CountingWriter();
+		dashboard = new AnsiDashboard(config, writer);
+		dashboard.draw(snapshots[0]);
+	}
+
+	private static SpreadInfo createSpread(int pair, double bid, double spread) {
+		final SpreadInfo spreadInfo = new SpreadInfo();
+		spreadInfo.setCcyPair("P" + pair + "-AUD");
+		spreadInfo.setBestBidPrice(BigDecimal.valueOf(bid));
+		spreadInfo.setBestBidExchange("EX" + pair % 7);
+		spreadInfo.setBestAskPrice(BigDecimal.valueOf(bid * (1 + spread)));
+		spreadInfo.setBestAskExchange("EX" + pair % 11);
+		spreadInfo.setSpreadPercent(BigDecimal.valueOf(spread).setScale(4, RoundingMode.HALF_UP));
+		return spreadInfo;
+	}
+
+	@Benchmark
+	public long dashboardFrame() throws IOException {
+		dashboard.draw(snapshots[cycle++ & 1]);
+		return writer.count;
+	}
+
+	@Benchmark
+	public void consoleTable(Blackhole blackhole) {
+		blackhole.consume(Utils.formatConsolePrint(snapshots[cycle++ & 1].getSpreads()));
+	}
+
+	private static final class CountingWriter extends Writer {
+
+		private long count;
+
+		@Override
+		public void write(char[] chars, int offset, int length) {
+			count += length;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package application.exchange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency and allocation of the quote update path : with the GC profiler of
+ * the 'jmh' profile, 'gc.alloc.rate.norm' is 0 B/op for the writes and the
+ * reads, including while they run concurrently (group 'contended', one writer
+ * and one reader on the same slots). The allocation regression check that
+ * fails is {@link application.simulator.AllocationCheckRunner}.
+ *
+ * Run with : mvn compile exec:exec -Pjmh -Djmh.benchmarks=QuoteSlots
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteSlotsBenchmark {
+
+	private static final int PAIRS = 64;
+
+	private QuoteSlots quoteSlots;
+
+	private int writePair;
+	private double price;
+
+	@Setup
+	public void setUp() {
+		final List<String> currencyPairs = new ArrayList<>();
+		for (int i = 0; i < PAIRS; i++) {
+			currencyPairs.add("C" + i + "-AUD");
+		}
+		quoteSlots = new QuoteSlots(currencyPairs);
+		for (int i = 0; i < PAIRS; i++) {
+			quoteSlots.write(i, 100, 99, System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * The reader state (one holder per reading thread, as in the batch mode)
+	 */
+	@State(Scope.Thread)
+	public static class Reader {
+		private final QuoteSlots.Quote quote = new QuoteSlots.Quote();
+		private int readPair;
+	}
+
+	@Benchmark
+	@Group("write")
+	public void write() {
+		writePair = (writePair + 1) & (PAIRS - 1);
+		price += 0.25;
+		quoteSlots.write(writePair, price, price - 1, System.currentTimeMillis());
+	}
+
+	@Benchmark
+	@Group("read")
+	public double read(Reader reader) {
+		reader.readPair = (reader.readPair + 1) & (PAIRS - 1);
+		quoteSlots.read(reader.readPair, reader.quote);
+		return reader.quote.getNetAskPrice() - reader.quote.getNetBidPrice();
+	}
+
+	@Benchmark
+	@Group("contended")
+	public void contendedWrite() {
+		write();
+	}
+
+	@Benchmark
+	@Group("contended")
+	public double contendedRead(Reader reader) {
+		final double spread = read(reader);
+		if(spread != 1) {
+			throw new IllegalStateException("Torn read : ask - bid = " + spread);
+		}
+		return spread;
+	}
+}
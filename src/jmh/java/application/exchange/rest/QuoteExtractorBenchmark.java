@@ -0,0 +1,121 @@
+package application.exchange.rest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import application.configuration.RestConnectorConfig;
+import application.exchange.acx.ACXTickInfo;
+import application.exchange.btcmarkets.BTCMarketsTickInfo;
+
+/**
+ * Compares the decoding of the compiled extractor with the object mapping of
+ * the hand-written connectors, for a BTCMarkets ticker (per-pair mode) and an
+ * ACX tickers response (bulk mode), with the prices formatted like the live
+ * exchanges.
+ *
+ * Run with : mvn compile exec:exec -Pjmh -Djmh.benchmarks=QuoteExtractor
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuoteExtractorBenchmark {
+
+	@Param("200")
+	private int pairs;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final TypeReference<HashMap<String, ACXTickInfo>> acxType = new TypeReference<HashMap<String, ACXTickInfo>>() {};
+
+	private byte[] btcMarketsTick;
+	private byte[] acxTickers;
+	private QuoteExtractor pairExtractor;
+	private QuoteExtractor bulkExtractor;
+
+	@Setup
+	public void setUp() {
+		btcMarketsTick = ("{\"bestBid\":998.01,\"bestAsk\":1002.01,\"lastPrice\":1000.01,"
+				+ "\"currency\":\"AUD\",\"instrument\":\"BTC\",\"timestamp\":1537000000}").getBytes(StandardCharsets.UTF_8);
+
+		final StringBuilder json = new StringBuilder().append('{');
+		for (int pair = 0; pair < pairs; pair++) {
+			final String base = "c" + pair;
+			if(pair > 0) {
+				json.append(',');
+			}
+			json.append('"').append(base).append("aud\":{\"name\":\"").append(base).append("/aud\",\"base_unit\":\"")
+				.append(base).append("\",\"quote_unit\":\"aud\",\"at\":1537000000,\"ticker\":{\"buy\":\"")
+				.append(price(998.01 + pair)).append("\",\"sell\":\"").append(price(1002.01 + pair))
+				.append("\",\"last\":\"").append(price(1000.01 + pair)).append("\"}}");
+		}
+		acxTickers = json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+
+		final RestConnectorConfig pairConfig = new RestConnectorConfig();
+		pairConfig.setBidPath("bestBid");
+		pairConfig.setAskPath("bestAsk");
+		pairExtractor = QuoteExtractor.compile(pairConfig);
+
+		final RestConnectorConfig bulkConfig = new RestConnectorConfig();
+		bulkConfig.setBulk(true);
+		bulkConfig.setBasePath("base_unit");
+		bulkConfig.setQuotePath("quote_unit");
+		bulkConfig.setBidPath("ticker.buy");
+		bulkConfig.setAskPath("ticker.sell");
+		bulkExtractor = QuoteExtractor.compile(bulkConfig);
+	}
+
+	/**
+	 * Formats a price like the exchanges, with a fixed number of decimals
+	 */
+	private static String price(double price) {
+		return String.format(Locale.ROOT, "%.8f", price);
+	}
+
+	@Benchmark
+	public void pairExtractor(Blackhole blackhole) throws IOException {
+		pairExtractor.extract(btcMarketsTick, 0, btcMarketsTick.length,
+				(baseCurrency, quoteCurrency, askPrice, bidPrice) -> blackhole.consume(askPrice - bidPrice));
+	}
+
+	@Benchmark
+	public void pairObjectMapper(Blackhole blackhole) throws IOException {
+		final BTCMarketsTickInfo tickInfo = objectMapper.readValue(btcMarketsTick, 0, btcMarketsTick.length,
+				BTCMarketsTickInfo.class);
+		blackhole.consume(tickInfo.getBestAsk().doubleValue() - tickInfo.getBestBid().doubleValue());
+	}
+
+	@Benchmark
+	public void bulkExtractor(Blackhole blackhole) throws IOException {
+		bulkExtractor.extract(acxTickers, 0, acxTickers.length,
+				(baseCurrency, quoteCurrency, askPrice, bidPrice) -> blackhole.consume(askPrice - bidPrice));
+	}
+
+	@Benchmark
+	public void bulkObjectMapper(Blackhole blackhole) throws IOException {
+		final Map<String, ACXTickInfo> tickers = objectMapper.readValue(acxTickers, 0, acxTickers.length, acxType);
+		tickers.forEach((market, tickInfo) -> blackhole.consume(
+				tickInfo.getTicker().getSell().doubleValue() - tickInfo.getTicker().getBuy().doubleValue()));
+	}
+}
@@ -0,0 +1,131 @@
+package application.kernel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import application.NetTickPrice;
+import application.SpreadInfo;
+
+/**
+ * Compares the columnar batch kernel (single thread and fork-join) with the
+ * per pair calculation over boxed quotes used by the event based cycles, for
+ * a large universe of pairs and exchanges.
+ *
+ * Run with : mvn compile exec:exec -Pjmh -Djmh.benchmarks=ColumnarSpreadKernel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnarSpreadKernelBenchmark {
+
+	@Param("10000")
+	private int pairs;
+
+	@Param("20")
+	private int exchanges;
+
+	/**
+	 * Share of the quotes that are missing (exchange not listing the pair)
+	 */
+	@Param("0.1")
+	private double missingQuotes;
+
+	private ColumnarSpreadKernel serialKernel;
+	private ColumnarSpreadKernel parallelKernel;
+
+	/**
+	 * The same quotes as the kernels, as zipped by the event based cycles
+	 */
+	private Object[][] boxedQuotes;
+
+	@Setup
+	public void setUp() {
+		serialKernel = new ColumnarSpreadKernel(pairs, exchanges, null);
+		parallelKernel = new ColumnarSpreadKernel(pairs, exchanges);
+		boxedQuotes = new Object[pairs][exchanges];
+
+		final Random random = new Random(42);
+		for (int pair = 0; pair < pairs; pair++) {
+			final double midPrice = 1 + random.nextDouble() * 10000;
+			for (int exchange = 0; exchange < exchanges; exchange++) {
+				if(random.nextDouble() < missingQuotes) {
+					boxedQuotes[pair][exchange] = Optional.empty();
+					continue;
+				}
+				final double ask = midPrice * (1 + random.nextDouble() * 0.01);
+				final double bid = midPrice * (1 - random.nextDouble() * 0.01);
+				serialKernel.setQuote(pair, exchange, ask, bid);
+				parallelKernel.setQuote(pair, exchange, ask, bid);
+				boxedQuotes[pair][exchange] = Optional.of(new NetTickPrice("EX" + exchange, "P" + pair,
+						BigDecimal.valueOf(ask), BigDecimal.valueOf(bid)));
+			}
+		}
+	}
+
+	@Benchmark
+	public void columnarSerial(Blackhole blackhole) {
+		serialKernel.compute();
+		blackhole.consume(serialKernel.getSpread(pairs - 1));
+	}
+
+	@Benchmark
+	public void columnarParallel(Blackhole blackhole) {
+		parallelKernel.compute();
+		blackhole.consume(parallelKernel.getSpread(pairs - 1));
+	}
+
+	/**
+	 * The calculation of the event based cycles (without the Rx overhead)
+	 */
+	@Benchmark
+	public void boxedPerPair(Blackhole blackhole) {
+		for (final Object[] obsArr : boxedQuotes) {
+			final SpreadInfo spread = new SpreadInfo();
+			int noOfActiveExchanges = 0;
+			for (final Object obsElement : obsArr) {
+				@SuppressWarnings("unchecked")
+				final Optional<NetTickPrice> opNetTickPrice = (Optional<NetTickPrice>) obsElement;
+				if(!opNetTickPrice.isPresent()) {
+					continue;
+				}
+				noOfActiveExchanges++;
+				final NetTickPrice netTickPrice = opNetTickPrice.get();
+				if(spread.getBestAskPrice() == null || netTickPrice.getNetAskPrice().compareTo(spread.getBestAskPrice()) > 0) {
+					spread.setCcyPair(netTickPrice.getCcyPair());
+					spread.setBestAskPrice(netTickPrice.getNetAskPrice());
+					spread.setBestAskExchange(netTickPrice.getExchangeId());
+				}
+				if(spread.getBestBidPrice() == null || netTickPrice.getNetBidPrice().compareTo(spread.getBestBidPrice()) < 0) {
+					spread.setCcyPair(netTickPrice.getCcyPair());
+					spread.setBestBidPrice(netTickPrice.getNetBidPrice());
+					spread.setBestBidExchange(netTickPrice.getExchangeId());
+				}
+			}
+			if(noOfActiveExchanges <= 1) {
+				continue;
+			}
+			spread.setSpreadPercent(spread.getBestAskPrice().subtract(spread.getBestBidPrice())
+					.divide(spread.getBestBidPrice(), 4, RoundingMode.HALF_UP));
+			blackhole.consume(spread);
+		}
+	}
+}
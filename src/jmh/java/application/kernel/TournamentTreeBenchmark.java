@@ -0,0 +1,112 @@
+package application.kernel;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the update of the best ask & bid of a pair after the tick of one
+ * exchange with the tournament trees of the best quote book, against a scan
+ * of the quotes of all the exchanges.
+ *
+ * Run with : mvn compile exec:exec -Pjmh -Djmh.benchmarks=TournamentTree
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TournamentTreeBenchmark {
+
+	private static final int TICKS = 1024;
+
+	@Param({"8", "32", "128"})
+	private int exchanges;
+
+	private TournamentTree asks;
+	private TournamentTree bids;
+
+	/**
+	 * The same quotes as the trees, scanned
+	 */
+	private double[] askPrices;
+	private double[] bidPrices;
+
+	/**
+	 * The ticks replayed : exchange and prices
+	 */
+	private int[] tickExchanges;
+	private double[] tickAsks;
+	private double[] tickBids;
+	private int tick;
+
+	@Setup
+	public void setUp() {
+		asks = new TournamentTree(exchanges, true);
+		bids = new TournamentTree(exchanges, false);
+		askPrices = new double[exchanges];
+		bidPrices = new double[exchanges];
+		final Random random = new Random(42);
+		for (int exchange = 0; exchange < exchanges; exchange++) {
+			askPrices[exchange] = 1000 * (1 + random.nextDouble() * 0.01);
+			bidPrices[exchange] = 1000 * (1 - random.nextDouble() * 0.01);
+			asks.update(exchange, askPrices[exchange]);
+			bids.update(exchange, bidPrices[exchange]);
+		}
+		tickExchanges = new int[TICKS];
+		tickAsks = new double[TICKS];
+		tickBids = new double[TICKS];
+		for (int i = 0; i < TICKS; i++) {
+			tickExchanges[i] = random.nextInt(exchanges);
+			tickAsks[i] = 1000 * (1 + random.nextDouble() * 0.01);
+			tickBids[i] = 1000 * (1 - random.nextDouble() * 0.01);
+		}
+	}
+
+	@Benchmark
+	public double tournament() {
+		final int i = tick++ & (TICKS - 1);
+		asks.update(tickExchanges[i], tickAsks[i]);
+		bids.update(tickExchanges[i], tickBids[i]);
+		final double bestAsk = asks.getValue(asks.getWinner());
+		final double bestBid = bids.getValue(bids.getWinner());
+		return (bestAsk - bestBid) / bestBid;
+	}
+
+	@Benchmark
+	public double scan() {
+		final int i = tick++ & (TICKS - 1);
+		askPrices[tickExchanges[i]] = tickAsks[i];
+		bidPrices[tickExchanges[i]] = tickBids[i];
+		double bestAsk = Double.NEGATIVE_INFINITY;
+		double bestBid = Double.POSITIVE_INFINITY;
+		for (int exchange = 0; exchange < exchanges; exchange++) {
+			bestAsk = askPrices[exchange] > bestAsk ? askPrices[exchange] : bestAsk;
+			bestBid = bidPrices[exchange] < bestBid ? bidPrices[exchange] : bestBid;
+		}
+		return (bestAsk - bestBid) / bestBid;
+	}
+
+	/**
+	 * The tournament with the second best exchanges, for the fallback
+	 */
+	@Benchmark
+	public int tournamentWithRunnerUp() {
+		final int i = tick++ & (TICKS - 1);
+		asks.update(tickExchanges[i], tickAsks[i]);
+		bids.update(tickExchanges[i], tickBids[i]);
+		return asks.getRunnerUp() + bids.getRunnerUp();
+	}
+}
@@ -0,0 +1,123 @@
+package application.opportunity;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.NetTickPrice;
+import application.SpreadSnapshot;
+import application.configuration.OpportunityConfig;
+
+/**
+ * The cost of following the opportunities of one snapshot at full universe
+ * size. The snapshots alternate between two sets of quotes, so that one
+ * exchange of each pair keeps opening and closing opportunities, and the
+ * quotes of 'changed' exchanges of each pair (the skewed one included) differ
+ * between them : 1 is a typical update, all the exchanges the worst case of
+ * the incremental processing. Without listeners,
+ * 'gc.alloc.rate.norm' (GC profiler of the 'jmh' profile) must stay at 0 B/op.
+ *
+ * Run with : mvn compile exec:exec -Pjmh -Djmh.benchmarks=OpportunityTracker
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OpportunityTrackerBenchmark {
+
+	@Param("10000")
+	private int pairs;
+
+	@Param("20")
+	private int exchanges;
+
+	@Param({"1", "20"})
+	private int changed;
+
+	private OpportunityTracker tracker;
+	private SpreadSnapshot[] snapshots;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		final List<String> currencyPairs = new ArrayList<>();
+		for (int pair = 0; pair < pairs; pair++) {
+			currencyPairs.add("C" + pair + "-AUD");
+		}
+		final OpportunityConfig config = new OpportunityConfig();
+		config.setOpenThreshold(0.01);
+		config.setCloseThreshold(0.005);
+		tracker = new OpportunityTracker(currencyPairs, config);
+
+		// Tight quotes (0.1%), except one exchange per pair whose ask is 1.5%
+		// higher in the first snapshot : its opportunities open and close in turn
+		// One ID instance per exchange, as in the application
+		final List<String> exchangeIds = new ArrayList<>();
+		for (int exchange = 0; exchange < exchanges; exchange++) {
+			exchangeIds.add("EX" + exchange);
+		}
+		final Random random = new Random(42);
+		final List<Map<String, List<NetTickPrice>>> quotes = new ArrayList<>();
+		quotes.add(new HashMap<>());
+		quotes.add(new HashMap<>());
+		for (final String currencyPair : currencyPairs) {
+			final double midPrice = 1 + random.nextDouble() * 10000;
+			final int skewedExchange = random.nextInt(exchanges);
+			final List<NetTickPrice> firstQuotes = new ArrayList<>();
+			final List<NetTickPrice> secondQuotes = new ArrayList<>();
+			for (int exchange = 0; exchange < exchanges; exchange++) {
+				final double askPrice = midPrice * (1 + random.nextDouble() * 0.001);
+				final double bidPrice = midPrice * (1 - random.nextDouble() * 0.001);
+				final NetTickPrice quote = new NetTickPrice(exchangeIds.get(exchange), currencyPair,
+						BigDecimal.valueOf(askPrice), BigDecimal.valueOf(bidPrice), 1);
+				if(exchange == skewedExchange) {
+					firstQuotes.add(new NetTickPrice(exchangeIds.get(exchange), currencyPair,
+							BigDecimal.valueOf(askPrice * 1.015), BigDecimal.valueOf(bidPrice), 0));
+				} else {
+					firstQuotes.add(quote);
+				}
+				// The skewed exchange, then the others in turn up to 'changed'
+				final boolean changes = exchange != skewedExchange
+						&& Math.floorMod(exchange - skewedExchange, exchanges) < changed;
+				secondQuotes.add(changes ? new NetTickPrice(exchangeIds.get(exchange), currencyPair,
+						BigDecimal.valueOf(askPrice * 1.0001), BigDecimal.valueOf(bidPrice * 0.9999), 1) : quote);
+			}
+			quotes.get(0).put(currencyPair, firstQuotes);
+			quotes.get(1).put(currencyPair, secondQuotes);
+		}
+		snapshots = new SpreadSnapshot[2];
+		for (int i = 0; i < snapshots.length; i++) {
+			snapshots[i] = new SpreadSnapshot(i + 1, i, Collections.emptyList(), quotes.get(i));
+		}
+		// Creates the state of every opportunity before measuring
+		for (final SpreadSnapshot snapshot : snapshots) {
+			tracker.process(snapshot);
+		}
+	}
+
+	@Benchmark
+	public int process() {
+		next ^= 1;
+		tracker.process(snapshots[next]);
+		return tracker.getOpenCount();
+	}
+}
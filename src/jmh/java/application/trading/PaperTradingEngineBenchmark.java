@@ -0,0 +1,98 @@
+package application.trading;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import application.SpreadInfo;
+import application.configuration.PaperTradingConfig;
+import application.exchange.QuoteSlots;
+
+/**
+ * The cost of the order-intent stage for the spreads of one cycle, all above
+ * the threshold, against the mock exchange without latency. The pairs whose
+ * orders are still in flight are skipped, as in the application.
+ *
+ * The stage must not allocate. Note that 'gc.alloc.rate.norm' (GC profiler of
+ * the 'jmh' profile) counts all the threads : the few hundred bytes per
+ * operation left come from the exchange thread waiting on its delay queue.
+ *
+ * Run with : mvn compile exec:exec -Pjmh -Djmh.benchmarks=PaperTradingEngine
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaperTradingEngineBenchmark {
+
+	@Param("1000")
+	private int pairs;
+
+	@Param("4")
+	private int exchanges;
+
+	private PaperTradingEngine engine;
+	private List<SpreadInfo> spreads;
+
+	@Setup
+	public void setUp() {
+		final List<String> currencyPairs = new ArrayList<>();
+		for (int pair = 0; pair < pairs; pair++) {
+			currencyPairs.add("C" + pair + "-AUD");
+		}
+
+		// The first exchange quotes 2% above the others
+		final Random random = new Random(42);
+		final Map<String, QuoteSlots> exchangeQuotes = new LinkedHashMap<>();
+		for (int exchange = 0; exchange < exchanges; exchange++) {
+			exchangeQuotes.put("EX" + exchange, new QuoteSlots(currencyPairs));
+		}
+		spreads = new ArrayList<>();
+		for (int pair = 0; pair < pairs; pair++) {
+			final double midPrice = 1 + random.nextDouble() * 10000;
+			for (int exchange = 0; exchange < exchanges; exchange++) {
+				final double skew = exchange == 0 ? 1.02 : 1;
+				exchangeQuotes.get("EX" + exchange).write(pair, midPrice * skew * 1.001, midPrice * skew * 0.999,
+						System.currentTimeMillis());
+			}
+			final SpreadInfo spread = new SpreadInfo();
+			spread.setCcyPair(currencyPairs.get(pair));
+			spread.setBestAskExchange("EX0");
+			spread.setBestAskPrice(BigDecimal.valueOf(midPrice * 1.02 * 1.001));
+			spread.setBestBidExchange("EX1");
+			spread.setBestBidPrice(BigDecimal.valueOf(midPrice * 0.999));
+			spread.setSpreadPercent(BigDecimal.valueOf(0.0222));
+			spreads.add(spread);
+		}
+
+		final PaperTradingConfig config = new PaperTradingConfig();
+		config.setMinSpread(0.01);
+		config.setQuantity(1.0);
+		config.setMaxOpenOrders(256);
+		engine = new PaperTradingEngine(currencyPairs, exchangeQuotes, config);
+	}
+
+	@Benchmark
+	public long orderIntents() {
+		engine.onSpreads(spreads, System.nanoTime());
+		return engine.getSignals();
+	}
+}
@@ -1,6 +1,16 @@
 package application;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -11,7 +21,13 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import application.configuration.AppConfig;
-import io.reactivex.Observable;
+import application.configuration.QueryServerConfig;
+import application.dashboard.AnsiDashboard;
+import application.diagnostics.OutputEvent;
+import application.query.BinaryQueryServer;
+import application.query.HttpQueryServer;
+import application.strategy.StrategyEngine;
+import io.reactivex.Flowable;
 import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
 
@@ -25,30 +41,141 @@ public class ApplicationRunner {
 	 */
 	private static final String CONFIGURATION_FILE_NAME = "/config.json";
 
+	private static final int DEFAULT_HTTP_THREADS = 4;
+	private static final int DEFAULT_MAX_BINARY_CONNECTIONS = 256;
+
+	/**
+	 * The buffer of the dashboard output : a whole frame is written at once
+	 */
+	private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
 	private static Logger LOGGER = LoggerFactory.getLogger(ApplicationRunner.class);
 
 	public static void main(String args[]) throws Exception {
 
 		LOGGER.info("Application started...");
 
-		final ObjectMapper objMapper = new ObjectMapper();
-		final InputStream configResource = ApplicationRunner.class.getResourceAsStream(CONFIGURATION_FILE_NAME);
-		final AppConfig appConfig = objMapper.readValue(configResource, AppConfig.class);
+		final AppConfig appConfig = loadConfig();
 
 		final SpreadCalculatorTask task = new SpreadCalculatorTask(appConfig);
+		startQueryServers(appConfig.getQueryServer(), task);
+		startStrategies(appConfig, task);
+		final AnsiDashboard dashboard = appConfig.getDashboard() != null ? new AnsiDashboard(appConfig.getDashboard(),
+				new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.US_ASCII),
+						OUTPUT_BUFFER_SIZE)) : null;
+		if(dashboard != null) {
+			task.addSnapshotListener(dashboard);
+		}
 		final ExecutorService executor = Executors.newSingleThreadExecutor();
 		final Scheduler scheduler = Schedulers.from(executor);
-		Observable
+
+		// Only one cycle runs at a time : the ticks that arrive meanwhile are
+		// conflated so that the next cycle starts from the latest one
+		Flowable
 			.interval(appConfig.getRefreshInterval(), TimeUnit.MILLISECONDS)
-			.subscribeOn(scheduler)
+			.onBackpressureLatest()
+			.flatMapSingle(tick -> {
+				task.getMetrics().cycleStarted(tick);
+				return task.calculateSpreads();
+			}, false, 1)
 			.observeOn(scheduler)
-			.subscribe(tick -> task.run());
+			.subscribe(dashboard != null ? spreads -> {} : ApplicationRunner::printSpreads,
+					err -> LOGGER.error("Spread calculation stopped", err));
 
-		System.out.println("Program started...\nTo exit, press Ctrl-C");
-		System.in.read();
+		if(dashboard != null) {
+			dashboard.start();
+			readDashboardCommands(dashboard);
+			dashboard.stop();
+		} else {
+			System.out.println("Program started...\nTo exit, press Ctrl-C");
+			System.in.read();
+		}
 
 		LOGGER.info("Application stopped");
 		System.out.println("Program terminated.");
 		System.exit(0);
 	}
+
+	/**
+	 * Prints the spreads of a cycle on the console
+	 */
+	private static void printSpreads(List<SpreadInfo> spreads) {
+		final OutputEvent event = new OutputEvent();
+		event.begin();
+		System.out.println(Utils.formatConsolePrint(spreads));
+		event.end();
+		if(event.shouldCommit()) {
+			event.spreads = spreads.size();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Scrolls the dashboard with the commands typed on the console, until
+	 * 'q' or the end of the input
+	 */
+	private static void readDashboardCommands(AnsiDashboard dashboard) throws IOException {
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII));
+		String command;
+		while ((command = reader.readLine()) != null) {
+			switch (command.trim()) {
+			case "n":
+				dashboard.nextPage();
+				break;
+			case "p":
+				dashboard.previousPage();
+				break;
+			case "t":
+				dashboard.top();
+				break;
+			case "q":
+				return;
+			default:
+				break;
+			}
+			// Clears the echo of the command
+			dashboard.redraw();
+		}
+	}
+
+	/**
+	 * Starts the local query API on the configured ports, serving the latest
+	 * snapshot of the task.
+	 */
+	private static void startQueryServers(QueryServerConfig config, SpreadCalculatorTask task) throws IOException {
+		if(config == null) {
+			return;
+		}
+		if(config.getHttpPort() != null) {
+			new HttpQueryServer(config.getHttpPort(),
+					config.getHttpThreads() != null ? config.getHttpThreads() : DEFAULT_HTTP_THREADS,
+					task::getLatestSnapshot).start();
+		}
+		if(config.getBinaryPort() != null) {
+			new BinaryQueryServer(config.getBinaryPort(),
+					config.getMaxBinaryConnections() != null ? config.getMaxBinaryConnections() : DEFAULT_MAX_BINARY_CONNECTIONS,
+					task::getLatestSnapshot).start();
+		}
+	}
+
+	/**
+	 * Starts the additional strategies, reading the quotes of the connectors
+	 * of the task.
+	 */
+	private static void startStrategies(AppConfig appConfig, SpreadCalculatorTask task) {
+		if(appConfig.getStrategies() == null || appConfig.getStrategies().isEmpty()) {
+			return;
+		}
+		new StrategyEngine(appConfig, new ArrayList<>(task.getExchangeConnectors())).start();
+	}
+
+	/**
+	 * Loads the application configuration from 'config.json'.
+	 */
+	public static AppConfig loadConfig() throws IOException {
+		final ObjectMapper objMapper = new ObjectMapper();
+		try (InputStream configResource = ApplicationRunner.class.getResourceAsStream(CONFIGURATION_FILE_NAME)) {
+			return objMapper.readValue(configResource, AppConfig.class);
+		}
+	}
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package application;
 
 import java.math.BigDecimal;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * POJO for storing the top level bid & ask price for a particular currency-pair
  * for a particular exchange. The prices for bid and ask are adjusted with the
@@ -11,22 +13,71 @@ public class NetTickPrice {
 
 	private final String exchangeId;
 	private final String ccyPair;
+
+	/**
+	 * The prices as decimals, when they were given as decimals (null when they
+	 * were given as doubles)
+	 */
 	private final BigDecimal netAskPrice;
 	private final BigDecimal netBidPrice;
 
+	/**
+	 * The prices as doubles, for the calculations that don't need decimals
+	 */
+	private final double netAskValue;
+	private final double netBidValue;
+
+	/**
+	 * The time the prices were received (epoch milliseconds)
+	 */
+	private final long timestamp;
+
 	public NetTickPrice(String exchangeId, String ccyPair, BigDecimal netAskPrice, BigDecimal netBidPrice) {
+		this(exchangeId, ccyPair, netAskPrice, netBidPrice, System.currentTimeMillis());
+	}
+
+	public NetTickPrice(String exchangeId, String ccyPair, BigDecimal netAskPrice, BigDecimal netBidPrice, long timestamp) {
 		super();
 		this.exchangeId = exchangeId;
 		this.ccyPair = ccyPair;
 		this.netAskPrice = netAskPrice;
 		this.netBidPrice = netBidPrice;
+		this.netAskValue = netAskPrice.doubleValue();
+		this.netBidValue = netBidPrice.doubleValue();
+		this.timestamp = timestamp;
 	}
 
+	public NetTickPrice(String exchangeId, String ccyPair, double netAskPrice, double netBidPrice, long timestamp) {
+		this.exchangeId = exchangeId;
+		this.ccyPair = ccyPair;
+		this.netAskPrice = null;
+		this.netBidPrice = null;
+		this.netAskValue = netAskPrice;
+		this.netBidValue = netBidPrice;
+		this.timestamp = timestamp;
+	}
+
+	/**
+	 * Returns the net ask price as a decimal (converted from the double on
+	 * each call when the prices were given as doubles)
+	 */
 	public BigDecimal getNetAskPrice() {
-		return netAskPrice;
+		return netAskPrice != null ? netAskPrice : BigDecimal.valueOf(netAskValue);
 	}
+	/**
+	 * Returns the net bid price as a decimal (converted from the double on
+	 * each call when the prices were given as doubles)
+	 */
 	public BigDecimal getNetBidPrice() {
-		return netBidPrice;
+		return netBidPrice != null ? netBidPrice : BigDecimal.valueOf(netBidValue);
+	}
+	@JsonIgnore
+	public double getNetAskValue() {
+		return netAskValue;
+	}
+	@JsonIgnore
+	public double getNetBidValue() {
+		return netBidValue;
 	}
 	public String getCcyPair() {
 		return ccyPair;
@@ -34,10 +85,13 @@ public class NetTickPrice {
 	public String getExchangeId() {
 		return exchangeId;
 	}
+	public long getTimestamp() {
+		return timestamp;
+	}
 
 	@Override
 	public String toString() {
-		return "NetTickPrice [exchangeId=" + exchangeId + ", ccyPair=" + ccyPair + ", netAskPrice=" + netAskPrice
-				+ ", netBidPrice=" + netBidPrice + "]";
+		return "NetTickPrice [exchangeId=" + exchangeId + ", ccyPair=" + ccyPair + ", netAskPrice=" + getNetAskPrice()
+				+ ", netBidPrice=" + getNetBidPrice() + ", timestamp=" + timestamp + "]";
 	}
 }
@@ -0,0 +1,14 @@
+package application;
+
+/**
+ * Listener notified each time a spread calculation cycle publishes its
+ * snapshot. It is called on the thread that completed the cycle, so it must
+ * return quickly.
+ */
+public interface SnapshotListener {
+
+	/**
+	 * Called after the given snapshot became the latest one.
+	 */
+	void onSnapshot(SpreadSnapshot snapshot);
+}
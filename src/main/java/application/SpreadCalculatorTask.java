@@ -1,19 +1,40 @@
 package application;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Paths;
+import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import application.configuration.AppConfig;
+import application.diagnostics.FlightRecorderMonitor;
+import application.diagnostics.SortEvent;
+import application.diagnostics.SpreadCycleEvent;
 import application.exchange.BaseExchangeConnector;
-import io.reactivex.Observable;
+import application.exchange.MappedTickStore;
+import application.exchange.QuoteSlots;
+import application.feed.FeedPublisher;
+import application.fx.QuoteNormalizer;
+import application.kernel.BestQuoteBook;
+import application.kernel.ColumnarSpreadKernel;
+import application.opportunity.OpportunityTracker;
+import application.subscription.SpreadPublisher;
+import application.trading.PaperTradingEngine;
+import io.reactivex.Flowable;
+import io.reactivex.Single;
 import io.reactivex.schedulers.Schedulers;
 
 /**
@@ -28,11 +49,17 @@ import io.reactivex.schedulers.Schedulers;
  *
  * 3. All the best spreads for the currencies are zipped and then sorted in
  * descending order. </br>
+ *
+ * The cycles never wait for an exchange : one that hasn't answered since the
+ * last cycle contributes its last-known quote for the currency pair, counted
+ * as stale when older than the maximum quote age.
  */
-public class SpreadCalculatorTask implements Runnable {
+public class SpreadCalculatorTask {
 
 	private static Logger LOGGER = LoggerFactory.getLogger(SpreadCalculatorTask.class);
 
+	private static final int DEFAULT_SUBSCRIPTION_THREADS = 2;
+
 	/**
 	 * Configuration that is stored in 'config.json'
 	 */
@@ -43,40 +70,287 @@ public class SpreadCalculatorTask implements Runnable {
 	 */
 	private final Map<String, BaseExchangeConnector> exchangeConnectors;
 
+	/**
+	 * The base and quote currencies of each configured pair (same order as
+	 * the pairs)
+	 */
+	private final String[] baseCurrencies;
+	private final String[] quoteCurrencies;
+
+	/**
+	 * The maximum age of a quote at the time of the cycle (in milliseconds) :
+	 * the older ones are last-known quotes, counted as stale
+	 */
+	private final long maxQuoteAge;
+
+	/**
+	 * Metrics on the cycle durations and stale quotes
+	 */
+	private final SpreadCycleMetrics metrics;
+
+	/**
+	 * Converts the prices from other quote currencies (null if disabled)
+	 */
+	private final QuoteNormalizer quoteNormalizer;
+
+	/**
+	 * Batch mode : calculates all the spreads at once from the quotes laid out
+	 * in columns (null if disabled)
+	 */
+	private final ColumnarSpreadKernel spreadKernel;
+
+	/**
+	 * The connectors in the column order of the batch mode kernel
+	 */
+	private final List<BaseExchangeConnector> kernelConnectors;
+
+	/**
+	 * Batch mode : the holder the quotes are read into
+	 */
+	private final QuoteSlots.Quote kernelQuote;
+
+	/**
+	 * Keeps the best quotes of each pair as the ticks arrive (null if
+	 * disabled)
+	 */
+	private final BestQuoteBook bestQuoteBook;
+
+	/**
+	 * Best quote tracking : the holder the best quotes are read into
+	 */
+	private final BestQuoteBook.BestQuotes bestQuotes;
+
+	/**
+	 * The result of the latest cycle, swapped atomically at the end of each
+	 * cycle so that the readers never wait for the calculation
+	 */
+	private final AtomicReference<SpreadSnapshot> latestSnapshot;
+
+	/**
+	 * True if the snapshots carry the quotes of each exchange : only the
+	 * query servers, the opportunity tracker and the quote age check of the
+	 * flight recorder read them, and collecting them allocates a quote per
+	 * exchange and pair each cycle
+	 */
+	private final boolean snapshotQuotes;
+
+	/**
+	 * Listeners notified of every published snapshot
+	 */
+	private final List<SnapshotListener> snapshotListeners;
+
+	/**
+	 * Fans the spread updates out to the subscribers (created with the task if
+	 * 'subscriptionThreads' is configured, otherwise on the first call to
+	 * {@link #getPublisher()})
+	 */
+	private volatile SpreadPublisher publisher;
+
+	/**
+	 * Follows the arbitrage opportunities across the cycles (null if disabled)
+	 */
+	private final OpportunityTracker opportunityTracker;
+
+	/**
+	 * Paper trades the spreads of each cycle (null if disabled)
+	 */
+	private final PaperTradingEngine paperTrading;
+
+	/**
+	 * Dumps the continuous flight recording on the latency spikes (null if
+	 * disabled)
+	 */
+	private final FlightRecorderMonitor flightRecorder;
+
+	/**
+	 * Publishes the quotes on the market data feed (null if disabled)
+	 */
+	private final FeedPublisher feedPublisher;
+
+	/**
+	 * Publishes the quotes in shared memory (null if disabled)
+	 */
+	private final MappedTickStore tickStore;
+
 	/**
 	 * Initializes the connectors for each exchange
 	 */
 	public SpreadCalculatorTask(AppConfig appConfig) {
 		this.appConfig = appConfig;
 		this.exchangeConnectors = Utils.createExchangeConnectorInstances(appConfig);
+		final int pairCount = appConfig.getCurrencyPairs().size();
+		this.baseCurrencies = new String[pairCount];
+		this.quoteCurrencies = new String[pairCount];
+		for (int pair = 0; pair < pairCount; pair++) {
+			final String[] splitCurrPair = appConfig.getCurrencyPairs().get(pair).split("-");
+			baseCurrencies[pair] = splitCurrPair[0];
+			quoteCurrencies[pair] = splitCurrPair[1];
+		}
+		this.maxQuoteAge = appConfig.getMaxQuoteAge() != null
+				? appConfig.getMaxQuoteAge() : appConfig.getRefreshInterval();
+		this.metrics = new SpreadCycleMetrics();
+		this.quoteNormalizer = appConfig.getFx() != null ? new QuoteNormalizer(appConfig) : null;
+		if(quoteNormalizer != null) {
+			exchangeConnectors.values().forEach(connector -> connector.addTickListener(quoteNormalizer));
+		}
+		this.kernelConnectors = new ArrayList<>(exchangeConnectors.values());
+		this.spreadKernel = Boolean.TRUE.equals(appConfig.getBatchMode())
+				? new ColumnarSpreadKernel(appConfig.getCurrencyPairs().size(), kernelConnectors.size()) : null;
+		this.kernelQuote = new QuoteSlots.Quote();
+		this.bestQuoteBook = Boolean.TRUE.equals(appConfig.getBestQuoteTracking()) && spreadKernel == null
+				? createBestQuoteBook(appConfig, kernelConnectors) : null;
+		this.bestQuotes = new BestQuoteBook.BestQuotes();
+		this.latestSnapshot = new AtomicReference<>(SpreadSnapshot.EMPTY);
+		this.snapshotQuotes = appConfig.getQueryServer() != null || appConfig.getOpportunity() != null
+				|| (appConfig.getFlightRecorder() != null && appConfig.getFlightRecorder().getQuoteAgeThreshold() != null);
+		this.snapshotListeners = new CopyOnWriteArrayList<>();
+		if(appConfig.getSubscriptionThreads() != null) {
+			getPublisher();
+		}
+		this.opportunityTracker = appConfig.getOpportunity() != null
+				? new OpportunityTracker(appConfig.getCurrencyPairs(), appConfig.getOpportunity()) : null;
+		if(opportunityTracker != null) {
+			addSnapshotListener(opportunityTracker);
+			opportunityTracker.start();
+		}
+		if(appConfig.getPaperTrading() != null) {
+			final Map<String, QuoteSlots> exchangeQuotes = new LinkedHashMap<>();
+			kernelConnectors.forEach(connector -> exchangeQuotes.put(connector.getExchangeId(), connector.getQuoteSlots()));
+			this.paperTrading = new PaperTradingEngine(appConfig.getCurrencyPairs(), exchangeQuotes, appConfig.getPaperTrading());
+		} else {
+			this.paperTrading = null;
+		}
+		this.flightRecorder = appConfig.getFlightRecorder() != null ? createFlightRecorder(appConfig) : null;
+		if(flightRecorder != null) {
+			addSnapshotListener(flightRecorder);
+			flightRecorder.start();
+		}
+		this.feedPublisher = appConfig.getFeed() != null ? createFeedPublisher(appConfig) : null;
+		if(feedPublisher != null) {
+			exchangeConnectors.values().forEach(connector -> connector.addTickListener(feedPublisher));
+			feedPublisher.start();
+		}
+		this.tickStore = appConfig.getTickStore() != null ? createTickStore(appConfig, kernelConnectors) : null;
 	}
 
 	/**
-	 * Calculates the best spread and displays the output every time this method is run.
+	 * Creates the book of the best quotes, updated by the ticks of the
+	 * connectors and filled with the quotes they already have
 	 */
-	@Override
-	public void run() {
+	private static BestQuoteBook createBestQuoteBook(AppConfig appConfig, List<BaseExchangeConnector> connectors) {
+		final List<String> exchangeIds = new ArrayList<>(connectors.size());
+		connectors.forEach(connector -> exchangeIds.add(connector.getExchangeId()));
+		final BestQuoteBook book = new BestQuoteBook(appConfig.getCurrencyPairs(), exchangeIds);
+		for (final BaseExchangeConnector connector : connectors) {
+			connector.addTickListener(book);
+			book.load(connector.getExchangeId(), connector.getQuoteSlots());
+		}
+		return book;
+	}
 
-		final List<Observable<Optional<SpreadInfo>>> currencyPairEvents = new ArrayList<>();
+	/**
+	 * Creates the shared-memory tick store, updated by the ticks of the
+	 * connectors and filled with the quotes they already have
+	 */
+	private static MappedTickStore createTickStore(AppConfig appConfig, List<BaseExchangeConnector> connectors) {
+		final List<String> exchangeIds = new ArrayList<>(connectors.size());
+		connectors.forEach(connector -> exchangeIds.add(connector.getExchangeId()));
+		final MappedTickStore store;
+		try {
+			store = new MappedTickStore(Paths.get(appConfig.getTickStore().getFile()), exchangeIds,
+					appConfig.getCurrencyPairs());
+		} catch (final IOException e) {
+			throw new IllegalArgumentException("Failed to set up the tick store", e);
+		}
+		for (final BaseExchangeConnector connector : connectors) {
+			connector.addTickListener(store);
+			store.load(connector.getExchangeId(), connector.getQuoteSlots());
+		}
+		return store;
+	}
+
+	/**
+	 * Creates the publisher of the market data feed
+	 */
+	private static FeedPublisher createFeedPublisher(AppConfig appConfig) {
+		final Map<String, Double> feeFactors = new HashMap<>();
+		appConfig.getExchanges().forEach(exchange -> feeFactors.put(exchange.getId(), exchange.getFee().doubleValue()));
+		try {
+			return new FeedPublisher(appConfig.getFeed(), feeFactors);
+		} catch (final IOException e) {
+			throw new IllegalArgumentException("Failed to set up the market data feed", e);
+		}
+	}
+
+	/**
+	 * Creates the monitor of the latency spikes
+	 */
+	private static FlightRecorderMonitor createFlightRecorder(AppConfig appConfig) {
+		try {
+			return new FlightRecorderMonitor(appConfig.getCurrencyPairs(), appConfig.getFlightRecorder());
+		} catch (final IOException | ParseException e) {
+			throw new IllegalArgumentException("Failed to set up the flight recording", e);
+		}
+	}
+
+	/**
+	 * Creates one spread calculation cycle. The cycle starts when the returned
+	 * single is subscribed to.
+	 *
+	 * @return the spreads sorted in descending order
+	 */
+	public Single<List<SpreadInfo>> calculateSpreads() {
+
+		if(spreadKernel != null) {
+			return Single.fromCallable(() -> {
+				final long startNanos = System.nanoTime();
+				final SpreadCycleEvent event = new SpreadCycleEvent();
+				event.begin();
+				final List<SpreadInfo> spreads = calculateSpreadsInBatch();
+				publishSnapshot(spreads);
+				cycleCompleted(startNanos, event, spreads);
+				return spreads;
+			});
+		}
+
+		if(bestQuoteBook != null) {
+			return Single.fromCallable(() -> {
+				final long startNanos = System.nanoTime();
+				final SpreadCycleEvent event = new SpreadCycleEvent();
+				event.begin();
+				final List<SpreadInfo> spreads = calculateSpreadsFromBook();
+				publishSnapshot(spreads);
+				cycleCompleted(startNanos, event, spreads);
+				return spreads;
+			});
+		}
+
+		final List<Flowable<Optional<SpreadInfo>>> currencyPairEvents = new ArrayList<>();
 
 		//  Iterate for each currency pair that is configured
-		for(final String currencyPair : appConfig.getCurrencyPairs()) {
+		for(int pair = 0; pair < baseCurrencies.length; pair++) {
 
-			final String[] splitCurrPair = currencyPair.split("-");
-			final String baseCurrency = splitCurrPair[0];
-			final String quoteCurrency = splitCurrPair[1];
+			final String baseCurrency = baseCurrencies[pair];
+			final String quoteCurrency = quoteCurrencies[pair];
 
 			// Event type #1 : Fetch data for the exchange + currency-pair combination
-			final List<Observable<Optional<NetTickPrice>>> exchangeQueryEvents =
+			final List<Flowable<Optional<NetTickPrice>>> exchangeQueryEvents =
 					getEventsForExchangeQuery(baseCurrency, quoteCurrency);
 
+			// The same base currency quoted in other currencies, converted to this one
+			if(quoteNormalizer != null && quoteNormalizer.getTargetCurrency().equals(quoteCurrency)) {
+				for (final NetTickPrice normalizedQuote : quoteNormalizer.getNormalizedQuotes(baseCurrency)) {
+					exchangeQueryEvents.add(Flowable.just(Optional.of(normalizedQuote)));
+				}
+			}
+
 			// Event type #2 : Zips all the above to calculate the best spread for a particular currency.
-			final Observable<Optional<SpreadInfo>> currencyPairEvent = zipExchangeQueriesAndCalcSpread(exchangeQueryEvents);
+			final Flowable<Optional<SpreadInfo>> currencyPairEvent = zipExchangeQueriesAndCalcSpread(exchangeQueryEvents);
 			currencyPairEvents.add(currencyPairEvent);
 		}
 
 		// Event type #3 : After all currency-pair spreads have been calculated, this event sorts them and generates output
-		final Observable<String> zippedCurrencyPairEvents = Observable.zip(
+		final Flowable<List<SpreadInfo>> zippedCurrencyPairEvents = Flowable.zip(
 				currencyPairEvents, (spreadArr) -> {
 					final List<SpreadInfo> sortedInfos = new ArrayList<>(spreadArr.length);
 					for (final Object element : spreadArr) {
@@ -86,26 +360,259 @@ public class SpreadCalculatorTask implements Runnable {
 							sortedInfos.add(opt.get());
 						}
 					}
-					// Descending order sorting
-					sortedInfos.sort((spread1, spread2) ->
-							spread2.getSpreadPercent().compareTo(spread1.getSpreadPercent()));
-					return Utils.formatConsolePrint(sortedInfos);
+					sortDescending(sortedInfos);
+					return sortedInfos;
 		});
 
-		// There is only one output : the sorted array of spreads, this task waits till this result is found
-		final String output = zippedCurrencyPairEvents.blockingFirst();
+		// There is only one output : the sorted array of spreads
+		return Single.defer(() -> {
+			final long startNanos = System.nanoTime();
+			final SpreadCycleEvent event = new SpreadCycleEvent();
+			event.begin();
+			return zippedCurrencyPairEvents.firstOrError()
+					.doOnSuccess(spreads -> {
+						publishSnapshot(spreads);
+						cycleCompleted(startNanos, event, spreads);
+					});
+		});
+	}
+
+	/**
+	 * Records the duration of a completed cycle in the metrics, the flight
+	 * recording and the spike detection.
+	 */
+	private void cycleCompleted(long startNanos, SpreadCycleEvent event, List<SpreadInfo> spreads) {
+		final long durationNanos = System.nanoTime() - startNanos;
+		metrics.cycleCompleted(durationNanos);
+		event.end();
+		if(event.shouldCommit()) {
+			event.spreads = spreads.size();
+			event.batchMode = spreadKernel != null;
+			event.commit();
+		}
+		if(flightRecorder != null) {
+			flightRecorder.cycleCompleted(durationNanos);
+		}
+	}
+
+	/**
+	 * Batch mode : reads the quote slots of all the exchanges into the columns
+	 * of the kernel and calculates the spreads of all the pairs at once.
+	 *
+	 * The quotes converted from other quote currencies are not included in
+	 * this mode.
+	 */
+	private synchronized List<SpreadInfo> calculateSpreadsInBatch() {
+
+		final List<String> currencyPairs = appConfig.getCurrencyPairs();
+		// The quote slots are indexed like the configured currency pairs
+		for (int exchange = 0; exchange < kernelConnectors.size(); exchange++) {
+			final QuoteSlots quoteSlots = kernelConnectors.get(exchange).getQuoteSlots();
+			for (int pair = 0; pair < currencyPairs.size(); pair++) {
+				if(quoteSlots.read(pair, kernelQuote)) {
+					spreadKernel.setQuote(pair, exchange, kernelQuote.getNetAskPrice(), kernelQuote.getNetBidPrice());
+				} else {
+					spreadKernel.clearQuote(pair, exchange);
+				}
+			}
+		}
+
+		spreadKernel.compute();
+
+		final List<SpreadInfo> sortedInfos = new ArrayList<>(currencyPairs.size());
+		for (int pair = 0; pair < currencyPairs.size(); pair++) {
+			if(!spreadKernel.hasSpread(pair)) {
+				continue;
+			}
+			final SpreadInfo spread = new SpreadInfo();
+			spread.setCcyPair(currencyPairs.get(pair));
+			spread.setBestAskPrice(BigDecimal.valueOf(spreadKernel.getBestAskPrice(pair)));
+			spread.setBestAskExchange(kernelConnectors.get(spreadKernel.getBestAskExchange(pair)).getExchangeId());
+			spread.setBestBidPrice(BigDecimal.valueOf(spreadKernel.getBestBidPrice(pair)));
+			spread.setBestBidExchange(kernelConnectors.get(spreadKernel.getBestBidExchange(pair)).getExchangeId());
+			spread.setSpreadPercent(BigDecimal.valueOf(spreadKernel.getSpread(pair)).setScale(4, RoundingMode.HALF_UP));
+			sortedInfos.add(spread);
+		}
+		sortDescending(sortedInfos);
+		return sortedInfos;
+	}
+
+	/**
+	 * Best quote tracking : reads the best quotes that the ticks keep up to
+	 * date for each pair, so the cycle doesn't scan the exchanges.
+	 *
+	 * The quotes converted from other quote currencies are not included in
+	 * this mode.
+	 */
+	private synchronized List<SpreadInfo> calculateSpreadsFromBook() {
+
+		final List<String> currencyPairs = appConfig.getCurrencyPairs();
+		final List<SpreadInfo> sortedInfos = new ArrayList<>(currencyPairs.size());
+		for (int pair = 0; pair < currencyPairs.size(); pair++) {
+			if(!bestQuoteBook.read(pair, bestQuotes)) {
+				continue;
+			}
+			final SpreadInfo spread = new SpreadInfo();
+			spread.setCcyPair(currencyPairs.get(pair));
+			spread.setBestAskPrice(BigDecimal.valueOf(bestQuotes.getBestAskPrice()));
+			spread.setBestAskExchange(bestQuoteBook.getExchangeId(bestQuotes.getBestAskExchange()));
+			spread.setBestBidPrice(BigDecimal.valueOf(bestQuotes.getBestBidPrice()));
+			spread.setBestBidExchange(bestQuoteBook.getExchangeId(bestQuotes.getBestBidExchange()));
+			spread.setSpreadPercent(BigDecimal.valueOf(bestQuotes.getSpread()).setScale(4, RoundingMode.HALF_UP));
+			sortedInfos.add(spread);
+		}
+		sortDescending(sortedInfos);
+		return sortedInfos;
+	}
+
+	/**
+	 * Publishes the spreads of a completed cycle as the latest snapshot, with
+	 * the current quotes of each exchange if a component reads them. The
+	 * paper-trading orders are sent first, on this thread.
+	 */
+	private void publishSnapshot(List<SpreadInfo> spreads) {
+		if(paperTrading != null) {
+			paperTrading.onSpreads(spreads, System.nanoTime());
+		}
+
+		final Map<String, List<NetTickPrice>> quotes = snapshotQuotes ? collectQuotes() : Collections.emptyMap();
+		final long timestamp = System.currentTimeMillis();
+		SpreadSnapshot previous;
+		SpreadSnapshot next;
+		do {
+			previous = latestSnapshot.get();
+			next = new SpreadSnapshot(previous.getVersion() + 1, timestamp, spreads, quotes);
+		} while (!latestSnapshot.compareAndSet(previous, next));
+
+		for (final SnapshotListener listener : snapshotListeners) {
+			listener.onSnapshot(next);
+		}
+	}
+
+	/**
+	 * Returns the current quotes of each exchange by currency pair, the
+	 * converted ones included
+	 */
+	private Map<String, List<NetTickPrice>> collectQuotes() {
+		final List<String> currencyPairs = appConfig.getCurrencyPairs();
+		final Map<String, List<NetTickPrice>> quotes = new HashMap<>(currencyPairs.size() * 4 / 3 + 1);
+		for (int pair = 0; pair < currencyPairs.size(); pair++) {
+			final String currencyPair = currencyPairs.get(pair);
+			final List<NetTickPrice> pairQuotes = new ArrayList<>(kernelConnectors.size());
+			for (final BaseExchangeConnector connector : kernelConnectors) {
+				final NetTickPrice tickPrice = connector.getLatestTick(currencyPair);
+				if(tickPrice != null) {
+					pairQuotes.add(tickPrice);
+				}
+			}
+			if(quoteNormalizer != null && quoteNormalizer.getTargetCurrency().equals(quoteCurrencies[pair])) {
+				pairQuotes.addAll(quoteNormalizer.getNormalizedQuotes(baseCurrencies[pair]));
+			}
+			quotes.put(currencyPair, Collections.unmodifiableList(pairQuotes));
+		}
+		return quotes;
+	}
+
+	/**
+	 * Adds a listener notified of every published snapshot
+	 */
+	public void addSnapshotListener(SnapshotListener listener) {
+		snapshotListeners.add(listener);
+	}
+
+	/**
+	 * Returns the publisher to subscribe to the spread updates of some pairs.
+	 * It is created on the first call, so the spreads are only fanned out
+	 * once there can be subscribers.
+	 */
+	public SpreadPublisher getPublisher() {
+		SpreadPublisher current = publisher;
+		if(current == null) {
+			synchronized (this) {
+				current = publisher;
+				if(current == null) {
+					current = new SpreadPublisher(appConfig.getCurrencyPairs(), appConfig.getSubscriptionThreads() != null
+							? appConfig.getSubscriptionThreads() : DEFAULT_SUBSCRIPTION_THREADS);
+					// The spreads of the latest cycle, for the first subscribers
+					final SpreadSnapshot snapshot = latestSnapshot.get();
+					if(snapshot.getVersion() > 0) {
+						current.onSnapshot(snapshot);
+					}
+					addSnapshotListener(current);
+					publisher = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Returns the result of the latest completed cycle
+	 * ({@link SpreadSnapshot#EMPTY} until the first one completes)
+	 */
+	public SpreadSnapshot getLatestSnapshot() {
+		return latestSnapshot.get();
+	}
 
-		System.out.println(output);
+	/**
+	 * Returns the tracker of the arbitrage opportunities (null if disabled)
+	 */
+	public OpportunityTracker getOpportunityTracker() {
+		return opportunityTracker;
+	}
+
+	/**
+	 * Returns the paper-trading engine (null if disabled)
+	 */
+	public PaperTradingEngine getPaperTrading() {
+		return paperTrading;
+	}
+
+	/**
+	 * Returns the book of the best quotes, with the second best exchanges of
+	 * each pair (null if disabled)
+	 */
+	public BestQuoteBook getBestQuoteBook() {
+		return bestQuoteBook;
+	}
+
+	/**
+	 * Returns the connectors of the exchanges
+	 */
+	public Collection<BaseExchangeConnector> getExchangeConnectors() {
+		return Collections.unmodifiableCollection(exchangeConnectors.values());
+	}
+
+	/**
+	 * Sorts the spreads in descending order
+	 */
+	private static void sortDescending(List<SpreadInfo> spreads) {
+		final SortEvent event = new SortEvent();
+		event.begin();
+		spreads.sort((spread1, spread2) ->
+				spread2.getSpreadPercent().compareTo(spread1.getSpreadPercent()));
+		event.end();
+		if(event.shouldCommit()) {
+			event.spreads = spreads.size();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns the metrics on the cycle durations and stale quotes
+	 */
+	public SpreadCycleMetrics getMetrics() {
+		return metrics;
 	}
 
 	/**
 	 * Zips all the exchange+currency-pair combinations to calculate the best
 	 * spread for a particular currency.
 	 */
-	private Observable<Optional<SpreadInfo>> zipExchangeQueriesAndCalcSpread(
-			List<Observable<Optional<NetTickPrice>>> exchObservables) {
+	private Flowable<Optional<SpreadInfo>> zipExchangeQueriesAndCalcSpread(
+			List<Flowable<Optional<NetTickPrice>>> exchObservables) {
 
-		final Observable<Optional<SpreadInfo>> spreadForCcyPair = Observable
+		final Flowable<Optional<SpreadInfo>> spreadForCcyPair = Flowable
 			.zip(exchObservables, (obsArr) -> {
 
 				// calculate spread for each currency pair
@@ -156,17 +663,24 @@ public class SpreadCalculatorTask implements Runnable {
 	}
 
 	/**
-	 * Fetches data for the exchange + currency-pair combination
+	 * Fetches data for the exchange + currency-pair combination. The quotes
+	 * are read from the cache of the connectors, so an exchange that hasn't
+	 * answered recently gives its last-known quote, counted as stale when
+	 * older than the maximum quote age.
 	 */
-	private List<Observable<Optional<NetTickPrice>>> getEventsForExchangeQuery(
+	private List<Flowable<Optional<NetTickPrice>>> getEventsForExchangeQuery(
 			final String baseCurrency, final String quoteCurrency) {
 
-		final List<Observable<Optional<NetTickPrice>>> exchObservables = new ArrayList<>(appConfig.getExchanges().size());
-		for (final Entry<String, BaseExchangeConnector> connectorEntry : exchangeConnectors.entrySet()) {
-			final BaseExchangeConnector connector = connectorEntry.getValue();
-			final Observable<Optional<NetTickPrice>> exchObservable =
+		final List<Flowable<Optional<NetTickPrice>>> exchObservables = new ArrayList<>(appConfig.getExchanges().size());
+		for (final BaseExchangeConnector connector : exchangeConnectors.values()) {
+			final Flowable<Optional<NetTickPrice>> exchObservable =
 					connector.getTickInfo(baseCurrency, quoteCurrency)
 						.subscribeOn(Schedulers.computation())
+						.doOnNext(tickInfo -> {
+							if(tickInfo.isPresent()) {
+								checkQuoteAge(tickInfo.get());
+							}
+						})
 						.observeOn(Schedulers.computation())
 						.onErrorReturn( (t) -> {
 							LOGGER.warn("Failed to get tick info", t);
@@ -176,4 +690,18 @@ public class SpreadCalculatorTask implements Runnable {
 		}
 		return exchObservables;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Counts a quote older than the maximum quote age as stale
+	 */
+	private void checkQuoteAge(NetTickPrice tickPrice) {
+		final long age = System.currentTimeMillis() - tickPrice.getTimestamp();
+		if(age > maxQuoteAge) {
+			metrics.staleQuote();
+			if(LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Stale quote, using the last-known quote (" + age + " ms old) for : "
+						+ tickPrice.getExchangeId() + "/" + tickPrice.getCcyPair());
+			}
+		}
+	}
+}
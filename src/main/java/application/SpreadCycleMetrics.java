@@ -0,0 +1,112 @@
+package application;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Metrics for the spread calculation cycles : cycle durations, stale quotes
+ * and the cycles that were conflated because the previous one was still
+ * running. A summary is logged at regular intervals.
+ */
+public class SpreadCycleMetrics {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(SpreadCycleMetrics.class);
+
+	/**
+	 * The interval at which the summary is logged
+	 */
+	private static final long REPORT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	/**
+	 * Cycle durations (in microseconds)
+	 */
+	private final Recorder cycleDurations;
+
+	private final LongAdder completedCycles;
+	private final LongAdder conflatedCycles;
+	private final LongAdder staleQuotes;
+
+	/**
+	 * The last interval tick that started a cycle
+	 */
+	private volatile long lastTick;
+
+	/**
+	 * The time when the summary was last logged
+	 */
+	private volatile long lastReportNanos;
+
+	public SpreadCycleMetrics() {
+		this.cycleDurations = new Recorder(3);
+		this.completedCycles = new LongAdder();
+		this.conflatedCycles = new LongAdder();
+		this.staleQuotes = new LongAdder();
+		this.lastTick = -1;
+		this.lastReportNanos = System.nanoTime();
+	}
+
+	/**
+	 * Records the start of a cycle for the given interval tick. The ticks that
+	 * were skipped since the previous cycle are counted as conflated.
+	 */
+	public void cycleStarted(long tick) {
+		if(lastTick >= 0 && tick > lastTick + 1) {
+			conflatedCycles.add(tick - lastTick - 1);
+		}
+		lastTick = tick;
+	}
+
+	/**
+	 * Records a quote older than the maximum quote age (its exchange hasn't
+	 * answered since).
+	 */
+	public void staleQuote() {
+		staleQuotes.increment();
+	}
+
+	/**
+	 * Records the completion of a cycle and logs the summary if it is due.
+	 */
+	public void cycleCompleted(long durationNanos) {
+		cycleDurations.recordValue(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+		completedCycles.increment();
+
+		final long now = System.nanoTime();
+		if(now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+			lastReportNanos = now;
+			logSummary();
+		}
+	}
+
+	public long getCompletedCycles() {
+		return completedCycles.sum();
+	}
+
+	public long getConflatedCycles() {
+		return conflatedCycles.sum();
+	}
+
+	public long getStaleQuotes() {
+		return staleQuotes.sum();
+	}
+
+	/**
+	 * Logs the totals and the cycle duration percentiles since the previous
+	 * summary.
+	 */
+	private void logSummary() {
+		final Histogram interval = cycleDurations.getIntervalHistogram();
+		LOGGER.info(String.format(
+				"Spread cycles : %d completed, %d conflated, %d stale quotes ; "
+				+ "duration (ms) p50 %.3f p99 %.3f max %.3f",
+				getCompletedCycles(), getConflatedCycles(), getStaleQuotes(),
+				interval.getValueAtPercentile(50) / 1000.0,
+				interval.getValueAtPercentile(99) / 1000.0,
+				interval.getMaxValue() / 1000.0));
+	}
+}
@@ -0,0 +1,78 @@
+package application;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of one spread calculation cycle : the ranked spreads and the
+ * quotes of each exchange for every currency pair (only when a configured
+ * component reads them : the query servers, the opportunity tracker or the
+ * quote age check of the flight recorder).
+ *
+ * A snapshot is never modified once published, so any number of readers can
+ * use it without locking while the next cycle runs. Each published snapshot
+ * has a version one higher than the previous one.
+ */
+public class SpreadSnapshot {
+
+	/**
+	 * The snapshot before the first cycle completes
+	 */
+	public static final SpreadSnapshot EMPTY = new SpreadSnapshot(0, 0,
+			Collections.emptyList(), Collections.emptyMap());
+
+	private final long version;
+
+	/**
+	 * The time the snapshot was published (epoch milliseconds)
+	 */
+	private final long timestamp;
+
+	/**
+	 * The spreads sorted in descending order
+	 */
+	private final List<SpreadInfo> spreads;
+
+	/**
+	 * The quotes of each exchange by currency pair
+	 */
+	private final Map<String, List<NetTickPrice>> quotes;
+
+	public SpreadSnapshot(long version, long timestamp, List<SpreadInfo> spreads, Map<String, List<NetTickPrice>> quotes) {
+		this.version = version;
+		this.timestamp = timestamp;
+		this.spreads = Collections.unmodifiableList(spreads);
+		this.quotes = Collections.unmodifiableMap(quotes);
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Returns all the spreads sorted in descending order
+	 */
+	public List<SpreadInfo> getSpreads() {
+		return spreads;
+	}
+
+	/**
+	 * Returns the N highest spreads (all of them if N is zero or negative)
+	 */
+	public List<SpreadInfo> getTopSpreads(int count) {
+		return count <= 0 || count >= spreads.size() ? spreads : spreads.subList(0, count);
+	}
+
+	/**
+	 * Returns the quotes of each exchange for the currency pair, or null if
+	 * the pair isn't configured or the snapshot carries no quotes
+	 */
+	public List<NetTickPrice> getQuotes(String ccyPair) {
+		return quotes.get(ccyPair);
+	}
+}
@@ -0,0 +1,59 @@
+package application;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import application.configuration.AppConfig;
+
+/**
+ * Measures the startup of the application : the JVM uptime when the
+ * configuration is parsed, when the connectors are initialized and when the
+ * first ranked spread is available. The spreads are calculated every few
+ * milliseconds until the first non-empty ranking is found, then the program
+ * exits.
+ *
+ * Run it against the local simulator (see 'baseUrl') to compare the results
+ * across releases. It is also the training run of the 'appcds-dump' profile.
+ */
+public class StartupBenchmark {
+
+	/**
+	 * The interval between two attempts at calculating the spreads
+	 */
+	private static final long POLL_INTERVAL_MILLIS = 10;
+
+	/**
+	 * The benchmark gives up after this time
+	 */
+	private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	public static void main(String args[]) throws Exception {
+
+		final RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+
+		final AppConfig appConfig = ApplicationRunner.loadConfig();
+		final long configLoadedMillis = runtime.getUptime();
+
+		final SpreadCalculatorTask task = new SpreadCalculatorTask(appConfig);
+		final long connectorsReadyMillis = runtime.getUptime();
+
+		List<SpreadInfo> spreads = task.calculateSpreads().blockingGet();
+		while (spreads.isEmpty() && runtime.getUptime() < TIMEOUT_MILLIS) {
+			TimeUnit.MILLISECONDS.sleep(POLL_INTERVAL_MILLIS);
+			spreads = task.calculateSpreads().blockingGet();
+		}
+		final long firstSpreadMillis = runtime.getUptime();
+
+		System.out.println("Startup (JVM uptime in ms) :");
+		System.out.println(String.format("  Configuration loaded   : %6d", configLoadedMillis));
+		System.out.println(String.format("  Connectors initialized : %6d", connectorsReadyMillis));
+		if(spreads.isEmpty()) {
+			System.out.println(String.format("  No ranked spread after : %6d", firstSpreadMillis));
+			System.exit(1);
+		}
+		System.out.println(String.format("  First ranked spread    : %6d", firstSpreadMillis));
+		System.exit(0);
+	}
+}
@@ -3,19 +3,29 @@ package application;
 import java.lang.reflect.Constructor;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.collect.Maps;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import application.configuration.AppConfig;
 import application.configuration.ExchangeConfig;
 import application.exchange.BaseExchangeConnector;
+import application.exchange.ExchangeBulkhead;
+import application.exchange.SharedIOExecutor;
+import application.exchange.feed.FeedConnector;
+import application.exchange.rest.RestConnector;
 import io.reactivex.Scheduler;
 import io.reactivex.schedulers.Schedulers;
 
@@ -31,38 +41,72 @@ public class Utils {
 
 	/**
 	 * Dynamically creates connector instances from the class names given in 'config.json'.
+	 *
+	 * All the connectors share one I/O pool, each one through its own
+	 * bulkhead limiting the requests running concurrently for the exchange.
+	 * The connectors are initialized in parallel (including the pre-warming
+	 * of their connections).
 	 */
+	@SuppressWarnings("deprecation")
 	public static Map<String, BaseExchangeConnector> createExchangeConnectorInstances(AppConfig appConfig) {
 
-		final Map<String, Integer> threadPoolConfigs = appConfig.getThreadPools();
-		final Map<String, Scheduler> schedulers = Maps.newHashMapWithExpectedSize(threadPoolConfigs.keySet().size());
+		final SharedIOExecutor ioExecutor = new SharedIOExecutor(appConfig.getIoPool());
+		final Map<String, Integer> threadPoolConfigs = appConfig.getThreadPools() != null
+				? appConfig.getThreadPools() : ImmutableMap.of();
 
-		threadPoolConfigs.forEach((poolId, poolSize) -> {
-			final ExecutorService executor = Executors.newFixedThreadPool(poolSize);
-			final Scheduler scheduler = Schedulers.from(executor);
-			schedulers.put(poolId, scheduler);
-		});
+		final List<ExchangeConfig> exchangeConfigs = appConfig.getExchanges();
+		final ExecutorService initExecutor = Executors.newFixedThreadPool(Math.max(1, exchangeConfigs.size()),
+				new ThreadFactoryBuilder().setNameFormat("connector-init-%d").setDaemon(true).build());
+		try {
+			final Map<String, CompletableFuture<BaseExchangeConnector>> pendingConnectors =
+					new LinkedHashMap<>(exchangeConfigs.size());
+			for (final ExchangeConfig exchangeConfig : exchangeConfigs) {
+				final Integer maxConcurrency = exchangeConfig.getMaxConcurrency() != null
+						? exchangeConfig.getMaxConcurrency()
+						: threadPoolConfigs.getOrDefault(exchangeConfig.getThreadPool(), 1);
+				final Scheduler scheduler = Schedulers.from(new ExchangeBulkhead(ioExecutor, maxConcurrency));
+				pendingConnectors.put(exchangeConfig.getId(), CompletableFuture.supplyAsync(
+						() -> createExchangeConnectorInstance(appConfig, exchangeConfig, scheduler), initExecutor));
+			}
 
-		final Map<String, BaseExchangeConnector> connectors = new HashMap<>(appConfig.getExchanges().size());
-		for (final ExchangeConfig exchangeConfig : appConfig.getExchanges()) {
-			final String id = exchangeConfig.getId();
-			final String poolId = exchangeConfig.getThreadPool();
-			final Scheduler scheduler = schedulers.get(poolId);
-			final String connectorClass = exchangeConfig.getConnectorClass();
-			try {
-				@SuppressWarnings("unchecked")
-				final Constructor<BaseExchangeConnector> constructor = (Constructor<BaseExchangeConnector>) Class
-						.forName(connectorClass).getConstructor(AppConfig.class, ExchangeConfig.class, Scheduler.class);
-				final BaseExchangeConnector connector = constructor.newInstance(appConfig, exchangeConfig, scheduler);
-				connectors.put(id, connector);
-				LOGGER.info("Initialized connector : " + connectorClass);
-			} catch (ReflectiveOperationException | SecurityException | IllegalArgumentException e) {
-				final String errorMsg = "Failed to initialize exchange connector : " + connectorClass;
-				LOGGER.error(errorMsg, e);
-				throw new IllegalArgumentException(errorMsg, e);
+			final Map<String, BaseExchangeConnector> connectors = new HashMap<>(exchangeConfigs.size());
+			for (final Entry<String, CompletableFuture<BaseExchangeConnector>> entry : pendingConnectors.entrySet()) {
+				try {
+					connectors.put(entry.getKey(), entry.getValue().join());
+				} catch (final CompletionException e) {
+					Throwables.throwIfUnchecked(e.getCause());
+					throw e;
+				}
 			}
+			return connectors;
+		} finally {
+			initExecutor.shutdown();
+		}
+	}
+
+	/**
+	 * Creates the connector instance for one exchange.
+	 */
+	private static BaseExchangeConnector createExchangeConnectorInstance(AppConfig appConfig,
+			ExchangeConfig exchangeConfig, Scheduler scheduler) {
+		String connectorClass = exchangeConfig.getConnectorClass();
+		if(connectorClass == null && exchangeConfig.getRest() != null) {
+			connectorClass = RestConnector.class.getName();
+		} else if(connectorClass == null && exchangeConfig.getFeed() != null) {
+			connectorClass = FeedConnector.class.getName();
+		}
+		try {
+			@SuppressWarnings("unchecked")
+			final Constructor<BaseExchangeConnector> constructor = (Constructor<BaseExchangeConnector>) Class
+					.forName(connectorClass).getConstructor(AppConfig.class, ExchangeConfig.class, Scheduler.class);
+			final BaseExchangeConnector connector = constructor.newInstance(appConfig, exchangeConfig, scheduler);
+			LOGGER.info("Initialized connector : " + connectorClass);
+			return connector;
+		} catch (ReflectiveOperationException | SecurityException | IllegalArgumentException e) {
+			final String errorMsg = "Failed to initialize exchange connector : " + connectorClass;
+			LOGGER.error(errorMsg, e);
+			throw new IllegalArgumentException(errorMsg, e);
 		}
-		return connectors;
 	}
 
 	/**
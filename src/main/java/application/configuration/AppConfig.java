@@ -20,14 +20,113 @@ public class AppConfig {
 
 	/**
 	 * The thread pool configurations (key is pool ID and value is pool size)
+	 *
+	 * @deprecated the exchanges share one I/O pool (see 'ioPool'), the pool
+	 *             size is only used as the concurrency limit of the exchanges
+	 *             that don't set 'maxConcurrency'
 	 */
+	@Deprecated
 	private Map<String, Integer> threadPools;
 
+	/**
+	 * Calculates the spreads of all the pairs at once from the quote slots
+	 * (columnar batch kernel) instead of one event per pair and exchange
+	 */
+	private Boolean batchMode;
+
+	/**
+	 * Keeps the best quotes of each pair across the exchanges as the ticks
+	 * arrive (a tournament tree per pair), instead of scanning the exchanges
+	 * at each cycle (ignored in batch mode)
+	 */
+	private Boolean bestQuoteTracking;
+
+	/**
+	 * The I/O thread pool shared by all the exchanges
+	 */
+	private IOPoolConfig ioPool;
+
+	/**
+	 * The number of threads delivering the spread updates to the subscribers
+	 */
+	private Integer subscriptionThreads;
+
+	/**
+	 * The tracking of the arbitrage opportunities (disabled if absent)
+	 */
+	private OpportunityConfig opportunity;
+
+	/**
+	 * The paper trading of the spreads against a local mock exchange (disabled
+	 * if absent)
+	 */
+	private PaperTradingConfig paperTrading;
+
+	/**
+	 * The flight recording of the latency spikes (disabled if absent)
+	 */
+	private FlightRecorderConfig flightRecorder;
+
+	/**
+	 * Publishes the quotes of the exchanges on the binary market data feed
+	 * (disabled if absent)
+	 */
+	private MarketDataFeedConfig feed;
+
+	/**
+	 * Publishes the latest quotes in a memory-mapped file for the other local
+	 * processes (disabled if absent)
+	 */
+	private TickStoreConfig tickStore;
+
+	/**
+	 * Decodes the responses on separate threads, so that the I/O threads only
+	 * read them (disabled if absent)
+	 */
+	private DecodeStageConfig decodeStage;
+
+	/**
+	 * Additional spread rankings calculated from the same quotes, each with
+	 * its own fees, pairs, thresholds and output (none if absent)
+	 */
+	private List<StrategyConfig> strategies;
+
+	/**
+	 * The number of threads calculating the strategies (defaults to the
+	 * number of strategies, at most the number of processors)
+	 */
+	private Integer strategyThreads;
+
+	/**
+	 * Shows the spreads on a terminal dashboard redrawing only the cells that
+	 * changed, instead of printing the whole table at each cycle (disabled if
+	 * absent)
+	 */
+	private DashboardConfig dashboard;
+
+	/**
+	 * The local query API serving the latest spreads (disabled if absent)
+	 */
+	private QueryServerConfig queryServer;
+
+	/**
+	 * Conversion of the prices to a common quote currency (disabled if absent)
+	 */
+	private FxConfig fx;
+
 	/**
 	 * Output display rate (in seconds)
 	 */
 	private Long refreshInterval;
 
+	/**
+	 * The maximum age of a quote at the time of a spread cycle (in
+	 * milliseconds, defaults to the refresh interval) : an older quote is
+	 * still used as the last-known quote of its exchange, but counted as
+	 * stale.
+	 */
+	private Long maxQuoteAge;
+
 	public List<String> getCurrencyPairs() {
 		return currencyPairs;
 	}
@@ -46,10 +145,108 @@ public class AppConfig {
 	public void setRefreshInterval(Long refreshInterval) {
 		this.refreshInterval = refreshInterval;
 	}
+	public Long getMaxQuoteAge() {
+		return maxQuoteAge;
+	}
+	public void setMaxQuoteAge(Long maxQuoteAge) {
+		this.maxQuoteAge = maxQuoteAge;
+	}
+	@Deprecated
 	public Map<String, Integer> getThreadPools() {
 		return threadPools;
 	}
+	@Deprecated
 	public void setThreadPools(Map<String, Integer> threadPools) {
 		this.threadPools = threadPools;
 	}
-}
\ No newline at end of file
+	public IOPoolConfig getIoPool() {
+		return ioPool;
+	}
+	public void setIoPool(IOPoolConfig ioPool) {
+		this.ioPool = ioPool;
+	}
+	public FxConfig getFx() {
+		return fx;
+	}
+	public void setFx(FxConfig fx) {
+		this.fx = fx;
+	}
+	public Boolean getBatchMode() {
+		return batchMode;
+	}
+	public void setBatchMode(Boolean batchMode) {
+		this.batchMode = batchMode;
+	}
+	public QueryServerConfig getQueryServer() {
+		return queryServer;
+	}
+	public void setQueryServer(QueryServerConfig queryServer) {
+		this.queryServer = queryServer;
+	}
+	public Integer getSubscriptionThreads() {
+		return subscriptionThreads;
+	}
+	public void setSubscriptionThreads(Integer subscriptionThreads) {
+		this.subscriptionThreads = subscriptionThreads;
+	}
+	public OpportunityConfig getOpportunity() {
+		return opportunity;
+	}
+	public void setOpportunity(OpportunityConfig opportunity) {
+		this.opportunity = opportunity;
+	}
+	public PaperTradingConfig getPaperTrading() {
+		return paperTrading;
+	}
+	public void setPaperTrading(PaperTradingConfig paperTrading) {
+		this.paperTrading = paperTrading;
+	}
+	public FlightRecorderConfig getFlightRecorder() {
+		return flightRecorder;
+	}
+	public void setFlightRecorder(FlightRecorderConfig flightRecorder) {
+		this.flightRecorder = flightRecorder;
+	}
+	public MarketDataFeedConfig getFeed() {
+		return feed;
+	}
+	public void setFeed(MarketDataFeedConfig feed) {
+		this.feed = feed;
+	}
+	public DecodeStageConfig getDecodeStage() {
+		return decodeStage;
+	}
+	public void setDecodeStage(DecodeStageConfig decodeStage) {
+		this.decodeStage = decodeStage;
+	}
+	public List<StrategyConfig> getStrategies() {
+		return strategies;
+	}
+	public void setStrategies(List<StrategyConfig> strategies) {
+		this.strategies = strategies;
+	}
+	public Integer getStrategyThreads() {
+		return strategyThreads;
+	}
+	public void setStrategyThreads(Integer strategyThreads) {
+		this.strategyThreads = strategyThreads;
+	}
+	public Boolean getBestQuoteTracking() {
+		return bestQuoteTracking;
+	}
+	public void setBestQuoteTracking(Boolean bestQuoteTracking) {
+		this.bestQuoteTracking = bestQuoteTracking;
+	}
+	public TickStoreConfig getTickStore() {
+		return tickStore;
+	}
+	public void setTickStore(TickStoreConfig tickStore) {
+		this.tickStore = tickStore;
+	}
+	public DashboardConfig getDashboard() {
+		return dashboard;
+	}
+	public void setDashboard(DashboardConfig dashboard) {
+		this.dashboard = dashboard;
+	}
+}
@@ -0,0 +1,43 @@
+package application.configuration;
+
+/**
+ * Configuration for the circuit breaker of an exchange.
+ */
+public class CircuitBreakerConfig {
+
+	/**
+	 * The number of consecutive failed requests that opens the circuit
+	 */
+	private Integer failureThreshold;
+
+	/**
+	 * The time the circuit stays open before a probe request is allowed (in
+	 * milliseconds)
+	 */
+	private Long openDuration;
+
+	/**
+	 * The time after which a request refused while the probe request is in
+	 * flight is retried (in milliseconds, 500 by default)
+	 */
+	private Long probeRetryInterval;
+
+	public Integer getFailureThreshold() {
+		return failureThreshold;
+	}
+	public void setFailureThreshold(Integer failureThreshold) {
+		this.failureThreshold = failureThreshold;
+	}
+	public Long getOpenDuration() {
+		return openDuration;
+	}
+	public void setOpenDuration(Long openDuration) {
+		this.openDuration = openDuration;
+	}
+	public Long getProbeRetryInterval() {
+		return probeRetryInterval;
+	}
+	public void setProbeRetryInterval(Long probeRetryInterval) {
+		this.probeRetryInterval = probeRetryInterval;
+	}
+}
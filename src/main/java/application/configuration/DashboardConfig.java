@@ -0,0 +1,31 @@
+package application.configuration;
+
+/**
+ * Configuration for the terminal dashboard, which replaces the console
+ * output of the spreads.
+ */
+public class DashboardConfig {
+
+	/**
+	 * The number of spreads shown at once (40 by default)
+	 */
+	private Integer rows;
+
+	/**
+	 * The minimum time between two frames (in milliseconds, 100 by default)
+	 */
+	private Long frameInterval;
+
+	public Integer getRows() {
+		return rows;
+	}
+	public void setRows(Integer rows) {
+		this.rows = rows;
+	}
+	public Long getFrameInterval() {
+		return frameInterval;
+	}
+	public void setFrameInterval(Long frameInterval) {
+		this.frameInterval = frameInterval;
+	}
+}
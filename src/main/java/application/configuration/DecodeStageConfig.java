@@ -0,0 +1,44 @@
+package application.configuration;
+
+/**
+ * Configuration for the decode stage : the threads decoding the responses
+ * read by the I/O threads.
+ */
+public class DecodeStageConfig {
+
+	/**
+	 * The number of decoding threads (the number of processors by default)
+	 */
+	private Integer threads;
+
+	/**
+	 * The maximum number of responses waiting to be decoded, shared between
+	 * the queues of the decoding threads : the I/O threads wait when the
+	 * queue of a thread is full
+	 */
+	private Integer queueCapacity;
+
+	/**
+	 * The maximum number of responses a decoding thread takes at once
+	 */
+	private Integer maxBatch;
+
+	public Integer getThreads() {
+		return threads;
+	}
+	public void setThreads(Integer threads) {
+		this.threads = threads;
+	}
+	public Integer getQueueCapacity() {
+		return queueCapacity;
+	}
+	public void setQueueCapacity(Integer queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+	public Integer getMaxBatch() {
+		return maxBatch;
+	}
+	public void setMaxBatch(Integer maxBatch) {
+		this.maxBatch = maxBatch;
+	}
+}
@@ -19,19 +19,74 @@ public class ExchangeConfig {
 
 	/**
 	 * The fully qualified class name corresponding to the exchange connector
+	 * (defaults to the generic REST connector if 'rest' is configured, or to
+	 * the market data feed subscriber if 'feed' is configured)
 	 */
 	private String connectorClass;
 
+	/**
+	 * The configuration of the generic REST connector
+	 */
+	private RestConnectorConfig rest;
+
+	/**
+	 * The market data feed the quotes are received from, instead of polling
+	 * the exchange
+	 */
+	private MarketDataFeedConfig feed;
+
 	/**
 	 * The thread pool identifier that will be used for this exchange pollling
+	 *
+	 * @deprecated replaced by 'maxConcurrency' on the shared I/O pool
 	 */
+	@Deprecated
 	private String threadPool;
 
+	/**
+	 * The maximum number of requests to this exchange running concurrently on
+	 * the shared I/O pool
+	 */
+	private Integer maxConcurrency;
+
 	/**
 	 * The polling limit of the exchange (requests per second)
 	 */
 	private Double pollingLimit;
 
+	/**
+	 * Overrides the base URL of the exchange API (e.g. to point at a local simulator)
+	 */
+	private String baseUrl;
+
+	/**
+	 * The timeout for establishing a connection (in milliseconds)
+	 */
+	private Long connectTimeout;
+
+	/**
+	 * The timeout for reading a response (in milliseconds)
+	 */
+	private Long readTimeout;
+
+	/**
+	 * The latency percentile (0 to 100) of an endpoint after which a second
+	 * (hedge) request is sent, if the polling limit allows it. Hedging is
+	 * disabled if absent.
+	 */
+	private Double hedgePercentile;
+
+	/**
+	 * The maximum size of a response body, as received and decompressed (in
+	 * bytes, 16 MB by default) : a larger response is rejected
+	 */
+	private Integer maxBodySize;
+
+	/**
+	 * The circuit breaker for the requests to this exchange
+	 */
+	private CircuitBreakerConfig circuitBreaker;
+
 	public String getId() {
 		return id;
 	}
@@ -56,10 +111,66 @@ public class ExchangeConfig {
 	public void setPollingLimit(Double pollingLimit) {
 		this.pollingLimit = pollingLimit;
 	}
+	@Deprecated
 	public String getThreadPool() {
 		return threadPool;
 	}
+	@Deprecated
 	public void setThreadPool(String threadPool) {
 		this.threadPool = threadPool;
 	}
+	public Integer getMaxConcurrency() {
+		return maxConcurrency;
+	}
+	public void setMaxConcurrency(Integer maxConcurrency) {
+		this.maxConcurrency = maxConcurrency;
+	}
+	public String getBaseUrl() {
+		return baseUrl;
+	}
+	public void setBaseUrl(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+	public Long getConnectTimeout() {
+		return connectTimeout;
+	}
+	public void setConnectTimeout(Long connectTimeout) {
+		this.connectTimeout = connectTimeout;
+	}
+	public Long getReadTimeout() {
+		return readTimeout;
+	}
+	public void setReadTimeout(Long readTimeout) {
+		this.readTimeout = readTimeout;
+	}
+	public Double getHedgePercentile() {
+		return hedgePercentile;
+	}
+	public void setHedgePercentile(Double hedgePercentile) {
+		this.hedgePercentile = hedgePercentile;
+	}
+	public CircuitBreakerConfig getCircuitBreaker() {
+		return circuitBreaker;
+	}
+	public void setCircuitBreaker(CircuitBreakerConfig circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+	public Integer getMaxBodySize() {
+		return maxBodySize;
+	}
+	public void setMaxBodySize(Integer maxBodySize) {
+		this.maxBodySize = maxBodySize;
+	}
+	public RestConnectorConfig getRest() {
+		return rest;
+	}
+	public void setRest(RestConnectorConfig rest) {
+		this.rest = rest;
+	}
+	public MarketDataFeedConfig getFeed() {
+		return feed;
+	}
+	public void setFeed(MarketDataFeedConfig feed) {
+		this.feed = feed;
+	}
 }
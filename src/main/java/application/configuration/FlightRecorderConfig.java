@@ -0,0 +1,75 @@
+package application.configuration;
+
+/**
+ * Configuration for the continuous flight recording and the recordings dumped
+ * on the latency spikes. The durations are in milliseconds.
+ */
+public class FlightRecorderConfig {
+
+	/**
+	 * The span of the continuous recording, i.e. of each dump
+	 */
+	private Long window;
+
+	/**
+	 * A dump is triggered when a cycle takes longer than this
+	 */
+	private Long cycleTimeThreshold;
+
+	/**
+	 * A dump is triggered when the oldest quote of a snapshot is older than this
+	 */
+	private Long quoteAgeThreshold;
+
+	/**
+	 * The time recorded after the spike before dumping
+	 */
+	private Long postTriggerDelay;
+
+	/**
+	 * The minimum time between two dumps
+	 */
+	private Long cooldown;
+
+	/**
+	 * The directory of the dumps
+	 */
+	private String dumpDirectory;
+
+	public Long getWindow() {
+		return window;
+	}
+	public void setWindow(Long window) {
+		this.window = window;
+	}
+	public Long getCycleTimeThreshold() {
+		return cycleTimeThreshold;
+	}
+	public void setCycleTimeThreshold(Long cycleTimeThreshold) {
+		this.cycleTimeThreshold = cycleTimeThreshold;
+	}
+	public Long getQuoteAgeThreshold() {
+		return quoteAgeThreshold;
+	}
+	public void setQuoteAgeThreshold(Long quoteAgeThreshold) {
+		this.quoteAgeThreshold = quoteAgeThreshold;
+	}
+	public Long getPostTriggerDelay() {
+		return postTriggerDelay;
+	}
+	public void setPostTriggerDelay(Long postTriggerDelay) {
+		this.postTriggerDelay = postTriggerDelay;
+	}
+	public Long getCooldown() {
+		return cooldown;
+	}
+	public void setCooldown(Long cooldown) {
+		this.cooldown = cooldown;
+	}
+	public String getDumpDirectory() {
+		return dumpDirectory;
+	}
+	public void setDumpDirectory(String dumpDirectory) {
+		this.dumpDirectory = dumpDirectory;
+	}
+}
@@ -0,0 +1,33 @@
+package application.configuration;
+
+import java.util.List;
+
+/**
+ * Configuration for comparing the currency pairs across quote currencies.
+ */
+public class FxConfig {
+
+	/**
+	 * The quote currency all the prices are converted to (e.g. AUD)
+	 */
+	private String quoteCurrency;
+
+	/**
+	 * The currency pairs used as conversion rates between quote currencies
+	 * (e.g. USDT-AUD). They must be polled from at least one exchange.
+	 */
+	private List<String> fxPairs;
+
+	public String getQuoteCurrency() {
+		return quoteCurrency;
+	}
+	public void setQuoteCurrency(String quoteCurrency) {
+		this.quoteCurrency = quoteCurrency;
+	}
+	public List<String> getFxPairs() {
+		return fxPairs;
+	}
+	public void setFxPairs(List<String> fxPairs) {
+		this.fxPairs = fxPairs;
+	}
+}
@@ -0,0 +1,53 @@
+package application.configuration;
+
+/**
+ * Configuration for the I/O thread pool shared by all the exchanges.
+ */
+public class IOPoolConfig {
+
+	/**
+	 * The minimum number of threads
+	 */
+	private Integer minThreads;
+
+	/**
+	 * The maximum number of threads
+	 */
+	private Integer maxThreads;
+
+	/**
+	 * The average time a request may wait for a free thread before the pool
+	 * grows (in milliseconds)
+	 */
+	private Long targetQueueWait;
+
+	/**
+	 * The interval between two pool size adjustments (in milliseconds)
+	 */
+	private Long resizeInterval;
+
+	public Integer getMinThreads() {
+		return minThreads;
+	}
+	public void setMinThreads(Integer minThreads) {
+		this.minThreads = minThreads;
+	}
+	public Integer getMaxThreads() {
+		return maxThreads;
+	}
+	public void setMaxThreads(Integer maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+	public Long getTargetQueueWait() {
+		return targetQueueWait;
+	}
+	public void setTargetQueueWait(Long targetQueueWait) {
+		this.targetQueueWait = targetQueueWait;
+	}
+	public Long getResizeInterval() {
+		return resizeInterval;
+	}
+	public void setResizeInterval(Long resizeInterval) {
+		this.resizeInterval = resizeInterval;
+	}
+}
@@ -0,0 +1,64 @@
+package application.configuration;
+
+/**
+ * Configuration for an injected latency (responses of the exchange simulator,
+ * legs to and from the paper-trading exchange).
+ */
+public class LatencyConfig {
+
+	/**
+	 * The latency distribution : 'fixed', 'uniform', 'exponential' or 'lognormal'
+	 */
+	private String distribution;
+
+	/**
+	 * The mean latency (in milliseconds)
+	 */
+	private Double mean;
+
+	/**
+	 * The standard deviation of the latency (in milliseconds, used by 'lognormal')
+	 */
+	private Double stdDev;
+
+	/**
+	 * The lower bound of the latency (in milliseconds)
+	 */
+	private Double min;
+
+	/**
+	 * The upper bound of the latency (in milliseconds)
+	 */
+	private Double max;
+
+	public String getDistribution() {
+		return distribution;
+	}
+	public void setDistribution(String distribution) {
+		this.distribution = distribution;
+	}
+	public Double getMean() {
+		return mean;
+	}
+	public void setMean(Double mean) {
+		this.mean = mean;
+	}
+	public Double getStdDev() {
+		return stdDev;
+	}
+	public void setStdDev(Double stdDev) {
+		this.stdDev = stdDev;
+	}
+	public Double getMin() {
+		return min;
+	}
+	public void setMin(Double min) {
+		this.min = min;
+	}
+	public Double getMax() {
+		return max;
+	}
+	public void setMax(Double max) {
+		this.max = max;
+	}
+}
@@ -0,0 +1,102 @@
+package application.configuration;
+
+/**
+ * Configuration for the binary market data feed : of the publisher ('feed'
+ * of the application) or of a subscriber connector ('feed' of an exchange).
+ */
+public class MarketDataFeedConfig {
+
+	/**
+	 * The multicast group (e.g. '239.1.1.1') or, for a single subscriber, the
+	 * unicast address (e.g. '127.0.0.1') the feed is sent to
+	 */
+	private String address;
+
+	/**
+	 * The UDP port the feed is sent to
+	 */
+	private Integer port;
+
+	/**
+	 * The network interface used for the multicast group (e.g. 'lo', system
+	 * default if absent)
+	 */
+	private String networkInterface;
+
+	/**
+	 * The time to live of the multicast packets (1 by default : local network)
+	 */
+	private Integer ttl;
+
+	/**
+	 * The host of the snapshot server ('127.0.0.1' by default) : the address
+	 * the publisher listens on, or the one the subscribers connect to
+	 */
+	private String snapshotHost;
+
+	/**
+	 * The TCP port of the snapshot server (no recovery if absent)
+	 */
+	private Integer snapshotPort;
+
+	/**
+	 * Publisher : the interval of the heartbeats carrying the last sequence
+	 * number (in milliseconds)
+	 */
+	private Long heartbeatInterval;
+
+	/**
+	 * Subscriber : the ID of the exchange in the feed (defaults to the ID of
+	 * the subscriber exchange)
+	 */
+	private String sourceExchange;
+
+	public String getAddress() {
+		return address;
+	}
+	public void setAddress(String address) {
+		this.address = address;
+	}
+	public Integer getPort() {
+		return port;
+	}
+	public void setPort(Integer port) {
+		this.port = port;
+	}
+	public String getNetworkInterface() {
+		return networkInterface;
+	}
+	public void setNetworkInterface(String networkInterface) {
+		this.networkInterface = networkInterface;
+	}
+	public Integer getTtl() {
+		return ttl;
+	}
+	public void setTtl(Integer ttl) {
+		this.ttl = ttl;
+	}
+	public String getSnapshotHost() {
+		return snapshotHost;
+	}
+	public void setSnapshotHost(String snapshotHost) {
+		this.snapshotHost = snapshotHost;
+	}
+	public Integer getSnapshotPort() {
+		return snapshotPort;
+	}
+	public void setSnapshotPort(Integer snapshotPort) {
+		this.snapshotPort = snapshotPort;
+	}
+	public Long getHeartbeatInterval() {
+		return heartbeatInterval;
+	}
+	public void setHeartbeatInterval(Long heartbeatInterval) {
+		this.heartbeatInterval = heartbeatInterval;
+	}
+	public String getSourceExchange() {
+		return sourceExchange;
+	}
+	public void setSourceExchange(String sourceExchange) {
+		this.sourceExchange = sourceExchange;
+	}
+}
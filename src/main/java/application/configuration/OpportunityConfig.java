@@ -0,0 +1,43 @@
+package application.configuration;
+
+/**
+ * Configuration for the tracking of the arbitrage opportunities. The
+ * thresholds are spreads, in the same unit as the ranking (0.01 is 1%).
+ */
+public class OpportunityConfig {
+
+	/**
+	 * An opportunity opens when its spread rises above this threshold
+	 */
+	private Double openThreshold;
+
+	/**
+	 * An open opportunity closes when its spread falls to this threshold or below
+	 * (defaults to the open threshold, lower to avoid flapping)
+	 */
+	private Double closeThreshold;
+
+	/**
+	 * Logs the opportunity events
+	 */
+	private Boolean logEvents;
+
+	public Double getOpenThreshold() {
+		return openThreshold;
+	}
+	public void setOpenThreshold(Double openThreshold) {
+		this.openThreshold = openThreshold;
+	}
+	public Double getCloseThreshold() {
+		return closeThreshold;
+	}
+	public void setCloseThreshold(Double closeThreshold) {
+		this.closeThreshold = closeThreshold;
+	}
+	public Boolean getLogEvents() {
+		return logEvents;
+	}
+	public void setLogEvents(Boolean logEvents) {
+		this.logEvents = logEvents;
+	}
+}
@@ -0,0 +1,65 @@
+package application.configuration;
+
+/**
+ * Configuration for the paper trading of the spreads against the local mock
+ * exchange.
+ */
+public class PaperTradingConfig {
+
+	/**
+	 * The orders are sent for the spreads above this threshold (0.01 is 1%)
+	 */
+	private Double minSpread;
+
+	/**
+	 * The quantity (in base currency) of each order
+	 */
+	private Double quantity;
+
+	/**
+	 * The quantity resting at each quote of the mock exchange, replenished when
+	 * the quote changes (defaults to the order quantity)
+	 */
+	private Double depth;
+
+	/**
+	 * The maximum number of orders waiting for their acknowledgement
+	 */
+	private Integer maxOpenOrders;
+
+	/**
+	 * The one-way latency between the application and the mock exchange
+	 */
+	private LatencyConfig latency;
+
+	public Double getMinSpread() {
+		return minSpread;
+	}
+	public void setMinSpread(Double minSpread) {
+		this.minSpread = minSpread;
+	}
+	public Double getQuantity() {
+		return quantity;
+	}
+	public void setQuantity(Double quantity) {
+		this.quantity = quantity;
+	}
+	public Double getDepth() {
+		return depth;
+	}
+	public void setDepth(Double depth) {
+		this.depth = depth;
+	}
+	public Integer getMaxOpenOrders() {
+		return maxOpenOrders;
+	}
+	public void setMaxOpenOrders(Integer maxOpenOrders) {
+		this.maxOpenOrders = maxOpenOrders;
+	}
+	public LatencyConfig getLatency() {
+		return latency;
+	}
+	public void setLatency(LatencyConfig latency) {
+		this.latency = latency;
+	}
+}
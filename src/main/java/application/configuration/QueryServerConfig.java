@@ -0,0 +1,53 @@
+package application.configuration;
+
+/**
+ * Configuration for the local query API serving the latest spreads. Each
+ * protocol is only started if its port is set.
+ */
+public class QueryServerConfig {
+
+	/**
+	 * The localhost port of the HTTP / JSON API
+	 */
+	private Integer httpPort;
+
+	/**
+	 * The localhost port of the binary protocol
+	 */
+	private Integer binaryPort;
+
+	/**
+	 * The number of threads serving the HTTP requests
+	 */
+	private Integer httpThreads;
+
+	/**
+	 * The maximum number of binary protocol clients connected at the same time
+	 */
+	private Integer maxBinaryConnections;
+
+	public Integer getHttpPort() {
+		return httpPort;
+	}
+	public void setHttpPort(Integer httpPort) {
+		this.httpPort = httpPort;
+	}
+	public Integer getBinaryPort() {
+		return binaryPort;
+	}
+	public void setBinaryPort(Integer binaryPort) {
+		this.binaryPort = binaryPort;
+	}
+	public Integer getHttpThreads() {
+		return httpThreads;
+	}
+	public void setHttpThreads(Integer httpThreads) {
+		this.httpThreads = httpThreads;
+	}
+	public Integer getMaxBinaryConnections() {
+		return maxBinaryConnections;
+	}
+	public void setMaxBinaryConnections(Integer maxBinaryConnections) {
+		this.maxBinaryConnections = maxBinaryConnections;
+	}
+}
@@ -0,0 +1,85 @@
+package application.configuration;
+
+/**
+ * Configuration of a generic REST connector : where the tickers are and where
+ * the prices are in the JSON responses.
+ *
+ * The paths are field names separated by dots (e.g. 'ticker.buy'), a number
+ * selecting an element of an array (e.g. 'asks.0.0').
+ */
+public class RestConnectorConfig {
+
+	/**
+	 * The URL of the tickers, appended to the base URL if one is configured.
+	 * In per-pair mode, '{BASE}' & '{QUOTE}' ('{base}' & '{quote}' in lower
+	 * case) are replaced by the currencies of the pair.
+	 */
+	private String urlTemplate;
+
+	/**
+	 * True if one request returns the tickers of all the pairs, false for one
+	 * request per pair
+	 */
+	private Boolean bulk;
+
+	/**
+	 * Bulk mode : the path of the object or array holding one ticker per entry
+	 * (the response itself if absent)
+	 */
+	private String entriesPath;
+
+	/**
+	 * Bulk mode : the paths of the base & quote currencies in a ticker
+	 */
+	private String basePath;
+	private String quotePath;
+
+	/**
+	 * The paths of the bid & ask prices in a ticker
+	 */
+	private String bidPath;
+	private String askPath;
+
+	public String getUrlTemplate() {
+		return urlTemplate;
+	}
+	public void setUrlTemplate(String urlTemplate) {
+		this.urlTemplate = urlTemplate;
+	}
+	public Boolean getBulk() {
+		return bulk;
+	}
+	public void setBulk(Boolean bulk) {
+		this.bulk = bulk;
+	}
+	public String getEntriesPath() {
+		return entriesPath;
+	}
+	public void setEntriesPath(String entriesPath) {
+		this.entriesPath = entriesPath;
+	}
+	public String getBasePath() {
+		return basePath;
+	}
+	public void setBasePath(String basePath) {
+		this.basePath = basePath;
+	}
+	public String getQuotePath() {
+		return quotePath;
+	}
+	public void setQuotePath(String quotePath) {
+		this.quotePath = quotePath;
+	}
+	public String getBidPath() {
+		return bidPath;
+	}
+	public void setBidPath(String bidPath) {
+		this.bidPath = bidPath;
+	}
+	public String getAskPath() {
+		return askPath;
+	}
+	public void setAskPath(String askPath) {
+		this.askPath = askPath;
+	}
+}
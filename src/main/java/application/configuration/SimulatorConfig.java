@@ -0,0 +1,154 @@
+package application.configuration;
+
+import java.util.List;
+
+/**
+ * Configuration for the local exchange simulator.
+ */
+public class SimulatorConfig {
+
+	/**
+	 * The HTTP port to listen on (0 picks any free port)
+	 */
+	private Integer port;
+
+	/**
+	 * The number of threads serving the simulated requests
+	 */
+	private Integer serverThreads;
+
+	/**
+	 * The number of synthetic exchanges exposing BTCMarkets compatible endpoints
+	 */
+	private Integer btcMarketsExchanges;
+
+	/**
+	 * The number of synthetic exchanges exposing ACX compatible endpoints
+	 */
+	private Integer acxExchanges;
+
+	/**
+	 * The list of currency pairs listed on every synthetic exchange
+	 */
+	private List<String> currencyPairs;
+
+	/**
+	 * The starting mid price of the currency pairs
+	 */
+	private Double initialPrice;
+
+	/**
+	 * The standard deviation of each random walk step (ratio of the price)
+	 */
+	private Double volatility;
+
+	/**
+	 * Half of the bid-ask spread around the mid price (ratio of the price)
+	 */
+	private Double halfSpread;
+
+	/**
+	 * The interval between random walk steps (in milliseconds)
+	 */
+	private Long priceUpdateInterval;
+
+	/**
+	 * The latency injected before each response
+	 */
+	private LatencyConfig latency;
+
+	/**
+	 * The probability (0 to 1.0) of answering a request with a server error
+	 */
+	private Double errorRate;
+
+	/**
+	 * The probability (0 to 1.0) of answering a request with HTTP 429
+	 */
+	private Double throttleRate;
+
+	/**
+	 * The request rate allowed per client and exchange (requests per second,
+	 * unlimited if absent). Requests above this rate are answered with HTTP 429.
+	 */
+	private Double clientRateLimit;
+
+	public Integer getPort() {
+		return port;
+	}
+	public void setPort(Integer port) {
+		this.port = port;
+	}
+	public Integer getServerThreads() {
+		return serverThreads;
+	}
+	public void setServerThreads(Integer serverThreads) {
+		this.serverThreads = serverThreads;
+	}
+	public Integer getBtcMarketsExchanges() {
+		return btcMarketsExchanges;
+	}
+	public void setBtcMarketsExchanges(Integer btcMarketsExchanges) {
+		this.btcMarketsExchanges = btcMarketsExchanges;
+	}
+	public Integer getAcxExchanges() {
+		return acxExchanges;
+	}
+	public void setAcxExchanges(Integer acxExchanges) {
+		this.acxExchanges = acxExchanges;
+	}
+	public List<String> getCurrencyPairs() {
+		return currencyPairs;
+	}
+	public void setCurrencyPairs(List<String> currencyPairs) {
+		this.currencyPairs = currencyPairs;
+	}
+	public Double getInitialPrice() {
+		return initialPrice;
+	}
+	public void setInitialPrice(Double initialPrice) {
+		this.initialPrice = initialPrice;
+	}
+	public Double getVolatility() {
+		return volatility;
+	}
+	public void setVolatility(Double volatility) {
+		this.volatility = volatility;
+	}
+	public Double getHalfSpread() {
+		return halfSpread;
+	}
+	public void setHalfSpread(Double halfSpread) {
+		this.halfSpread = halfSpread;
+	}
+	public Long getPriceUpdateInterval() {
+		return priceUpdateInterval;
+	}
+	public void setPriceUpdateInterval(Long priceUpdateInterval) {
+		this.priceUpdateInterval = priceUpdateInterval;
+	}
+	public LatencyConfig getLatency() {
+		return latency;
+	}
+	public void setLatency(LatencyConfig latency) {
+		this.latency = latency;
+	}
+	public Double getErrorRate() {
+		return errorRate;
+	}
+	public void setErrorRate(Double errorRate) {
+		this.errorRate = errorRate;
+	}
+	public Double getThrottleRate() {
+		return throttleRate;
+	}
+	public void setThrottleRate(Double throttleRate) {
+		this.throttleRate = throttleRate;
+	}
+	public Double getClientRateLimit() {
+		return clientRateLimit;
+	}
+	public void setClientRateLimit(Double clientRateLimit) {
+		this.clientRateLimit = clientRateLimit;
+	}
+}
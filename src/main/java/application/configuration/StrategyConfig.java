@@ -0,0 +1,97 @@
+package application.configuration;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuration of a strategy : a spread ranking with its own fees, currency
+ * pairs, thresholds and output, calculated from the quotes of the shared
+ * exchange connectors.
+ */
+public class StrategyConfig {
+
+	/**
+	 * The name of the strategy, in its output
+	 */
+	private String id;
+
+	/**
+	 * The currency pairs ranked (all the configured pairs by default). They
+	 * must be among the currency pairs of the application, which are the ones
+	 * polled.
+	 */
+	private List<String> currencyPairs;
+
+	/**
+	 * The fee of each exchange (key is the exchange ID), replacing the fee of
+	 * the exchange configuration. The exchanges not listed keep theirs.
+	 */
+	private Map<String, BigDecimal> fees;
+
+	/**
+	 * The time between the end of a calculation and the start of the next one
+	 * (in milliseconds, defaults to the refresh interval of the application)
+	 */
+	private Long refreshInterval;
+
+	/**
+	 * The spreads at or below this threshold are left out (same unit as the
+	 * ranking, 0.01 is 1%)
+	 */
+	private Double minSpread;
+
+	/**
+	 * The maximum number of spreads output (all by default)
+	 */
+	private Integer maxSpreads;
+
+	/**
+	 * The file the latest ranking is written to, replaced at each calculation
+	 * (printed on the console if absent, or logged when the dashboard is on)
+	 */
+	private String outputFile;
+
+	public String getId() {
+		return id;
+	}
+	public void setId(String id) {
+		this.id = id;
+	}
+	public List<String> getCurrencyPairs() {
+		return currencyPairs;
+	}
+	public void setCurrencyPairs(List<String> currencyPairs) {
+		this.currencyPairs = currencyPairs;
+	}
+	public Map<String, BigDecimal> getFees() {
+		return fees;
+	}
+	public void setFees(Map<String, BigDecimal> fees) {
+		this.fees = fees;
+	}
+	public Long getRefreshInterval() {
+		return refreshInterval;
+	}
+	public void setRefreshInterval(Long refreshInterval) {
+		this.refreshInterval = refreshInterval;
+	}
+	public Double getMinSpread() {
+		return minSpread;
+	}
+	public void setMinSpread(Double minSpread) {
+		this.minSpread = minSpread;
+	}
+	public Integer getMaxSpreads() {
+		return maxSpreads;
+	}
+	public void setMaxSpreads(Integer maxSpreads) {
+		this.maxSpreads = maxSpreads;
+	}
+	public String getOutputFile() {
+		return outputFile;
+	}
+	public void setOutputFile(String outputFile) {
+		this.outputFile = outputFile;
+	}
+}
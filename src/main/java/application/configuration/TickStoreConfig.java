@@ -0,0 +1,22 @@
+package application.configuration;
+
+/**
+ * Configuration for the shared-memory tick store : the latest quotes of all
+ * the exchanges in a memory-mapped file, read in place by other local
+ * processes.
+ */
+public class TickStoreConfig {
+
+	/**
+	 * The path of the file (preferably on a memory file system, e.g.
+	 * '/dev/shm/exchange-spread.ticks', so the pages are never written to disk)
+	 */
+	private String file;
+
+	public String getFile() {
+		return file;
+	}
+	public void setFile(String file) {
+		this.file = file;
+	}
+}
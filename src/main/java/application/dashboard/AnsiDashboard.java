@@ -0,0 +1,473 @@
+package application.dashboard;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.SnapshotListener;
+import application.SpreadInfo;
+import application.SpreadSnapshot;
+import application.configuration.DashboardConfig;
+import application.diagnostics.OutputEvent;
+
+/**
+ * Terminal dashboard of the spreads, drawn with ANSI escape sequences instead
+ * of printing the whole table at each cycle.
+ *
+ * The dashboard keeps a model of the screen (one char array per line). Each
+ * frame is composed in a second model, the numbers formatted straight into
+ * the char arrays, then compared with the screen : only the runs of cells
+ * that changed are written, after a cursor move. So a frame costs the rows
+ * shown (one page of the ranking, scrolled by the commands) and the bytes of
+ * the prices that moved, whatever the number of pairs.
+ *
+ * The frames are drawn on a dedicated thread, at most one per frame interval
+ * and only when the snapshot or the page changed, so the cycles never wait
+ * for the terminal.
+ */
+public class AnsiDashboard implements SnapshotListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(AnsiDashboard.class);
+
+	private static final int DEFAULT_ROWS = 40;
+	private static final long DEFAULT_FRAME_INTERVAL = 100;
+
+	private static final int WIDTH = 80;
+
+	/**
+	 * The lines above the spreads : status, rule, column titles, rule
+	 */
+	private static final int HEADER_LINES = 4;
+
+	/**
+	 * Unchanged cells between two changes are written again rather than
+	 * skipped when it is shorter than a cursor move
+	 */
+	private static final int MIN_GAP = 8;
+
+	private static final char ESC = 27;
+
+	private static final char[] RULE = repeat('-', WIDTH);
+	private static final char[] TITLES = String.format("%4s%8s%9s%12s%15s%12s%15s",
+			"Sr", "Spread%", "Currency", "Ask", "Ask-Exch", "Bid", "Bid-Exch").toCharArray();
+	private static final char[] HELP = "Commands (+ Enter) : n next page, p previous page, t top, r redraw, q quit"
+			.toCharArray();
+
+	/**
+	 * The end column of each field of a spread row
+	 */
+	private static final int SR_END = 4;
+	private static final int SPREAD_END = 12;
+	private static final int CURRENCY_END = 21;
+	private static final int ASK_END = 33;
+	private static final int ASK_EXCHANGE_END = 48;
+	private static final int BID_END = 60;
+	private static final int BID_EXCHANGE_END = 75;
+
+	private static final long[] POWERS_OF_TEN = { 1, 10, 100, 1000, 10000, 100000, 1000000 };
+
+	private final int rows;
+	private final long frameInterval;
+	private final Writer out;
+	private final TimeZone timeZone;
+
+	/**
+	 * What the terminal shows, and the frame being composed (swapped after
+	 * each frame, drawing thread only)
+	 */
+	private char[][] screen;
+	private char[][] frame;
+
+	/**
+	 * The escape sequences and cells of a frame (drawing thread only)
+	 */
+	private char[] output;
+	private int outputLength;
+
+	private volatile SpreadSnapshot latestSnapshot;
+
+	/**
+	 * The index of the first spread shown
+	 */
+	private volatile int firstRow;
+
+	private volatile boolean redrawRequested;
+
+	/**
+	 * What the last frame showed (drawing thread only)
+	 */
+	private long drawnVersion;
+	private int drawnFirstRow;
+	private long lastFrameNanos;
+
+	private volatile long frames;
+	private volatile long writtenChars;
+
+	private ScheduledExecutorService executor;
+
+	public AnsiDashboard(DashboardConfig config, Writer out) {
+		this.rows = config.getRows() != null ? config.getRows() : DEFAULT_ROWS;
+		this.frameInterval = config.getFrameInterval() != null ? config.getFrameInterval() : DEFAULT_FRAME_INTERVAL;
+		this.out = out;
+		this.timeZone = TimeZone.getDefault();
+		this.screen = new char[HEADER_LINES + rows + 1][WIDTH];
+		this.frame = new char[HEADER_LINES + rows + 1][WIDTH];
+		this.output = new char[(HEADER_LINES + rows + 1) * (WIDTH + 16) + 64];
+		this.latestSnapshot = SpreadSnapshot.EMPTY;
+		this.drawnVersion = -1;
+		this.redrawRequested = true;
+	}
+
+	/**
+	 * Starts drawing the frames
+	 */
+	public void start() {
+		executor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("dashboard").setDaemon(true).build());
+		executor.scheduleWithFixedDelay(this::drawIfChanged, 0, frameInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Stops drawing and gives the cursor back below the dashboard
+	 */
+	public void stop() throws IOException, InterruptedException {
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.SECONDS);
+		outputLength = 0;
+		appendCursorMove(HEADER_LINES + rows + 2, 1);
+		appendChars(ESC);
+		appendChars("[?25h");
+		out.write(output, 0, outputLength);
+		out.flush();
+	}
+
+	@Override
+	public void onSnapshot(SpreadSnapshot snapshot) {
+		latestSnapshot = snapshot;
+	}
+
+	public void nextPage() {
+		firstRow += rows;
+	}
+
+	public void previousPage() {
+		firstRow = Math.max(0, firstRow - rows);
+	}
+
+	public void top() {
+		firstRow = 0;
+	}
+
+	/**
+	 * Draws the whole screen again on the next frame (e.g. after something
+	 * else wrote to the terminal)
+	 */
+	public void redraw() {
+		redrawRequested = true;
+	}
+
+	private void drawIfChanged() {
+		final SpreadSnapshot snapshot = latestSnapshot;
+		if(snapshot.getVersion() == drawnVersion && firstRow == drawnFirstRow && !redrawRequested) {
+			return;
+		}
+		try {
+			draw(snapshot);
+		} catch (final IOException | RuntimeException e) {
+			LOGGER.warn("Failed to draw the dashboard", e);
+		}
+	}
+
+	/**
+	 * Composes the frame of a snapshot and writes the cells that changed
+	 * (drawing thread)
+	 */
+	void draw(SpreadSnapshot snapshot) throws IOException {
+		final long startNanos = System.nanoTime();
+		final OutputEvent event = new OutputEvent();
+		event.begin();
+
+		final List<SpreadInfo> spreads = snapshot.getSpreads();
+		int first = firstRow;
+		if(first >= spreads.size() && first > 0) {
+			first = spreads.isEmpty() ? 0 : (spreads.size() - 1) / rows * rows;
+			firstRow = first;
+		}
+		final int shown = Math.max(0, Math.min(rows, spreads.size() - first));
+
+		composeStatus(snapshot, first, shown);
+		System.arraycopy(RULE, 0, frame[1], 0, WIDTH);
+		fillLine(frame[2], TITLES);
+		System.arraycopy(RULE, 0, frame[3], 0, WIDTH);
+		for (int row = 0; row < rows; row++) {
+			final char[] line = frame[HEADER_LINES + row];
+			Arrays.fill(line, ' ');
+			if(row < shown) {
+				composeSpread(line, first + row + 1, spreads.get(first + row));
+			}
+		}
+		fillLine(frame[HEADER_LINES + rows], HELP);
+
+		outputLength = 0;
+		if(redrawRequested) {
+			redrawRequested = false;
+			appendChars(ESC);
+			appendChars("[?25l");
+			appendChars(ESC);
+			appendChars("[2J");
+			for (final char[] line : screen) {
+				Arrays.fill(line, (char) 0);
+			}
+		}
+		for (int line = 0; line < frame.length; line++) {
+			appendChanges(line, frame[line], screen[line]);
+		}
+		// The typed commands are echoed below the dashboard
+		appendCursorMove(HEADER_LINES + rows + 2, 1);
+		out.write(output, 0, outputLength);
+		out.flush();
+
+		final char[][] drawn = frame;
+		frame = screen;
+		screen = drawn;
+		drawnVersion = snapshot.getVersion();
+		drawnFirstRow = first;
+		lastFrameNanos = System.nanoTime() - startNanos;
+		frames++;
+		writtenChars += outputLength;
+
+		event.end();
+		if(event.shouldCommit()) {
+			event.spreads = shown;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Time of the snapshot, number of spreads, rows shown and duration of the
+	 * previous frame
+	 */
+	private void composeStatus(SpreadSnapshot snapshot, int first, int shown) {
+		final char[] line = frame[0];
+		Arrays.fill(line, ' ');
+		int column = putText(line, 0, "Time : ");
+		if(snapshot.getTimestamp() > 0) {
+			final long timestamp = snapshot.getTimestamp();
+			final long millisOfDay = Math.floorMod(timestamp + timeZone.getOffset(timestamp), TimeUnit.DAYS.toMillis(1));
+			column = putDigits(line, column, millisOfDay / 3600000, 2);
+			line[column++] = ':';
+			column = putDigits(line, column, millisOfDay / 60000 % 60, 2);
+			line[column++] = ':';
+			column = putDigits(line, column, millisOfDay / 1000 % 60, 2);
+			line[column++] = '.';
+			column = putDigits(line, column, millisOfDay % 1000, 3);
+		} else {
+			column = putText(line, column, "Initializing...");
+		}
+		column = putText(line, column + 3, "Spreads : ");
+		column = putNumber(line, column, snapshot.getSpreads().size());
+		column = putText(line, column + 3, "Rows : ");
+		column = putNumber(line, column, shown > 0 ? first + 1 : 0);
+		line[column++] = '-';
+		column = putNumber(line, column, first + shown);
+		column = putText(line, column + 3, "Frame : ");
+		column = putNumber(line, column, TimeUnit.NANOSECONDS.toMicros(lastFrameNanos));
+		putText(line, column, " us");
+	}
+
+	private static void composeSpread(char[] line, int index, SpreadInfo spread) {
+		putFixed(line, SR_END, SR_END, index, 0);
+		putFixed(line, SPREAD_END, SPREAD_END - SR_END, spread.getSpreadPercent().doubleValue(), 4);
+		putRight(line, CURRENCY_END, CURRENCY_END - SPREAD_END, spread.getCcyPair());
+		putFixed(line, ASK_END, ASK_END - CURRENCY_END, spread.getBestAskPrice().doubleValue(), 4);
+		putRight(line, ASK_EXCHANGE_END, ASK_EXCHANGE_END - ASK_END, spread.getBestAskExchange());
+		putFixed(line, BID_END, BID_END - ASK_EXCHANGE_END, spread.getBestBidPrice().doubleValue(), 4);
+		putRight(line, BID_EXCHANGE_END, BID_EXCHANGE_END - BID_END, spread.getBestBidExchange());
+	}
+
+	/**
+	 * Appends the runs of cells of a line that differ from the screen, each
+	 * after a cursor move
+	 */
+	private void appendChanges(int line, char[] next, char[] current) {
+		int column = 0;
+		while (column < WIDTH) {
+			if(next[column] == current[column]) {
+				column++;
+				continue;
+			}
+			final int start = column;
+			int end = column + 1;
+			int same = 0;
+			for (column = end; column < WIDTH && same < MIN_GAP; column++) {
+				if(next[column] == current[column]) {
+					same++;
+				} else {
+					same = 0;
+					end = column + 1;
+				}
+			}
+			appendCursorMove(line + 1, start + 1);
+			ensureCapacity(end - start);
+			System.arraycopy(next, start, output, outputLength, end - start);
+			outputLength += end - start;
+			column = end;
+		}
+	}
+
+	private void appendCursorMove(int line, int column) {
+		appendChars(ESC);
+		appendChars('[');
+		appendNumber(line);
+		appendChars(';');
+		appendNumber(column);
+		appendChars('H');
+	}
+
+	private void appendNumber(int value) {
+		ensureCapacity(10);
+		outputLength = putNumber(output, outputLength, value);
+	}
+
+	private void appendChars(char value) {
+		ensureCapacity(1);
+		output[outputLength++] = value;
+	}
+
+	private void appendChars(String value) {
+		ensureCapacity(value.length());
+		value.getChars(0, value.length(), output, outputLength);
+		outputLength += value.length();
+	}
+
+	private void ensureCapacity(int length) {
+		if(outputLength + length > output.length) {
+			output = Arrays.copyOf(output, Math.max(output.length * 2, outputLength + length));
+		}
+	}
+
+	/**
+	 * Writes a number with the given decimals right-aligned in the field
+	 * ending at the given column ('#' if it doesn't fit)
+	 */
+	static void putFixed(char[] line, int end, int width, double value, int decimals) {
+		final int start = end - width;
+		if(Double.isNaN(value) || Double.isInfinite(value)) {
+			Arrays.fill(line, start, end, '#');
+			return;
+		}
+		long scaled = Math.round(Math.abs(value) * POWERS_OF_TEN[decimals]);
+		final boolean negative = value < 0 && scaled != 0;
+		int column = end;
+		for (int digit = 0; digit < decimals; digit++) {
+			line[--column] = (char) ('0' + scaled % 10);
+			scaled /= 10;
+		}
+		if(decimals > 0) {
+			line[--column] = '.';
+		}
+		do {
+			if(column == start) {
+				Arrays.fill(line, start, end, '#');
+				return;
+			}
+			line[--column] = (char) ('0' + scaled % 10);
+			scaled /= 10;
+		} while (scaled != 0);
+		if(negative) {
+			if(column == start) {
+				Arrays.fill(line, start, end, '#');
+				return;
+			}
+			line[--column] = '-';
+		}
+		Arrays.fill(line, start, column, ' ');
+	}
+
+	/**
+	 * Writes a text right-aligned in the field ending at the given column,
+	 * cut to the width
+	 */
+	static void putRight(char[] line, int end, int width, String text) {
+		final int length = Math.min(width, text.length());
+		Arrays.fill(line, end - width, end - length, ' ');
+		text.getChars(0, length, line, end - length);
+	}
+
+	/**
+	 * Writes a text from the given column, cut to the line
+	 *
+	 * @return the column after the text
+	 */
+	private static int putText(char[] line, int column, String text) {
+		final int length = Math.min(text.length(), Math.max(0, line.length - column));
+		text.getChars(0, length, line, column);
+		return column + length;
+	}
+
+	/**
+	 * Writes a positive number from the given column
+	 *
+	 * @return the column after the number
+	 */
+	private static int putNumber(char[] line, int column, long value) {
+		int digits = 1;
+		for (long rest = value / 10; rest != 0; rest /= 10) {
+			digits++;
+		}
+		return putDigits(line, column, value, digits);
+	}
+
+	/**
+	 * Writes the given number of digits of a positive number (zero-padded)
+	 *
+	 * @return the column after the number
+	 */
+	private static int putDigits(char[] line, int column, long value, int digits) {
+		if(column + digits > line.length) {
+			return column;
+		}
+		for (int digit = column + digits - 1; digit >= column; digit--) {
+			line[digit] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return column + digits;
+	}
+
+	private static void fillLine(char[] line, char[] text) {
+		final int length = Math.min(text.length, line.length);
+		System.arraycopy(text, 0, line, 0, length);
+		Arrays.fill(line, length, line.length, ' ');
+	}
+
+	private static char[] repeat(char value, int count) {
+		final char[] chars = new char[count];
+		Arrays.fill(chars, value);
+		return chars;
+	}
+
+	/**
+	 * Returns the number of frames drawn
+	 */
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Returns the number of characters written to the terminal, escape
+	 * sequences included
+	 */
+	public long getWrittenChars() {
+		return writtenChars;
+	}
+}
@@ -0,0 +1,176 @@
+package application.diagnostics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.NetTickPrice;
+import application.SnapshotListener;
+import application.SpreadSnapshot;
+import application.configuration.FlightRecorderConfig;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Keeps a continuous flight recording of the last 'window' and dumps it to a
+ * file when a latency spike is detected : a cycle slower than the cycle time
+ * threshold, or a snapshot whose oldest quote is older than the quote age
+ * threshold. So each spike comes with the profile (GC, threads, I/O) and the
+ * application events (requests, rate limiter waits, parsing, cycles...) of
+ * the time before it.
+ *
+ * The recording uses the 'default' JFR settings (low overhead) plus the
+ * application events. A dump waits for 'postTriggerDelay' so that it also
+ * covers the end of the spike, and the spikes within the 'cooldown' of the
+ * previous dump don't trigger another one. The first cycle, slowed down by the
+ * start of the application, is not checked.
+ */
+public class FlightRecorderMonitor implements SnapshotListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(FlightRecorderMonitor.class);
+
+	private static final long DEFAULT_WINDOW = TimeUnit.MINUTES.toMillis(2);
+	private static final long DEFAULT_POST_TRIGGER_DELAY = TimeUnit.SECONDS.toMillis(5);
+	private static final long DEFAULT_COOLDOWN = TimeUnit.MINUTES.toMillis(5);
+
+	private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+	private static final List<Class<? extends jdk.jfr.Event>> EVENT_TYPES = Arrays.asList(
+			HttpRequestEvent.class, RateLimitWaitEvent.class, ParseEvent.class, QuoteUpdateEvent.class,
+			SpreadCycleEvent.class, SortEvent.class, OutputEvent.class);
+
+	private final List<String> currencyPairs;
+	private final long window;
+	private final long cycleTimeThresholdNanos;
+	private final long quoteAgeThreshold;
+	private final long postTriggerDelay;
+	private final long cooldown;
+	private final Path dumpDirectory;
+
+	private final Recording recording;
+	private final ScheduledExecutorService dumpExecutor;
+
+	/**
+	 * The time of the last triggered dump (System.currentTimeMillis, 0 if none)
+	 */
+	private final AtomicLong lastTrigger;
+
+	/**
+	 * False until the first cycle has completed
+	 */
+	private volatile boolean started;
+
+	public FlightRecorderMonitor(List<String> currencyPairs, FlightRecorderConfig config)
+			throws IOException, ParseException {
+		this.currencyPairs = currencyPairs;
+		this.window = config.getWindow() != null ? config.getWindow() : DEFAULT_WINDOW;
+		this.cycleTimeThresholdNanos = config.getCycleTimeThreshold() != null
+				? TimeUnit.MILLISECONDS.toNanos(config.getCycleTimeThreshold()) : Long.MAX_VALUE;
+		this.quoteAgeThreshold = config.getQuoteAgeThreshold() != null
+				? config.getQuoteAgeThreshold() : Long.MAX_VALUE;
+		this.postTriggerDelay = config.getPostTriggerDelay() != null
+				? config.getPostTriggerDelay() : DEFAULT_POST_TRIGGER_DELAY;
+		this.cooldown = config.getCooldown() != null ? config.getCooldown() : DEFAULT_COOLDOWN;
+		this.dumpDirectory = Paths.get(config.getDumpDirectory() != null ? config.getDumpDirectory() : ".");
+		Files.createDirectories(dumpDirectory);
+
+		this.recording = new Recording(Configuration.getConfiguration("default"));
+		recording.setName("exchange-spread");
+		recording.setToDisk(true);
+		recording.setMaxAge(Duration.ofMillis(window));
+		for (final Class<? extends jdk.jfr.Event> eventType : EVENT_TYPES) {
+			recording.enable(eventType).withoutThreshold();
+		}
+		this.dumpExecutor = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("flight-recorder-dump").setDaemon(true).build());
+		this.lastTrigger = new AtomicLong();
+	}
+
+	/**
+	 * Starts the continuous recording
+	 */
+	public void start() {
+		recording.start();
+		LOGGER.info("Continuous flight recording started (window " + window + " ms)");
+	}
+
+	/**
+	 * Checks the duration of a completed cycle
+	 */
+	public void cycleCompleted(long durationNanos) {
+		if(!started) {
+			started = true;
+			return;
+		}
+		if(durationNanos > cycleTimeThresholdNanos) {
+			trigger(String.format("cycle took %.1f ms", durationNanos / 1e6));
+		}
+	}
+
+	/**
+	 * Checks the age of the oldest quote of the snapshot
+	 */
+	@Override
+	public void onSnapshot(SpreadSnapshot snapshot) {
+		if(quoteAgeThreshold == Long.MAX_VALUE || !started) {
+			return;
+		}
+		long oldestTimestamp = Long.MAX_VALUE;
+		NetTickPrice oldestQuote = null;
+		for (final String currencyPair : currencyPairs) {
+			final List<NetTickPrice> quotes = snapshot.getQuotes(currencyPair);
+			if(quotes == null) {
+				continue;
+			}
+			for (int i = 0; i < quotes.size(); i++) {
+				if(quotes.get(i).getTimestamp() < oldestTimestamp) {
+					oldestTimestamp = quotes.get(i).getTimestamp();
+					oldestQuote = quotes.get(i);
+				}
+			}
+		}
+		if(oldestQuote != null && snapshot.getTimestamp() - oldestTimestamp > quoteAgeThreshold) {
+			trigger("quote of " + oldestQuote.getExchangeId() + " " + oldestQuote.getCcyPair()
+					+ " is " + (snapshot.getTimestamp() - oldestTimestamp) + " ms old");
+		}
+	}
+
+	/**
+	 * Schedules a dump, unless one was triggered within the cooldown
+	 */
+	private void trigger(String reason) {
+		final long now = System.currentTimeMillis();
+		final long last = lastTrigger.get();
+		if((last != 0 && now - last < cooldown) || !lastTrigger.compareAndSet(last, now)) {
+			return;
+		}
+		LOGGER.warn("Latency spike : " + reason + ", dumping the flight recording in " + postTriggerDelay + " ms");
+		dumpExecutor.schedule(() -> dump(reason), postTriggerDelay, TimeUnit.MILLISECONDS);
+	}
+
+	private void dump(String reason) {
+		final Path file = dumpDirectory.resolve("spike-" + LocalDateTime.now().format(FILE_TIME_FORMAT) + ".jfr");
+		try {
+			recording.dump(file);
+			LOGGER.warn("Flight recording of the latency spike (" + reason + ") dumped to : " + file.toAbsolutePath());
+		} catch (final IOException | RuntimeException e) {
+			LOGGER.error("Failed to dump the flight recording to : " + file, e);
+		}
+	}
+}
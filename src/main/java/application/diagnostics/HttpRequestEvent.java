@@ -0,0 +1,32 @@
+package application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event : a request to an exchange API, until its body is
+ * received and decompressed (hedge included).
+ */
+@Name("application.HttpRequest")
+@Label("HTTP Request")
+@Category({ "Exchange Spread", "Exchange" })
+@Description("A request to an exchange API, until its body is received and decompressed")
+public class HttpRequestEvent extends Event {
+
+	@Label("Exchange")
+	public String exchange;
+
+	@Label("URL")
+	public String url;
+
+	@Label("Received Bytes")
+	@Description("The length of the body as received (compressed)")
+	public int receivedBytes;
+
+	@Label("Error")
+	@Description("The reason the request failed (absent if it succeeded)")
+	public String error;
+}
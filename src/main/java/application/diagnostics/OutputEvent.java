@@ -0,0 +1,20 @@
+package application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event : the console output of the spreads of a cycle.
+ */
+@Name("application.Output")
+@Label("Output")
+@Category({ "Exchange Spread", "Spreads" })
+@Description("The console output of the spreads of a cycle")
+public class OutputEvent extends Event {
+
+	@Label("Spreads")
+	public int spreads;
+}
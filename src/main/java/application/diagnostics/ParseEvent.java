@@ -0,0 +1,27 @@
+package application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event : the decoding of the JSON body of a response.
+ */
+@Name("application.Parse")
+@Label("Parse")
+@Category({ "Exchange Spread", "Exchange" })
+@Description("The decoding of the JSON body of a response")
+public class ParseEvent extends Event {
+
+	@Label("Exchange")
+	public String exchange;
+
+	@Label("URL")
+	public String url;
+
+	@Label("Bytes")
+	@Description("The length of the decompressed body")
+	public int bytes;
+}
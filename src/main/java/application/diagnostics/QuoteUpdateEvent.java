@@ -0,0 +1,29 @@
+package application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event : the update of the quote slot of a currency pair.
+ */
+@Name("application.QuoteUpdate")
+@Label("Quote Update")
+@Category({ "Exchange Spread", "Exchange" })
+@Description("The update of the quote slot of a currency pair")
+public class QuoteUpdateEvent extends Event {
+
+	@Label("Exchange")
+	public String exchange;
+
+	@Label("Currency Pair")
+	public String ccyPair;
+
+	@Label("Net Ask Price")
+	public double netAskPrice;
+
+	@Label("Net Bid Price")
+	public double netBidPrice;
+}
@@ -0,0 +1,20 @@
+package application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event : the wait for a permit of the rate limiter of an exchange.
+ */
+@Name("application.RateLimitWait")
+@Label("Rate Limit Wait")
+@Category({ "Exchange Spread", "Exchange" })
+@Description("The wait for a permit of the rate limiter of an exchange")
+public class RateLimitWaitEvent extends Event {
+
+	@Label("Exchange")
+	public String exchange;
+}
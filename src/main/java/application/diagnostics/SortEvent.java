@@ -0,0 +1,20 @@
+package application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event : the sort of the spreads of a cycle.
+ */
+@Name("application.Sort")
+@Label("Sort")
+@Category({ "Exchange Spread", "Spreads" })
+@Description("The sort of the spreads of a cycle")
+public class SortEvent extends Event {
+
+	@Label("Spreads")
+	public int spreads;
+}
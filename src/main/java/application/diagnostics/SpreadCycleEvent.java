@@ -0,0 +1,24 @@
+package application.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event : one spread calculation cycle, from its start to the
+ * published snapshot.
+ */
+@Name("application.SpreadCycle")
+@Label("Spread Cycle")
+@Category({ "Exchange Spread", "Spreads" })
+@Description("One spread calculation cycle, from its start to the published snapshot")
+public class SpreadCycleEvent extends Event {
+
+	@Label("Spreads")
+	public int spreads;
+
+	@Label("Batch Mode")
+	public boolean batchMode;
+}
@@ -1,10 +1,18 @@
 package application.exchange;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,8 +24,15 @@ import com.google.common.util.concurrent.RateLimiter;
 import application.NetTickPrice;
 import application.configuration.AppConfig;
 import application.configuration.ExchangeConfig;
-import io.reactivex.Observable;
+import application.diagnostics.HttpRequestEvent;
+import application.diagnostics.ParseEvent;
+import application.diagnostics.QuoteUpdateEvent;
+import application.diagnostics.RateLimitWaitEvent;
+import io.reactivex.Flowable;
 import io.reactivex.Scheduler;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
@@ -34,6 +49,16 @@ public abstract class BaseExchangeConnector {
 	 */
 	private static Logger LOGGER = LoggerFactory.getLogger(BaseExchangeConnector.class);
 
+	/**
+	 * The maximum time the connection pre-warming may delay the first poll
+	 */
+	private static final long WARM_UP_TIMEOUT_SECONDS = 5;
+
+	/**
+	 * The compressions accepted for the responses
+	 */
+	private static final String ACCEPT_ENCODING = "gzip, deflate";
+
 	/**
 	 * The application JSON configuration
 	 */
@@ -60,15 +85,52 @@ public abstract class BaseExchangeConnector {
 	private final RateLimiter rateLimiter;
 
 	/**
-	 * Cache of the tick prices for each currency pair
+	 * The latest net prices of each configured currency pair
+	 */
+	private final QuoteSlots quoteSlots;
+
+	/**
+	 * The fee of the exchange, as the factor applied to the prices
+	 */
+	private final double feeFactor;
+
+	/**
+	 * Listeners notified of every tick update
 	 */
-	private final Map<String, NetTickPrice> tickCache;
+	private final List<TickListener> tickListeners;
 
 	/**
 	 * The scheduler obtained from the thread pool configured in JSON
 	 */
 	private final Scheduler ioScheduler;
 
+	/**
+	 * Stops sending requests while the exchange keeps failing
+	 */
+	private final CircuitBreaker circuitBreaker;
+
+	/**
+	 * Latency of the recent requests for each endpoint (key is the URL), only
+	 * tracked when hedging is enabled
+	 */
+	private final Map<String, LatencyTracker> latencyTrackers;
+
+	/**
+	 * Reusable buffers for the response bodies
+	 */
+	private final ResponseBufferPool responseBuffers;
+
+	/**
+	 * Runs the loops polling the exchange
+	 */
+	private final PollingEngine pollingEngine;
+
+	/**
+	 * Decodes the responses off the I/O threads (null if disabled : decoded
+	 * by the I/O thread that read them)
+	 */
+	private final DecodeStage decodeStage;
+
 	/**
 	 * Initializes the connector
 	 */
@@ -76,41 +138,262 @@ public abstract class BaseExchangeConnector {
 		this.exchangeConfig = exchangeConfig;
 		this.appConfig = appConfig;
 		this.ioScheduler = scheduler;
-		this.client = new OkHttpClient();
+		this.client = createClient(exchangeConfig);
 		this.objectMapper = new ObjectMapper();
-		this.tickCache = new ConcurrentHashMap<>();
-		this.rateLimiter = RateLimiter.create(exchangeConfig.getPollingLimit(), 1,  TimeUnit.SECONDS);
+		this.quoteSlots = new QuoteSlots(appConfig.getCurrencyPairs());
+		this.feeFactor = exchangeConfig.getFee().doubleValue();
+		this.tickListeners = new CopyOnWriteArrayList<>();
+		// No polling limit : the connector doesn't poll (e.g. market data feed)
+		this.rateLimiter = exchangeConfig.getPollingLimit() != null
+				? RateLimiter.create(exchangeConfig.getPollingLimit(), 1,  TimeUnit.SECONDS)
+				: RateLimiter.create(Double.MAX_VALUE);
+		this.circuitBreaker = new CircuitBreaker(exchangeConfig.getId(), exchangeConfig.getCircuitBreaker());
+		this.latencyTrackers = new ConcurrentHashMap<>();
+		this.decodeStage = appConfig.getDecodeStage() != null ? DecodeStage.shared(appConfig.getDecodeStage()) : null;
+		// Room for a hedge of each concurrent request, and as many responses waiting to be decoded
+		this.responseBuffers = new ResponseBufferPool((decodeStage != null ? 4 : 2)
+				* (exchangeConfig.getMaxConcurrency() != null ? exchangeConfig.getMaxConcurrency() : 1),
+				exchangeConfig.getMaxBodySize() != null
+					? exchangeConfig.getMaxBodySize() : ResponseBufferPool.DEFAULT_MAX_BODY_SIZE);
+		this.pollingEngine = new PollingEngine(exchangeConfig.getId(), scheduler, circuitBreaker);
+	}
+
+	/**
+	 * Creates the HTTP client with the timeouts configured for the exchange.
+	 */
+	private static OkHttpClient createClient(ExchangeConfig exchangeConfig) {
+		final OkHttpClient.Builder builder = new OkHttpClient.Builder();
+		if(exchangeConfig.getConnectTimeout() != null) {
+			builder.connectTimeout(exchangeConfig.getConnectTimeout(), TimeUnit.MILLISECONDS);
+		}
+		if(exchangeConfig.getReadTimeout() != null) {
+			builder.readTimeout(exchangeConfig.getReadTimeout(), TimeUnit.MILLISECONDS);
+		}
+		// Hedged requests are sent asynchronously : don't let the per-host limit queue them
+		final Dispatcher dispatcher = new Dispatcher();
+		dispatcher.setMaxRequestsPerHost(dispatcher.getMaxRequests());
+		builder.dispatcher(dispatcher);
+		return builder.build();
 	}
 
 	/**
 	 * Obtains the tick information (bid and ask sides) for the given currency pair.
 	 */
-	public abstract Observable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency);
+	public abstract Flowable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency);
 
 	/**
 	 * Initiates a web request to the server and returns the response received
 	 * from it.
 	 *
+	 * If hedging is enabled and the response takes longer than the configured
+	 * latency percentile of the endpoint, a second identical request is sent
+	 * (provided the rate limiter has a permit available right away) and the
+	 * first response received is used.
+	 *
 	 * @param url the URL of the server API
 	 * @return the response received from the server
 	 * @throws IOException if the web request fails
 	 */
 	private Response getResponse(final String url) throws IOException {
+		final Double hedgePercentile = exchangeConfig.getHedgePercentile();
+		final LatencyTracker latencyTracker = hedgePercentile == null ? null
+				: latencyTrackers.computeIfAbsent(url, (key) -> new LatencyTracker(hedgePercentile));
+		final long startNanos = System.nanoTime();
 		try {
-			final Response response = client.newCall(
-				new Request.Builder().url(url).build()).execute();
+			// Asked explicitly so the body is decompressed into the pooled buffers
+			final Request request = new Request.Builder().url(url)
+					.header("Accept-Encoding", ACCEPT_ENCODING).build();
+			final long hedgeDelay = latencyTracker != null ? latencyTracker.getPercentileMillis() : -1;
+			final Response response;
+			if(hedgeDelay < 0) {
+				response = client.newCall(request).execute();
+				if(latencyTracker != null) {
+					latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+				}
+			} else {
+				response = executeHedged(request, hedgeDelay, latencyTracker, startNanos);
+			}
 			if(response.code() != 200) {
+				response.close();
 				throw new IOException(String.format(
 						"Invalid response code : %d from : {%s} ",
 						response.code(), url));
 			}
+			// The success is recorded once the body is read and decoded
 			LOGGER.info("Got response from : " + url + " = " + response.code());
 			return response;
+		} catch (final InterruptedException e) {
+			// Stopped, not a failure of the exchange
+			Thread.currentThread().interrupt();
+			final InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for : " + url);
+			interrupted.initCause(e);
+			throw interrupted;
 		} catch (final Exception e) {
+			circuitBreaker.recordFailure();
 			throw new IOException("Failed to get tick info from : " + url, e);
 		}
 	}
 
+	/**
+	 * Sends the request and, if no response is received within the hedge
+	 * delay, a second (hedge) one. Returns the first response received.
+	 *
+	 * The latency of the endpoint is the one of the first request : if the
+	 * hedge wins, the first request still runs to completion (or failure, e.g.
+	 * a timeout) to record it, else the latency of the slow requests would be
+	 * replaced by the one of their hedges. The losing hedge is cancelled.
+	 */
+	private Response executeHedged(Request request, long hedgeDelayMillis, LatencyTracker latencyTracker,
+			long startNanos) throws Exception {
+
+		final CompletableFuture<Response> result = new CompletableFuture<>();
+		final AtomicReference<Call> winner = new AtomicReference<>();
+		final AtomicInteger pendingCalls = new AtomicInteger(1);
+
+		final Call primary = client.newCall(request);
+		Call hedge = null;
+		enqueue(primary, result, winner, pendingCalls, latencyTracker, startNanos);
+		try {
+			try {
+				return result.get(hedgeDelayMillis, TimeUnit.MILLISECONDS);
+			} catch (final TimeoutException e) {
+				if(!rateLimiter.tryAcquire()) {
+					return result.get();
+				}
+				if(LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Sending hedge request after " + hedgeDelayMillis + " ms : " + request.url());
+				}
+				pendingCalls.incrementAndGet();
+				hedge = primary.clone();
+				enqueue(hedge, result, winner, pendingCalls, null, startNanos);
+				return result.get();
+			}
+		} finally {
+			final Call won = winner.get();
+			if(won == null) {
+				// Failed or interrupted
+				primary.cancel();
+			}
+			if(hedge != null && won != hedge) {
+				hedge.cancel();
+			}
+		}
+	}
+
+	/**
+	 * Sends the call asynchronously. The first response completes the result,
+	 * the result fails only once all the pending calls have failed.
+	 *
+	 * @param latencyTracker Records the latency of the call, response or
+	 *        failure (null if not recorded)
+	 */
+	private void enqueue(Call call, CompletableFuture<Response> result, AtomicReference<Call> winner,
+			AtomicInteger pendingCalls, LatencyTracker latencyTracker, long startNanos) {
+		call.enqueue(new Callback() {
+			@Override
+			public void onResponse(Call call, Response response) {
+				recordLatency();
+				if(winner.compareAndSet(null, call)) {
+					result.complete(response);
+				} else {
+					response.close();
+				}
+			}
+
+			@Override
+			public void onFailure(Call call, IOException e) {
+				if(!call.isCanceled()) {
+					recordLatency();
+				}
+				if(pendingCalls.decrementAndGet() == 0) {
+					result.completeExceptionally(e);
+				}
+			}
+
+			private void recordLatency() {
+				if(latencyTracker != null) {
+					latencyTracker.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Opens the connections to the exchange host ahead of the first poll, so
+	 * that the first requests don't pay for the DNS lookup and the TCP / TLS
+	 * handshakes. One HEAD request is sent concurrently for each request the
+	 * exchange may run at the same time ('maxConcurrency') : the connections
+	 * then stay in the pool of the HTTP client.
+	 *
+	 * @param url any URL on the exchange host (the response is ignored)
+	 */
+	protected void warmUpConnections(String url) {
+		final int connections = exchangeConfig.getMaxConcurrency() != null ? exchangeConfig.getMaxConcurrency() : 1;
+		final CountDownLatch pendingConnections = new CountDownLatch(connections);
+		for (int i = 0; i < connections; i++) {
+			client.newCall(new Request.Builder().url(url).head().build()).enqueue(new Callback() {
+				@Override
+				public void onResponse(Call call, Response response) {
+					response.close();
+					pendingConnections.countDown();
+				}
+
+				@Override
+				public void onFailure(Call call, IOException e) {
+					LOGGER.warn("Failed to pre-warm the connection to : " + url, e);
+					pendingConnections.countDown();
+				}
+			});
+		}
+		try {
+			if(!pendingConnections.await(WARM_UP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				LOGGER.warn("Timed out pre-warming the connections to : " + url);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for a permit to send a request to the exchange : the request is
+	 * refused right away while the circuit breaker is open, otherwise it is
+	 * throttled by the rate limiter.
+	 *
+	 * @throws CircuitOpenException if the circuit breaker is open
+	 */
+	protected void acquirePermit() throws IOException {
+		if(!circuitBreaker.allowRequest()) {
+			throw new CircuitOpenException("Circuit open, request not sent to : " + exchangeConfig.getId());
+		}
+		final RateLimitWaitEvent event = new RateLimitWaitEvent();
+		event.begin();
+		rateLimiter.acquire(1);
+		event.end();
+		if(event.shouldCommit()) {
+			event.exchange = exchangeConfig.getId();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Adds a loop polling the exchange : the poll runs on the IO scheduler,
+	 * again and again while the polling engine runs (see
+	 * {@link #getPollingEngine()}).
+	 *
+	 * @param description What the loop polls, for the logs
+	 */
+	protected void addPollingLoop(String description, PollingEngine.Poll poll) {
+		pollingEngine.addLoop(description, poll);
+	}
+
+	/**
+	 * Returns the engine running the loops polling the exchange, to stop or
+	 * restart them
+	 */
+	public PollingEngine getPollingEngine() {
+		return pollingEngine;
+	}
+
 	/**
 	 * Get the exchange configuration
 	 */
@@ -118,42 +401,190 @@ public abstract class BaseExchangeConnector {
 		return exchangeConfig;
 	}
 
+	/**
+	 * Returns the ID of the exchange
+	 */
+	public String getExchangeId() {
+		return exchangeConfig.getId();
+	}
+
+	/**
+	 * Returns the base URL of the exchange API : the one configured in JSON (if
+	 * any) or else the given default (live) URL.
+	 */
+	protected String getBaseUrl(String defaultBaseUrl) {
+		final String baseUrl = exchangeConfig.getBaseUrl();
+		if(baseUrl == null || baseUrl.isEmpty()) {
+			return defaultBaseUrl;
+		}
+		return baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+	}
+
 	/**
 	 * Initiates a web request to the given URL and parses the response to the
 	 * given class.
 	 */
 	protected <T> T getJson(String url, Class<T> clazz) throws IOException {
-		final Response response = getResponse(url);
-		ResponseBody body = null;
+		return readBody(url, (bytes, offset, length) -> objectMapper.readValue(bytes, offset, length, clazz));
+	}
+
+	/**
+	 * Initiates a web request to the given URL and parses the response to the
+	 * given type reference.
+	 */
+	protected <T> T getJson(String url, TypeReference<T> typeRef) throws IOException {
+		return readBody(url, (bytes, offset, length) -> objectMapper.readValue(bytes, offset, length, typeRef));
+	}
+
+	/**
+	 * Initiates a web request to the given URL and passes the (decompressed)
+	 * response body to the given reader, without mapping it.
+	 */
+	protected <T> T readBody(String url, BodyReader<T> reader) throws IOException {
+		final ResponseBuffer buffer = responseBuffers.acquire();
 		try {
-			body = response.body();
-			final String responseTxt = body.string();
-			final T parsedObj = objectMapper.readValue(responseTxt, clazz);
-			return parsedObj;
+			readResponse(url, buffer);
+			return decode(url, buffer, reader);
 		} finally {
-			if(body != null) {
-				body.close();
+			responseBuffers.release(buffer);
+		}
+	}
+
+	/**
+	 * Passes a response body read to the given reader. The poll succeeds for
+	 * the circuit breaker only once its body is decoded : a reader error (e.g.
+	 * an error message in a valid response) is a failure of the exchange.
+	 */
+	private <T> T decode(String url, ResponseBuffer buffer, BodyReader<T> reader) throws IOException {
+		final ParseEvent event = new ParseEvent();
+		event.begin();
+		final T value;
+		try {
+			value = reader.read(buffer.getBytes(), 0, buffer.getLength());
+		} catch (final IOException | RuntimeException e) {
+			circuitBreaker.recordFailure();
+			throw e;
+		}
+		commitParseEvent(event, url, buffer);
+		circuitBreaker.recordSuccess();
+		return value;
+	}
+
+	/**
+	 * Reads a response body, only valid during the call (the buffer is reused)
+	 */
+	protected interface BodyReader<T> {
+
+		T read(byte[] bytes, int offset, int length) throws IOException;
+	}
+
+	/**
+	 * Initiates a web request to the given URL and passes the (decompressed)
+	 * response body to the given reader : on the decode stage if it is
+	 * enabled (this thread returns once the body is read and queued), else
+	 * right away. The errors of the reader on the decode stage are counted as
+	 * failures of the exchange by its circuit breaker and polling engine.
+	 */
+	protected void decodeBody(String url, BodyReader<?> reader) throws IOException {
+		if(decodeStage == null) {
+			readBody(url, reader);
+			return;
+		}
+		final ResponseBuffer buffer = responseBuffers.acquire();
+		try {
+			readResponse(url, buffer);
+			decodeStage.submit(new DecodeTask(url, buffer, reader));
+		} catch (final IOException e) {
+			responseBuffers.release(buffer);
+			throw e;
+		}
+	}
+
+	/**
+	 * A response read by an I/O thread, waiting for the decode stage
+	 */
+	private final class DecodeTask implements DecodeStage.Task {
+
+		private final String url;
+		private final ResponseBuffer buffer;
+		private final BodyReader<?> reader;
+
+		DecodeTask(String url, ResponseBuffer buffer, BodyReader<?> reader) {
+			this.url = url;
+			this.buffer = buffer;
+			this.reader = reader;
+		}
+
+		@Override
+		public String getExchangeId() {
+			return exchangeConfig.getId();
+		}
+
+		@Override
+		public String getUrl() {
+			return url;
+		}
+
+		@Override
+		public void decode() {
+			try {
+				BaseExchangeConnector.this.decode(url, buffer, reader);
+			} catch (final IOException | RuntimeException e) {
+				pollingEngine.recordDecodeFailure();
+				LOGGER.warn("Failed to decode the response from : " + url, e);
+			} finally {
+				responseBuffers.release(buffer);
 			}
 		}
 	}
 
 	/**
-	 * Initiates a web request to the given URL and parses the response to the
-	 * given type reference.
+	 * Initiates a web request to the given URL and reads the (decompressed)
+	 * response body into the given buffer.
 	 */
-	protected <T> T getJson(String url, TypeReference<T> typeRef) throws IOException {
-		final Response response = getResponse(url);
-		ResponseBody body = null;
+	private void readResponse(String url, ResponseBuffer buffer) throws IOException {
+		final HttpRequestEvent event = new HttpRequestEvent();
+		event.begin();
 		try {
-			body = response.body();
-			final String responseTxt = body.string();
-			final T parsedObj = objectMapper.readValue(responseTxt, typeRef);
-			return parsedObj;
+			final Response response = getResponse(url);
+			try (ResponseBody body = response.body()) {
+				buffer.read(body.byteStream(), response.header("Content-Encoding"), body.contentLength());
+			} catch (final IOException e) {
+				circuitBreaker.recordFailure();
+				throw e;
+			}
+			event.receivedBytes = buffer.getReceivedLength();
+		} catch (final IOException e) {
+			event.error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+			throw e;
 		} finally {
-			if(body != null) {
-				body.close();
+			event.end();
+			if(event.shouldCommit()) {
+				event.exchange = exchangeConfig.getId();
+				event.url = url;
+				event.commit();
 			}
 		}
+		if(LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Read " + buffer.getReceivedLength() + " bytes (" + buffer.getLength() + " decoded) from : " + url);
+		}
+	}
+
+	private void commitParseEvent(ParseEvent event, String url, ResponseBuffer buffer) {
+		event.end();
+		if(event.shouldCommit()) {
+			event.exchange = exchangeConfig.getId();
+			event.url = url;
+			event.bytes = buffer.getLength();
+			event.commit();
+		}
+	}
+
+	/**
+	 * Returns the JSON parser, for the readers of the response bodies
+	 */
+	protected ObjectMapper getObjectMapper() {
+		return objectMapper;
 	}
 
 	/**
@@ -171,10 +602,90 @@ public abstract class BaseExchangeConnector {
 	}
 
 	/**
-	 * Returns the cache storing the tick prices (ask & bid)
+	 * Returns the slots storing the latest net prices (ask & bid) of the
+	 * configured currency pairs
+	 */
+	public QuoteSlots getQuoteSlots() {
+		return quoteSlots;
+	}
+
+	/**
+	 * Returns the fee of the exchange as the factor applied to the prices
+	 */
+	protected double getFeeFactor() {
+		return feeFactor;
+	}
+
+	/**
+	 * Returns the latest tick price of the currency pair, or null if there is
+	 * none yet or the pair isn't configured
+	 */
+	public NetTickPrice getLatestTick(String ccyPair) {
+		final int pair = quoteSlots.indexOf(ccyPair);
+		final QuoteSlots.Quote quote = new QuoteSlots.Quote();
+		if(pair < 0 || !quoteSlots.read(pair, quote)) {
+			return null;
+		}
+		return new NetTickPrice(exchangeConfig.getId(), ccyPair,
+				quote.getNetAskPrice(), quote.getNetBidPrice(), quote.getTimestamp());
+	}
+
+	/**
+	 * Stores the net prices of a configured currency pair in its slot (without
+	 * allocating), then notifies the tick listeners if there are any.
+	 *
+	 * @param pair The index of the pair in the quote slots
+	 */
+	protected void updateQuote(int pair, double netAskPrice, double netBidPrice) {
+		updateQuote(pair, netAskPrice, netBidPrice, System.currentTimeMillis());
+	}
+
+	/**
+	 * Stores the net prices of a configured currency pair with the time they
+	 * were received at (e.g. by another instance, for the market data feed).
+	 *
+	 * @param pair The index of the pair in the quote slots
+	 */
+	protected void updateQuote(int pair, double netAskPrice, double netBidPrice, long timestamp) {
+		final QuoteUpdateEvent event = new QuoteUpdateEvent();
+		event.begin();
+		quoteSlots.write(pair, netAskPrice, netBidPrice, timestamp);
+		event.end();
+		if(event.shouldCommit()) {
+			event.exchange = exchangeConfig.getId();
+			event.ccyPair = quoteSlots.getCurrencyPair(pair);
+			event.netAskPrice = netAskPrice;
+			event.netBidPrice = netBidPrice;
+			event.commit();
+		}
+		if(!tickListeners.isEmpty()) {
+			notifyTickListeners(quoteSlots.getCurrencyPair(pair), netAskPrice, netBidPrice, timestamp);
+		}
+	}
+
+	/**
+	 * Returns true if a listener wants the ticks, including those of the pairs
+	 * that aren't configured (e.g. to convert them to another quote currency)
+	 */
+	protected boolean hasTickListeners() {
+		return !tickListeners.isEmpty();
+	}
+
+	/**
+	 * Notifies the tick listeners of the net prices of a pair (without
+	 * allocating)
+	 */
+	protected void notifyTickListeners(String ccyPair, double netAskPrice, double netBidPrice, long timestamp) {
+		for (int i = 0; i < tickListeners.size(); i++) {
+			tickListeners.get(i).onTick(exchangeConfig.getId(), ccyPair, netAskPrice, netBidPrice, timestamp);
+		}
+	}
+
+	/**
+	 * Registers a listener notified of every tick update
 	 */
-	public Map<String, NetTickPrice> getTickCache() {
-		return tickCache;
+	public void addTickListener(TickListener listener) {
+		tickListeners.add(listener);
 	}
 
 	/**
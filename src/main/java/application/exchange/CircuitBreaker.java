@@ -0,0 +1,114 @@
+package application.exchange;
+
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.configuration.CircuitBreakerConfig;
+
+/**
+ * Circuit breaker for the requests to one exchange.
+ *
+ * After 'failureThreshold' consecutive failures the circuit opens and the
+ * requests are refused (without using any rate limiter permit) for
+ * 'openDuration'. A single probe request is then let through (half-open) :
+ * its success closes the circuit, its failure opens it again. While the
+ * probe is in flight, the other requests are refused and retried after
+ * 'probeRetryInterval'.
+ */
+public class CircuitBreaker {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(CircuitBreaker.class);
+
+	private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+	private static final long DEFAULT_OPEN_DURATION = 10000;
+	private static final long DEFAULT_PROBE_RETRY_INTERVAL = 500;
+
+	private enum State {
+		CLOSED, OPEN, HALF_OPEN
+	}
+
+	/**
+	 * Name used in the logs
+	 */
+	private final String name;
+
+	private final int failureThreshold;
+	private final long openDurationNanos;
+	private final long probeRetryMillis;
+
+	private State state;
+	private int consecutiveFailures;
+
+	/**
+	 * The time until which the circuit stays open
+	 */
+	private long openUntilNanos;
+
+	public CircuitBreaker(String name, CircuitBreakerConfig config) {
+		final CircuitBreakerConfig breakerConfig = config != null ? config : new CircuitBreakerConfig();
+		this.name = name;
+		this.failureThreshold = breakerConfig.getFailureThreshold() != null
+				? breakerConfig.getFailureThreshold() : DEFAULT_FAILURE_THRESHOLD;
+		this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(breakerConfig.getOpenDuration() != null
+				? breakerConfig.getOpenDuration() : DEFAULT_OPEN_DURATION);
+		this.probeRetryMillis = breakerConfig.getProbeRetryInterval() != null
+				? breakerConfig.getProbeRetryInterval() : DEFAULT_PROBE_RETRY_INTERVAL;
+		this.state = State.CLOSED;
+	}
+
+	/**
+	 * Checks whether a request may be sent. When the open period is over, the
+	 * first caller gets to send the (only) probe request.
+	 */
+	public synchronized boolean allowRequest() {
+		switch (state) {
+		case CLOSED:
+			return true;
+		case OPEN:
+			if(System.nanoTime() - openUntilNanos >= 0) {
+				state = State.HALF_OPEN;
+				LOGGER.info("Circuit half-open, probing : " + name);
+				return true;
+			}
+			return false;
+		default:
+			// A probe is already in flight
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the time to wait before the next request may be allowed : 0 if
+	 * the circuit is closed, the time left before the probe if it is open, the
+	 * probe retry interval while the probe is in flight
+	 */
+	public synchronized long getRemainingOpenMillis() {
+		switch (state) {
+		case CLOSED:
+			return 0;
+		case OPEN:
+			return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openUntilNanos - System.nanoTime()));
+		default:
+			return probeRetryMillis;
+		}
+	}
+
+	public synchronized void recordSuccess() {
+		if(state != State.CLOSED) {
+			LOGGER.info("Circuit closed : " + name);
+		}
+		state = State.CLOSED;
+		consecutiveFailures = 0;
+	}
+
+	public synchronized void recordFailure() {
+		consecutiveFailures++;
+		if(state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+			state = State.OPEN;
+			openUntilNanos = System.nanoTime() + openDurationNanos;
+			LOGGER.warn("Circuit opened after " + consecutiveFailures + " consecutive failures : " + name);
+		}
+	}
+}
@@ -0,0 +1,16 @@
+package application.exchange;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request is refused because the circuit breaker of the
+ * exchange is open (or a probe request is in flight) : no request was sent.
+ */
+public class CircuitOpenException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public CircuitOpenException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,163 @@
+package application.exchange;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.configuration.DecodeStageConfig;
+
+/**
+ * The stage decoding the responses read by the I/O threads, shared by all the
+ * exchange connectors : an I/O thread only reads the body of a response into
+ * a buffer and queues it, then goes on with the next request while a decoding
+ * thread parses the body and updates the quotes.
+ *
+ * Each decoding thread has its own queue, and the responses of a URL (one
+ * exchange, and one pair when it is polled alone) always go to the same
+ * thread : they are decoded in the order they were read, so an older quote
+ * never overwrites a newer one.
+ *
+ * The queues are bounded : when the decoding falls behind, the I/O threads
+ * wait for room instead of piling up buffers. A decoding thread takes all the
+ * responses waiting in its queue (up to the maximum batch) at once and decodes
+ * them grouped by exchange (keeping their order), so a burst of small
+ * responses (e.g. the BTCMarkets ticks of all the pairs) costs one hand-off
+ * instead of one per response.
+ */
+public class DecodeStage {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(DecodeStage.class);
+
+	private static final int DEFAULT_QUEUE_CAPACITY = 256;
+	private static final int DEFAULT_MAX_BATCH = 32;
+
+	/**
+	 * The stage of each configuration (one per application), guarded by the
+	 * class
+	 */
+	private static final Map<DecodeStageConfig, DecodeStage> STAGES = new IdentityHashMap<>();
+
+	private static final Comparator<Task> BY_EXCHANGE = Comparator.comparing(Task::getExchangeId);
+
+	/**
+	 * A response waiting to be decoded
+	 */
+	public interface Task {
+
+		String getExchangeId();
+
+		/**
+		 * The URL of the request : the responses of a URL are decoded in order
+		 */
+		String getUrl();
+
+		/**
+		 * Decodes the response, then releases its buffer (decoding thread)
+		 */
+		void decode();
+	}
+
+	/**
+	 * The queue of each decoding thread
+	 */
+	private final List<BlockingQueue<Task>> queues;
+	private final int maxBatch;
+
+	private final LongAdder decodedResponses;
+	private final LongAdder batches;
+
+	private DecodeStage(DecodeStageConfig config) {
+		final int threads = config.getThreads() != null ? config.getThreads() : Runtime.getRuntime().availableProcessors();
+		final int queueCapacity = config.getQueueCapacity() != null ? config.getQueueCapacity() : DEFAULT_QUEUE_CAPACITY;
+		this.maxBatch = config.getMaxBatch() != null ? config.getMaxBatch() : DEFAULT_MAX_BATCH;
+		this.decodedResponses = new LongAdder();
+		this.batches = new LongAdder();
+		this.queues = new ArrayList<>(threads);
+		final ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("decode-%d").setDaemon(true).build();
+		for (int i = 0; i < threads; i++) {
+			final BlockingQueue<Task> queue = new ArrayBlockingQueue<>(Math.max(1, (queueCapacity + threads - 1) / threads));
+			queues.add(queue);
+			threadFactory.newThread(() -> run(queue)).start();
+		}
+		LOGGER.info("Decode stage started : " + threads + " threads, batches of up to " + maxBatch);
+	}
+
+	/**
+	 * Returns the stage of the configuration, started on first use
+	 */
+	public static synchronized DecodeStage shared(DecodeStageConfig config) {
+		return STAGES.computeIfAbsent(config, DecodeStage::new);
+	}
+
+	/**
+	 * Queues a response for the thread decoding its URL, waiting while the
+	 * queue of that thread is full (I/O thread)
+	 *
+	 * @throws InterruptedIOException if interrupted while waiting
+	 */
+	public void submit(Task task) throws InterruptedIOException {
+		try {
+			queues.get(Math.floorMod(task.getUrl().hashCode(), queues.size())).put(task);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while queueing a response for decoding");
+		}
+	}
+
+	private void run(BlockingQueue<Task> queue) {
+		final List<Task> batch = new ArrayList<>(maxBatch);
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				batch.add(queue.take());
+			} catch (final InterruptedException e) {
+				return;
+			}
+			queue.drainTo(batch, maxBatch - 1);
+			if(batch.size() > 1) {
+				// Stable : the responses of each exchange stay in order
+				batch.sort(BY_EXCHANGE);
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				try {
+					batch.get(i).decode();
+				} catch (final RuntimeException e) {
+					LOGGER.error("Failed to decode a response of " + batch.get(i).getExchangeId(), e);
+				}
+			}
+			decodedResponses.add(batch.size());
+			batches.increment();
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Returns the number of responses waiting to be decoded
+	 */
+	public int getQueuedResponses() {
+		int queued = 0;
+		for (final BlockingQueue<Task> queue : queues) {
+			queued += queue.size();
+		}
+		return queued;
+	}
+
+	public long getDecodedResponses() {
+		return decodedResponses.sum();
+	}
+
+	public long getBatches() {
+		return batches.sum();
+	}
+}
@@ -0,0 +1,77 @@
+package application.exchange;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of tasks of one exchange running concurrently on the
+ * {@link SharedIOExecutor}. The tasks above the limit wait in this bulkhead
+ * (without holding a thread), so one slow exchange can't take every thread of
+ * the shared pool.
+ */
+public class ExchangeBulkhead implements Executor {
+
+	/**
+	 * The pool shared by all the exchanges
+	 */
+	private final Executor sharedExecutor;
+
+	/**
+	 * The maximum number of tasks running concurrently for this exchange
+	 */
+	private final int maxConcurrency;
+
+	/**
+	 * Tasks waiting for a free slot in this bulkhead
+	 */
+	private final Queue<Runnable> pendingTasks;
+
+	/**
+	 * Number of tasks handed over to the shared pool
+	 */
+	private final AtomicInteger activeTasks;
+
+	public ExchangeBulkhead(Executor sharedExecutor, int maxConcurrency) {
+		this.sharedExecutor = sharedExecutor;
+		this.maxConcurrency = maxConcurrency;
+		this.pendingTasks = new ConcurrentLinkedQueue<>();
+		this.activeTasks = new AtomicInteger();
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		pendingTasks.offer(task);
+		drain();
+	}
+
+	/**
+	 * Hands pending tasks over to the shared pool while there are free slots.
+	 */
+	private void drain() {
+		while (!pendingTasks.isEmpty()) {
+			final int active = activeTasks.get();
+			if(active >= maxConcurrency) {
+				return;
+			}
+			if(!activeTasks.compareAndSet(active, active + 1)) {
+				continue;
+			}
+			final Runnable task = pendingTasks.poll();
+			if(task == null) {
+				// Another thread took it, give the slot back and check again
+				activeTasks.decrementAndGet();
+				continue;
+			}
+			sharedExecutor.execute(() -> {
+				try {
+					task.run();
+				} finally {
+					activeTasks.decrementAndGet();
+					drain();
+				}
+			});
+		}
+	}
+}
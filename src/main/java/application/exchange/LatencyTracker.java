@@ -0,0 +1,62 @@
+package application.exchange;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the latency of the recent requests to one endpoint and gives a
+ * percentile of it. The percentile is recomputed every few samples so that
+ * reading it stays cheap.
+ */
+public class LatencyTracker {
+
+	/**
+	 * The number of recent samples kept
+	 */
+	private static final int WINDOW_SIZE = 128;
+
+	/**
+	 * The number of samples between two percentile computations
+	 */
+	private static final int RECOMPUTE_INTERVAL = 16;
+
+	/**
+	 * The percentile tracked (0 to 100)
+	 */
+	private final double percentile;
+
+	/**
+	 * Ring buffer of the recent latencies (in milliseconds)
+	 */
+	private final long[] samples;
+
+	private long sampleCount;
+
+	/**
+	 * The last computed percentile (-1 until enough samples are recorded)
+	 */
+	private volatile long percentileMillis;
+
+	public LatencyTracker(double percentile) {
+		this.percentile = percentile;
+		this.samples = new long[WINDOW_SIZE];
+		this.percentileMillis = -1;
+	}
+
+	public synchronized void record(long latencyMillis) {
+		samples[(int) (sampleCount++ % WINDOW_SIZE)] = latencyMillis;
+		if(sampleCount >= RECOMPUTE_INTERVAL && sampleCount % RECOMPUTE_INTERVAL == 0) {
+			final int size = (int) Math.min(sampleCount, WINDOW_SIZE);
+			final long[] sorted = Arrays.copyOf(samples, size);
+			Arrays.sort(sorted);
+			percentileMillis = sorted[Math.max(0, Math.min(size - 1, (int) Math.ceil(percentile / 100 * size) - 1))];
+		}
+	}
+
+	/**
+	 * Returns the latency percentile (in milliseconds), or -1 if there are not
+	 * enough samples yet
+	 */
+	public long getPercentileMillis() {
+		return percentileMillis;
+	}
+}
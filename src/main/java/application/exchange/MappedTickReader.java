@@ -0,0 +1,164 @@
+package application.exchange;
+
+import static application.exchange.MappedTickStore.ASK_PRICE;
+import static application.exchange.MappedTickStore.BID_PRICE;
+import static application.exchange.MappedTickStore.LONGS;
+import static application.exchange.MappedTickStore.SEQUENCE;
+import static application.exchange.MappedTickStore.TIMESTAMP;
+
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the quotes of a {@link MappedTickStore} in place from another process
+ * (or the same one), with a read-only mapping of its file. Reading a quote
+ * neither locks nor allocates, and the writer never waits for the readers.
+ *
+ * Started standalone, it prints the quotes of the store. The argument is the
+ * path of the file.
+ */
+public class MappedTickReader {
+
+	/**
+	 * The number of times a read is tried while its slot is being written : a
+	 * write takes nanoseconds, so a slot still locked after that was left by
+	 * a writer that died while writing it
+	 */
+	static final int MAX_READ_ATTEMPTS = 1_000_000;
+
+	private final MappedByteBuffer buffer;
+	private final List<String> exchangeIds;
+	private final List<String> currencyPairs;
+	private final int slotLength;
+	private final int slotsOffset;
+
+	private MappedTickReader(MappedByteBuffer buffer) {
+		this.buffer = buffer;
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if(buffer.getInt(MappedTickStore.MAGIC_OFFSET) != MappedTickStore.MAGIC
+				|| buffer.getInt(MappedTickStore.VERSION_OFFSET) != MappedTickStore.VERSION) {
+			throw new IllegalArgumentException("Not a tick store (version " + MappedTickStore.VERSION + ")");
+		}
+		final int exchangeCount = buffer.getInt(MappedTickStore.EXCHANGE_COUNT_OFFSET);
+		final int pairCount = buffer.getInt(MappedTickStore.PAIR_COUNT_OFFSET);
+		final int symbolLength = buffer.getInt(MappedTickStore.SYMBOL_LENGTH_OFFSET);
+		final int symbolsOffset = buffer.getInt(MappedTickStore.SYMBOLS_OFFSET_OFFSET);
+		this.slotLength = buffer.getInt(MappedTickStore.SLOT_LENGTH_OFFSET);
+		this.slotsOffset = buffer.getInt(MappedTickStore.SLOTS_OFFSET_OFFSET);
+		final List<String> symbols = new ArrayList<>(exchangeCount + pairCount);
+		for (int i = 0; i < exchangeCount + pairCount; i++) {
+			symbols.add(readSymbol(symbolsOffset + i * symbolLength, symbolLength));
+		}
+		this.exchangeIds = Collections.unmodifiableList(symbols.subList(0, exchangeCount));
+		this.currencyPairs = Collections.unmodifiableList(symbols.subList(exchangeCount, symbols.size()));
+	}
+
+	/**
+	 * Maps the file of a tick store
+	 *
+	 * @throws IllegalArgumentException if the file isn't a tick store
+	 */
+	public static MappedTickReader open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return new MappedTickReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		final MappedTickReader reader = open(Paths.get(args[0]));
+		final QuoteSlots.Quote quote = new QuoteSlots.Quote();
+		System.out.println(String.format("Session : %d", reader.getSession()));
+		System.out.println(String.format("%15s%9s%12s%12s%15s", "Exchange", "Currency", "Ask", "Bid", "Age(ms)"));
+		for (int exchange = 0; exchange < reader.getExchangeIds().size(); exchange++) {
+			for (int pair = 0; pair < reader.getCurrencyPairs().size(); pair++) {
+				if(reader.read(exchange, pair, quote)) {
+					System.out.println(String.format("%15s%9s%12.4f%12.4f%15d", reader.getExchangeIds().get(exchange),
+							reader.getCurrencyPairs().get(pair), quote.getNetAskPrice(), quote.getNetBidPrice(),
+							System.currentTimeMillis() - quote.getTimestamp()));
+				}
+			}
+		}
+	}
+
+	private String readSymbol(int offset, int length) {
+		int end = 0;
+		while (end < length && buffer.get(offset + end) != 0) {
+			end++;
+		}
+		final byte[] bytes = new byte[end];
+		for (int i = 0; i < end; i++) {
+			bytes[i] = buffer.get(offset + i);
+		}
+		return new String(bytes, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Reads a consistent quote into the given holder
+	 *
+	 * @return false if there is no quote yet, or if the slot stays locked (the
+	 *         writer died while writing it) : the holder is then unchanged
+	 */
+	public boolean read(int exchange, int pair, QuoteSlots.Quote quote) {
+		final int offset = slotsOffset + (exchange * currencyPairs.size() + pair) * slotLength;
+		for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+			final long sequence = (long) LONGS.getAcquire(buffer, offset + SEQUENCE);
+			if((sequence & 1) != 0) {
+				// Being written
+				Thread.onSpinWait();
+				continue;
+			}
+			final long askBits = (long) LONGS.get(buffer, offset + ASK_PRICE);
+			final long bidBits = (long) LONGS.get(buffer, offset + BID_PRICE);
+			final long timestamp = (long) LONGS.get(buffer, offset + TIMESTAMP);
+			VarHandle.loadLoadFence();
+			if((long) LONGS.get(buffer, offset + SEQUENCE) != sequence) {
+				continue;
+			}
+			if(sequence == 0 || timestamp == 0) {
+				return false;
+			}
+			quote.set(Double.longBitsToDouble(askBits), Double.longBitsToDouble(bidBits), timestamp);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the session of the writer : it changes when the writer restarts
+	 */
+	public long getSession() {
+		return (long) LONGS.getVolatile(buffer, MappedTickStore.SESSION_OFFSET);
+	}
+
+	public List<String> getExchangeIds() {
+		return exchangeIds;
+	}
+
+	public List<String> getCurrencyPairs() {
+		return currencyPairs;
+	}
+
+	/**
+	 * Returns the index of an exchange (-1 if it isn't in the store)
+	 */
+	public int indexOfExchange(String exchangeId) {
+		return exchangeIds.indexOf(exchangeId);
+	}
+
+	/**
+	 * Returns the index of a currency pair (-1 if it isn't in the store)
+	 */
+	public int indexOfPair(String ccyPair) {
+		return currencyPairs.indexOf(ccyPair);
+	}
+}
@@ -0,0 +1,253 @@
+package application.exchange;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Publishes the latest quote of every exchange + currency pair in a
+ * memory-mapped file, so that other local processes (risk, reporting...) read
+ * the live quotes in place : no copy, no serialization, no request to this
+ * process. Any language that can map a file and read 64-bit values with
+ * acquire semantics can read it (see {@link MappedTickReader} for Java).
+ *
+ * All the values are little-endian. </br>
+ *
+ * Header (64 bytes) : int magic 'XTCK', int version, int exchange count, int
+ * pair count, int slot length, int symbol length, int offset of the symbols,
+ * int offset of the slots, long session (the start time of the writer). </br>
+ *
+ * Symbols : the exchange IDs, then the currency pairs, 16 bytes each (ASCII,
+ * padded with zeros). </br>
+ *
+ * Slots (64 bytes, one cache line, at exchange * pair count + pair) : long
+ * sequence, double net ask, double net bid, long timestamp of the quote,
+ * padding. </br>
+ *
+ * Each slot is a sequence lock, like {@link QuoteSlots} : the writer makes the
+ * sequence odd, writes the fields, then makes it even again. A reader reads
+ * the sequence (acquire), the fields, then the sequence again after a load
+ * fence, and retries unless both are the same even number. A slot without a
+ * quote has a timestamp of 0.
+ *
+ * When the writer starts, it reuses the file in place if it has the same
+ * layout (the readers keep their mapping and see the new session), otherwise
+ * it replaces the file and the readers must map it again. The slots reused in
+ * place are emptied under their sequence lock : the sequences keep growing
+ * across the restarts, so a reader never takes a new quote for the one it
+ * started to read before the restart.
+ */
+public class MappedTickStore implements TickListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(MappedTickStore.class);
+
+	public static final int MAGIC = 0x4b435458;
+	public static final int VERSION = 1;
+
+	public static final int HEADER_LENGTH = 64;
+	public static final int SYMBOL_LENGTH = 16;
+	public static final int SLOT_LENGTH = 64;
+
+	public static final int MAGIC_OFFSET = 0;
+	public static final int VERSION_OFFSET = 4;
+	public static final int EXCHANGE_COUNT_OFFSET = 8;
+	public static final int PAIR_COUNT_OFFSET = 12;
+	public static final int SLOT_LENGTH_OFFSET = 16;
+	public static final int SYMBOL_LENGTH_OFFSET = 20;
+	public static final int SYMBOLS_OFFSET_OFFSET = 24;
+	public static final int SLOTS_OFFSET_OFFSET = 28;
+	public static final int SESSION_OFFSET = 32;
+
+	/**
+	 * The offsets of the fields in a slot
+	 */
+	public static final int SEQUENCE = 0;
+	public static final int ASK_PRICE = 8;
+	public static final int BID_PRICE = 16;
+	public static final int TIMESTAMP = 24;
+
+	/**
+	 * Atomic access to the longs of the mapped buffer (the offsets are
+	 * multiples of 8 and the mapping is page-aligned)
+	 */
+	static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private final Path file;
+	private final MappedByteBuffer buffer;
+	private final int pairCount;
+	private final int slotsOffset;
+	private final Map<String, Integer> exchangeIndexes;
+	private final Map<String, Integer> pairIndexes;
+
+	public MappedTickStore(Path file, List<String> exchangeIds, List<String> currencyPairs) throws IOException {
+		this.file = file;
+		this.pairCount = currencyPairs.size();
+		final int symbolsLength = (exchangeIds.size() + currencyPairs.size()) * SYMBOL_LENGTH;
+		this.slotsOffset = HEADER_LENGTH + (symbolsLength + SLOT_LENGTH - 1) / SLOT_LENGTH * SLOT_LENGTH;
+		final int length = slotsOffset + exchangeIds.size() * pairCount * SLOT_LENGTH;
+
+		final ByteBuffer header = ByteBuffer.allocate(slotsOffset).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC_OFFSET, MAGIC);
+		header.putInt(VERSION_OFFSET, VERSION);
+		header.putInt(EXCHANGE_COUNT_OFFSET, exchangeIds.size());
+		header.putInt(PAIR_COUNT_OFFSET, pairCount);
+		header.putInt(SLOT_LENGTH_OFFSET, SLOT_LENGTH);
+		header.putInt(SYMBOL_LENGTH_OFFSET, SYMBOL_LENGTH);
+		header.putInt(SYMBOLS_OFFSET_OFFSET, HEADER_LENGTH);
+		header.putInt(SLOTS_OFFSET_OFFSET, slotsOffset);
+		header.putLong(SESSION_OFFSET, System.currentTimeMillis());
+		this.exchangeIndexes = new HashMap<>();
+		for (int exchange = 0; exchange < exchangeIds.size(); exchange++) {
+			exchangeIndexes.put(exchangeIds.get(exchange), exchange);
+			writeSymbol(header, HEADER_LENGTH + exchange * SYMBOL_LENGTH, exchangeIds.get(exchange));
+		}
+		this.pairIndexes = new HashMap<>();
+		for (int pair = 0; pair < pairCount; pair++) {
+			pairIndexes.put(currencyPairs.get(pair), pair);
+			writeSymbol(header, HEADER_LENGTH + (exchangeIds.size() + pair) * SYMBOL_LENGTH, currencyPairs.get(pair));
+		}
+
+		this.buffer = map(file, header, length);
+		LOGGER.info("Tick store mapped : " + file + " (" + exchangeIds.size() + " exchanges x " + pairCount
+				+ " pairs, " + length + " bytes)");
+	}
+
+	/**
+	 * Maps the file : in place if it has the same header (but the session),
+	 * otherwise in a new file moved over the old one.
+	 */
+	private static MappedByteBuffer map(Path file, ByteBuffer header, int length) throws IOException {
+		if(Files.exists(file) && Files.size(file) == length) {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+				if(hasLayout(mapped, header)) {
+					for (int offset = header.capacity(); offset < length; offset += SLOT_LENGTH) {
+						clearSlot(mapped, offset);
+					}
+					LONGS.setVolatile(mapped, SESSION_OFFSET, header.getLong(SESSION_OFFSET));
+					return mapped;
+				}
+			}
+		}
+		final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+		final MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+			mapped.put(header.duplicate());
+		}
+		Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return mapped;
+	}
+
+	/**
+	 * Empties a slot reused from the previous writer, moving its sequence
+	 * forward (past the odd sequence of a write the writer didn't complete)
+	 */
+	private static void clearSlot(MappedByteBuffer mapped, int offset) {
+		final long sequence = (long) LONGS.getVolatile(mapped, offset + SEQUENCE);
+		final long locked = (sequence & 1) != 0 ? sequence + 2 : sequence + 1;
+		LONGS.setVolatile(mapped, offset + SEQUENCE, locked);
+		LONGS.set(mapped, offset + ASK_PRICE, 0L);
+		LONGS.set(mapped, offset + BID_PRICE, 0L);
+		LONGS.set(mapped, offset + TIMESTAMP, 0L);
+		LONGS.setRelease(mapped, offset + SEQUENCE, locked + 1);
+	}
+
+	/**
+	 * Returns true if the mapped file has the header, the session aside
+	 */
+	private static boolean hasLayout(MappedByteBuffer mapped, ByteBuffer header) {
+		for (int offset = 0; offset < header.capacity(); offset++) {
+			if(mapped.get(offset) != header.get(offset)
+					&& (offset < SESSION_OFFSET || offset >= SESSION_OFFSET + Long.BYTES)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void writeSymbol(ByteBuffer buffer, int offset, String symbol) {
+		final byte[] bytes = symbol.getBytes(StandardCharsets.US_ASCII);
+		if(bytes.length > SYMBOL_LENGTH) {
+			throw new IllegalArgumentException("Longer than " + SYMBOL_LENGTH + " characters : " + symbol);
+		}
+		for (int i = 0; i < bytes.length; i++) {
+			buffer.put(offset + i, bytes[i]);
+		}
+	}
+
+	/**
+	 * Stores the quote of the tick (IO thread). The ticks of the pairs and
+	 * exchanges that aren't in the store are ignored.
+	 */
+	@Override
+	public void onTick(String exchangeId, String ccyPair, double netAskPrice, double netBidPrice, long timestamp) {
+		final Integer exchange = exchangeIndexes.get(exchangeId);
+		final Integer pair = pairIndexes.get(ccyPair);
+		if(exchange != null && pair != null) {
+			write(exchange, pair, netAskPrice, netBidPrice, timestamp);
+		}
+	}
+
+	/**
+	 * Stores the quotes already in the quote slots of an exchange (indexed
+	 * like the currency pairs of the store)
+	 */
+	public void load(String exchangeId, QuoteSlots quoteSlots) {
+		final Integer exchange = exchangeIndexes.get(exchangeId);
+		if(exchange == null) {
+			return;
+		}
+		final QuoteSlots.Quote quote = new QuoteSlots.Quote();
+		for (int pair = 0; pair < pairCount; pair++) {
+			if(quoteSlots.read(pair, quote)) {
+				write(exchange, pair, quote.getNetAskPrice(), quote.getNetBidPrice(), quote.getTimestamp());
+			}
+		}
+	}
+
+	/**
+	 * Writes a slot under its sequence lock. The writers of a slot take the
+	 * lock by moving the sequence from even to odd, so concurrent writes of
+	 * the same quote are serialized. A quote older than the one in the slot is
+	 * ignored, so the store can be loaded from the quote slots while the ticks
+	 * arrive.
+	 */
+	private void write(int exchange, int pair, double netAskPrice, double netBidPrice, long timestamp) {
+		final int offset = slotsOffset + (exchange * pairCount + pair) * SLOT_LENGTH;
+		long sequence;
+		do {
+			sequence = (long) LONGS.getVolatile(buffer, offset + SEQUENCE);
+		} while ((sequence & 1) != 0 || !LONGS.compareAndSet(buffer, offset + SEQUENCE, sequence, sequence + 1));
+		if(timestamp < (long) LONGS.get(buffer, offset + TIMESTAMP)) {
+			// Unlocked unchanged : the readers of this sequence read the same quote
+			LONGS.setRelease(buffer, offset + SEQUENCE, sequence);
+			return;
+		}
+		LONGS.set(buffer, offset + ASK_PRICE, Double.doubleToRawLongBits(netAskPrice));
+		LONGS.set(buffer, offset + BID_PRICE, Double.doubleToRawLongBits(netBidPrice));
+		LONGS.set(buffer, offset + TIMESTAMP, timestamp);
+		LONGS.setRelease(buffer, offset + SEQUENCE, sequence + 2);
+	}
+
+	public Path getFile() {
+		return file;
+	}
+}
@@ -0,0 +1,264 @@
+package application.exchange;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Runs the polling loops of a connector on its IO scheduler : each loop polls,
+ * then schedules its next poll, right away or once the circuit breaker allows
+ * a probe request if it is open. While the probe is in flight, the other
+ * loops of the exchange are refused and retry after the probe retry interval
+ * : a refusal sends no request and is not counted as a failure.
+ *
+ * A loop is one task created once and scheduled again after each poll, so
+ * polling keeps a constant number of tasks and threads however long it runs,
+ * and the only allocation per poll is the scheduler's handle. The engine can
+ * be stopped and started again : stopping cancels the scheduled polls, and a
+ * poll in progress completes without scheduling the next one. A loop never
+ * runs twice at the same time, even across a quick stop and start.
+ */
+public class PollingEngine {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(PollingEngine.class);
+
+	private static final int IDLE = 0;
+	private static final int SCHEDULED = 1;
+	private static final int RUNNING = 2;
+
+	/**
+	 * One poll of a loop : a request and the update of the quotes
+	 */
+	public interface Poll {
+
+		void poll() throws Exception;
+	}
+
+	private final String name;
+	private final Scheduler scheduler;
+	private final CircuitBreaker circuitBreaker;
+	private final List<Loop> loops;
+
+	/**
+	 * The responses that failed to decode after their poll completed (decode
+	 * stage)
+	 */
+	private final LongAdder decodeFailures;
+
+	private volatile boolean running;
+
+	public PollingEngine(String name, Scheduler scheduler, CircuitBreaker circuitBreaker) {
+		this.name = name;
+		this.scheduler = scheduler;
+		this.circuitBreaker = circuitBreaker;
+		this.loops = new CopyOnWriteArrayList<>();
+		this.decodeFailures = new LongAdder();
+	}
+
+	/**
+	 * Adds a loop, started right away if the engine is running
+	 *
+	 * @param description What the loop polls, for the logs
+	 */
+	public synchronized void addLoop(String description, Poll poll) {
+		final Loop loop = new Loop(description, poll);
+		loops.add(loop);
+		if(running) {
+			loop.start();
+		}
+	}
+
+	/**
+	 * Starts (or restarts) all the loops
+	 */
+	public synchronized void start() {
+		if(running) {
+			return;
+		}
+		running = true;
+		for (final Loop loop : loops) {
+			loop.start();
+		}
+		LOGGER.info("Polling started for " + name + " (" + loops.size() + " loops)");
+	}
+
+	/**
+	 * Stops all the loops : the scheduled polls are cancelled, the polls in
+	 * progress complete.
+	 */
+	public synchronized void stop() {
+		if(!running) {
+			return;
+		}
+		running = false;
+		for (final Loop loop : loops) {
+			loop.cancel();
+		}
+		LOGGER.info("Polling stopped for " + name);
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public int getLoopCount() {
+		return loops.size();
+	}
+
+	/**
+	 * Returns the number of polls in progress
+	 */
+	public int getActivePolls() {
+		int active = 0;
+		for (final Loop loop : loops) {
+			if(loop.isRunning()) {
+				active++;
+			}
+		}
+		return active;
+	}
+
+	/**
+	 * Returns the number of polls completed by all the loops
+	 */
+	public long getPolls() {
+		long polls = 0;
+		for (final Loop loop : loops) {
+			polls += loop.polls;
+		}
+		return polls;
+	}
+
+	/**
+	 * Counts a response that failed to decode on the decode stage, once its
+	 * poll has completed
+	 */
+	public void recordDecodeFailure() {
+		decodeFailures.increment();
+	}
+
+	/**
+	 * Returns the number of polls that failed in all the loops, including the
+	 * responses that failed to decode on the decode stage
+	 */
+	public long getFailures() {
+		long failures = decodeFailures.sum();
+		for (final Loop loop : loops) {
+			failures += loop.failures;
+		}
+		return failures;
+	}
+
+	/**
+	 * Returns the number of polls refused by the circuit breaker in all the
+	 * loops (not counted as failures)
+	 */
+	public long getRefusals() {
+		long refusals = 0;
+		for (final Loop loop : loops) {
+			refusals += loop.refusals;
+		}
+		return refusals;
+	}
+
+	/**
+	 * A polling loop. Only the task that moves it from scheduled to running
+	 * polls and schedules the next poll : a cancelled task that still gets to
+	 * run finds the loop in another state and returns.
+	 */
+	private final class Loop implements Runnable {
+
+		private final String description;
+		private final Poll poll;
+
+		/**
+		 * IDLE, SCHEDULED or RUNNING (guarded by this)
+		 */
+		private int state;
+
+		/**
+		 * The handle of the scheduled poll (guarded by this)
+		 */
+		private Disposable pending;
+
+		/**
+		 * Written by the running poll only
+		 */
+		private volatile long polls;
+		private volatile long failures;
+		private volatile long refusals;
+
+		Loop(String description, Poll poll) {
+			this.description = description;
+			this.poll = poll;
+		}
+
+		synchronized void start() {
+			if(state == IDLE) {
+				schedule(0);
+			}
+			// If RUNNING, the poll in progress schedules the next one
+		}
+
+		synchronized void cancel() {
+			if(state == SCHEDULED) {
+				state = IDLE;
+				pending.dispose();
+				pending = null;
+			}
+		}
+
+		synchronized boolean isRunning() {
+			return state == RUNNING;
+		}
+
+		/**
+		 * Schedules the next poll (guarded by this)
+		 */
+		private void schedule(long delayMillis) {
+			state = SCHEDULED;
+			pending = delayMillis > 0
+					? scheduler.scheduleDirect(this, delayMillis, TimeUnit.MILLISECONDS)
+					: scheduler.scheduleDirect(this);
+		}
+
+		@Override
+		public void run() {
+			synchronized (this) {
+				if(state != SCHEDULED) {
+					return;
+				}
+				state = RUNNING;
+				pending = null;
+			}
+			try {
+				poll.poll();
+				polls++;
+			} catch (final CircuitOpenException e) {
+				// Refused without a request : not a failure, retried once the breaker allows it
+				refusals++;
+				if(LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Poll refused for " + description + " : " + e.getMessage());
+				}
+			} catch (final Exception e) {
+				failures++;
+				LOGGER.warn("Failed to poll " + description, e);
+			} finally {
+				synchronized (this) {
+					if(running) {
+						schedule(circuitBreaker.getRemainingOpenMillis());
+					} else {
+						state = IDLE;
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package application.exchange;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The latest net quote of each configured currency pair for one exchange,
+ * stored in preallocated slots that are updated in place.
+ *
+ * Each slot holds a sequence number, the net ask & bid prices and the update
+ * time as primitives. A writer makes the sequence odd, writes the fields, then
+ * makes it even again (sequence lock) ; a reader retries until it reads the
+ * same even sequence before and after the fields. So the readers get a
+ * consistent quote without locking, and neither side allocates.
+ *
+ * The slots are 64 bytes apart so that the updates of one pair don't
+ * invalidate the cache line of its neighbours.
+ */
+public class QuoteSlots {
+
+	/**
+	 * The longs per slot (one cache line)
+	 */
+	private static final int STRIDE = 8;
+
+	private static final int SEQUENCE = 0;
+	private static final int ASK_PRICE = 1;
+	private static final int BID_PRICE = 2;
+	private static final int TIMESTAMP = 3;
+
+	private final List<String> currencyPairs;
+
+	/**
+	 * The index of each currency pair
+	 */
+	private final Map<String, Integer> pairIndexes;
+
+	private final AtomicLongArray slots;
+
+	public QuoteSlots(List<String> currencyPairs) {
+		this.currencyPairs = currencyPairs;
+		this.pairIndexes = new HashMap<>();
+		for (int i = 0; i < currencyPairs.size(); i++) {
+			pairIndexes.put(currencyPairs.get(i), i);
+		}
+		this.slots = new AtomicLongArray(currencyPairs.size() * STRIDE);
+	}
+
+	/**
+	 * Returns the index of the currency pair, or -1 if it isn't configured
+	 */
+	public int indexOf(String ccyPair) {
+		final Integer index = pairIndexes.get(ccyPair);
+		return index != null ? index : -1;
+	}
+
+	/**
+	 * Returns the currency pair at the given index
+	 */
+	public String getCurrencyPair(int pair) {
+		return currencyPairs.get(pair);
+	}
+
+	public int getPairCount() {
+		return currencyPairs.size();
+	}
+
+	/**
+	 * Writes the quote of a pair in place. Concurrent writers of the same pair
+	 * are serialized by the sequence.
+	 */
+	public void write(int pair, double netAskPrice, double netBidPrice, long timestamp) {
+		final int base = pair * STRIDE;
+		long sequence;
+		do {
+			sequence = slots.get(base + SEQUENCE);
+		} while ((sequence & 1) != 0 || !slots.compareAndSet(base + SEQUENCE, sequence, sequence + 1));
+
+		slots.lazySet(base + ASK_PRICE, Double.doubleToRawLongBits(netAskPrice));
+		slots.lazySet(base + BID_PRICE, Double.doubleToRawLongBits(netBidPrice));
+		slots.lazySet(base + TIMESTAMP, timestamp);
+		slots.lazySet(base + SEQUENCE, sequence + 2);
+	}
+
+	/**
+	 * Reads a consistent quote of a pair into the given holder.
+	 *
+	 * @return false if the pair was never written (the holder is unchanged)
+	 */
+	public boolean read(int pair, Quote quote) {
+		final int base = pair * STRIDE;
+		while (true) {
+			final long sequence = slots.get(base + SEQUENCE);
+			if((sequence & 1) != 0) {
+				// Being written
+				continue;
+			}
+			final long askBits = slots.get(base + ASK_PRICE);
+			final long bidBits = slots.get(base + BID_PRICE);
+			final long timestamp = slots.get(base + TIMESTAMP);
+			if(slots.get(base + SEQUENCE) != sequence) {
+				continue;
+			}
+			if(sequence == 0) {
+				return false;
+			}
+			quote.netAskPrice = Double.longBitsToDouble(askBits);
+			quote.netBidPrice = Double.longBitsToDouble(bidBits);
+			quote.timestamp = timestamp;
+			return true;
+		}
+	}
+
+	/**
+	 * A reusable holder for the quote read from a slot
+	 */
+	public static class Quote {
+
+		private double netAskPrice;
+		private double netBidPrice;
+
+		/**
+		 * The time of the update (epoch milliseconds)
+		 */
+		private long timestamp;
+
+		/**
+		 * Sets the quote read from another store (see {@link MappedTickReader})
+		 */
+		void set(double netAskPrice, double netBidPrice, long timestamp) {
+			this.netAskPrice = netAskPrice;
+			this.netBidPrice = netBidPrice;
+			this.timestamp = timestamp;
+		}
+
+		public double getNetAskPrice() {
+			return netAskPrice;
+		}
+		public double getNetBidPrice() {
+			return netBidPrice;
+		}
+		public long getTimestamp() {
+			return timestamp;
+		}
+	}
+}
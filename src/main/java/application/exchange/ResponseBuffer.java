@@ -0,0 +1,247 @@
+package application.exchange;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A reusable buffer holding the body of one HTTP response, decompressed if it
+ * was sent with gzip or deflate content encoding. The arrays and the inflater
+ * are kept between the requests, so a poll does not allocate once the buffer
+ * has grown to the usual response size.
+ *
+ * The decoded body is read with {@link #getBytes()} from 0 to
+ * {@link #getLength()}. A buffer is used by one request at a time (see
+ * {@link ResponseBufferPool}). A body larger than the maximum size, as
+ * received or decompressed, is rejected before the arrays grow beyond it.
+ */
+public class ResponseBuffer {
+
+	private static final int GZIP_MAGIC = 0x8b1f;
+	private static final int GZIP_HEADER_LENGTH = 10;
+	private static final int GZIP_TRAILER_LENGTH = 8;
+	private static final int FLAG_HCRC = 2;
+	private static final int FLAG_EXTRA = 4;
+	private static final int FLAG_NAME = 8;
+	private static final int FLAG_COMMENT = 16;
+
+	/**
+	 * The body as received (compressed or not)
+	 */
+	private byte[] receivedBytes;
+	private int receivedLength;
+
+	/**
+	 * The decompressed body
+	 */
+	private byte[] decodedBytes;
+	private int decodedLength;
+
+	/**
+	 * True if the body was compressed, i.e. the decoded body is in decodedBytes
+	 */
+	private boolean compressed;
+
+	/**
+	 * Raw deflate decoder, the gzip and zlib wrappers are parsed here
+	 */
+	private final Inflater inflater;
+	private final CRC32 crc;
+
+	/**
+	 * The maximum length of the body, as received and decompressed
+	 */
+	private final int maxBodySize;
+
+	public ResponseBuffer(int initialCapacity, int maxBodySize) {
+		this.maxBodySize = maxBodySize;
+		this.receivedBytes = new byte[initialCapacity];
+		this.decodedBytes = new byte[initialCapacity];
+		this.inflater = new Inflater(true);
+		this.crc = new CRC32();
+	}
+
+	/**
+	 * Reads the whole body from the stream and decodes it according to the
+	 * content encoding (null or 'identity' if not compressed).
+	 *
+	 * @param contentLength The expected length if known, otherwise -1
+	 * @throws IOException if the body is larger than the maximum size
+	 */
+	public void read(InputStream in, String contentEncoding, long contentLength) throws IOException {
+		if(contentLength > maxBodySize) {
+			throw new IOException("Response body too large : " + contentLength + " bytes (maximum " + maxBodySize + ")");
+		}
+		if(contentLength > receivedBytes.length) {
+			receivedBytes = new byte[(int) contentLength];
+		}
+		receivedLength = 0;
+		int count;
+		while ((count = in.read(receivedBytes, receivedLength, receivedBytes.length - receivedLength)) != -1) {
+			receivedLength += count;
+			if(receivedLength == receivedBytes.length) {
+				// One more byte (or the end of the body) is read beyond the maximum size
+				if(receivedLength > maxBodySize) {
+					throw new IOException("Response body too large : more than " + maxBodySize + " bytes");
+				}
+				receivedBytes = grow(receivedBytes, maxBodySize + 1);
+			}
+		}
+
+		if(contentEncoding == null || contentEncoding.equalsIgnoreCase("identity")) {
+			compressed = false;
+		} else if(contentEncoding.equalsIgnoreCase("gzip")) {
+			compressed = true;
+			inflateGzip();
+		} else if(contentEncoding.equalsIgnoreCase("deflate")) {
+			compressed = true;
+			inflateDeflate();
+		} else {
+			throw new IOException("Unsupported content encoding : " + contentEncoding);
+		}
+	}
+
+	/**
+	 * Returns the array holding the decoded body (only valid up to
+	 * {@link #getLength()}, and until the next read)
+	 */
+	public byte[] getBytes() {
+		return compressed ? decodedBytes : receivedBytes;
+	}
+
+	/**
+	 * Returns the length of the decoded body
+	 */
+	public int getLength() {
+		return compressed ? decodedLength : receivedLength;
+	}
+
+	/**
+	 * Returns the length of the body as received (compressed size)
+	 */
+	public int getReceivedLength() {
+		return receivedLength;
+	}
+
+	/**
+	 * Returns the current capacity of the buffer (largest of the two arrays)
+	 */
+	public int getCapacity() {
+		return Math.max(receivedBytes.length, decodedBytes.length);
+	}
+
+	/**
+	 * Releases the native memory of the inflater, the buffer can't be used
+	 * anymore.
+	 */
+	public void close() {
+		inflater.end();
+	}
+
+	/**
+	 * Skips the gzip header (RFC 1952), inflates the data and checks its CRC.
+	 */
+	private void inflateGzip() throws IOException {
+		if(receivedLength < GZIP_HEADER_LENGTH + GZIP_TRAILER_LENGTH || readShort(0) != GZIP_MAGIC) {
+			throw new IOException("Invalid gzip response body");
+		}
+		final int flags = receivedBytes[3] & 0xff;
+		int offset = GZIP_HEADER_LENGTH;
+		if((flags & FLAG_EXTRA) != 0) {
+			offset += 2 + readShort(offset);
+		}
+		if((flags & FLAG_NAME) != 0) {
+			offset = skipZeroTerminated(offset);
+		}
+		if((flags & FLAG_COMMENT) != 0) {
+			offset = skipZeroTerminated(offset);
+		}
+		if((flags & FLAG_HCRC) != 0) {
+			offset += 2;
+		}
+		if(offset > receivedLength - GZIP_TRAILER_LENGTH) {
+			throw new IOException("Invalid gzip response body");
+		}
+
+		final int remaining = inflate(offset);
+		crc.reset();
+		crc.update(decodedBytes, 0, decodedLength);
+		final int trailer = receivedLength - remaining;
+		if(remaining < GZIP_TRAILER_LENGTH || (int) crc.getValue() != readInt(trailer)) {
+			throw new IOException("Corrupted gzip response body");
+		}
+	}
+
+	/**
+	 * Inflates a deflate body, wrapped in zlib format (RFC 1950) as the
+	 * standard requires, or raw as some servers send it.
+	 */
+	private void inflateDeflate() throws IOException {
+		final boolean zlibWrapped = receivedLength >= 2
+				&& (receivedBytes[0] & 0x0f) == 8
+				&& (((receivedBytes[0] & 0xff) << 8) | (receivedBytes[1] & 0xff)) % 31 == 0;
+		inflate(zlibWrapped ? 2 : 0);
+	}
+
+	/**
+	 * Inflates the raw deflate data starting at the given offset into the
+	 * decoded array.
+	 *
+	 * @return The number of bytes left after the end of the deflate stream
+	 */
+	private int inflate(int offset) throws IOException {
+		inflater.reset();
+		inflater.setInput(receivedBytes, offset, receivedLength - offset);
+		decodedLength = 0;
+		try {
+			while (!inflater.finished()) {
+				if(decodedLength == decodedBytes.length) {
+					if(decodedLength > maxBodySize) {
+						throw new IOException("Decompressed response body too large : more than " + maxBodySize + " bytes");
+					}
+					decodedBytes = grow(decodedBytes, maxBodySize + 1);
+				}
+				final int count = inflater.inflate(decodedBytes, decodedLength, decodedBytes.length - decodedLength);
+				if(count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IOException("Truncated compressed response body");
+				}
+				decodedLength += count;
+			}
+		} catch (final DataFormatException e) {
+			throw new IOException("Invalid compressed response body", e);
+		}
+		return inflater.getRemaining();
+	}
+
+	private int skipZeroTerminated(int offset) {
+		while (offset < receivedLength && receivedBytes[offset] != 0) {
+			offset++;
+		}
+		return offset + 1;
+	}
+
+	/**
+	 * Reads a little-endian unsigned short
+	 */
+	private int readShort(int offset) {
+		return (receivedBytes[offset] & 0xff) | ((receivedBytes[offset + 1] & 0xff) << 8);
+	}
+
+	/**
+	 * Reads a little-endian int
+	 */
+	private int readInt(int offset) {
+		return readShort(offset) | (readShort(offset + 2) << 16);
+	}
+
+	/**
+	 * Doubles the array, up to the limit
+	 */
+	private static byte[] grow(byte[] bytes, int limit) {
+		final byte[] grown = new byte[(int) Math.min((long) bytes.length * 2, limit)];
+		System.arraycopy(bytes, 0, grown, 0, bytes.length);
+		return grown;
+	}
+}
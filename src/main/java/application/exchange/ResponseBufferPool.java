@@ -0,0 +1,78 @@
+package application.exchange;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The response buffers of one connector. A request takes a buffer for the
+ * time it reads and parses the body, then gives it back, so the buffers are
+ * reused across the polls instead of allocating a new body for each one.
+ *
+ * At most maxBuffers are kept (the concurrent requests of the connector), and
+ * a buffer grown above the retained capacity by an unusually large response
+ * is dropped instead of being kept around.
+ */
+public class ResponseBufferPool {
+
+	private static final int INITIAL_CAPACITY = 16 * 1024;
+	private static final int MAX_RETAINED_CAPACITY = 4 * 1024 * 1024;
+
+	/**
+	 * The maximum size of a response body if not configured
+	 */
+	public static final int DEFAULT_MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * The free buffers
+	 */
+	private final Queue<ResponseBuffer> buffers;
+
+	/**
+	 * The number of free buffers
+	 */
+	private final AtomicInteger bufferCount;
+
+	private final int maxBuffers;
+
+	/**
+	 * The maximum size of a body read into the buffers
+	 */
+	private final int maxBodySize;
+
+	public ResponseBufferPool(int maxBuffers, int maxBodySize) {
+		if(maxBodySize <= 0) {
+			throw new IllegalArgumentException("The maximum body size must be positive : " + maxBodySize);
+		}
+		this.buffers = new ConcurrentLinkedQueue<>();
+		this.bufferCount = new AtomicInteger();
+		this.maxBuffers = maxBuffers;
+		this.maxBodySize = maxBodySize;
+	}
+
+	/**
+	 * Takes a free buffer, or creates one if there is none
+	 */
+	public ResponseBuffer acquire() {
+		final ResponseBuffer buffer = buffers.poll();
+		if(buffer == null) {
+			return new ResponseBuffer(Math.min(INITIAL_CAPACITY, maxBodySize), maxBodySize);
+		}
+		bufferCount.decrementAndGet();
+		return buffer;
+	}
+
+	/**
+	 * Gives a buffer back once its content isn't used anymore
+	 */
+	public void release(ResponseBuffer buffer) {
+		if(buffer.getCapacity() <= MAX_RETAINED_CAPACITY) {
+			if(bufferCount.incrementAndGet() <= maxBuffers) {
+				buffers.offer(buffer);
+				return;
+			}
+			bufferCount.decrementAndGet();
+		}
+		buffer.close();
+	}
+}
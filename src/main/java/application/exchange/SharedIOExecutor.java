@@ -0,0 +1,164 @@
+package application.exchange;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.configuration.IOPoolConfig;
+
+/**
+ * The I/O thread pool shared by all the exchange connectors.
+ *
+ * The pool size is adjusted periodically from the observed queue wait (time
+ * a request waits for a free thread) and the request latency (time a request
+ * holds a thread) : it grows while requests wait longer than the target and
+ * shrinks back when the threads are under-used. Each exchange gets its own
+ * {@link ExchangeBulkhead} on top of this pool to limit its share of threads.
+ */
+public class SharedIOExecutor implements Executor {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(SharedIOExecutor.class);
+
+	private static final int DEFAULT_MIN_THREADS = 1;
+	private static final int DEFAULT_MAX_THREADS = 64;
+	private static final long DEFAULT_TARGET_QUEUE_WAIT = 50;
+	private static final long DEFAULT_RESIZE_INTERVAL = 1000;
+
+	/**
+	 * The pool running the requests, its size is changed by {@link #resize()}
+	 */
+	private final ThreadPoolExecutor pool;
+
+	/**
+	 * Runs the periodic pool size adjustment
+	 */
+	private final ScheduledExecutorService resizer;
+
+	private final int minThreads;
+	private final int maxThreads;
+	private final long targetQueueWaitNanos;
+
+	/**
+	 * Totals since the last adjustment
+	 */
+	private final LongAdder queueWaitNanos;
+	private final LongAdder runNanos;
+	private final LongAdder completedTasks;
+
+	/**
+	 * The time of the last adjustment
+	 */
+	private long lastResizeNanos;
+
+	public SharedIOExecutor(IOPoolConfig config) {
+		final IOPoolConfig poolConfig = config != null ? config : new IOPoolConfig();
+		this.minThreads = poolConfig.getMinThreads() != null ? poolConfig.getMinThreads() : DEFAULT_MIN_THREADS;
+		this.maxThreads = poolConfig.getMaxThreads() != null ? poolConfig.getMaxThreads() : DEFAULT_MAX_THREADS;
+		this.targetQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(poolConfig.getTargetQueueWait() != null
+				? poolConfig.getTargetQueueWait() : DEFAULT_TARGET_QUEUE_WAIT);
+		final long resizeInterval = poolConfig.getResizeInterval() != null
+				? poolConfig.getResizeInterval() : DEFAULT_RESIZE_INTERVAL;
+
+		this.pool = new ThreadPoolExecutor(minThreads, minThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new ThreadFactoryBuilder().setNameFormat("io-pool-%d").build());
+		this.queueWaitNanos = new LongAdder();
+		this.runNanos = new LongAdder();
+		this.completedTasks = new LongAdder();
+		this.lastResizeNanos = System.nanoTime();
+
+		this.resizer = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("io-pool-resizer").setDaemon(true).build());
+		resizer.scheduleWithFixedDelay(this::resize, resizeInterval, resizeInterval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Runs the given task on the shared pool, measuring its queue wait and run
+	 * time.
+	 */
+	@Override
+	public void execute(Runnable task) {
+		final long submitNanos = System.nanoTime();
+		pool.execute(() -> {
+			final long startNanos = System.nanoTime();
+			queueWaitNanos.add(startNanos - submitNanos);
+			try {
+				task.run();
+			} finally {
+				runNanos.add(System.nanoTime() - startNanos);
+				completedTasks.increment();
+			}
+		});
+	}
+
+	/**
+	 * Returns the current number of threads of the pool
+	 */
+	public int getPoolSize() {
+		return pool.getCorePoolSize();
+	}
+
+	/**
+	 * Adjusts the pool size from the queue wait and request latency observed
+	 * since the last adjustment.
+	 *
+	 * The number of threads kept busy is estimated with Little's law (task
+	 * rate x average run time). The pool grows to that estimate (at least by
+	 * one thread) while tasks wait longer than the target, and shrinks by one
+	 * thread at a time once tasks barely wait and the estimate is lower.
+	 */
+	private void resize() {
+		try {
+			final long now = System.nanoTime();
+			final long intervalNanos = now - lastResizeNanos;
+			lastResizeNanos = now;
+
+			final long completed = completedTasks.sumThenReset();
+			final long waited = queueWaitNanos.sumThenReset();
+			final long ran = runNanos.sumThenReset();
+			final int currentSize = pool.getCorePoolSize();
+			if(completed == 0) {
+				// Nothing completed : either idle or every thread is stuck, grow if work is queued
+				if(!pool.getQueue().isEmpty()) {
+					setPoolSize(currentSize + 1);
+				}
+				return;
+			}
+
+			final long avgWaitNanos = waited / completed;
+			final int busyThreads = (int) Math.ceil((double) ran / intervalNanos);
+			if(avgWaitNanos > targetQueueWaitNanos) {
+				setPoolSize(Math.max(currentSize + 1, busyThreads));
+			} else if(avgWaitNanos < targetQueueWaitNanos / 4 && busyThreads < currentSize) {
+				setPoolSize(currentSize - 1);
+			}
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Failed to resize the I/O pool", e);
+		}
+	}
+
+	private void setPoolSize(int requestedSize) {
+		final int currentSize = pool.getCorePoolSize();
+		final int newSize = Math.max(minThreads, Math.min(maxThreads, requestedSize));
+		if(newSize == currentSize) {
+			return;
+		}
+		// The maximum size may never be below the core size
+		if(newSize > currentSize) {
+			pool.setMaximumPoolSize(newSize);
+			pool.setCorePoolSize(newSize);
+		} else {
+			pool.setCorePoolSize(newSize);
+			pool.setMaximumPoolSize(newSize);
+		}
+		LOGGER.info("I/O pool resized from " + currentSize + " to " + newSize + " threads");
+	}
+}
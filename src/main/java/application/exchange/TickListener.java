@@ -0,0 +1,28 @@
+package application.exchange;
+
+import application.NetTickPrice;
+
+/**
+ * Listener notified by a connector each time it receives a tick price.
+ * It is called on the IO thread that received the tick, so it must return
+ * quickly.
+ *
+ * The connectors pass the primitive prices, so that notifying the listeners
+ * doesn't allocate a {@link NetTickPrice} per tick.
+ */
+public interface TickListener {
+
+	/**
+	 * Called after the connector stored the given net prices (if its currency
+	 * pair is configured).
+	 */
+	void onTick(String exchangeId, String ccyPair, double netAskPrice, double netBidPrice, long timestamp);
+
+	/**
+	 * Passes a tick price to {@link #onTick}
+	 */
+	default void onTickUpdate(NetTickPrice tickPrice) {
+		onTick(tickPrice.getExchangeId(), tickPrice.getCcyPair(), tickPrice.getNetAskValue(),
+				tickPrice.getNetBidValue(), tickPrice.getTimestamp());
+	}
+}
@@ -1,7 +1,6 @@
 package application.exchange.acx;
 
 import java.io.IOException;
-import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -10,14 +9,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.google.common.collect.ImmutableMap;
-import com.google.common.util.concurrent.RateLimiter;
 
 import application.NetTickPrice;
 import application.configuration.AppConfig;
 import application.configuration.ExchangeConfig;
 import application.exchange.BaseExchangeConnector;
-import io.reactivex.Observable;
+import io.reactivex.Flowable;
 import io.reactivex.Scheduler;
 
 /**
@@ -28,90 +25,109 @@ import io.reactivex.Scheduler;
 public class ACXConnector extends BaseExchangeConnector {
 
 	/**
-	 * This URL gives all currency-pair tickers in a single API call.
+	 * The live API URL (used unless 'baseUrl' is configured for the exchange)
 	 */
-	private final String ALL_TICKERS_URL = "https://acx.io/api/v2/tickers.json";
+	private static final String DEFAULT_BASE_URL = "https://acx.io";
 
 	/**
-	 * The logger instance for this class
+	 * This path gives all currency-pair tickers in a single API call.
 	 */
-	private static Logger LOGGER = LoggerFactory.getLogger(ACXConnector.class);
+	private static final String ALL_TICKERS_PATH = "/api/v2/tickers.json";
 
 	/**
-	 * Initializes this connector during program startup and fires up the event
-	 * loop for fetching market data.
+	 * The type of the response of the tickers path
 	 */
-	public ACXConnector(AppConfig appConfig, ExchangeConfig exchangeConfig, Scheduler scheduler) {
-		super(appConfig, exchangeConfig, scheduler);
-		createQueryEventLoop();
-	}
+	private static final TypeReference<HashMap<String, ACXTickInfo>> ALL_TICKERS_TYPE =
+			new TypeReference<HashMap<String, ACXTickInfo>>() {};
 
 	/**
-	 * Starts the event loop for fetching ACX market data.
+	 * The URL for all the currency-pair tickers (base URL + tickers path)
 	 */
-	private void createQueryEventLoop() {
+	private final String allTickersUrl;
 
-		final Scheduler ioScheduler = getIOScheduler();
-		final RateLimiter rateLimiter = getRateLimiter();
+	/**
+	 * The quote slot index of each configured currency pair, by ACX market ID
+	 * (e.g. 'btcaud' for BTC-AUD)
+	 */
+	private final Map<String, Integer> marketPairs;
 
-		observeACXMarket(rateLimiter, ioScheduler);
+	/**
+	 * The logger instance for this class
+	 */
+	private static Logger LOGGER = LoggerFactory.getLogger(ACXConnector.class);
+
+	/**
+	 * Initializes this connector during program startup, pre-warms the
+	 * connections and fires up the event loop for fetching market data.
+	 */
+	public ACXConnector(AppConfig appConfig, ExchangeConfig exchangeConfig, Scheduler scheduler) {
+		super(appConfig, exchangeConfig, scheduler);
+		this.allTickersUrl = getBaseUrl(DEFAULT_BASE_URL) + ALL_TICKERS_PATH;
+		this.marketPairs = new HashMap<>();
+		for (final String currencyPair : appConfig.getCurrencyPairs()) {
+			marketPairs.put(currencyPair.replace("-", "").toLowerCase(), getQuoteSlots().indexOf(currencyPair));
+		}
+		warmUpConnections(getBaseUrl(DEFAULT_BASE_URL) + "/");
+		createQueryEventLoop();
 	}
 
 	/**
-	 * Creates the observable-observer pair for fetching the market data for the
-	 * currency-pairs in ACX exchange. A recursive event-loop ensures that the
-	 * query is done in an event-driven non-blocking manner.
-	 *
-	 * The request rate is throttled by the rate limiter.
+	 * Starts the polling loop fetching the market data for the currency-pairs
+	 * in ACX exchange, run by the polling engine on the IO scheduler.
 	 *
-	 * @param rateLimiter
-	 *            the web requests are limited by this rate limiter
-	 * @param ioScheduler
-	 *            the IO scheduler to use for the event
+	 * The request rate is throttled by the rate limiter. While the circuit
+	 * breaker of the exchange is open, the next query is delayed until a
+	 * probe request is allowed.
 	 */
-	private void observeACXMarket(RateLimiter rateLimiter, Scheduler ioScheduler) {
+	private void createQueryEventLoop() {
 
-		Observable.fromCallable(() -> fetchAllCurrencies(rateLimiter)).subscribeOn(ioScheduler).onErrorReturn(err -> {
-			LOGGER.warn("Failed to fetch ACX market data", err);
-			return ImmutableMap.of();
-		}).doOnNext(this::updateCache).subscribe((data) -> observeACXMarket(rateLimiter, ioScheduler));
+		addPollingLoop("ACX market data", this::fetchAllCurrencies);
+		getPollingEngine().start();
 	}
 
 	/**
-	 * Updates the ticker cache for all the tickers present in the given
-	 * parameter.
+	 * Updates the quotes of the configured currency pairs with the tickers
+	 * present in the given parameter. The other tickers are only passed to
+	 * the tick listeners (if any).
 	 */
 	private void updateCache(Map<String, ACXTickInfo> tickInfo) {
+		final double fee = getFeeFactor();
 		tickInfo.forEach((k, v) -> {
-			final BigDecimal fee = getExchangeConfig().getFee();
-			final BigDecimal netAskPrice = v.getTicker().getSell().multiply(fee);
-			final BigDecimal netBidPrice = v.getTicker().getBuy().multiply(fee);
-			final String ccyPair = v.getBaseCurrency().toUpperCase() + "-" + v.getQuoteCurrency().toUpperCase();
-			final NetTickPrice priceInfo = new NetTickPrice(getExchangeConfig().getId(), ccyPair, netAskPrice, netBidPrice);
-			getTickCache().put(ccyPair, priceInfo);
+			final double netAskPrice = v.getTicker().getSell().doubleValue() * fee;
+			final double netBidPrice = v.getTicker().getBuy().doubleValue() * fee;
+			final Integer pair = marketPairs.get(k);
+			if(pair != null) {
+				updateQuote(pair, netAskPrice, netBidPrice);
+			} else if(hasTickListeners()) {
+				final String ccyPair = v.getBaseCurrency().toUpperCase() + "-" + v.getQuoteCurrency().toUpperCase();
+				notifyTickListeners(ccyPair, netAskPrice, netBidPrice, System.currentTimeMillis());
+			}
 			if (LOGGER.isDebugEnabled()) {
-				LOGGER.debug("Updating cache : " + priceInfo);
+				LOGGER.debug("Updating cache : " + k + " ask " + netAskPrice + " bid " + netBidPrice);
 			}
 		});
 	}
 
 	/**
 	 * In ACX exchange, there exists an API to fetch all tickers using a single
-	 * API call.
+	 * API call. The response (a map having key as currency-pair id and the
+	 * value as the ticker info for that pair) updates the cache, on the decode
+	 * stage if it is enabled.
 	 *
-	 * @return the map having key as currency-pair id and the value as the
-	 *         ticker info for that pair.
 	 * @throws IOException
 	 *             if any error occurs during the web request
 	 */
-	private Map<String, ACXTickInfo> fetchAllCurrencies(RateLimiter rateLimiter) throws IOException {
+	private void fetchAllCurrencies() throws IOException {
 
 		// Throttle web requests
-		rateLimiter.acquire(1);
+		acquirePermit();
 
-		final Map<String, ACXTickInfo> allCurrencyInfo = getJson(ALL_TICKERS_URL,
-				new TypeReference<HashMap<String, ACXTickInfo>>() {});
-		return allCurrencyInfo;
+		decodeBody(allTickersUrl, (bytes, offset, length) -> {
+			final Map<String, ACXTickInfo> allCurrencyInfo = getObjectMapper().readValue(bytes, offset, length,
+					ALL_TICKERS_TYPE);
+			updateCache(allCurrencyInfo);
+			return null;
+		});
 	}
 
 	/**
@@ -120,9 +136,9 @@ public class ACXConnector extends BaseExchangeConnector {
 	 * Retrieves the tick data from the cache.
 	 */
 	@Override
-	public Observable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency) {
-		return Observable.fromCallable(() -> {
-			final NetTickPrice tickData = getTickCache().get(baseCurrency + "-" + quoteCurrency);
+	public Flowable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency) {
+		return Flowable.fromCallable(() -> {
+			final NetTickPrice tickData = getLatestTick(baseCurrency + "-" + quoteCurrency);
 			if (LOGGER.isDebugEnabled()) {
 				LOGGER.debug("[ACX] Fetched from cache : " + tickData);
 			}
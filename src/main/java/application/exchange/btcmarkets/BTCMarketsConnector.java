@@ -8,13 +8,11 @@ import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.common.util.concurrent.RateLimiter;
-
 import application.NetTickPrice;
 import application.configuration.AppConfig;
 import application.configuration.ExchangeConfig;
 import application.exchange.BaseExchangeConnector;
-import io.reactivex.Observable;
+import io.reactivex.Flowable;
 import io.reactivex.Scheduler;
 
 /**
@@ -25,115 +23,105 @@ import io.reactivex.Scheduler;
 public class BTCMarketsConnector extends BaseExchangeConnector {
 
 	/**
-	 * This URL returns only the ticker for a particular currency-pair
+	 * The live API URL (used unless 'baseUrl' is configured for the exchange)
+	 */
+	private static final String DEFAULT_BASE_URL = "https://api.btcmarkets.net";
+
+	/**
+	 * This path returns only the ticker for a particular currency-pair
 	 */
-	private static final String TICK_URL_PATTERN = "https://api.btcmarkets.net/market/%s/%s/tick";
+	private static final String TICK_PATH_PATTERN = "/market/%s/%s/tick";
 
 	private static Logger LOGGER = LoggerFactory.getLogger(BTCMarketsConnector.class);
 
 	/**
-	 * Initializes this connector during program startup and fires up the event
-	 * loop for fetching market data.
+	 * The URL pattern for the ticker of a currency-pair (base URL + tick path)
+	 */
+	private final String tickUrlPattern;
+
+	/**
+	 * Initializes this connector during program startup, pre-warms the
+	 * connections and fires up the event loop for fetching market data.
 	 */
 	public BTCMarketsConnector(AppConfig appConfig, ExchangeConfig exchangeConfig, Scheduler scheduler) {
 		super(appConfig, exchangeConfig, scheduler);
+		this.tickUrlPattern = getBaseUrl(DEFAULT_BASE_URL) + TICK_PATH_PATTERN;
+		warmUpConnections(getBaseUrl(DEFAULT_BASE_URL) + "/");
 		createQueryEventLoop();
 	}
 
 	/**
-	 * Starts the event loop for fetching BTCMarkets data.
-	 * For each currency-pair, one observable-observer pair is created.
+	 * Starts the polling loops fetching BTCMarkets data : one loop per
+	 * currency-pair, run by the polling engine on the shared IO scheduler
+	 * (i.e. thread pool).
+	 *
+	 * The total rate (shared across all currency-pairs) is throttled by the
+	 * rate limiter. While the circuit breaker of the exchange is open, the
+	 * next query is delayed until a probe request is allowed.
 	 */
 	private void createQueryEventLoop() {
 
-		final Scheduler ioScheduler = getIOScheduler();
-		final RateLimiter rateLimiter = getRateLimiter();
 		final List<String> currencyPairs = getAppConfig().getCurrencyPairs();
 
 		for (final String currencyPair : currencyPairs) {
-			observeCurrencyPair(currencyPair, rateLimiter, ioScheduler);
+			final int pair = getQuoteSlots().indexOf(currencyPair);
+			final String url = getTickUrl(currencyPair);
+			addPollingLoop("BTCMarkets data for " + currencyPair, () -> queryTickInfo(pair, url));
 		}
+		getPollingEngine().start();
 	}
 
 	/**
-	 * Creates the observable-observer pair for the given currency to fetch
-	 * market data. A recursive event-loop ensures that the query is done in an
-	 * event-driven non-blocking manner.
-	 *
-	 * The total rate (shared across all currency-pairs) is throttled by the
-	 * rate limiter.
-	 *
-	 * All the observables share the same IO scheduler (i.e. thread pool).
-	 *
-	 * @param currencyPair
-	 *            the currency pair for which market data is required
-	 * @param rateLimiter
-	 *            the web requests are limited by this rate limiter
-	 * @param ioScheduler
-	 *            the IO scheduler to use for the event
-	 */
-	private void observeCurrencyPair(String currencyPair, RateLimiter rateLimiter, Scheduler ioScheduler) {
-
-		Observable.fromCallable(() -> queryTickInfo(currencyPair, rateLimiter))
-			.subscribeOn(ioScheduler)
-			.onErrorReturn(err -> {
-				LOGGER.warn("Failed to get BTCMarkets data for " + currencyPair, err);
-				return Optional.empty();
-			})
-			.doOnNext(this::updateCache)
-			.subscribe((data) ->
-				observeCurrencyPair(currencyPair, rateLimiter, ioScheduler));
-	}
-
-	/**
-	 * Updates the ticker cache for a particular currency-pair (if present).
+	 * Updates the quote slot of a particular currency-pair.
 	 */
-	private void updateCache(Optional<BTCMarketsTickInfo> optTickInfo) {
-
-		if(!optTickInfo.isPresent()) {
-			return;
-		}
-
-		final BTCMarketsTickInfo btcTickInfo = optTickInfo.get();
+	private void updateCache(int pair, BTCMarketsTickInfo btcTickInfo) {
 
-		final BigDecimal fee = getExchangeConfig().getFee();
+		final double fee = getFeeFactor();
 
-		final BigDecimal netAskPrice = btcTickInfo.getBestAsk().multiply(fee);
-		final BigDecimal netBidPrice = btcTickInfo.getBestBid().multiply(fee);
+		final double netAskPrice = btcTickInfo.getBestAsk().doubleValue() * fee;
+		final double netBidPrice = btcTickInfo.getBestBid().doubleValue() * fee;
 
-		final String exchangeId = getExchangeConfig().getId();
-
-		final String ccyPair = btcTickInfo.getInstrument() + "-" + btcTickInfo.getCurrency();
-		final NetTickPrice priceInfo = new NetTickPrice(exchangeId, ccyPair, netAskPrice, netBidPrice);
-
-		getTickCache().put(ccyPair, priceInfo);
+		updateQuote(pair, netAskPrice, netBidPrice);
 	}
 
 	/**
-	 * Initiates a web request to fetch the ticker data for the given currency pair.
+	 * Returns the URL of the ticker data for the given currency pair.
 	 *
 	 * @param ccyPair the currency pair in <base_currency>-<quote_currency> format
-	 * @param rateLimiter the rate limiter used to throttle the requests
-	 * @return the ticker data (if found)
-	 * @throws IOException if an error occurs during the web request
 	 */
-	private Optional<BTCMarketsTickInfo> queryTickInfo(String ccyPair, RateLimiter rateLimiter) throws IOException {
+	private String getTickUrl(String ccyPair) {
 
 		final String[] splitCcyPair = ccyPair.split("-");
 		final String baseCurrency = splitCcyPair[0];
 		final String quoteCurrency = splitCcyPair[1];
-		final String url = String.format(TICK_URL_PATTERN, baseCurrency.toUpperCase(), quoteCurrency.toUpperCase());
+		return String.format(tickUrlPattern, baseCurrency.toUpperCase(), quoteCurrency.toUpperCase());
+	}
+
+	/**
+	 * Initiates a web request to fetch the ticker data of a currency pair,
+	 * then updates its quote slot with the ticker data (on the decode stage if
+	 * it is enabled).
+	 *
+	 * @param pair the index of the currency pair in the quote slots
+	 * @param url the URL of the ticker data of the currency pair
+	 * @throws IOException if an error occurs during the web request
+	 */
+	private void queryTickInfo(int pair, String url) throws IOException {
 
 		// Throttle
-		rateLimiter.acquire(1);
+		acquirePermit();
 
-		final BTCMarketsTickInfo btcTickInfo = getJson(url, BTCMarketsTickInfo.class);
+		decodeBody(url, (bytes, offset, length) -> {
+			final BTCMarketsTickInfo btcTickInfo = getObjectMapper().readValue(bytes, offset, length,
+					BTCMarketsTickInfo.class);
 
-		if(btcTickInfo.getSuccess() != null && btcTickInfo.getSuccess() == false) {
-			throw new IOException("Failed to get tick info for BTCMarkets using url : " + url);
-		}
+			if(btcTickInfo.getSuccess() != null && btcTickInfo.getSuccess() == false) {
+				throw new IOException("Failed to get tick info for BTCMarkets using url : " + url);
+			}
 
-		return Optional.of(btcTickInfo);
+			updateCache(pair, btcTickInfo);
+			return null;
+		});
 	}
 
 	/**
@@ -142,9 +130,9 @@ public class BTCMarketsConnector extends BaseExchangeConnector {
 	 * Retrieves the tick data from the cache.
 	 */
 	@Override
-	public Observable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency) {
-		return Observable.fromCallable(() -> {
-			final NetTickPrice tickData = getTickCache().get(baseCurrency + "-" + quoteCurrency);
+	public Flowable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency) {
+		return Flowable.fromCallable(() -> {
+			final NetTickPrice tickData = getLatestTick(baseCurrency + "-" + quoteCurrency);
 			if(LOGGER.isDebugEnabled()) {
 				LOGGER.debug("[BTC] Fetched from cache : " + tickData);
 			}
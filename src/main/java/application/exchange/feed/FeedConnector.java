@@ -0,0 +1,81 @@
+package application.exchange.feed;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.NetTickPrice;
+import application.configuration.AppConfig;
+import application.configuration.ExchangeConfig;
+import application.configuration.MarketDataFeedConfig;
+import application.exchange.BaseExchangeConnector;
+import application.feed.FeedReceiver;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Connector filling its quotes from the market data feed of another instance
+ * (property 'feed' of the exchange) instead of polling the exchange, so that
+ * one poller can feed any number of instances without adding to the request
+ * rate of the exchange.
+ *
+ * The quotes keep the time they were received by the publisher. They are
+ * received net of the fee of the publisher, which is replaced by the fee of
+ * this exchange.
+ */
+public class FeedConnector extends BaseExchangeConnector implements FeedReceiver.QuoteHandler {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(FeedConnector.class);
+
+	/**
+	 * Initializes this connector during program startup and subscribes to the
+	 * quotes of the exchange on the feed.
+	 */
+	public FeedConnector(AppConfig appConfig, ExchangeConfig exchangeConfig, Scheduler scheduler) {
+		super(appConfig, exchangeConfig, scheduler);
+		final MarketDataFeedConfig feedConfig = exchangeConfig.getFeed();
+		if(feedConfig == null) {
+			throw new IllegalArgumentException("No market data feed configuration ('feed') for : "
+					+ exchangeConfig.getId());
+		}
+		final String sourceExchange = feedConfig.getSourceExchange() != null
+				? feedConfig.getSourceExchange() : exchangeConfig.getId();
+		try {
+			FeedReceiver.join(feedConfig).subscribe(sourceExchange, this);
+		} catch (final IOException e) {
+			throw new IllegalArgumentException("Failed to join the market data feed for : " + exchangeConfig.getId(), e);
+		}
+	}
+
+	/**
+	 * Stores a quote received from the feed (receiver thread)
+	 */
+	@Override
+	public void onQuote(String ccyPair, double netAskPrice, double netBidPrice, double feeFactor, long timestamp) {
+		final double fee = getFeeFactor() / feeFactor;
+		final int pair = getQuoteSlots().indexOf(ccyPair);
+		if(pair >= 0) {
+			updateQuote(pair, netAskPrice * fee, netBidPrice * fee, timestamp);
+		} else if(hasTickListeners()) {
+			notifyTickListeners(ccyPair, netAskPrice * fee, netBidPrice * fee, timestamp);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Retrieves the tick data from the cache.
+	 */
+	@Override
+	public Flowable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency) {
+		return Flowable.fromCallable(() -> {
+			final NetTickPrice tickData = getLatestTick(baseCurrency + "-" + quoteCurrency);
+			if(LOGGER.isDebugEnabled()) {
+				LOGGER.debug("[" + getExchangeId() + "] Fetched from cache : " + tickData);
+			}
+			return Optional.ofNullable(tickData);
+		});
+	}
+}
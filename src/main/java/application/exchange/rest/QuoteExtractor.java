@@ -0,0 +1,387 @@
+package application.exchange.rest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import application.configuration.RestConnectorConfig;
+
+/**
+ * Extracts the tickers from the JSON responses of an exchange, at the paths of
+ * a {@link RestConnectorConfig}.
+ *
+ * The paths are compiled once into a tree of the fields to visit, walked with
+ * the streaming parser : the fields that lead nowhere are skipped without
+ * being parsed, and no object is mapped. The field names of the tree are
+ * interned like the names read by the parser, so they are matched by
+ * reference. An extractor is immutable and can be used by several threads.
+ */
+public class QuoteExtractor {
+
+	private static final int BASE = 0;
+	private static final int QUOTE = 1;
+	private static final int BID = 2;
+	private static final int ASK = 3;
+
+	/**
+	 * The largest mantissa a double holds exactly (2^53)
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * The powers of ten a double holds exactly
+	 */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Receives the tickers extracted from a response
+	 */
+	public interface QuoteHandler {
+
+		/**
+		 * Called for each ticker with a bid & ask price. The currencies are
+		 * null in per-pair mode if their paths aren't configured.
+		 */
+		void onQuote(String baseCurrency, String quoteCurrency, double askPrice, double bidPrice) throws IOException;
+	}
+
+	/**
+	 * Interns the field names, which the compiled tree relies on
+	 */
+	private final JsonFactory jsonFactory;
+
+	/**
+	 * The tree from the root of the response
+	 */
+	private final Node root;
+
+	/**
+	 * True if the tickers are the entries of a container (bulk mode), false
+	 * if the response is one ticker
+	 */
+	private final boolean bulk;
+
+	private QuoteExtractor(Node root, boolean bulk) {
+		this.jsonFactory = new JsonFactory()
+				.enable(JsonFactory.Feature.CANONICALIZE_FIELD_NAMES)
+				.enable(JsonFactory.Feature.INTERN_FIELD_NAMES);
+		this.root = root;
+		this.bulk = bulk;
+	}
+
+	/**
+	 * Compiles the paths of the configuration.
+	 *
+	 * @throws IllegalArgumentException if a required path is missing
+	 */
+	public static QuoteExtractor compile(RestConnectorConfig config) {
+		final boolean bulk = Boolean.TRUE.equals(config.getBulk());
+		if(isEmpty(config.getBidPath()) || isEmpty(config.getAskPath())) {
+			throw new IllegalArgumentException("The REST connector needs 'bidPath' and 'askPath'");
+		}
+		if(bulk && (isEmpty(config.getBasePath()) || isEmpty(config.getQuotePath()))) {
+			throw new IllegalArgumentException("The REST connector needs 'basePath' and 'quotePath' in bulk mode");
+		}
+
+		final NodeBuilder ticker = new NodeBuilder();
+		ticker.add(config.getBidPath(), BID);
+		ticker.add(config.getAskPath(), ASK);
+		if(!isEmpty(config.getBasePath())) {
+			ticker.add(config.getBasePath(), BASE);
+		}
+		if(!isEmpty(config.getQuotePath())) {
+			ticker.add(config.getQuotePath(), QUOTE);
+		}
+		if(!bulk) {
+			return new QuoteExtractor(ticker.build(), false);
+		}
+
+		final NodeBuilder root = new NodeBuilder();
+		NodeBuilder container = root;
+		if(!isEmpty(config.getEntriesPath())) {
+			for (final String segment : config.getEntriesPath().split("\\.")) {
+				container = container.child(segment);
+			}
+		}
+		container.entries = ticker;
+		return new QuoteExtractor(root.build(), true);
+	}
+
+	/**
+	 * Parses a response and passes its tickers to the handler.
+	 *
+	 * @return the number of tickers found
+	 */
+	public int extract(byte[] bytes, int offset, int length, QuoteHandler handler) throws IOException {
+		try (JsonParser parser = jsonFactory.createParser(bytes, offset, length)) {
+			final JsonToken token = parser.nextToken();
+			if(token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+				throw new IOException("Unexpected response : " + token);
+			}
+			final Ticker ticker = new Ticker();
+			if(bulk) {
+				return visitContainer(parser, token, root, ticker, handler);
+			}
+			visitContainer(parser, token, root, ticker, null);
+			return ticker.emit(handler) ? 1 : 0;
+		}
+	}
+
+	/**
+	 * Visits the fields (or elements) of the current object (or array) that
+	 * are in the tree of the node.
+	 *
+	 * @return the number of tickers emitted
+	 */
+	private int visitContainer(JsonParser parser, JsonToken start, Node node, Ticker ticker, QuoteHandler handler)
+			throws IOException {
+		int count = 0;
+		final boolean object = start == JsonToken.START_OBJECT;
+		int index = 0;
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY) {
+			final Node child;
+			if(object) {
+				child = node.entries != null ? node.entries : node.child(parser.getCurrentName());
+				token = parser.nextToken();
+			} else {
+				child = node.entries != null ? node.entries : node.child(index);
+				index++;
+			}
+			if(child == null) {
+				parser.skipChildren();
+			} else if(node.entries != null) {
+				if(token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+					ticker.reset();
+					visitContainer(parser, token, child, ticker, null);
+					if(ticker.emit(handler)) {
+						count++;
+					}
+				} else {
+					parser.skipChildren();
+				}
+			} else if(child.field >= 0) {
+				ticker.read(parser, token, child.field);
+			} else if(token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+				count += visitContainer(parser, token, child, ticker, handler);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Parses a plain decimal (e.g. '8523.1200') without creating a string.
+	 * The result is exact (the same as Double.parseDouble) since the digits
+	 * fit in the 53 bits of a double and the power of ten is exact too.
+	 *
+	 * @return the value, or NaN if the text isn't a plain decimal within these
+	 *         bounds (exponent, too many digits...)
+	 */
+	static double parseDecimal(char[] chars, int offset, int length) {
+		final int end = offset + length;
+		int index = offset;
+		final boolean negative = index < end && chars[index] == '-';
+		if(negative) {
+			index++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = -1;
+		for (; index < end; index++) {
+			final char c = chars[index];
+			if(c >= '0' && c <= '9') {
+				mantissa = mantissa * 10 + (c - '0');
+				if(mantissa > MAX_EXACT_MANTISSA) {
+					return Double.NaN;
+				}
+				digits++;
+				if(fractionDigits >= 0) {
+					fractionDigits++;
+				}
+			} else if(c == '.' && fractionDigits < 0) {
+				fractionDigits = 0;
+			} else {
+				return Double.NaN;
+			}
+		}
+		if(digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+			return Double.NaN;
+		}
+		final double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+		return negative ? -value : value;
+	}
+
+	private static boolean isEmpty(String path) {
+		return path == null || path.isEmpty();
+	}
+
+	/**
+	 * The values of the ticker being read
+	 */
+	private static final class Ticker {
+
+		private String baseCurrency;
+		private String quoteCurrency;
+		private double bidPrice;
+		private double askPrice;
+
+		Ticker() {
+			reset();
+		}
+
+		void reset() {
+			baseCurrency = null;
+			quoteCurrency = null;
+			bidPrice = Double.NaN;
+			askPrice = Double.NaN;
+		}
+
+		void read(JsonParser parser, JsonToken token, int field) throws IOException {
+			if(token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+				parser.skipChildren();
+				return;
+			}
+			switch (field) {
+			case BASE:
+				baseCurrency = parser.getText();
+				break;
+			case QUOTE:
+				quoteCurrency = parser.getText();
+				break;
+			case BID:
+				bidPrice = readPrice(parser, token);
+				break;
+			default:
+				askPrice = readPrice(parser, token);
+				break;
+			}
+		}
+
+		/**
+		 * Reads a price sent as a number or a string, from the characters of
+		 * the parser when it is a plain decimal
+		 */
+		private static double readPrice(JsonParser parser, JsonToken token) throws IOException {
+			if(token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_FLOAT
+					|| token == JsonToken.VALUE_NUMBER_INT) {
+				final double price = parseDecimal(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+				if(!Double.isNaN(price)) {
+					return price;
+				}
+			}
+			return parser.getValueAsDouble(Double.NaN);
+		}
+
+		/**
+		 * Passes the ticker to the handler if it has both prices
+		 */
+		boolean emit(QuoteHandler handler) throws IOException {
+			if(Double.isNaN(bidPrice) || Double.isNaN(askPrice)) {
+				return false;
+			}
+			handler.onQuote(baseCurrency, quoteCurrency, askPrice, bidPrice);
+			return true;
+		}
+	}
+
+	/**
+	 * A field (or element) of the compiled tree : a value to read, or the
+	 * fields to visit below it, or a container of tickers.
+	 */
+	private static final class Node {
+
+		/**
+		 * The interned names of the children (null for the array elements)
+		 */
+		private final String[] names;
+
+		/**
+		 * The array index of the children (-1 for the fields)
+		 */
+		private final int[] indexes;
+		private final Node[] children;
+
+		/**
+		 * The value read at this node (-1 if none)
+		 */
+		private final int field;
+
+		/**
+		 * The tree of each entry, if this node is the container of the tickers
+		 */
+		private final Node entries;
+
+		Node(String[] names, int[] indexes, Node[] children, int field, Node entries) {
+			this.names = names;
+			this.indexes = indexes;
+			this.children = children;
+			this.field = field;
+			this.entries = entries;
+		}
+
+		Node child(String name) {
+			for (int i = 0; i < names.length; i++) {
+				if(names[i] == name) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+
+		Node child(int index) {
+			for (int i = 0; i < indexes.length; i++) {
+				if(indexes[i] == index) {
+					return children[i];
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the tree from the paths
+	 */
+	private static final class NodeBuilder {
+
+		private final Map<String, NodeBuilder> children = new LinkedHashMap<>();
+		private int field = -1;
+		private NodeBuilder entries;
+
+		NodeBuilder child(String segment) {
+			return children.computeIfAbsent(segment, key -> new NodeBuilder());
+		}
+
+		void add(String path, int field) {
+			NodeBuilder node = this;
+			for (final String segment : path.split("\\.")) {
+				node = node.child(segment);
+			}
+			if(node.field >= 0 || !node.children.isEmpty()) {
+				throw new IllegalArgumentException("Conflicting REST connector path : " + path);
+			}
+			node.field = field;
+		}
+
+		Node build() {
+			final List<String> names = new ArrayList<>();
+			final List<Integer> indexes = new ArrayList<>();
+			final List<Node> nodes = new ArrayList<>();
+			children.forEach((segment, child) -> {
+				final boolean index = !segment.isEmpty() && segment.chars().allMatch(Character::isDigit);
+				names.add(index ? null : segment.intern());
+				indexes.add(index ? Integer.parseInt(segment) : -1);
+				nodes.add(child.build());
+			});
+			return new Node(names.toArray(new String[0]), indexes.stream().mapToInt(Integer::intValue).toArray(),
+					nodes.toArray(new Node[0]), field, entries != null ? entries.build() : null);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package application.exchange.rest;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.NetTickPrice;
+import application.configuration.AppConfig;
+import application.configuration.ExchangeConfig;
+import application.configuration.RestConnectorConfig;
+import application.exchange.BaseExchangeConnector;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+
+/**
+ * Generic connector for the exchanges serving their tickers as JSON over REST,
+ * configured in JSON (property 'rest' of the exchange) instead of code.
+ *
+ * In per-pair mode, one polling loop per currency pair polls the URL of the
+ * pair, like the BTCMarkets connector. In bulk mode, one polling loop polls
+ * the tickers of all the pairs, like the ACX connector. The URLs are expanded and
+ * the JSON paths compiled once at startup (see {@link QuoteExtractor}). The
+ * responses are decoded on the decode stage if it is enabled.
+ */
+public class RestConnector extends BaseExchangeConnector {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(RestConnector.class);
+
+	private final QuoteExtractor extractor;
+
+	/**
+	 * The quote slot index of each configured currency pair (key is the pair
+	 * in upper case, e.g. 'BTC-AUD')
+	 */
+	private final Map<String, Integer> pairIndexes;
+
+	/**
+	 * Initializes this connector during program startup, pre-warms the
+	 * connections and fires up the event loops for fetching market data.
+	 */
+	public RestConnector(AppConfig appConfig, ExchangeConfig exchangeConfig, Scheduler scheduler) {
+		super(appConfig, exchangeConfig, scheduler);
+		final RestConnectorConfig restConfig = exchangeConfig.getRest();
+		if(restConfig == null || restConfig.getUrlTemplate() == null) {
+			throw new IllegalArgumentException("No REST connector configuration ('rest.urlTemplate') for : "
+					+ exchangeConfig.getId());
+		}
+		this.extractor = QuoteExtractor.compile(restConfig);
+		this.pairIndexes = new HashMap<>();
+		for (final String currencyPair : appConfig.getCurrencyPairs()) {
+			pairIndexes.put(currencyPair.toUpperCase(Locale.ROOT), getQuoteSlots().indexOf(currencyPair));
+		}
+
+		final String urlTemplate = getBaseUrl("") + restConfig.getUrlTemplate();
+		// The root of the host
+		final int pathStart = urlTemplate.indexOf('/', urlTemplate.indexOf("//") + 2);
+		warmUpConnections(pathStart > 0 ? urlTemplate.substring(0, pathStart + 1) : urlTemplate + "/");
+		if(Boolean.TRUE.equals(restConfig.getBulk())) {
+			addPollingLoop(getExchangeId() + " market data", () -> pollAllPairs(urlTemplate));
+		} else {
+			for (final String currencyPair : appConfig.getCurrencyPairs()) {
+				final int pair = getQuoteSlots().indexOf(currencyPair);
+				final String url = expandUrl(urlTemplate, currencyPair);
+				addPollingLoop(getExchangeId() + " data for " + currencyPair, () -> pollCurrencyPair(pair, url));
+			}
+		}
+		getPollingEngine().start();
+	}
+
+	/**
+	 * Replaces the currencies of the pair in the URL template
+	 */
+	private static String expandUrl(String urlTemplate, String currencyPair) {
+		final String[] splitCcyPair = currencyPair.split("-");
+		return urlTemplate
+				.replace("{BASE}", splitCcyPair[0].toUpperCase(Locale.ROOT))
+				.replace("{QUOTE}", splitCcyPair[1].toUpperCase(Locale.ROOT))
+				.replace("{base}", splitCcyPair[0].toLowerCase(Locale.ROOT))
+				.replace("{quote}", splitCcyPair[1].toLowerCase(Locale.ROOT));
+	}
+
+	/**
+	 * Polls the ticker of one currency pair (per-pair mode). The request rate
+	 * is throttled by the rate limiter, and delayed while the circuit breaker
+	 * is open.
+	 */
+	private void pollCurrencyPair(int pair, String url) throws IOException {
+		acquirePermit();
+		decodeBody(url, (bytes, offset, length) -> {
+			final int count = extractor.extract(bytes, offset, length,
+					(baseCurrency, quoteCurrency, askPrice, bidPrice) ->
+						updateQuote(pair, askPrice * getFeeFactor(), bidPrice * getFeeFactor()));
+			if(count == 0 && LOGGER.isDebugEnabled()) {
+				LOGGER.debug("No ticker in the response from : " + url);
+			}
+			return count;
+		});
+	}
+
+	/**
+	 * Polls the tickers of all the pairs (bulk mode). The tickers of the pairs
+	 * that aren't configured are only passed to the tick listeners (if any).
+	 */
+	private void pollAllPairs(String url) throws IOException {
+		acquirePermit();
+		decodeBody(url, (bytes, offset, length) -> extractor.extract(bytes, offset, length, this::updateTicker));
+	}
+
+	/**
+	 * Updates the quote of a ticker read in bulk mode
+	 */
+	private void updateTicker(String baseCurrency, String quoteCurrency, double askPrice, double bidPrice) {
+		if(baseCurrency == null || quoteCurrency == null) {
+			return;
+		}
+		final double fee = getFeeFactor();
+		final String ccyPair = baseCurrency.toUpperCase(Locale.ROOT) + "-" + quoteCurrency.toUpperCase(Locale.ROOT);
+		final Integer pair = pairIndexes.get(ccyPair);
+		if(pair != null) {
+			updateQuote(pair, askPrice * fee, bidPrice * fee);
+		} else if(hasTickListeners()) {
+			notifyTickListeners(ccyPair, askPrice * fee, bidPrice * fee, System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * Retrieves the tick data from the cache.
+	 */
+	@Override
+	public Flowable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency) {
+		return Flowable.fromCallable(() -> {
+			final NetTickPrice tickData = getLatestTick(baseCurrency + "-" + quoteCurrency);
+			if(LOGGER.isDebugEnabled()) {
+				LOGGER.debug("[" + getExchangeId() + "] Fetched from cache : " + tickData);
+			}
+			return Optional.ofNullable(tickData);
+		});
+	}
+}
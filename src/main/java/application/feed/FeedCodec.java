@@ -0,0 +1,231 @@
+package application.feed;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+
+/**
+ * The fixed layout of the market data feed messages, read and written in
+ * place in a buffer (no object per message), like SBE. All the values are
+ * big-endian, as in the binary query API.
+ *
+ * Header (32 bytes) : short magic, byte version, byte message type, short
+ * entry count, short entry length, long session (the start time of the
+ * publisher), long sequence number, long send time. </br>
+ *
+ * Entry (64 bytes) : 16 bytes exchange ID, 12 bytes currency pair (ASCII,
+ * padded with zeros), 4 bytes padding, double net ask, double net bid, double
+ * fee factor of the exchange, long timestamp of the quote. </br>
+ *
+ * A {@link #TYPE_QUOTE} message carries one entry and the next sequence number,
+ * a {@link #TYPE_HEARTBEAT} message no entry and the last sequence number.
+ * The snapshot of every latest quote (sent over TCP) is one or more pages of
+ * at most {@link #MAX_COUNT} entries, each with the sequence number of the
+ * last quote message it includes : {@link #TYPE_SNAPSHOT_PAGE} messages
+ * followed by a last {@link #TYPE_SNAPSHOT} one.
+ */
+public final class FeedCodec {
+
+	public static final short MAGIC = 0x5846;
+	public static final byte VERSION = 1;
+
+	public static final byte TYPE_QUOTE = 1;
+	public static final byte TYPE_HEARTBEAT = 2;
+	public static final byte TYPE_SNAPSHOT = 3;
+	public static final byte TYPE_SNAPSHOT_PAGE = 4;
+
+	public static final int HEADER_LENGTH = 32;
+	public static final int ENTRY_LENGTH = 64;
+
+	/**
+	 * The maximum number of entries of a message (the count is an unsigned
+	 * short)
+	 */
+	public static final int MAX_COUNT = 0xFFFF;
+
+	public static final int MAX_EXCHANGE_LENGTH = 16;
+	public static final int MAX_PAIR_LENGTH = 12;
+
+	private static final int TYPE_OFFSET = 3;
+	private static final int COUNT_OFFSET = 4;
+	private static final int ENTRY_LENGTH_OFFSET = 6;
+	private static final int SESSION_OFFSET = 8;
+	private static final int SEQUENCE_OFFSET = 16;
+	private static final int SEND_TIME_OFFSET = 24;
+
+	private static final int PAIR_OFFSET = 16;
+	private static final int ASK_OFFSET = 32;
+	private static final int BID_OFFSET = 40;
+	private static final int FEE_OFFSET = 48;
+	private static final int TIMESTAMP_OFFSET = 56;
+
+	private FeedCodec() {
+	}
+
+	public static void writeHeader(ByteBuffer buffer, byte type, int count, long session, long sequence,
+			long sendTime) {
+		buffer.putShort(0, MAGIC);
+		buffer.put(2, VERSION);
+		buffer.put(TYPE_OFFSET, type);
+		buffer.putShort(COUNT_OFFSET, (short) count);
+		buffer.putShort(ENTRY_LENGTH_OFFSET, (short) ENTRY_LENGTH);
+		buffer.putLong(SESSION_OFFSET, session);
+		buffer.putLong(SEQUENCE_OFFSET, sequence);
+		buffer.putLong(SEND_TIME_OFFSET, sendTime);
+	}
+
+	/**
+	 * Writes the entry at the given index (after the header)
+	 */
+	public static void writeEntry(ByteBuffer buffer, int index, String exchangeId, String ccyPair,
+			double netAskPrice, double netBidPrice, double feeFactor, long timestamp) {
+		final int offset = HEADER_LENGTH + index * ENTRY_LENGTH;
+		writeSymbol(buffer, offset, MAX_EXCHANGE_LENGTH, exchangeId);
+		writeSymbol(buffer, offset + PAIR_OFFSET, MAX_PAIR_LENGTH, ccyPair);
+		buffer.putInt(offset + PAIR_OFFSET + MAX_PAIR_LENGTH, 0);
+		buffer.putDouble(offset + ASK_OFFSET, netAskPrice);
+		buffer.putDouble(offset + BID_OFFSET, netBidPrice);
+		buffer.putDouble(offset + FEE_OFFSET, feeFactor);
+		buffer.putLong(offset + TIMESTAMP_OFFSET, timestamp);
+	}
+
+	/**
+	 * Returns true if the IDs fit in their fields (ASCII only)
+	 */
+	public static boolean fits(String exchangeId, String ccyPair) {
+		return isAscii(exchangeId, MAX_EXCHANGE_LENGTH) && isAscii(ccyPair, MAX_PAIR_LENGTH);
+	}
+
+	private static boolean isAscii(String symbol, int maxLength) {
+		if(symbol.length() > maxLength) {
+			return false;
+		}
+		for (int i = 0; i < symbol.length(); i++) {
+			if(symbol.charAt(i) == 0 || symbol.charAt(i) > 127) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the characters of the symbol, then zeros up to the field length
+	 */
+	private static void writeSymbol(ByteBuffer buffer, int offset, int fieldLength, String symbol) {
+		for (int i = 0; i < fieldLength; i++) {
+			buffer.put(offset + i, i < symbol.length() ? (byte) symbol.charAt(i) : 0);
+		}
+	}
+
+	/**
+	 * Returns true if the header is one of this version of the feed, and the
+	 * buffer holds its entries
+	 */
+	public static boolean isValid(ByteBuffer buffer, int length) {
+		return length >= HEADER_LENGTH
+				&& buffer.getShort(0) == MAGIC
+				&& buffer.get(2) == VERSION
+				&& buffer.getShort(ENTRY_LENGTH_OFFSET) == ENTRY_LENGTH
+				&& length >= HEADER_LENGTH + getCount(buffer) * ENTRY_LENGTH;
+	}
+
+	public static byte getType(ByteBuffer buffer) {
+		return buffer.get(TYPE_OFFSET);
+	}
+
+	public static int getCount(ByteBuffer buffer) {
+		return buffer.getShort(COUNT_OFFSET) & 0xFFFF;
+	}
+
+	public static long getSession(ByteBuffer buffer) {
+		return buffer.getLong(SESSION_OFFSET);
+	}
+
+	public static long getSequence(ByteBuffer buffer) {
+		return buffer.getLong(SEQUENCE_OFFSET);
+	}
+
+	public static long getSendTime(ByteBuffer buffer) {
+		return buffer.getLong(SEND_TIME_OFFSET);
+	}
+
+	public static String getExchangeId(ByteBuffer buffer, int index, SymbolTable symbols) {
+		return symbols.get(buffer, HEADER_LENGTH + index * ENTRY_LENGTH, MAX_EXCHANGE_LENGTH);
+	}
+
+	public static String getCcyPair(ByteBuffer buffer, int index, SymbolTable symbols) {
+		return symbols.get(buffer, HEADER_LENGTH + index * ENTRY_LENGTH + PAIR_OFFSET, MAX_PAIR_LENGTH);
+	}
+
+	public static double getNetAskPrice(ByteBuffer buffer, int index) {
+		return buffer.getDouble(HEADER_LENGTH + index * ENTRY_LENGTH + ASK_OFFSET);
+	}
+
+	public static double getNetBidPrice(ByteBuffer buffer, int index) {
+		return buffer.getDouble(HEADER_LENGTH + index * ENTRY_LENGTH + BID_OFFSET);
+	}
+
+	public static double getFeeFactor(ByteBuffer buffer, int index) {
+		return buffer.getDouble(HEADER_LENGTH + index * ENTRY_LENGTH + FEE_OFFSET);
+	}
+
+	public static long getTimestamp(ByteBuffer buffer, int index) {
+		return buffer.getLong(HEADER_LENGTH + index * ENTRY_LENGTH + TIMESTAMP_OFFSET);
+	}
+
+	/**
+	 * The strings of the symbols already read, so that reading a known symbol
+	 * doesn't create a string. Not thread safe : one per reading thread.
+	 */
+	public static final class SymbolTable {
+
+		/**
+		 * Beyond it, the new symbols are not kept
+		 */
+		private static final int MAX_SYMBOLS = 4096;
+
+		private byte[][] bytes = new byte[16][];
+		private String[] strings = new String[16];
+		private int size;
+
+		String get(ByteBuffer buffer, int offset, int fieldLength) {
+			int length = 0;
+			while (length < fieldLength && buffer.get(offset + length) != 0) {
+				length++;
+			}
+			for (int i = 0; i < size; i++) {
+				if(matches(bytes[i], buffer, offset, length)) {
+					return strings[i];
+				}
+			}
+			final byte[] symbol = new byte[length];
+			for (int i = 0; i < length; i++) {
+				symbol[i] = buffer.get(offset + i);
+			}
+			final String string = new String(symbol, StandardCharsets.US_ASCII);
+			if(size < MAX_SYMBOLS) {
+				if(size == bytes.length) {
+					bytes = Arrays.copyOf(bytes, size * 2);
+					strings = Arrays.copyOf(strings, size * 2);
+				}
+				bytes[size] = symbol;
+				strings[size] = string;
+				size++;
+			}
+			return string;
+		}
+
+		private static boolean matches(byte[] symbol, ByteBuffer buffer, int offset, int length) {
+			if(symbol.length != length) {
+				return false;
+			}
+			for (int i = 0; i < length; i++) {
+				if(symbol[i] != buffer.get(offset + i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
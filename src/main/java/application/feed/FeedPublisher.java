@@ -0,0 +1,291 @@
+package application.feed;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.ProtocolFamily;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.configuration.MarketDataFeedConfig;
+import application.exchange.TickListener;
+
+/**
+ * Publishes every quote received by the connectors on the market data feed,
+ * so that other instances can use the quotes of this one (see
+ * application.exchange.feed.FeedConnector) instead of polling the exchanges
+ * themselves.
+ *
+ * Each quote is sent as one {@link FeedCodec#TYPE_QUOTE} datagram with the
+ * next sequence number, to the multicast group (or unicast address) of the
+ * configuration. A heartbeat with the last sequence number is sent at a fixed
+ * interval, so that the subscribers detect a gap even when no quote follows
+ * it. The snapshot server answers each TCP connection with the latest quote
+ * of every exchange & pair (in as many pages as needed) and the sequence
+ * number it is consistent with, then closes it : the subscribers recover from
+ * it after a gap or a (re)start.
+ */
+public class FeedPublisher implements TickListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(FeedPublisher.class);
+
+	private static final long DEFAULT_HEARTBEAT_INTERVAL = 1000;
+	private static final int DEFAULT_TTL = 1;
+	private static final String DEFAULT_SNAPSHOT_HOST = "127.0.0.1";
+
+	private final DatagramChannel channel;
+	private final InetSocketAddress target;
+
+	/**
+	 * The fee factor of each exchange (key is exchange ID), sent with the
+	 * quotes so that the subscribers can apply their own fees
+	 */
+	private final Map<String, Double> feeFactors;
+
+	/**
+	 * Identifies this run of the publisher : the sequence numbers start over
+	 * with each session
+	 */
+	private final long session;
+
+	/**
+	 * The datagram being sent (guarded by this)
+	 */
+	private final ByteBuffer packet;
+
+	/**
+	 * The latest quote of each exchange & pair (key is exchange ID, then
+	 * currency pair), updated in place, guarded by this
+	 */
+	private final Map<String, Map<String, LatestQuote>> latestQuotes;
+
+	/**
+	 * The sequence number of the last quote sent (guarded by this)
+	 */
+	private long sequence;
+
+	/**
+	 * True while the datagrams can't be sent, so that the failure is only
+	 * logged once (guarded by this)
+	 */
+	private boolean sendFailing;
+
+	private final long heartbeatInterval;
+	private final ScheduledExecutorService heartbeats;
+
+	/**
+	 * Serves the snapshots (null if no snapshot port)
+	 */
+	private final ServerSocket snapshotServer;
+	private final Thread snapshotAcceptor;
+
+	/**
+	 * @param feeFactors The fee factor of each exchange (key is exchange ID)
+	 */
+	public FeedPublisher(MarketDataFeedConfig config, Map<String, Double> feeFactors) throws IOException {
+		if(config.getAddress() == null || config.getPort() == null) {
+			throw new IllegalArgumentException("The market data feed needs an 'address' and a 'port'");
+		}
+		final InetAddress address = InetAddress.getByName(config.getAddress());
+		final ProtocolFamily family = address instanceof Inet6Address
+				? StandardProtocolFamily.INET6 : StandardProtocolFamily.INET;
+		this.channel = DatagramChannel.open(family);
+		if(address.isMulticastAddress()) {
+			channel.setOption(StandardSocketOptions.IP_MULTICAST_TTL, config.getTtl() != null ? config.getTtl() : DEFAULT_TTL);
+			channel.setOption(StandardSocketOptions.IP_MULTICAST_LOOP, true);
+			if(config.getNetworkInterface() != null) {
+				channel.setOption(StandardSocketOptions.IP_MULTICAST_IF, getNetworkInterface(config.getNetworkInterface()));
+			}
+		}
+		this.target = new InetSocketAddress(address, config.getPort());
+		this.feeFactors = feeFactors;
+		this.session = System.currentTimeMillis();
+		this.packet = ByteBuffer.allocateDirect(FeedCodec.HEADER_LENGTH + FeedCodec.ENTRY_LENGTH);
+		this.latestQuotes = new HashMap<>();
+		this.heartbeatInterval = config.getHeartbeatInterval() != null
+				? config.getHeartbeatInterval() : DEFAULT_HEARTBEAT_INTERVAL;
+		this.heartbeats = Executors.newSingleThreadScheduledExecutor(
+				new ThreadFactoryBuilder().setNameFormat("feed-heartbeat").setDaemon(true).build());
+		if(config.getSnapshotPort() != null) {
+			this.snapshotServer = new ServerSocket(config.getSnapshotPort(), 50, InetAddress.getByName(
+					config.getSnapshotHost() != null ? config.getSnapshotHost() : DEFAULT_SNAPSHOT_HOST));
+			this.snapshotAcceptor = new ThreadFactoryBuilder().setNameFormat("feed-snapshot").setDaemon(true).build()
+					.newThread(this::serveSnapshots);
+		} else {
+			this.snapshotServer = null;
+			this.snapshotAcceptor = null;
+		}
+	}
+
+	static NetworkInterface getNetworkInterface(String name) throws SocketException {
+		final NetworkInterface networkInterface = NetworkInterface.getByName(name);
+		if(networkInterface == null) {
+			throw new IllegalArgumentException("Unknown network interface : " + name);
+		}
+		return networkInterface;
+	}
+
+	public void start() {
+		heartbeats.scheduleAtFixedRate(this::sendHeartbeat, heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+		if(snapshotAcceptor != null) {
+			snapshotAcceptor.start();
+		}
+		LOGGER.info("Publishing the market data feed to " + target
+				+ (snapshotServer != null ? ", snapshots on " + snapshotServer.getLocalSocketAddress() : ""));
+	}
+
+	public void stop() throws IOException {
+		heartbeats.shutdownNow();
+		if(snapshotServer != null) {
+			snapshotServer.close();
+		}
+		channel.close();
+	}
+
+	/**
+	 * Sends the quote on the feed (on the IO thread that received it)
+	 */
+	@Override
+	public synchronized void onTick(String exchangeId, String ccyPair, double netAskPrice, double netBidPrice,
+			long timestamp) {
+		final Double feeFactor = feeFactors.get(exchangeId);
+		if(feeFactor == null || !FeedCodec.fits(exchangeId, ccyPair)) {
+			return;
+		}
+		final Map<String, LatestQuote> quotes = latestQuotes.computeIfAbsent(exchangeId, key -> new HashMap<>());
+		LatestQuote quote = quotes.get(ccyPair);
+		if(quote == null) {
+			quote = new LatestQuote(exchangeId, ccyPair);
+			quotes.put(ccyPair, quote);
+		}
+		quote.netAskPrice = netAskPrice;
+		quote.netBidPrice = netBidPrice;
+		quote.timestamp = timestamp;
+		sequence++;
+		packet.clear();
+		FeedCodec.writeHeader(packet, FeedCodec.TYPE_QUOTE, 1, session, sequence, System.currentTimeMillis());
+		FeedCodec.writeEntry(packet, 0, exchangeId, ccyPair, netAskPrice, netBidPrice, feeFactor, timestamp);
+		send();
+	}
+
+	private synchronized void sendHeartbeat() {
+		packet.clear();
+		FeedCodec.writeHeader(packet, FeedCodec.TYPE_HEARTBEAT, 0, session, sequence, System.currentTimeMillis());
+		packet.limit(FeedCodec.HEADER_LENGTH);
+		send();
+	}
+
+	/**
+	 * Sends the packet (guarded by this)
+	 */
+	private void send() {
+		try {
+			channel.send(packet, target);
+			sendFailing = false;
+		} catch (final IOException e) {
+			if(!sendFailing) {
+				LOGGER.warn("Failed to send the market data feed to " + target, e);
+				sendFailing = true;
+			}
+		}
+	}
+
+	/**
+	 * Encodes the latest quotes in pages of at most {@link FeedCodec#MAX_COUNT}
+	 * entries, all with the sequence number of the last quote sent
+	 */
+	synchronized ByteBuffer encodeSnapshot() {
+		int count = 0;
+		for (final Map<String, LatestQuote> quotes : latestQuotes.values()) {
+			count += quotes.size();
+		}
+		final int pages = Math.max(1, (count + FeedCodec.MAX_COUNT - 1) / FeedCodec.MAX_COUNT);
+		final ByteBuffer snapshot = ByteBuffer.allocate(pages * FeedCodec.HEADER_LENGTH + count * FeedCodec.ENTRY_LENGTH);
+		final long sendTime = System.currentTimeMillis();
+		ByteBuffer page = null;
+		int index = 0;
+		int left = count;
+		for (final Map<String, LatestQuote> quotes : latestQuotes.values()) {
+			for (final LatestQuote quote : quotes.values()) {
+				if(page == null || index == FeedCodec.MAX_COUNT) {
+					page = startPage(snapshot, left, sendTime);
+					left -= FeedCodec.getCount(page);
+					index = 0;
+				}
+				FeedCodec.writeEntry(page, index++, quote.exchangeId, quote.ccyPair, quote.netAskPrice,
+						quote.netBidPrice, feeFactors.get(quote.exchangeId), quote.timestamp);
+			}
+		}
+		if(page == null) {
+			startPage(snapshot, 0, sendTime);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Writes the header of the next page of the snapshot, at its position
+	 *
+	 * @param left The number of entries not in the previous pages
+	 * @return the page (entries indexed from its header)
+	 */
+	private ByteBuffer startPage(ByteBuffer snapshot, int left, long sendTime) {
+		final int count = Math.min(left, FeedCodec.MAX_COUNT);
+		final ByteBuffer page = snapshot.slice();
+		FeedCodec.writeHeader(page, left > FeedCodec.MAX_COUNT ? FeedCodec.TYPE_SNAPSHOT_PAGE : FeedCodec.TYPE_SNAPSHOT,
+				count, session, sequence, sendTime);
+		snapshot.position(snapshot.position() + FeedCodec.HEADER_LENGTH + count * FeedCodec.ENTRY_LENGTH);
+		return page;
+	}
+
+	/**
+	 * The latest quote of an exchange & pair (guarded by the publisher)
+	 */
+	private static final class LatestQuote {
+
+		private final String exchangeId;
+		private final String ccyPair;
+		private double netAskPrice;
+		private double netBidPrice;
+		private long timestamp;
+
+		LatestQuote(String exchangeId, String ccyPair) {
+			this.exchangeId = exchangeId;
+			this.ccyPair = ccyPair;
+		}
+	}
+
+	private void serveSnapshots() {
+		while (!snapshotServer.isClosed()) {
+			try (Socket socket = snapshotServer.accept(); OutputStream out = socket.getOutputStream()) {
+				final ByteBuffer snapshot = encodeSnapshot();
+				out.write(snapshot.array(), 0, snapshot.capacity());
+				if(LOGGER.isDebugEnabled()) {
+					LOGGER.debug("Sent a snapshot of " + FeedCodec.getCount(snapshot) + " quotes (sequence "
+							+ FeedCodec.getSequence(snapshot) + ") to " + socket.getRemoteSocketAddress());
+				}
+			} catch (final SocketException e) {
+				// Closed by stop(), or by the subscriber
+			} catch (final IOException e) {
+				LOGGER.warn("Failed to send a market data feed snapshot", e);
+			}
+		}
+	}
+}
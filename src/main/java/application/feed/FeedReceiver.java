@@ -0,0 +1,331 @@
+package application.feed;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.configuration.MarketDataFeedConfig;
+
+/**
+ * Receives the market data feed sent by a {@link FeedPublisher}, and passes
+ * the quotes of each exchange to the handler subscribed to it. There is one
+ * receiver (and thread) per feed address & port in the JVM, shared by the
+ * connectors of its exchanges.
+ *
+ * Each quote message holds the whole quote of one exchange & pair, so the
+ * messages are applied as they come, and a lost message only leaves its quote
+ * stale. A gap in the sequence numbers (or a heartbeat ahead of the last
+ * message) is detected on the next message, and recovered from the snapshot
+ * server of the publisher : the messages already included in the snapshot are
+ * then skipped. The receiver also recovers when it starts, when a handler
+ * subscribes, and when the publisher restarts (new session).
+ */
+public class FeedReceiver {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(FeedReceiver.class);
+
+	private static final String DEFAULT_SNAPSHOT_HOST = "127.0.0.1";
+
+	/**
+	 * The time to wait for a datagram before retrying a pending recovery, and
+	 * the minimum time between two recovery attempts
+	 */
+	private static final int RETRY_INTERVAL = 1000;
+
+	/**
+	 * The receivers of the JVM (key is address:port), guarded by the class
+	 */
+	private static final Map<String, FeedReceiver> RECEIVERS = new HashMap<>();
+
+	/**
+	 * Receives the quotes of one exchange
+	 */
+	public interface QuoteHandler {
+
+		/**
+		 * Called on the receiver thread for each quote of the exchange
+		 *
+		 * @param feeFactor The fee factor the net prices were calculated with
+		 * @param timestamp The time the quote was received by the publisher
+		 */
+		void onQuote(String ccyPair, double netAskPrice, double netBidPrice, double feeFactor, long timestamp);
+	}
+
+	private final String name;
+	private final MulticastSocket socket;
+
+	/**
+	 * The snapshot server of the publisher (null if none)
+	 */
+	private final InetSocketAddress snapshotAddress;
+
+	/**
+	 * The handler of each exchange (key is exchange ID in the feed)
+	 */
+	private final Map<String, QuoteHandler> handlers;
+
+	private final FeedCodec.SymbolTable symbols;
+	private final byte[] packetBytes;
+	private final ByteBuffer packet;
+	private final DatagramPacket datagram;
+
+	/**
+	 * The state of the feed (receiver thread only) : the session of the
+	 * publisher (0 before the first message), and the next sequence number
+	 */
+	private long session;
+	private long expectedSequence;
+
+	/**
+	 * True when the quotes must be recovered from a snapshot
+	 */
+	private volatile boolean recoveryPending;
+	private long nextRecoveryMillis;
+
+	private volatile long receivedMessages;
+	private volatile long gaps;
+	private volatile long recoveries;
+
+	private final Thread thread;
+
+	private FeedReceiver(MarketDataFeedConfig config) throws IOException {
+		if(config.getAddress() == null || config.getPort() == null) {
+			throw new IllegalArgumentException("The market data feed needs an 'address' and a 'port'");
+		}
+		this.name = config.getAddress() + ":" + config.getPort();
+		final InetAddress address = InetAddress.getByName(config.getAddress());
+		// Multicast socket : several instances on the same host can bind the port
+		this.socket = new MulticastSocket(config.getPort());
+		socket.setSoTimeout(RETRY_INTERVAL);
+		if(address.isMulticastAddress()) {
+			socket.joinGroup(new InetSocketAddress(address, config.getPort()), config.getNetworkInterface() != null
+					? FeedPublisher.getNetworkInterface(config.getNetworkInterface()) : null);
+		}
+		this.snapshotAddress = getSnapshotAddress(config);
+		this.handlers = new ConcurrentHashMap<>();
+		this.symbols = new FeedCodec.SymbolTable();
+		this.packetBytes = new byte[FeedCodec.HEADER_LENGTH + FeedCodec.ENTRY_LENGTH];
+		this.packet = ByteBuffer.wrap(packetBytes);
+		this.datagram = new DatagramPacket(packetBytes, packetBytes.length);
+		this.recoveryPending = true;
+		this.thread = new Thread(this::run, "feed-receiver-" + config.getPort());
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Returns the receiver of the feed, started on first use
+	 *
+	 * @throws IllegalArgumentException if the feed is already received with
+	 *             another snapshot server (one publisher sends the feed)
+	 */
+	public static synchronized FeedReceiver join(MarketDataFeedConfig config) throws IOException {
+		final String key = config.getAddress() + ":" + config.getPort();
+		FeedReceiver receiver = RECEIVERS.get(key);
+		if(receiver != null && !Objects.equals(receiver.snapshotAddress, getSnapshotAddress(config))) {
+			throw new IllegalArgumentException("The market data feed " + key + " is already received with the snapshot server "
+					+ receiver.snapshotAddress + ", not " + getSnapshotAddress(config));
+		}
+		if(receiver == null) {
+			receiver = new FeedReceiver(config);
+			RECEIVERS.put(key, receiver);
+			receiver.thread.start();
+			LOGGER.info("Receiving the market data feed from " + key
+					+ (receiver.snapshotAddress != null ? ", snapshots from " + receiver.snapshotAddress : ""));
+		}
+		return receiver;
+	}
+
+	private static InetSocketAddress getSnapshotAddress(MarketDataFeedConfig config) {
+		return config.getSnapshotPort() != null ? new InetSocketAddress(
+				config.getSnapshotHost() != null ? config.getSnapshotHost() : DEFAULT_SNAPSHOT_HOST,
+				config.getSnapshotPort()) : null;
+	}
+
+	/**
+	 * Passes the quotes of the exchange to the handler, starting with those of
+	 * the next snapshot
+	 */
+	public void subscribe(String exchangeId, QuoteHandler handler) {
+		handlers.put(exchangeId, handler);
+		recoveryPending = true;
+	}
+
+	private void run() {
+		while (!socket.isClosed()) {
+			try {
+				socket.receive(datagram);
+				onPacket(datagram.getLength());
+			} catch (final SocketTimeoutException e) {
+				// Retries the pending recovery below
+			} catch (final IOException | RuntimeException e) {
+				if(socket.isClosed()) {
+					return;
+				}
+				LOGGER.warn("Failed to receive the market data feed " + name, e);
+			}
+			if(recoveryPending && snapshotAddress != null && System.currentTimeMillis() >= nextRecoveryMillis) {
+				recover();
+			}
+		}
+	}
+
+	/**
+	 * Checks the sequence number of a datagram, then applies its quote
+	 */
+	private void onPacket(int length) {
+		if(!FeedCodec.isValid(packet, length)) {
+			LOGGER.debug("Ignored an invalid market data feed datagram of " + length + " bytes");
+			return;
+		}
+		final long packetSession = FeedCodec.getSession(packet);
+		final long sequence = FeedCodec.getSequence(packet);
+		final byte type = FeedCodec.getType(packet);
+		if(packetSession != session) {
+			if(session != 0) {
+				LOGGER.warn("The market data feed " + name + " restarted (new session)");
+			}
+			session = packetSession;
+			expectedSequence = type == FeedCodec.TYPE_QUOTE ? sequence : sequence + 1;
+			recoveryPending = true;
+		}
+		if(type == FeedCodec.TYPE_HEARTBEAT) {
+			if(sequence >= expectedSequence) {
+				onGap(sequence + 1);
+				expectedSequence = sequence + 1;
+			}
+		} else if(type == FeedCodec.TYPE_QUOTE) {
+			if(sequence < expectedSequence) {
+				// Already applied, or included in the snapshot
+				return;
+			}
+			if(sequence > expectedSequence) {
+				onGap(sequence);
+			}
+			expectedSequence = sequence + 1;
+			receivedMessages++;
+			applyEntries(packet, 1);
+		}
+	}
+
+	private void onGap(long sequence) {
+		gaps++;
+		LOGGER.warn("Gap in the market data feed " + name + " : missed " + (sequence - expectedSequence)
+				+ " message(s) from sequence " + expectedSequence);
+		recoveryPending = true;
+	}
+
+	private void applyEntries(ByteBuffer buffer, int count) {
+		for (int i = 0; i < count; i++) {
+			final QuoteHandler handler = handlers.get(FeedCodec.getExchangeId(buffer, i, symbols));
+			if(handler != null) {
+				handler.onQuote(FeedCodec.getCcyPair(buffer, i, symbols),
+						FeedCodec.getNetAskPrice(buffer, i), FeedCodec.getNetBidPrice(buffer, i),
+						FeedCodec.getFeeFactor(buffer, i), FeedCodec.getTimestamp(buffer, i));
+			}
+		}
+	}
+
+	/**
+	 * Applies the snapshot of the publisher, once all its pages are read. The
+	 * datagrams received meanwhile wait in the socket buffer, and those it
+	 * includes are skipped. An incomplete snapshot isn't applied.
+	 */
+	private void recover() {
+		nextRecoveryMillis = System.currentTimeMillis() + RETRY_INTERVAL;
+		// Cleared first, so that a handler subscribing meanwhile asks for another one
+		recoveryPending = false;
+		try (Socket snapshotSocket = new Socket()) {
+			snapshotSocket.connect(snapshotAddress, RETRY_INTERVAL);
+			snapshotSocket.setSoTimeout(RETRY_INTERVAL);
+			final DataInputStream in = new DataInputStream(snapshotSocket.getInputStream());
+			final List<ByteBuffer> pages = new ArrayList<>();
+			ByteBuffer page;
+			do {
+				page = readSnapshotPage(in);
+				if(!pages.isEmpty() && (FeedCodec.getSession(page) != FeedCodec.getSession(pages.get(0))
+						|| FeedCodec.getSequence(page) != FeedCodec.getSequence(pages.get(0)))) {
+					throw new IOException("Inconsistent snapshot pages");
+				}
+				pages.add(page);
+			} while (FeedCodec.getType(page) == FeedCodec.TYPE_SNAPSHOT_PAGE);
+
+			final long sequence = FeedCodec.getSequence(page);
+			if(FeedCodec.getSession(page) != session) {
+				session = FeedCodec.getSession(page);
+				expectedSequence = sequence + 1;
+			} else {
+				expectedSequence = Math.max(expectedSequence, sequence + 1);
+			}
+			int count = 0;
+			for (final ByteBuffer snapshotPage : pages) {
+				applyEntries(snapshotPage, FeedCodec.getCount(snapshotPage));
+				count += FeedCodec.getCount(snapshotPage);
+			}
+			recoveries++;
+			LOGGER.info("Recovered " + count + " quotes from the market data feed snapshot (sequence " + sequence
+					+ ", " + pages.size() + " page(s))");
+		} catch (final IOException e) {
+			recoveryPending = true;
+			LOGGER.warn("Failed to recover the market data feed snapshot from " + snapshotAddress + ", retrying in "
+					+ TimeUnit.MILLISECONDS.toSeconds(RETRY_INTERVAL) + " s : " + e);
+		}
+	}
+
+	/**
+	 * Reads one page of the snapshot (the connection ends early if the
+	 * snapshot is truncated)
+	 *
+	 * @throws IOException if it isn't a page of a snapshot
+	 */
+	private static ByteBuffer readSnapshotPage(DataInputStream in) throws IOException {
+		final byte[] header = new byte[FeedCodec.HEADER_LENGTH];
+		in.readFully(header);
+		final int count = FeedCodec.getCount(ByteBuffer.wrap(header));
+		final byte[] pageBytes = new byte[FeedCodec.HEADER_LENGTH + count * FeedCodec.ENTRY_LENGTH];
+		System.arraycopy(header, 0, pageBytes, 0, header.length);
+		in.readFully(pageBytes, header.length, pageBytes.length - header.length);
+		final ByteBuffer page = ByteBuffer.wrap(pageBytes);
+		if(!FeedCodec.isValid(page, pageBytes.length) || (FeedCodec.getType(page) != FeedCodec.TYPE_SNAPSHOT
+				&& FeedCodec.getType(page) != FeedCodec.TYPE_SNAPSHOT_PAGE)) {
+			throw new IOException("Invalid snapshot");
+		}
+		return page;
+	}
+
+	/**
+	 * Returns the number of quote messages applied
+	 */
+	public long getReceivedMessages() {
+		return receivedMessages;
+	}
+
+	/**
+	 * Returns the number of gaps detected in the sequence numbers
+	 */
+	public long getGaps() {
+		return gaps;
+	}
+
+	/**
+	 * Returns the number of snapshots applied
+	 */
+	public long getRecoveries() {
+		return recoveries;
+	}
+}
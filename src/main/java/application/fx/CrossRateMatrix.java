@@ -0,0 +1,125 @@
+package application.fx;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Matrix of the conversion rates between a fixed set of currencies, with the
+ * derived rate of each currency to the target quote currency.
+ *
+ * A currency that has no direct rate to the target is converted through the
+ * shortest chain of known rates (e.g. BTC -> USDT -> AUD). This class is not
+ * thread safe.
+ */
+public class CrossRateMatrix {
+
+	/**
+	 * Index of each currency in the matrix
+	 */
+	private final Map<String, Integer> currencyIndex;
+
+	private final String[] currencies;
+
+	/**
+	 * rates[i][j] is the price of currency i in currency j (NaN if unknown)
+	 */
+	private final double[][] rates;
+
+	/**
+	 * The index of the target quote currency
+	 */
+	private final int targetIndex;
+
+	/**
+	 * The price of each currency in the target currency (NaN if unknown)
+	 */
+	private final double[] ratesToTarget;
+
+	public CrossRateMatrix(Collection<String> currencies, String targetCurrency) {
+		this.currencyIndex = new HashMap<>();
+		for (final String currency : currencies) {
+			currencyIndex.putIfAbsent(currency, currencyIndex.size());
+		}
+		currencyIndex.putIfAbsent(targetCurrency, currencyIndex.size());
+
+		final int size = currencyIndex.size();
+		this.currencies = new String[size];
+		currencyIndex.forEach((currency, index) -> this.currencies[index] = currency);
+		this.rates = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			Arrays.fill(rates[i], Double.NaN);
+			rates[i][i] = 1.0;
+		}
+		this.targetIndex = currencyIndex.get(targetCurrency);
+		this.ratesToTarget = new double[size];
+		Arrays.fill(ratesToTarget, Double.NaN);
+		ratesToTarget[targetIndex] = 1.0;
+	}
+
+	/**
+	 * Returns true if the currency is part of this matrix
+	 */
+	public boolean hasCurrency(String currency) {
+		return currencyIndex.containsKey(currency);
+	}
+
+	/**
+	 * Returns the price of the currency in the target currency (NaN if it
+	 * can't be converted yet)
+	 */
+	public double getRateToTarget(String currency) {
+		final Integer index = currencyIndex.get(currency);
+		return index != null ? ratesToTarget[index] : Double.NaN;
+	}
+
+	/**
+	 * Updates the price of the base currency in the quote currency.
+	 *
+	 * @return the currencies whose rate to the target currency changed
+	 */
+	public List<String> updateRate(String baseCurrency, String quoteCurrency, double rate) {
+		final int base = currencyIndex.get(baseCurrency);
+		final int quote = currencyIndex.get(quoteCurrency);
+		rates[base][quote] = rate;
+		rates[quote][base] = 1.0 / rate;
+		return recomputeRatesToTarget();
+	}
+
+	/**
+	 * Recomputes the rate of every currency to the target through the
+	 * shortest chain of known rates (breadth-first from the target).
+	 */
+	private List<String> recomputeRatesToTarget() {
+		final int size = currencies.length;
+		final double[] newRates = new double[size];
+		Arrays.fill(newRates, Double.NaN);
+		newRates[targetIndex] = 1.0;
+
+		final Queue<Integer> pending = new ArrayDeque<>(size);
+		pending.add(targetIndex);
+		while (!pending.isEmpty()) {
+			final int converted = pending.poll();
+			for (int currency = 0; currency < size; currency++) {
+				if(Double.isNaN(newRates[currency]) && !Double.isNaN(rates[currency][converted])) {
+					newRates[currency] = rates[currency][converted] * newRates[converted];
+					pending.add(currency);
+				}
+			}
+		}
+
+		final List<String> changed = new ArrayList<>();
+		for (int currency = 0; currency < size; currency++) {
+			if(Double.compare(newRates[currency], ratesToTarget[currency]) != 0) {
+				ratesToTarget[currency] = newRates[currency];
+				changed.add(currencies[currency]);
+			}
+		}
+		return changed;
+	}
+}
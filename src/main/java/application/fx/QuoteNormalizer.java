@@ -0,0 +1,186 @@
+package application.fx;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.NetTickPrice;
+import application.configuration.AppConfig;
+import application.configuration.ExchangeConfig;
+import application.configuration.FxConfig;
+import application.exchange.TickListener;
+
+/**
+ * Converts the tick prices quoted in other currencies (e.g. BTC-USDT) to the
+ * target quote currency (e.g. BTC-AUD), so that they can be compared with the
+ * exchanges that list the target currency directly.
+ *
+ * The conversion rates come from the FX / stablecoin pairs received by the connectors
+ * (see {@link FxConfig}). The normalized quotes are updated incrementally :
+ * a new tick only normalizes that tick, and a new FX rate only re-normalizes
+ * the quotes in the currencies whose conversion rate changed.
+ */
+public class QuoteNormalizer implements TickListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(QuoteNormalizer.class);
+
+	/**
+	 * The quote currency all the prices are converted to
+	 */
+	private final String targetCurrency;
+
+	/**
+	 * The pairs used as conversion rates
+	 */
+	private final Set<String> fxPairs;
+
+	/**
+	 * The fee of each exchange (key is the exchange ID), removed from the net
+	 * prices of the FX pairs to get the conversion rates
+	 */
+	private final Map<String, BigDecimal> exchangeFees;
+
+	/**
+	 * Conversion rates between the currencies of the FX pairs
+	 */
+	private final CrossRateMatrix rateMatrix;
+
+	/**
+	 * The latest tick prices that need a conversion, by quote currency (inner
+	 * key is exchange ID + '/' + currency pair)
+	 */
+	private final Map<String, Map<String, NetTickPrice>> sourceQuotes;
+
+	/**
+	 * The converted tick prices, by base currency (inner key is the venue ID)
+	 */
+	private final Map<String, Map<String, NetTickPrice>> normalizedQuotes;
+
+	public QuoteNormalizer(AppConfig appConfig) {
+		final FxConfig fxConfig = appConfig.getFx();
+		this.targetCurrency = fxConfig.getQuoteCurrency();
+		this.fxPairs = new HashSet<>(fxConfig.getFxPairs());
+		this.exchangeFees = new HashMap<>();
+		for (final ExchangeConfig exchangeConfig : appConfig.getExchanges()) {
+			exchangeFees.put(exchangeConfig.getId(), exchangeConfig.getFee());
+		}
+
+		final Set<String> currencies = new HashSet<>();
+		for (final String fxPair : fxPairs) {
+			Collections.addAll(currencies, fxPair.split("-"));
+		}
+		this.rateMatrix = new CrossRateMatrix(currencies, targetCurrency);
+		this.sourceQuotes = new HashMap<>();
+		this.normalizedQuotes = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * Returns the target quote currency
+	 */
+	public String getTargetCurrency() {
+		return targetCurrency;
+	}
+
+	/**
+	 * Returns the tick prices of the given base currency converted from other
+	 * quote currencies to the target currency.
+	 */
+	public List<NetTickPrice> getNormalizedQuotes(String baseCurrency) {
+		final Map<String, NetTickPrice> quotes = normalizedQuotes.get(baseCurrency);
+		return quotes != null ? new ArrayList<>(quotes.values()) : Collections.emptyList();
+	}
+
+	/**
+	 * Only creates a tick price for the FX pairs and the pairs in other quote
+	 * currencies : the ticks of the pairs already in the target currency are
+	 * skipped without allocating.
+	 */
+	@Override
+	public void onTick(String exchangeId, String ccyPair, double netAskPrice, double netBidPrice, long timestamp) {
+		if(isInTargetCurrency(ccyPair) && !fxPairs.contains(ccyPair)) {
+			return;
+		}
+		onTickUpdate(new NetTickPrice(exchangeId, ccyPair, netAskPrice, netBidPrice, timestamp));
+	}
+
+	/**
+	 * Returns true if the pair is quoted in the target currency (e.g. BTC-AUD)
+	 */
+	private boolean isInTargetCurrency(String ccyPair) {
+		final int separator = ccyPair.length() - targetCurrency.length() - 1;
+		return separator > 0 && ccyPair.charAt(separator) == '-' && ccyPair.endsWith(targetCurrency);
+	}
+
+	@Override
+	public synchronized void onTickUpdate(NetTickPrice tickPrice) {
+
+		final String[] splitCcyPair = tickPrice.getCcyPair().split("-");
+		final String quoteCurrency = splitCcyPair[1];
+
+		if(fxPairs.contains(tickPrice.getCcyPair())) {
+			updateRate(tickPrice, splitCcyPair[0], quoteCurrency);
+		}
+
+		if(!quoteCurrency.equals(targetCurrency) && rateMatrix.hasCurrency(quoteCurrency)) {
+			sourceQuotes.computeIfAbsent(quoteCurrency, (key) -> new HashMap<>())
+				.put(tickPrice.getExchangeId() + "/" + tickPrice.getCcyPair(), tickPrice);
+			normalize(tickPrice, splitCcyPair[0], quoteCurrency);
+		}
+	}
+
+	/**
+	 * Updates the conversion rate from the mid price of an FX pair, then
+	 * re-normalizes the quotes in the currencies whose rate changed.
+	 */
+	private void updateRate(NetTickPrice tickPrice, String baseCurrency, String quoteCurrency) {
+		final BigDecimal fee = exchangeFees.getOrDefault(tickPrice.getExchangeId(), BigDecimal.ONE);
+		final double midPrice = (tickPrice.getNetAskValue() + tickPrice.getNetBidValue()) / 2;
+		final double rate = midPrice / fee.doubleValue();
+		if(rate <= 0 || Double.isNaN(rate) || Double.isInfinite(rate)) {
+			return;
+		}
+
+		final List<String> changedCurrencies = rateMatrix.updateRate(baseCurrency, quoteCurrency, rate);
+		for (final String currency : changedCurrencies) {
+			final Map<String, NetTickPrice> quotes = sourceQuotes.get(currency);
+			if(quotes == null) {
+				continue;
+			}
+			for (final NetTickPrice quote : quotes.values()) {
+				normalize(quote, quote.getCcyPair().split("-")[0], currency);
+			}
+		}
+		if(LOGGER.isDebugEnabled()) {
+			LOGGER.debug("Updated FX rate " + tickPrice.getCcyPair() + " = " + rate + ", changed : " + changedCurrencies);
+		}
+	}
+
+	/**
+	 * Converts one tick price to the target currency (or removes the converted
+	 * price if there is no conversion rate).
+	 */
+	private void normalize(NetTickPrice tickPrice, String baseCurrency, String quoteCurrency) {
+		final String venueId = tickPrice.getExchangeId() + "/" + quoteCurrency;
+		final Map<String, NetTickPrice> baseQuotes =
+				normalizedQuotes.computeIfAbsent(baseCurrency, (key) -> new ConcurrentHashMap<>());
+
+		final double rate = rateMatrix.getRateToTarget(quoteCurrency);
+		if(Double.isNaN(rate)) {
+			baseQuotes.remove(venueId);
+			return;
+		}
+		final BigDecimal conversionRate = BigDecimal.valueOf(rate);
+		baseQuotes.put(venueId, new NetTickPrice(venueId, baseCurrency + "-" + targetCurrency,
+				tickPrice.getNetAskPrice().multiply(conversionRate), tickPrice.getNetBidPrice().multiply(conversionRate),
+				tickPrice.getTimestamp()));
+	}
+}
@@ -0,0 +1,195 @@
+package application.kernel;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import application.exchange.QuoteSlots;
+import application.exchange.TickListener;
+
+/**
+ * Keeps the best net ask & bid prices of each currency pair across the
+ * exchanges as the ticks arrive, with one {@link TournamentTree} per pair and
+ * side : a tick updates the best prices and the spread of its pair in
+ * O(log exchanges) instead of a scan of all the exchanges at each calculation,
+ * and the second best exchanges are known as a fallback.
+ *
+ * Like the other calculations, the best ask is the highest net ask price and
+ * the best bid the lowest net bid price, and a pair needs quotes from at least
+ * two exchanges. An older tick than the one held for an exchange is ignored,
+ * so the book can be filled from the quote slots while the ticks arrive.
+ */
+public class BestQuoteBook implements TickListener {
+
+	private final List<String> currencyPairs;
+	private final List<String> exchangeIds;
+	private final Map<String, Integer> pairIndexes;
+	private final Map<String, Integer> exchangeIndexes;
+	private final PairBook[] books;
+
+	public BestQuoteBook(List<String> currencyPairs, List<String> exchangeIds) {
+		this.currencyPairs = currencyPairs;
+		this.exchangeIds = exchangeIds;
+		this.pairIndexes = new HashMap<>();
+		for (int pair = 0; pair < currencyPairs.size(); pair++) {
+			pairIndexes.put(currencyPairs.get(pair), pair);
+		}
+		this.exchangeIndexes = new HashMap<>();
+		for (int exchange = 0; exchange < exchangeIds.size(); exchange++) {
+			exchangeIndexes.put(exchangeIds.get(exchange), exchange);
+		}
+		this.books = new PairBook[currencyPairs.size()];
+		for (int pair = 0; pair < books.length; pair++) {
+			books[pair] = new PairBook(exchangeIds.size());
+		}
+	}
+
+	/**
+	 * Updates the book of the pair of the tick (IO thread). The ticks of the
+	 * pairs and exchanges that aren't in the book are ignored.
+	 */
+	@Override
+	public void onTick(String exchangeId, String ccyPair, double netAskPrice, double netBidPrice, long timestamp) {
+		final Integer pair = pairIndexes.get(ccyPair);
+		final Integer exchange = exchangeIndexes.get(exchangeId);
+		if(pair != null && exchange != null) {
+			books[pair].update(exchange, netAskPrice, netBidPrice, timestamp);
+		}
+	}
+
+	/**
+	 * Fills the book with the quotes already stored by an exchange (its quote
+	 * slots are indexed like the currency pairs of the book)
+	 */
+	public void load(String exchangeId, QuoteSlots quoteSlots) {
+		final Integer exchange = exchangeIndexes.get(exchangeId);
+		if(exchange == null) {
+			return;
+		}
+		final QuoteSlots.Quote quote = new QuoteSlots.Quote();
+		for (int pair = 0; pair < books.length; pair++) {
+			if(quoteSlots.read(pair, quote)) {
+				books[pair].update(exchange, quote.getNetAskPrice(), quote.getNetBidPrice(), quote.getTimestamp());
+			}
+		}
+	}
+
+	/**
+	 * Reads the best prices of a pair into the given holder
+	 *
+	 * @return false if the pair has no spread (quotes from fewer than two
+	 *         exchanges), the holder is then unchanged
+	 */
+	public boolean read(int pair, BestQuotes bestQuotes) {
+		return books[pair].read(bestQuotes);
+	}
+
+	public List<String> getCurrencyPairs() {
+		return currencyPairs;
+	}
+
+	/**
+	 * Returns the ID of an exchange of the best quotes
+	 */
+	public String getExchangeId(int exchange) {
+		return exchangeIds.get(exchange);
+	}
+
+	/**
+	 * The tournaments of a pair, updated by the IO threads (guarded by this)
+	 */
+	private static final class PairBook {
+
+		private final TournamentTree asks;
+		private final TournamentTree bids;
+		private final long[] timestamps;
+		private int quotedExchanges;
+
+		PairBook(int exchanges) {
+			this.asks = new TournamentTree(exchanges, true);
+			this.bids = new TournamentTree(exchanges, false);
+			this.timestamps = new long[exchanges];
+		}
+
+		synchronized void update(int exchange, double netAskPrice, double netBidPrice, long timestamp) {
+			if(timestamp < timestamps[exchange]) {
+				return;
+			}
+			if(!asks.hasValue(exchange)) {
+				quotedExchanges++;
+			}
+			timestamps[exchange] = timestamp;
+			asks.update(exchange, netAskPrice);
+			bids.update(exchange, netBidPrice);
+		}
+
+		synchronized boolean read(BestQuotes bestQuotes) {
+			if(quotedExchanges <= 1) {
+				return false;
+			}
+			final int bestAsk = asks.getWinner();
+			final int bestBid = bids.getWinner();
+			bestQuotes.bestAskExchange = bestAsk;
+			bestQuotes.bestAskPrice = asks.getValue(bestAsk);
+			bestQuotes.bestBidExchange = bestBid;
+			bestQuotes.bestBidPrice = bids.getValue(bestBid);
+			bestQuotes.secondAskExchange = asks.getRunnerUp();
+			bestQuotes.secondBidExchange = bids.getRunnerUp();
+			bestQuotes.secondAskPrice = asks.getValue(bestQuotes.secondAskExchange);
+			bestQuotes.secondBidPrice = bids.getValue(bestQuotes.secondBidExchange);
+			bestQuotes.spread = (bestQuotes.bestAskPrice - bestQuotes.bestBidPrice) / bestQuotes.bestBidPrice;
+			return true;
+		}
+	}
+
+	/**
+	 * A reusable holder for the best quotes of a pair. The exchanges are
+	 * indexes (see {@link BestQuoteBook#getExchangeId(int)}).
+	 */
+	public static class BestQuotes {
+
+		private int bestAskExchange;
+		private double bestAskPrice;
+		private int secondAskExchange;
+		private double secondAskPrice;
+		private int bestBidExchange;
+		private double bestBidPrice;
+		private int secondBidExchange;
+		private double secondBidPrice;
+		private double spread;
+
+		public int getBestAskExchange() {
+			return bestAskExchange;
+		}
+		public double getBestAskPrice() {
+			return bestAskPrice;
+		}
+		/**
+		 * Returns the exchange with the second best ask, the fallback of the best one
+		 */
+		public int getSecondAskExchange() {
+			return secondAskExchange;
+		}
+		public double getSecondAskPrice() {
+			return secondAskPrice;
+		}
+		public int getBestBidExchange() {
+			return bestBidExchange;
+		}
+		public double getBestBidPrice() {
+			return bestBidPrice;
+		}
+		/**
+		 * Returns the exchange with the second best bid, the fallback of the best one
+		 */
+		public int getSecondBidExchange() {
+			return secondBidExchange;
+		}
+		public double getSecondBidPrice() {
+			return secondBidPrice;
+		}
+		public double getSpread() {
+			return spread;
+		}
+	}
+}
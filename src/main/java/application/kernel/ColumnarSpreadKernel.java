@@ -0,0 +1,223 @@
+package application.kernel;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates the spread of a whole universe of currency pairs in one batch.
+ *
+ * The quotes are laid out as columns of primitives (struct-of-arrays) indexed
+ * by pair * exchanges + exchange. An exchange without a quote for a pair holds
+ * -Infinity as ask price and +Infinity as bid price, so that the search for the
+ * best prices is a branch-free reduction over a contiguous range. Large
+ * universes are split across the cores with fork-join.
+ *
+ * Like the event based calculation, the best ask is the highest net ask price
+ * and the best bid the lowest net bid price, and a pair needs quotes from at
+ * least two exchanges. The quotes must not be updated while {@link #compute()}
+ * runs.
+ */
+public class ColumnarSpreadKernel {
+
+	/**
+	 * The number of pairs under which a range is not split any further
+	 */
+	private static final int PAIRS_PER_TASK = 1024;
+
+	private final int pairCount;
+	private final int exchangeCount;
+
+	/**
+	 * Quote columns, indexed by pair * exchanges + exchange
+	 */
+	private final double[] askPrices;
+	private final double[] bidPrices;
+	private final byte[] validQuotes;
+
+	/**
+	 * Result columns, indexed by pair
+	 */
+	private final double[] bestAskPrices;
+	private final double[] bestBidPrices;
+	private final int[] bestAskExchanges;
+	private final int[] bestBidExchanges;
+	private final double[] spreads;
+
+	/**
+	 * The pool splitting the large universes (null to always compute on the
+	 * calling thread)
+	 */
+	private final ForkJoinPool pool;
+
+	public ColumnarSpreadKernel(int pairCount, int exchangeCount) {
+		this(pairCount, exchangeCount, ForkJoinPool.commonPool());
+	}
+
+	public ColumnarSpreadKernel(int pairCount, int exchangeCount, ForkJoinPool pool) {
+		this.pairCount = pairCount;
+		this.exchangeCount = exchangeCount;
+		this.askPrices = new double[pairCount * exchangeCount];
+		this.bidPrices = new double[pairCount * exchangeCount];
+		this.validQuotes = new byte[pairCount * exchangeCount];
+		this.bestAskPrices = new double[pairCount];
+		this.bestBidPrices = new double[pairCount];
+		this.bestAskExchanges = new int[pairCount];
+		this.bestBidExchanges = new int[pairCount];
+		this.spreads = new double[pairCount];
+		this.pool = pool;
+		clearQuotes();
+	}
+
+	/**
+	 * Sets the net ask & bid prices of a pair for an exchange
+	 */
+	public void setQuote(int pair, int exchange, double netAskPrice, double netBidPrice) {
+		final int index = pair * exchangeCount + exchange;
+		askPrices[index] = netAskPrice;
+		bidPrices[index] = netBidPrice;
+		validQuotes[index] = 1;
+	}
+
+	/**
+	 * Removes the quote of a pair for an exchange
+	 */
+	public void clearQuote(int pair, int exchange) {
+		final int index = pair * exchangeCount + exchange;
+		askPrices[index] = Double.NEGATIVE_INFINITY;
+		bidPrices[index] = Double.POSITIVE_INFINITY;
+		validQuotes[index] = 0;
+	}
+
+	/**
+	 * Removes all the quotes
+	 */
+	public void clearQuotes() {
+		Arrays.fill(askPrices, Double.NEGATIVE_INFINITY);
+		Arrays.fill(bidPrices, Double.POSITIVE_INFINITY);
+		Arrays.fill(validQuotes, (byte) 0);
+	}
+
+	/**
+	 * Calculates the best prices and the spread of every pair, in parallel if
+	 * the universe is large.
+	 */
+	public void compute() {
+		if(pool == null || pairCount <= PAIRS_PER_TASK) {
+			computeRange(0, pairCount);
+		} else {
+			pool.invoke(new RangeTask(0, pairCount));
+		}
+	}
+
+	/**
+	 * Calculates the best prices and the spread of the pairs in [fromPair, toPair)
+	 */
+	private void computeRange(int fromPair, int toPair) {
+		final int exchanges = exchangeCount;
+		final double[] asks = askPrices;
+		final double[] bids = bidPrices;
+		final byte[] valid = validQuotes;
+
+		for (int pair = fromPair; pair < toPair; pair++) {
+			final int start = pair * exchanges;
+			final int end = start + exchanges;
+
+			double maxAsk = Double.NEGATIVE_INFINITY;
+			double minBid = Double.POSITIVE_INFINITY;
+			int activeExchanges = 0;
+			for (int i = start; i < end; i++) {
+				final double ask = asks[i];
+				final double bid = bids[i];
+				maxAsk = ask > maxAsk ? ask : maxAsk;
+				minBid = bid < minBid ? bid : minBid;
+				activeExchanges += valid[i];
+			}
+
+			if(activeExchanges <= 1) {
+				bestAskExchanges[pair] = -1;
+				bestBidExchanges[pair] = -1;
+				spreads[pair] = Double.NaN;
+				continue;
+			}
+
+			// The first exchange holding the best price, as in the event based calculation
+			int askExchange = 0;
+			while (asks[start + askExchange] != maxAsk) {
+				askExchange++;
+			}
+			int bidExchange = 0;
+			while (bids[start + bidExchange] != minBid) {
+				bidExchange++;
+			}
+
+			bestAskPrices[pair] = maxAsk;
+			bestBidPrices[pair] = minBid;
+			bestAskExchanges[pair] = askExchange;
+			bestBidExchanges[pair] = bidExchange;
+			spreads[pair] = (maxAsk - minBid) / minBid;
+		}
+	}
+
+	public int getPairCount() {
+		return pairCount;
+	}
+
+	public int getExchangeCount() {
+		return exchangeCount;
+	}
+
+	/**
+	 * Returns true if the pair has a spread (quotes from two exchanges or more)
+	 */
+	public boolean hasSpread(int pair) {
+		return !Double.isNaN(spreads[pair]);
+	}
+
+	public double getSpread(int pair) {
+		return spreads[pair];
+	}
+
+	public double getBestAskPrice(int pair) {
+		return bestAskPrices[pair];
+	}
+
+	public double getBestBidPrice(int pair) {
+		return bestBidPrices[pair];
+	}
+
+	public int getBestAskExchange(int pair) {
+		return bestAskExchanges[pair];
+	}
+
+	public int getBestBidExchange(int pair) {
+		return bestBidExchanges[pair];
+	}
+
+	/**
+	 * Splits a range of pairs in halves until it is small enough to be
+	 * computed directly.
+	 */
+	private class RangeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int fromPair;
+		private final int toPair;
+
+		RangeTask(int fromPair, int toPair) {
+			this.fromPair = fromPair;
+			this.toPair = toPair;
+		}
+
+		@Override
+		protected void compute() {
+			if(toPair - fromPair <= PAIRS_PER_TASK) {
+				computeRange(fromPair, toPair);
+				return;
+			}
+			final int middle = (fromPair + toPair) >>> 1;
+			invokeAll(new RangeTask(fromPair, middle), new RangeTask(middle, toPair));
+		}
+	}
+}
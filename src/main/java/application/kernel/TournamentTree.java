@@ -0,0 +1,149 @@
+package application.kernel;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the best of a fixed set of prices (the highest or the lowest) as they
+ * are updated one at a time : a tournament over primitive arrays, where each
+ * internal node holds the index of the winner of its two children.
+ *
+ * Updating a price replays its path to the root only, in O(log n), and the
+ * winner is read from the root in O(1). The runner-up is the best of the
+ * players beaten by the winner on its way to the root, in O(log n). An entry
+ * without a price holds the worst value (-Infinity for the highest,
+ * +Infinity for the lowest) and never wins against an entry with a price.
+ * Among equal prices, the lowest index wins, as in the scan of the exchanges.
+ *
+ * Not thread-safe.
+ */
+public class TournamentTree {
+
+	private final boolean highest;
+	private final double worst;
+	private final int size;
+
+	/**
+	 * The number of leaves : the size rounded up to a power of two
+	 */
+	private final int leafCount;
+
+	/**
+	 * The price of each entry, the padding leaves hold the worst value
+	 */
+	private final double[] values;
+
+	/**
+	 * The index of the winner of each internal node : the root is 1, the
+	 * children of node i are 2i and 2i + 1, the leaves are leafCount + index
+	 */
+	private final int[] winners;
+
+	/**
+	 * @param highest true to keep the highest price, false for the lowest
+	 */
+	public TournamentTree(int size, boolean highest) {
+		this.highest = highest;
+		this.worst = highest ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		this.size = size;
+		this.leafCount = size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+		this.values = new double[leafCount];
+		this.winners = new int[leafCount];
+		clear();
+	}
+
+	/**
+	 * Removes all the prices
+	 */
+	public void clear() {
+		Arrays.fill(values, worst);
+		for (int node = leafCount - 1; node >= 1; node--) {
+			winners[node] = play(node << 1, (node << 1) + 1);
+		}
+	}
+
+	/**
+	 * Sets the price of an entry and replays its path to the root
+	 */
+	public void update(int index, double value) {
+		values[index] = value;
+		for (int node = (leafCount + index) >> 1; node >= 1; node >>= 1) {
+			winners[node] = play(node << 1, (node << 1) + 1);
+		}
+	}
+
+	/**
+	 * Removes the price of an entry
+	 */
+	public void remove(int index) {
+		update(index, worst);
+	}
+
+	/**
+	 * Returns the index of the best price (-1 if there is no price)
+	 */
+	public int getWinner() {
+		final int winner = leafCount == 1 ? 0 : winners[1];
+		return values[winner] != worst ? winner : -1;
+	}
+
+	/**
+	 * Returns the index of the second best price (-1 if there are fewer than
+	 * two prices)
+	 */
+	public int getRunnerUp() {
+		final int winner = getWinner();
+		if(winner < 0) {
+			return -1;
+		}
+		int runnerUp = -1;
+		for (int node = leafCount + winner; node > 1; node >>= 1) {
+			final int candidate = getPlayer(node ^ 1);
+			if(values[candidate] == worst) {
+				continue;
+			}
+			if(runnerUp < 0 || beats(candidate, runnerUp)
+					|| (values[candidate] == values[runnerUp] && candidate < runnerUp)) {
+				runnerUp = candidate;
+			}
+		}
+		return runnerUp;
+	}
+
+	/**
+	 * Returns the price of an entry (the worst value if it has none)
+	 */
+	public double getValue(int index) {
+		return values[index];
+	}
+
+	public boolean hasValue(int index) {
+		return values[index] != worst;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the winner of the match between two nodes, the left one on a tie
+	 */
+	private int play(int left, int right) {
+		final int leftPlayer = getPlayer(left);
+		final int rightPlayer = getPlayer(right);
+		return beats(rightPlayer, leftPlayer) ? rightPlayer : leftPlayer;
+	}
+
+	/**
+	 * Returns the entry that won a node (the entry itself for a leaf)
+	 */
+	private int getPlayer(int node) {
+		return node >= leafCount ? node - leafCount : winners[node];
+	}
+
+	/**
+	 * Returns true if the price of the first entry is strictly better
+	 */
+	private boolean beats(int index, int other) {
+		return highest ? values[index] > values[other] : values[index] < values[other];
+	}
+}
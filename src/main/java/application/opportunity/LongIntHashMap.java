@@ -0,0 +1,99 @@
+package application.opportunity;
+
+import java.util.Arrays;
+
+/**
+ * A map from non-negative long keys to int values, with open addressing in
+ * primitive arrays : the lookups and the updates of existing keys don't
+ * allocate (no boxing, no entry objects).
+ */
+public class LongIntHashMap {
+
+	private static final long EMPTY_KEY = -1;
+	private static final float LOAD_FACTOR = 0.5f;
+
+	private long[] keys;
+	private int[] values;
+	private int size;
+	private int mask;
+
+	public LongIntHashMap(int expectedSize) {
+		int capacity = 16;
+		while (capacity * LOAD_FACTOR < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	/**
+	 * Returns the value of the key, or -1 if it is absent
+	 */
+	public int get(long key) {
+		int index = index(key);
+		while (true) {
+			final long current = keys[index];
+			if(current == key) {
+				return values[index];
+			}
+			if(current == EMPTY_KEY) {
+				return -1;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	/**
+	 * Sets the value of the key (which must not be negative)
+	 */
+	public void put(long key, int value) {
+		int index = index(key);
+		while (true) {
+			final long current = keys[index];
+			if(current == key) {
+				values[index] = value;
+				return;
+			}
+			if(current == EMPTY_KEY) {
+				keys[index] = key;
+				values[index] = value;
+				if(++size > keys.length * LOAD_FACTOR) {
+					rehash();
+				}
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private int index(long key) {
+		// Spreads the bits of the composite keys (murmur3 finalizer)
+		long hash = key;
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		return (int) hash & mask;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		Arrays.fill(keys, EMPTY_KEY);
+		values = new int[capacity];
+		mask = capacity - 1;
+	}
+
+	private void rehash() {
+		final long[] oldKeys = keys;
+		final int[] oldValues = values;
+		allocate(oldKeys.length * 2);
+		size = 0;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if(oldKeys[i] != EMPTY_KEY) {
+				put(oldKeys[i], oldValues[i]);
+			}
+		}
+	}
+}
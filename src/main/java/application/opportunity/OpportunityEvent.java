@@ -0,0 +1,114 @@
+package application.opportunity;
+
+/**
+ * An event in the lifecycle of an arbitrage opportunity : buying the pair on
+ * the bid exchange and selling it on the ask exchange.
+ */
+public class OpportunityEvent {
+
+	public enum Type {
+		/** The spread rose above the open threshold */
+		OPEN,
+		/** The spread of an open opportunity changed */
+		UPDATE,
+		/** The spread fell to the close threshold or below, or a quote disappeared */
+		CLOSE
+	}
+
+	private final Type type;
+	private final String ccyPair;
+	private final String askExchange;
+	private final String bidExchange;
+
+	/**
+	 * The current spread (the last one above the close threshold for a closed
+	 * opportunity)
+	 */
+	private final double spread;
+
+	/**
+	 * The highest spread since the opportunity opened
+	 */
+	private final double peakSpread;
+
+	/**
+	 * The time of the event and the time the opportunity opened (epoch
+	 * milliseconds)
+	 */
+	private final long timestamp;
+	private final long openedAt;
+
+	/**
+	 * The age of the ask & bid quotes at the time of the event (milliseconds)
+	 */
+	private final long askQuoteAge;
+	private final long bidQuoteAge;
+
+	/**
+	 * The number of times this opportunity opened, including this one
+	 */
+	private final int occurrences;
+
+	public OpportunityEvent(Type type, String ccyPair, String askExchange, String bidExchange, double spread,
+			double peakSpread, long timestamp, long openedAt, long askQuoteAge, long bidQuoteAge, int occurrences) {
+		this.type = type;
+		this.ccyPair = ccyPair;
+		this.askExchange = askExchange;
+		this.bidExchange = bidExchange;
+		this.spread = spread;
+		this.peakSpread = peakSpread;
+		this.timestamp = timestamp;
+		this.openedAt = openedAt;
+		this.askQuoteAge = askQuoteAge;
+		this.bidQuoteAge = bidQuoteAge;
+		this.occurrences = occurrences;
+	}
+
+	public Type getType() {
+		return type;
+	}
+	public String getCcyPair() {
+		return ccyPair;
+	}
+	public String getAskExchange() {
+		return askExchange;
+	}
+	public String getBidExchange() {
+		return bidExchange;
+	}
+	public double getSpread() {
+		return spread;
+	}
+	public double getPeakSpread() {
+		return peakSpread;
+	}
+	public long getTimestamp() {
+		return timestamp;
+	}
+	public long getOpenedAt() {
+		return openedAt;
+	}
+	public long getAskQuoteAge() {
+		return askQuoteAge;
+	}
+	public long getBidQuoteAge() {
+		return bidQuoteAge;
+	}
+	public int getOccurrences() {
+		return occurrences;
+	}
+
+	/**
+	 * Returns how long the opportunity has been open (milliseconds)
+	 */
+	public long getDuration() {
+		return timestamp - openedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "OpportunityEvent [type=" + type + ", ccyPair=" + ccyPair + ", askExchange=" + askExchange
+				+ ", bidExchange=" + bidExchange + ", spread=" + spread + ", peakSpread=" + peakSpread
+				+ ", duration=" + getDuration() + ", askQuoteAge=" + askQuoteAge + ", bidQuoteAge=" + bidQuoteAge + ", occurrences=" + occurrences + "]";
+	}
+}
@@ -0,0 +1,14 @@
+package application.opportunity;
+
+/**
+ * Listener notified of the opportunity events. It is called on the thread of
+ * the tracker, so the snapshots wait while it runs and it should return
+ * quickly.
+ */
+public interface OpportunityListener {
+
+	/**
+	 * Called when an opportunity opens, changes or closes.
+	 */
+	void onOpportunityEvent(OpportunityEvent event);
+}
@@ -0,0 +1,390 @@
+package application.opportunity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.NetTickPrice;
+import application.SnapshotListener;
+import application.SpreadSnapshot;
+import application.configuration.OpportunityConfig;
+import application.opportunity.OpportunityEvent.Type;
+
+/**
+ * Follows the arbitrage opportunities across the spread calculation cycles.
+ *
+ * An opportunity is one currency pair, one ask exchange and one bid exchange.
+ * For every snapshot, the spread of each combination of exchanges is compared
+ * with the thresholds : an opportunity opens when its spread rises above the
+ * open threshold, changes while it stays above the close threshold, and closes
+ * when it falls to the close threshold or below (or a quote disappears).
+ *
+ * The processing is incremental : the tracker keeps the last quote of each
+ * venue of each pair, and only the combinations involving a venue whose
+ * quote changed (or appeared, or disappeared) since the previous snapshot are
+ * evaluated again, as the spread of the others can't have changed. So the
+ * cost of a snapshot follows the number of quotes that changed, not the
+ * square of the number of venues.
+ *
+ * The state of each opportunity (open time, peak and last spread,
+ * occurrences) lives in primitive arrays, found through a primitive map of
+ * the combination. So following the snapshots only allocates the emitted
+ * events, and only when there are listeners.
+ *
+ * Every snapshot is processed, in order, on the tracker's own thread, so the
+ * tracking doesn't delay the calculation cycles.
+ */
+public class OpportunityTracker implements SnapshotListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(OpportunityTracker.class);
+
+	private static final int INITIAL_SLOTS = 64;
+
+	private final List<String> currencyPairs;
+	private final double openThreshold;
+	private final double closeThreshold;
+	private final boolean logEvents;
+
+	private final List<OpportunityListener> listeners;
+
+	private ExecutorService executor;
+
+	/**
+	 * The index of each exchange or venue (part of the opportunity key)
+	 */
+	private final Map<String, Integer> venueIndexes;
+	private final List<String> venueIds;
+
+	/**
+	 * The state slot of each opportunity seen above the open threshold (key is
+	 * pair index << 32 | ask venue << 16 | bid venue)
+	 */
+	private final LongIntHashMap slotIndexes;
+	private int slotCount;
+
+	/**
+	 * State of the opportunities, indexed by slot
+	 */
+	private long[] slotKeys;
+	private long[] openedAt;
+	private double[] peakSpreads;
+	private double[] lastSpreads;
+	private long[] lastSeenCycles;
+	private int[] occurrences;
+
+	/**
+	 * The position of each slot in the open slots (-1 if closed)
+	 */
+	private int[] openPositions;
+
+	/**
+	 * The slots of the open opportunities (the first openCount ones)
+	 */
+	private int[] openSlots;
+	private int openCount;
+
+	/**
+	 * The number of snapshots processed
+	 */
+	private long cycle;
+
+	/**
+	 * The last quote of each venue of each pair (indexed by pair then venue),
+	 * and the last cycle it was present in and changed in
+	 */
+	private final double[][] venueAskPrices;
+	private final double[][] venueBidPrices;
+	private final long[][] venueTimestamps;
+	private final long[][] venueSeenCycles;
+	private final long[][] venueChangedCycles;
+
+	/**
+	 * The quotes of the pair being processed, and whether each one changed
+	 */
+	private double[] askPrices;
+	private double[] bidPrices;
+	private int[] quoteVenues;
+	private boolean[] changedQuotes;
+
+	public OpportunityTracker(List<String> currencyPairs, OpportunityConfig config) {
+		this.currencyPairs = currencyPairs;
+		this.openThreshold = config.getOpenThreshold();
+		this.closeThreshold = config.getCloseThreshold() != null
+				? Math.min(config.getCloseThreshold(), openThreshold) : openThreshold;
+		this.logEvents = Boolean.TRUE.equals(config.getLogEvents());
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.venueIndexes = new HashMap<>();
+		this.venueIds = new ArrayList<>();
+		this.slotIndexes = new LongIntHashMap(INITIAL_SLOTS);
+		allocateSlots(INITIAL_SLOTS);
+		this.openSlots = new int[INITIAL_SLOTS];
+		this.venueAskPrices = new double[currencyPairs.size()][0];
+		this.venueBidPrices = new double[currencyPairs.size()][0];
+		this.venueTimestamps = new long[currencyPairs.size()][0];
+		this.venueSeenCycles = new long[currencyPairs.size()][0];
+		this.venueChangedCycles = new long[currencyPairs.size()][0];
+		allocateQuotes(8);
+	}
+
+	/**
+	 * Starts the thread processing the snapshots
+	 */
+	public void start() {
+		executor = Executors.newSingleThreadExecutor(
+				new ThreadFactoryBuilder().setNameFormat("opportunity-tracker").setDaemon(true).build());
+	}
+
+	/**
+	 * Registers a listener of the opportunity events
+	 */
+	public void addListener(OpportunityListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Returns the number of opportunities currently open
+	 */
+	public synchronized int getOpenCount() {
+		return openCount;
+	}
+
+	/**
+	 * Queues the processing of the snapshot on the tracker thread
+	 */
+	@Override
+	public void onSnapshot(SpreadSnapshot snapshot) {
+		executor.execute(() -> processQuietly(snapshot));
+	}
+
+	private void processQuietly(SpreadSnapshot snapshot) {
+		try {
+			process(snapshot);
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Failed to track the opportunities of snapshot " + snapshot.getVersion(), e);
+		}
+	}
+
+	/**
+	 * Compares the spreads of the combinations whose quotes changed with the
+	 * thresholds (tracker thread)
+	 */
+	synchronized void process(SpreadSnapshot snapshot) {
+		cycle++;
+		final long now = snapshot.getTimestamp();
+
+		for (int pair = 0; pair < currencyPairs.size(); pair++) {
+			final List<NetTickPrice> quotes = snapshot.getQuotes(currencyPairs.get(pair));
+			final int quoteCount = quotes != null ? quotes.size() : 0;
+			if(quoteCount > askPrices.length) {
+				allocateQuotes(quoteCount);
+			}
+			boolean changed = false;
+			for (int i = 0; i < quoteCount; i++) {
+				final NetTickPrice quote = quotes.get(i);
+				askPrices[i] = quote.getNetAskValue();
+				bidPrices[i] = quote.getNetBidValue();
+				quoteVenues[i] = venueIndex(quote.getExchangeId());
+				changedQuotes[i] = updateVenue(pair, quoteVenues[i], askPrices[i], bidPrices[i], quote.getTimestamp());
+				changed |= changedQuotes[i];
+			}
+			// The venues whose quote disappeared close their opportunities below
+			final long[] seenCycles = venueSeenCycles[pair];
+			for (int venue = 0; venue < seenCycles.length; venue++) {
+				if(seenCycles[venue] == cycle - 1) {
+					venueChangedCycles[pair][venue] = cycle;
+				}
+			}
+			if(!changed || quoteCount < 2) {
+				continue;
+			}
+
+			for (int quote = 0; quote < quoteCount; quote++) {
+				if(!changedQuotes[quote]) {
+					continue;
+				}
+				for (int other = 0; other < quoteCount; other++) {
+					if(other == quote) {
+						continue;
+					}
+					evaluate(pair, quote, other, now);
+					// Else evaluated with the other one as the changed quote
+					if(!changedQuotes[other]) {
+						evaluate(pair, other, quote, now);
+					}
+				}
+			}
+		}
+
+		// The open opportunities evaluated again and not seen above the close
+		// threshold in this snapshot
+		for (int position = openCount - 1; position >= 0; position--) {
+			final int slot = openSlots[position];
+			final long key = slotKeys[slot];
+			final long[] changedCycles = venueChangedCycles[(int) (key >>> 32)];
+			if(lastSeenCycles[slot] != cycle && (changedCycles[(int) (key >>> 16) & 0xffff] == cycle
+					|| changedCycles[(int) key & 0xffff] == cycle)) {
+				close(slot, position, now);
+			}
+		}
+	}
+
+	/**
+	 * Keeps the quote of a venue of a pair
+	 *
+	 * @return whether its prices changed (or it appeared) since the previous
+	 *         snapshot
+	 */
+	private boolean updateVenue(int pair, int venue, double askPrice, double bidPrice, long timestamp) {
+		if(venue >= venueSeenCycles[pair].length) {
+			final int length = venueSeenCycles[pair].length;
+			final int capacity = Math.max(venueIds.size(), venue + 1);
+			venueAskPrices[pair] = Arrays.copyOf(venueAskPrices[pair], capacity);
+			venueBidPrices[pair] = Arrays.copyOf(venueBidPrices[pair], capacity);
+			venueTimestamps[pair] = Arrays.copyOf(venueTimestamps[pair], capacity);
+			venueSeenCycles[pair] = Arrays.copyOf(venueSeenCycles[pair], capacity);
+			// Never seen
+			Arrays.fill(venueSeenCycles[pair], length, capacity, -1);
+			venueChangedCycles[pair] = Arrays.copyOf(venueChangedCycles[pair], capacity);
+		}
+		final boolean changed = venueSeenCycles[pair][venue] != cycle - 1
+				|| Double.compare(venueAskPrices[pair][venue], askPrice) != 0
+				|| Double.compare(venueBidPrices[pair][venue], bidPrice) != 0;
+		venueAskPrices[pair][venue] = askPrice;
+		venueBidPrices[pair][venue] = bidPrice;
+		venueTimestamps[pair][venue] = timestamp;
+		venueSeenCycles[pair][venue] = cycle;
+		if(changed) {
+			venueChangedCycles[pair][venue] = cycle;
+		}
+		return changed;
+	}
+
+	/**
+	 * Compares the spread of one combination with the thresholds
+	 */
+	private void evaluate(int pair, int ask, int bid, long now) {
+		final double spread = (askPrices[ask] - bidPrices[bid]) / bidPrices[bid];
+		// Also skips NaN
+		if(spread > closeThreshold) {
+			track(pair, ask, bid, spread, now);
+		}
+	}
+
+	/**
+	 * Updates the state of one combination whose spread is above the close
+	 * threshold.
+	 */
+	private void track(int pair, int ask, int bid, double spread, long now) {
+		final long key = ((long) pair << 32) | ((long) quoteVenues[ask] << 16) | quoteVenues[bid];
+		int slot = slotIndexes.get(key);
+		if(slot < 0) {
+			if(spread <= openThreshold) {
+				return;
+			}
+			slot = newSlot(key);
+		}
+
+		final boolean open = openPositions[slot] >= 0;
+		if(!open && spread <= openThreshold) {
+			return;
+		}
+		lastSeenCycles[slot] = cycle;
+
+		if(!open) {
+			openedAt[slot] = now;
+			peakSpreads[slot] = spread;
+			lastSpreads[slot] = spread;
+			occurrences[slot]++;
+			openPositions[slot] = openCount;
+			openSlots[openCount++] = slot;
+			emit(Type.OPEN, slot, now);
+		} else if(spread != lastSpreads[slot]) {
+			lastSpreads[slot] = spread;
+			if(spread > peakSpreads[slot]) {
+				peakSpreads[slot] = spread;
+			}
+			emit(Type.UPDATE, slot, now);
+		}
+	}
+
+	private void close(int slot, int position, long now) {
+		emit(Type.CLOSE, slot, now);
+		// Moves the last open slot to the freed position
+		final int lastSlot = openSlots[--openCount];
+		openSlots[position] = lastSlot;
+		openPositions[lastSlot] = position;
+		openPositions[slot] = -1;
+	}
+
+	private void emit(Type type, int slot, long now) {
+		if(listeners.isEmpty() && !logEvents) {
+			return;
+		}
+		final long key = slotKeys[slot];
+		final int pair = (int) (key >>> 32);
+		final int askVenue = (int) (key >>> 16) & 0xffff;
+		final int bidVenue = (int) key & 0xffff;
+		final OpportunityEvent event = new OpportunityEvent(type,
+				currencyPairs.get(pair), venueIds.get(askVenue), venueIds.get(bidVenue),
+				lastSpreads[slot], peakSpreads[slot], now, openedAt[slot],
+				now - venueTimestamps[pair][askVenue], now - venueTimestamps[pair][bidVenue], occurrences[slot]);
+		if(logEvents && type != Type.UPDATE) {
+			LOGGER.info(event.toString());
+		}
+		for (final OpportunityListener listener : listeners) {
+			listener.onOpportunityEvent(event);
+		}
+	}
+
+	private int venueIndex(String venueId) {
+		final Integer index = venueIndexes.get(venueId);
+		if(index != null) {
+			return index;
+		}
+		venueIds.add(venueId);
+		venueIndexes.put(venueId, venueIds.size() - 1);
+		return venueIds.size() - 1;
+	}
+
+	private int newSlot(long key) {
+		if(slotCount == slotKeys.length) {
+			allocateSlots(slotKeys.length * 2);
+			openSlots = Arrays.copyOf(openSlots, slotKeys.length);
+		}
+		final int slot = slotCount++;
+		slotKeys[slot] = key;
+		openPositions[slot] = -1;
+		slotIndexes.put(key, slot);
+		return slot;
+	}
+
+	/**
+	 * Allocates (or grows) the state arrays
+	 */
+	private void allocateSlots(int capacity) {
+		slotKeys = slotKeys == null ? new long[capacity] : Arrays.copyOf(slotKeys, capacity);
+		openedAt = openedAt == null ? new long[capacity] : Arrays.copyOf(openedAt, capacity);
+		peakSpreads = peakSpreads == null ? new double[capacity] : Arrays.copyOf(peakSpreads, capacity);
+		lastSpreads = lastSpreads == null ? new double[capacity] : Arrays.copyOf(lastSpreads, capacity);
+		lastSeenCycles = lastSeenCycles == null ? new long[capacity] : Arrays.copyOf(lastSeenCycles, capacity);
+		occurrences = occurrences == null ? new int[capacity] : Arrays.copyOf(occurrences, capacity);
+		openPositions = openPositions == null ? new int[capacity] : Arrays.copyOf(openPositions, capacity);
+	}
+
+	private void allocateQuotes(int capacity) {
+		askPrices = new double[capacity];
+		bidPrices = new double[capacity];
+		quoteVenues = new int[capacity];
+		changedQuotes = new boolean[capacity];
+	}
+}
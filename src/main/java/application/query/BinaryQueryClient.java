@@ -0,0 +1,125 @@
+package application.query;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import application.SpreadInfo;
+import application.Utils;
+
+/**
+ * Client of the {@link BinaryQueryServer} protocol.
+ *
+ * Started standalone, it prints the top spreads, or with more than one client
+ * it measures the read throughput of concurrent clients. The arguments are :
+ * port, top N (0 for all), number of clients and duration (seconds).
+ */
+public class BinaryQueryClient implements Closeable {
+
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	/**
+	 * The version of the snapshot that answered the last request
+	 */
+	private long lastVersion;
+
+	public BinaryQueryClient(int port) throws IOException {
+		this.socket = new Socket(InetAddress.getLoopbackAddress(), port);
+		socket.setTcpNoDelay(true);
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	/**
+	 * Returns the N highest spreads (all of them if N is zero)
+	 */
+	public List<SpreadInfo> getTopSpreads(int count) throws IOException {
+		out.writeByte(BinaryQueryServer.OP_TOP_SPREADS);
+		out.writeInt(count);
+		out.flush();
+
+		final int entries = readHeader();
+		final List<SpreadInfo> spreads = new ArrayList<>(entries);
+		for (int i = 0; i < entries; i++) {
+			final SpreadInfo spread = new SpreadInfo();
+			spread.setCcyPair(in.readUTF());
+			spread.setSpreadPercent(BigDecimal.valueOf(in.readDouble()));
+			spread.setBestAskPrice(BigDecimal.valueOf(in.readDouble()));
+			spread.setBestAskExchange(in.readUTF());
+			spread.setBestBidPrice(BigDecimal.valueOf(in.readDouble()));
+			spread.setBestBidExchange(in.readUTF());
+			spreads.add(spread);
+		}
+		return spreads;
+	}
+
+	public long getLastVersion() {
+		return lastVersion;
+	}
+
+	private int readHeader() throws IOException {
+		final byte status = in.readByte();
+		lastVersion = in.readLong();
+		in.readLong();
+		final int entries = in.readInt();
+		if(status != BinaryQueryServer.STATUS_OK) {
+			throw new IOException("Query failed with status : " + status);
+		}
+		return entries;
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+	public static void main(String[] args) throws Exception {
+		final int port = Integer.parseInt(args[0]);
+		final int top = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		final int clients = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		final long durationSec = args.length > 3 ? Long.parseLong(args[3]) : 10;
+
+		if(clients <= 1) {
+			try (BinaryQueryClient client = new BinaryQueryClient(port)) {
+				System.out.println(Utils.formatConsolePrint(client.getTopSpreads(top)));
+			}
+			return;
+		}
+
+		final LongAdder reads = new LongAdder();
+		final LongAdder failures = new LongAdder();
+		final long endNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSec);
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < clients; i++) {
+			final Thread thread = new Thread(() -> {
+				try (BinaryQueryClient client = new BinaryQueryClient(port)) {
+					while (System.nanoTime() < endNanos) {
+						client.getTopSpreads(top);
+						reads.increment();
+					}
+				} catch (final IOException e) {
+					failures.increment();
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		System.out.println(String.format("%d clients : %d reads in %d s (%.0f reads/s), %d failed clients",
+				clients, reads.sum(), durationSec, reads.sum() / (double) durationSec, failures.sum()));
+	}
+}
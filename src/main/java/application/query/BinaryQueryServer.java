@@ -0,0 +1,170 @@
+package application.query;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.NetTickPrice;
+import application.SpreadInfo;
+import application.SpreadSnapshot;
+
+/**
+ * Serves the latest spreads over a compact binary protocol on localhost. A
+ * client keeps its connection open and sends any number of requests, each
+ * answered from the latest published {@link SpreadSnapshot}.
+ *
+ * All the values are big-endian, strings are written as modified UTF-8 with
+ * a 2 byte length (DataOutput.writeUTF). </br>
+ *
+ * Request : byte opcode, then {@link #OP_TOP_SPREADS} : int count (0 for
+ * all), or {@link #OP_QUOTES} : string currency pair. </br>
+ *
+ * Response : byte status, long version, long timestamp, int entries, then
+ * for each spread : string pair, double spread, double ask, string ask
+ * exchange, double bid, string bid exchange ; or for each quote : string
+ * exchange, double net ask, double net bid. </br>
+ */
+public class BinaryQueryServer {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(BinaryQueryServer.class);
+
+	public static final byte OP_TOP_SPREADS = 1;
+	public static final byte OP_QUOTES = 2;
+
+	public static final byte STATUS_OK = 0;
+	public static final byte STATUS_NOT_FOUND = 1;
+	public static final byte STATUS_BAD_REQUEST = 2;
+
+	private final ServerSocket serverSocket;
+
+	/**
+	 * One thread per connected client, up to the maximum number of clients
+	 */
+	private final ThreadPoolExecutor connectionPool;
+
+	private final Supplier<SpreadSnapshot> snapshots;
+
+	private final Thread acceptor;
+
+	public BinaryQueryServer(int port, int maxConnections, Supplier<SpreadSnapshot> snapshots) throws IOException {
+		this.snapshots = snapshots;
+		this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+		this.connectionPool = new ThreadPoolExecutor(0, maxConnections, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+				new ThreadFactoryBuilder().setNameFormat("query-binary-%d").setDaemon(true).build());
+		this.acceptor = new ThreadFactoryBuilder().setNameFormat("query-binary-acceptor").setDaemon(true).build()
+				.newThread(this::acceptConnections);
+	}
+
+	public void start() {
+		acceptor.start();
+		LOGGER.info("Binary query API listening on " + serverSocket.getLocalSocketAddress());
+	}
+
+	public void stop() throws IOException {
+		serverSocket.close();
+		connectionPool.shutdownNow();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	private void acceptConnections() {
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				try {
+					connectionPool.execute(() -> serveConnection(socket));
+				} catch (final RejectedExecutionException e) {
+					LOGGER.warn("Too many binary query clients, rejected " + socket.getRemoteSocketAddress());
+					socket.close();
+				}
+			} catch (final SocketException e) {
+				// Closed by stop()
+			} catch (final IOException e) {
+				LOGGER.warn("Failed to accept a binary query client", e);
+			}
+		}
+	}
+
+	private void serveConnection(Socket socket) {
+		try (Socket client = socket;
+				DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+				DataOutputStream out = new DataOutputStream(new BufferedOutputStream(client.getOutputStream()))) {
+			client.setTcpNoDelay(true);
+			while (true) {
+				final byte opcode;
+				try {
+					opcode = in.readByte();
+				} catch (final EOFException e) {
+					return;
+				}
+				final SpreadSnapshot snapshot = snapshots.get();
+				if(opcode == OP_TOP_SPREADS) {
+					writeSpreads(out, snapshot, snapshot.getTopSpreads(in.readInt()));
+				} else if(opcode == OP_QUOTES) {
+					final List<NetTickPrice> quotes = snapshot.getQuotes(in.readUTF());
+					if(quotes == null) {
+						writeHeader(out, STATUS_NOT_FOUND, snapshot, 0);
+					} else {
+						writeQuotes(out, snapshot, quotes);
+					}
+				} else {
+					// The rest of the request can't be parsed : close the connection
+					writeHeader(out, STATUS_BAD_REQUEST, snapshot, 0);
+					out.flush();
+					return;
+				}
+				out.flush();
+			}
+		} catch (final IOException e) {
+			LOGGER.debug("Binary query client disconnected", e);
+		}
+	}
+
+	private static void writeHeader(DataOutputStream out, byte status, SpreadSnapshot snapshot, int entries) throws IOException {
+		out.writeByte(status);
+		out.writeLong(snapshot.getVersion());
+		out.writeLong(snapshot.getTimestamp());
+		out.writeInt(entries);
+	}
+
+	private static void writeSpreads(DataOutputStream out, SpreadSnapshot snapshot, List<SpreadInfo> spreads) throws IOException {
+		writeHeader(out, STATUS_OK, snapshot, spreads.size());
+		for (final SpreadInfo spread : spreads) {
+			out.writeUTF(spread.getCcyPair());
+			out.writeDouble(spread.getSpreadPercent().doubleValue());
+			out.writeDouble(spread.getBestAskPrice().doubleValue());
+			out.writeUTF(spread.getBestAskExchange());
+			out.writeDouble(spread.getBestBidPrice().doubleValue());
+			out.writeUTF(spread.getBestBidExchange());
+		}
+	}
+
+	private static void writeQuotes(DataOutputStream out, SpreadSnapshot snapshot, List<NetTickPrice> quotes) throws IOException {
+		writeHeader(out, STATUS_OK, snapshot, quotes.size());
+		for (final NetTickPrice quote : quotes) {
+			out.writeUTF(quote.getExchangeId());
+			out.writeDouble(quote.getNetAskValue());
+			out.writeDouble(quote.getNetBidValue());
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package application.query;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import application.NetTickPrice;
+import application.SpreadSnapshot;
+
+/**
+ * Serves the latest spreads as JSON over HTTP on localhost :
+ *
+ * GET /spreads : the ranked spreads (the N highest with ?top=N) </br>
+ * GET /quotes/{BASE-QUOTE} : the quotes of each exchange for the pair </br>
+ *
+ * Each request reads the latest published {@link SpreadSnapshot} once, so the
+ * response is consistent and the reads never block the calculation.
+ */
+public class HttpQueryServer {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(HttpQueryServer.class);
+
+	private static final String SPREADS_PATH = "/spreads";
+	private static final String QUOTES_PATH = "/quotes/";
+
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Supplier<SpreadSnapshot> snapshots;
+	private final ObjectMapper objectMapper;
+
+	public HttpQueryServer(int port, int threads, Supplier<SpreadSnapshot> snapshots) throws IOException {
+		this.snapshots = snapshots;
+		this.objectMapper = new ObjectMapper();
+		this.executor = Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setNameFormat("query-http-%d").setDaemon(true).build());
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.setExecutor(executor);
+		server.createContext(SPREADS_PATH, this::handleSpreads);
+		server.createContext(QUOTES_PATH, this::handleQuotes);
+	}
+
+	public void start() {
+		server.start();
+		LOGGER.info("HTTP query API listening on " + server.getAddress());
+	}
+
+	public void stop() {
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	private void handleSpreads(HttpExchange exchange) throws IOException {
+		try {
+			int top = 0;
+			final String query = exchange.getRequestURI().getQuery();
+			if(query != null && query.startsWith("top=")) {
+				try {
+					top = Integer.parseInt(query.substring("top=".length()));
+				} catch (final NumberFormatException e) {
+					respond(exchange, 400, error("Invalid top : " + query));
+					return;
+				}
+			}
+			final SpreadSnapshot snapshot = snapshots.get();
+			final Map<String, Object> body = header(snapshot);
+			body.put("spreads", snapshot.getTopSpreads(top));
+			respond(exchange, 200, body);
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Failed to serve " + exchange.getRequestURI(), e);
+			respond(exchange, 500, error("Internal error"));
+		}
+	}
+
+	private void handleQuotes(HttpExchange exchange) throws IOException {
+		try {
+			final String ccyPair = exchange.getRequestURI().getPath().substring(QUOTES_PATH.length());
+			final SpreadSnapshot snapshot = snapshots.get();
+			final List<NetTickPrice> quotes = snapshot.getQuotes(ccyPair);
+			if(quotes == null) {
+				respond(exchange, 404, error("Unknown currency pair : " + ccyPair));
+				return;
+			}
+			final Map<String, Object> body = header(snapshot);
+			body.put("ccyPair", ccyPair);
+			body.put("quotes", quotes);
+			respond(exchange, 200, body);
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Failed to serve " + exchange.getRequestURI(), e);
+			respond(exchange, 500, error("Internal error"));
+		}
+	}
+
+	private static Map<String, Object> header(SpreadSnapshot snapshot) {
+		final Map<String, Object> body = new LinkedHashMap<>();
+		body.put("version", snapshot.getVersion());
+		body.put("timestamp", snapshot.getTimestamp());
+		return body;
+	}
+
+	private static Map<String, Object> error(String message) {
+		final Map<String, Object> body = new LinkedHashMap<>();
+		body.put("error", message);
+		return body;
+	}
+
+	private void respond(HttpExchange exchange, int code, Object body) throws IOException {
+		final byte[] bytes = objectMapper.writeValueAsBytes(body);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(code, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package application.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.management.ThreadMXBean;
+
+import application.NetTickPrice;
+import application.configuration.AppConfig;
+import application.configuration.ExchangeConfig;
+import application.configuration.FxConfig;
+import application.configuration.MarketDataFeedConfig;
+import application.exchange.BaseExchangeConnector;
+import application.exchange.MappedTickStore;
+import application.exchange.QuoteSlots;
+import application.feed.FeedPublisher;
+import application.fx.QuoteNormalizer;
+import application.kernel.BestQuoteBook;
+import io.reactivex.Flowable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Allocation regression check of the quote update path : writes and reads
+ * the quote slots N times, first alone then with a writer and a reader
+ * running concurrently on the same slots, then updates the quotes of a
+ * connector N times with the tick listeners of the application registered
+ * (best quote book, tick store, market data feed and FX normalizer). It
+ * measures the bytes allocated by each thread (after a warm-up, so that the
+ * measured code is compiled).
+ *
+ * The check fails (exit code 1) if a thread allocates anything or if a read
+ * is torn.
+ *
+ * Arguments (all optional) : iterations
+ */
+public class AllocationCheckRunner {
+
+	private static final int PAIRS = 64;
+	private static final int WARMUP_ITERATIONS = 1_000_000;
+	private static final String EXCHANGE_ID = "CHECK";
+
+	/**
+	 * The local port the market data feed is sent to (nothing listens)
+	 */
+	private static final int FEED_PORT = 47999;
+
+	private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+	public static void main(String args[]) throws Exception {
+
+		final int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+		if(!THREADS.isThreadAllocatedMemorySupported()) {
+			System.out.println("Allocation check : the JVM doesn't measure the allocated bytes of the threads");
+			System.exit(1);
+		}
+		THREADS.setThreadAllocatedMemoryEnabled(true);
+
+		final List<String> currencyPairs = new ArrayList<>(PAIRS);
+		for (int i = 0; i < PAIRS; i++) {
+			currencyPairs.add("C" + i + "-AUD");
+		}
+		final QuoteSlots quoteSlots = new QuoteSlots(currencyPairs);
+		final QuoteSlots.Quote quote = new QuoteSlots.Quote();
+
+		write(quoteSlots, WARMUP_ITERATIONS);
+		read(quoteSlots, quote, WARMUP_ITERATIONS);
+
+		boolean passed = true;
+		passed &= check("Write", measure(() -> write(quoteSlots, iterations)), iterations);
+		passed &= check("Read", measure(() -> read(quoteSlots, quote, iterations)), iterations);
+
+		// One writer and one reader on the same slots
+		final AtomicLong writerBytes = new AtomicLong();
+		final AtomicLong readerBytes = new AtomicLong();
+		final AtomicLong tornReads = new AtomicLong();
+		final CountDownLatch started = new CountDownLatch(2);
+		final Thread writer = new Thread(() -> {
+			started.countDown();
+			awaitQuietly(started);
+			writerBytes.set(measure(() -> write(quoteSlots, iterations)));
+		}, "allocation-check-writer");
+		final Thread reader = new Thread(() -> {
+			final QuoteSlots.Quote readerQuote = new QuoteSlots.Quote();
+			started.countDown();
+			awaitQuietly(started);
+			readerBytes.set(measure(() -> tornReads.set(read(quoteSlots, readerQuote, iterations))));
+		}, "allocation-check-reader");
+		writer.start();
+		reader.start();
+		writer.join();
+		reader.join();
+		passed &= check("Contended write", writerBytes.get(), iterations);
+		passed &= check("Contended read", readerBytes.get(), iterations);
+		if(tornReads.get() != 0) {
+			System.out.println(String.format("Torn reads : %d", tornReads.get()));
+			passed = false;
+		}
+
+		// The connector's update with the listeners of the application
+		final Path tickStoreFile = Files.createTempFile("allocation-check", ".ticks");
+		final FeedPublisher feedPublisher = createFeedPublisher();
+		try {
+			final CheckConnector connector = createConnector(currencyPairs, tickStoreFile, feedPublisher);
+			update(connector, WARMUP_ITERATIONS);
+			passed &= check("Quote update", measure(() -> update(connector, iterations)), iterations);
+		} finally {
+			feedPublisher.stop();
+			Files.deleteIfExists(tickStoreFile);
+		}
+
+		System.out.println(passed ? "Allocation check passed" : "Allocation check FAILED");
+		System.exit(passed ? 0 : 1);
+	}
+
+	/**
+	 * Returns the bytes allocated by the current thread while running the
+	 * code, less those allocated by the measurement itself
+	 */
+	private static long measure(Runnable code) {
+		final long threadId = Thread.currentThread().getId();
+		final long start = THREADS.getThreadAllocatedBytes(threadId);
+		final long overhead = THREADS.getThreadAllocatedBytes(threadId) - start;
+		final long codeStart = THREADS.getThreadAllocatedBytes(threadId);
+		code.run();
+		return THREADS.getThreadAllocatedBytes(threadId) - codeStart - overhead;
+	}
+
+	private static boolean check(String path, long allocatedBytes, int iterations) {
+		System.out.println(String.format("%-16s: %d bytes allocated in %d iterations", path, allocatedBytes, iterations));
+		return allocatedBytes <= 0;
+	}
+
+	/**
+	 * Writes the quotes of the pairs in turn, with an ask one higher than the
+	 * bid
+	 */
+	private static void write(QuoteSlots quoteSlots, int iterations) {
+		double price = 100;
+		for (int i = 0; i < iterations; i++) {
+			price += 0.25;
+			quoteSlots.write(i & (PAIRS - 1), price, price - 1, System.currentTimeMillis());
+		}
+	}
+
+	/**
+	 * Updates the quotes of the pairs of the connector in turn
+	 */
+	private static void update(CheckConnector connector, int iterations) {
+		double price = 100;
+		for (int i = 0; i < iterations; i++) {
+			price += 0.25;
+			connector.update(i & (PAIRS - 1), price, price - 1);
+		}
+	}
+
+	/**
+	 * Creates a connector with the tick listeners the application registers
+	 */
+	private static CheckConnector createConnector(List<String> currencyPairs, Path tickStoreFile,
+			FeedPublisher feedPublisher) throws Exception {
+		final ExchangeConfig exchangeConfig = new ExchangeConfig();
+		exchangeConfig.setId(EXCHANGE_ID);
+		exchangeConfig.setFee(BigDecimal.ONE);
+		final FxConfig fxConfig = new FxConfig();
+		fxConfig.setQuoteCurrency("AUD");
+		fxConfig.setFxPairs(Collections.singletonList("USDT-AUD"));
+		final AppConfig appConfig = new AppConfig();
+		appConfig.setCurrencyPairs(currencyPairs);
+		appConfig.setExchanges(Collections.singletonList(exchangeConfig));
+		appConfig.setFx(fxConfig);
+
+		final List<String> exchangeIds = Collections.singletonList(EXCHANGE_ID);
+		final CheckConnector connector = new CheckConnector(appConfig, exchangeConfig);
+		connector.addTickListener(new QuoteNormalizer(appConfig));
+		connector.addTickListener(new BestQuoteBook(currencyPairs, exchangeIds));
+		connector.addTickListener(new MappedTickStore(tickStoreFile, exchangeIds, currencyPairs));
+		connector.addTickListener(feedPublisher);
+		return connector;
+	}
+
+	/**
+	 * Creates a publisher of the market data feed to a local port
+	 */
+	private static FeedPublisher createFeedPublisher() throws Exception {
+		final MarketDataFeedConfig feedConfig = new MarketDataFeedConfig();
+		feedConfig.setAddress("127.0.0.1");
+		feedConfig.setPort(FEED_PORT);
+		return new FeedPublisher(feedConfig, Collections.singletonMap(EXCHANGE_ID, 1.0));
+	}
+
+	/**
+	 * A connector that doesn't poll : only its quote update is measured
+	 */
+	private static final class CheckConnector extends BaseExchangeConnector {
+
+		CheckConnector(AppConfig appConfig, ExchangeConfig exchangeConfig) {
+			super(appConfig, exchangeConfig, Schedulers.single());
+		}
+
+		void update(int pair, double netAskPrice, double netBidPrice) {
+			updateQuote(pair, netAskPrice, netBidPrice);
+		}
+
+		@Override
+		public Flowable<Optional<NetTickPrice>> getTickInfo(String baseCurrency, String quoteCurrency) {
+			return Flowable.empty();
+		}
+	}
+
+	/**
+	 * Reads the quotes of the pairs in turn
+	 *
+	 * @return the number of torn reads (ask - bid isn't 1)
+	 */
+	private static long read(QuoteSlots quoteSlots, QuoteSlots.Quote quote, int iterations) {
+		long tornReads = 0;
+		for (int i = 0; i < iterations; i++) {
+			if(quoteSlots.read(i & (PAIRS - 1), quote) && quote.getNetAskPrice() - quote.getNetBidPrice() != 1) {
+				tornReads++;
+			}
+		}
+		return tornReads;
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,400 @@
+package application.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.RateLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import application.configuration.SimulatorConfig;
+
+/**
+ * Local HTTP server that simulates N synthetic exchanges x M currency pairs.
+ *
+ * Each synthetic exchange exposes either BTCMarkets compatible endpoints : </br>
+ * <code>/btcmarkets/{n}/market/{BASE}/{QUOTE}/tick</code> </br>
+ * or ACX compatible endpoints : </br>
+ * <code>/acx/{n}/api/v2/tickers.json</code> </br>
+ *
+ * The prices follow an independent random walk for each exchange and
+ * currency-pair. Latency, server errors, HTTP 429 and per-client rate limits
+ * are injected as configured in 'simulator.json'.
+ */
+public class ExchangeSimulator {
+
+	/**
+	 * JSON configuration file used when the simulator is started standalone
+	 */
+	private static final String CONFIGURATION_FILE_NAME = "/simulator.json";
+
+	private static final String BTC_MARKETS_CONTEXT = "/btcmarkets/";
+
+	private static final String ACX_CONTEXT = "/acx/";
+
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+	private static Logger LOGGER = LoggerFactory.getLogger(ExchangeSimulator.class);
+
+	/**
+	 * Configuration that is stored in 'simulator.json'
+	 */
+	private final SimulatorConfig config;
+
+	/**
+	 * The currency pairs listed on every synthetic exchange
+	 */
+	private final List<String> currencyPairs;
+
+	/**
+	 * Index of each currency pair (key is BASE-QUOTE in upper case)
+	 */
+	private final Map<String, Integer> pairIndex;
+
+	/**
+	 * Mid prices (as double bits) indexed by exchange * pairs + pair. The
+	 * BTCMarkets style exchanges come first, followed by the ACX style ones.
+	 */
+	private final AtomicLongArray midPrices;
+
+	/**
+	 * Rate limiters for each client address and exchange
+	 */
+	private final Map<String, RateLimiter> clientLimiters;
+
+	private final LongAdder servedCount;
+	private final LongAdder errorCount;
+	private final LongAdder throttledCount;
+
+	private HttpServer server;
+	private ExecutorService handlerPool;
+	private ScheduledExecutorService priceUpdater;
+
+	/**
+	 * Creates the simulator, the HTTP server is started by {@link #start()}.
+	 */
+	public ExchangeSimulator(SimulatorConfig config) {
+		LatencySampler.validate(config.getLatency());
+		this.config = config;
+		this.currencyPairs = config.getCurrencyPairs();
+		this.pairIndex = new HashMap<>(currencyPairs.size() * 2);
+		for (int i = 0; i < currencyPairs.size(); i++) {
+			pairIndex.put(currencyPairs.get(i).toUpperCase(Locale.ROOT), i);
+		}
+		this.midPrices = new AtomicLongArray(getExchangeCount() * currencyPairs.size());
+		for (int i = 0; i < midPrices.length(); i++) {
+			// Each pair gets its own price level, each exchange a small offset around it
+			final int pair = i % currencyPairs.size();
+			final double offset = 1.0 + (ThreadLocalRandom.current().nextDouble() - 0.5) * 0.02;
+			midPrices.set(i, Double.doubleToRawLongBits(config.getInitialPrice() * (1 + pair % 10) * offset));
+		}
+		this.clientLimiters = new ConcurrentHashMap<>();
+		this.servedCount = new LongAdder();
+		this.errorCount = new LongAdder();
+		this.throttledCount = new LongAdder();
+	}
+
+	/**
+	 * Starts serving requests and the random walk of the prices.
+	 */
+	public void start() throws IOException {
+		handlerPool = Executors.newFixedThreadPool(config.getServerThreads());
+		server = HttpServer.create(new InetSocketAddress("localhost", config.getPort()), 0);
+		server.setExecutor(handlerPool);
+		server.createContext(BTC_MARKETS_CONTEXT, this::handleBTCMarkets);
+		server.createContext(ACX_CONTEXT, this::handleACX);
+		server.start();
+
+		priceUpdater = Executors.newSingleThreadScheduledExecutor();
+		priceUpdater.scheduleAtFixedRate(this::randomWalk, config.getPriceUpdateInterval(),
+				config.getPriceUpdateInterval(), TimeUnit.MILLISECONDS);
+
+		LOGGER.info("Exchange simulator started on port : " + getPort());
+	}
+
+	/**
+	 * Stops the HTTP server and the price updates.
+	 */
+	public void stop() {
+		server.stop(0);
+		priceUpdater.shutdownNow();
+		handlerPool.shutdownNow();
+		LOGGER.info("Exchange simulator stopped");
+	}
+
+	/**
+	 * Returns the port the HTTP server listens on
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns the base URL to configure for the n-th BTCMarkets style exchange
+	 */
+	public String getBTCMarketsBaseUrl(int exchange) {
+		return "http://localhost:" + getPort() + BTC_MARKETS_CONTEXT + exchange;
+	}
+
+	/**
+	 * Returns the base URL to configure for the n-th ACX style exchange
+	 */
+	public String getACXBaseUrl(int exchange) {
+		return "http://localhost:" + getPort() + ACX_CONTEXT + exchange;
+	}
+
+	/**
+	 * Returns the total number of synthetic exchanges
+	 */
+	public int getExchangeCount() {
+		return config.getBtcMarketsExchanges() + config.getAcxExchanges();
+	}
+
+	/**
+	 * Returns the number of requests answered with a price
+	 */
+	public long getServedCount() {
+		return servedCount.sum();
+	}
+
+	/**
+	 * Returns the number of requests answered with a server error
+	 */
+	public long getErrorCount() {
+		return errorCount.sum();
+	}
+
+	/**
+	 * Returns the number of requests answered with HTTP 429
+	 */
+	public long getThrottledCount() {
+		return throttledCount.sum();
+	}
+
+	/**
+	 * Moves every mid price by one random walk step.
+	 */
+	private void randomWalk() {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final double volatility = config.getVolatility();
+		for (int i = 0; i < midPrices.length(); i++) {
+			final double price = Double.longBitsToDouble(midPrices.get(i));
+			midPrices.set(i, Double.doubleToRawLongBits(price * Math.exp(volatility * random.nextGaussian())));
+		}
+	}
+
+	/**
+	 * Serves <code>/btcmarkets/{n}/market/{BASE}/{QUOTE}/tick</code>
+	 */
+	private void handleBTCMarkets(HttpExchange exchange) throws IOException {
+		try {
+			final String[] path = exchange.getRequestURI().getPath().split("/");
+			// ["", "btcmarkets", n, "market", BASE, QUOTE, "tick"]
+			final Integer pair = path.length == 7 ? pairIndex.get(path[4] + "-" + path[5]) : null;
+			final int exchangeIdx = parseExchange(path, config.getBtcMarketsExchanges());
+			if(pair == null || exchangeIdx < 0) {
+				respond(exchange, 404, "{\"success\":false,\"errorCode\":3,\"errorMessage\":\"Invalid argument.\"}");
+				return;
+			}
+			if(!admit(exchange, "btcmarkets/" + exchangeIdx)) {
+				return;
+			}
+			final double mid = getMidPrice(exchangeIdx, pair);
+			final double halfSpread = config.getHalfSpread();
+			final String json = new StringBuilder(160)
+					.append("{\"bestBid\":").append(mid * (1 - halfSpread))
+					.append(",\"bestAsk\":").append(mid * (1 + halfSpread))
+					.append(",\"lastPrice\":").append(mid)
+					.append(",\"currency\":\"").append(path[5])
+					.append("\",\"instrument\":\"").append(path[4])
+					.append("\",\"timestamp\":").append(System.currentTimeMillis() / 1000)
+					.append('}').toString();
+			servedCount.increment();
+			respond(exchange, 200, json);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Serves <code>/acx/{n}/api/v2/tickers.json</code>
+	 */
+	private void handleACX(HttpExchange exchange) throws IOException {
+		try {
+			final String[] path = exchange.getRequestURI().getPath().split("/");
+			// ["", "acx", n, "api", "v2", "tickers.json"]
+			final int exchangeIdx = path.length == 6 && "tickers.json".equals(path[5])
+					? parseExchange(path, config.getAcxExchanges()) : -1;
+			if(exchangeIdx < 0) {
+				respond(exchange, 404, "{\"error\":{\"code\":1001,\"message\":\"Not found\"}}");
+				return;
+			}
+			if(!admit(exchange, "acx/" + exchangeIdx)) {
+				return;
+			}
+			final double halfSpread = config.getHalfSpread();
+			final long at = System.currentTimeMillis() / 1000;
+			final StringBuilder json = new StringBuilder(currencyPairs.size() * 160).append('{');
+			for (int pair = 0; pair < currencyPairs.size(); pair++) {
+				final String[] splitCcyPair = currencyPairs.get(pair).toLowerCase(Locale.ROOT).split("-");
+				final double mid = getMidPrice(config.getBtcMarketsExchanges() + exchangeIdx, pair);
+				if(pair > 0) {
+					json.append(',');
+				}
+				json.append('"').append(splitCcyPair[0]).append(splitCcyPair[1]).append("\":{")
+					.append("\"name\":\"").append(splitCcyPair[0]).append('/').append(splitCcyPair[1])
+					.append("\",\"base_unit\":\"").append(splitCcyPair[0])
+					.append("\",\"quote_unit\":\"").append(splitCcyPair[1])
+					.append("\",\"at\":").append(at)
+					.append(",\"ticker\":{\"buy\":\"").append(mid * (1 - halfSpread))
+					.append("\",\"sell\":\"").append(mid * (1 + halfSpread))
+					.append("\",\"last\":\"").append(mid)
+					.append("\"}}");
+			}
+			json.append('}');
+			servedCount.increment();
+			respond(exchange, 200, json.toString());
+		} finally {
+			exchange.close();
+		}
+	}
+
+	/**
+	 * Parses the exchange number from the request path.
+	 *
+	 * @return the exchange number or -1 if it is not valid
+	 */
+	private int parseExchange(String[] path, int exchangeCount) {
+		try {
+			final int exchangeIdx = Integer.parseInt(path[2]);
+			return exchangeIdx >= 0 && exchangeIdx < exchangeCount ? exchangeIdx : -1;
+		} catch (final NumberFormatException | ArrayIndexOutOfBoundsException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Applies the injected latency, rate limits and failures to a request.
+	 *
+	 * @return true if the request should be answered with a price
+	 */
+	private boolean admit(HttpExchange exchange, String exchangeKey) throws IOException {
+
+		final long latency = (long) LatencySampler.sampleMillis(config.getLatency());
+		if(latency > 0) {
+			try {
+				Thread.sleep(latency);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		}
+
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final boolean overClientLimit = config.getClientRateLimit() != null && !clientLimiters
+				.computeIfAbsent(exchange.getRemoteAddress().getAddress().getHostAddress() + "/" + exchangeKey,
+						(key) -> RateLimiter.create(config.getClientRateLimit()))
+				.tryAcquire();
+		if(overClientLimit || random.nextDouble() < config.getThrottleRate()) {
+			throttledCount.increment();
+			respond(exchange, HTTP_TOO_MANY_REQUESTS, "{\"error\":\"Too many requests\"}");
+			return false;
+		}
+		if(random.nextDouble() < config.getErrorRate()) {
+			errorCount.increment();
+			respond(exchange, 500, "{\"error\":\"Internal server error\"}");
+			return false;
+		}
+		return true;
+	}
+
+	private double getMidPrice(int exchangeIdx, int pair) {
+		return Double.longBitsToDouble(midPrices.get(exchangeIdx * currencyPairs.size() + pair));
+	}
+
+	private void respond(HttpExchange exchange, int code, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+
+		// Compresses like the real exchanges when the client accepts it
+		final String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		if(acceptEncoding != null && (acceptEncoding.contains("gzip") || acceptEncoding.contains("deflate"))) {
+			final boolean gzip = acceptEncoding.contains("gzip");
+			final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 64);
+			try (OutputStream out = gzip ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+				out.write(bytes);
+			}
+			bytes = compressed.toByteArray();
+			exchange.getResponseHeaders().set("Content-Encoding", gzip ? "gzip" : "deflate");
+		}
+		if("HEAD".equals(exchange.getRequestMethod())) {
+			// No body (e.g. the connection warm-up of the connectors)
+			exchange.sendResponseHeaders(code, -1);
+			exchange.close();
+			return;
+		}
+		exchange.sendResponseHeaders(code, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Loads the simulator configuration from the given file or else from
+	 * 'simulator.json' in the classpath.
+	 */
+	public static SimulatorConfig loadConfig(String fileName) throws IOException {
+		final ObjectMapper objMapper = new ObjectMapper();
+		if(fileName != null) {
+			return objMapper.readValue(new File(fileName), SimulatorConfig.class);
+		}
+		try (InputStream configResource = ExchangeSimulator.class.getResourceAsStream(CONFIGURATION_FILE_NAME)) {
+			return objMapper.readValue(configResource, SimulatorConfig.class);
+		}
+	}
+
+	/**
+	 * Starts the simulator standalone. An optional argument gives the path of
+	 * the configuration file to use instead of 'simulator.json'.
+	 */
+	public static void main(String args[]) throws Exception {
+
+		final ExchangeSimulator simulator = new ExchangeSimulator(loadConfig(args.length > 0 ? args[0] : null));
+		simulator.start();
+
+		for (int i = 0; i < simulator.config.getBtcMarketsExchanges(); i++) {
+			System.out.println("BTCMarkets style exchange : " + simulator.getBTCMarketsBaseUrl(i));
+		}
+		for (int i = 0; i < simulator.config.getAcxExchanges(); i++) {
+			System.out.println("ACX style exchange : " + simulator.getACXBaseUrl(i));
+		}
+		System.out.println("Simulator started...\nTo exit, press Ctrl-C");
+		System.in.read();
+
+		simulator.stop();
+		System.exit(0);
+	}
+}
@@ -0,0 +1,98 @@
+package application.simulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import application.configuration.LatencyConfig;
+
+/**
+ * Samples latencies from the distribution of a {@link LatencyConfig}, for the
+ * exchange simulator and the paper-trading exchange.
+ */
+public final class LatencySampler {
+
+	private LatencySampler() {
+	}
+
+	/**
+	 * Checks that the distribution has the parameters it needs : 'mean' for
+	 * fixed, exponential & lognormal (and 'stdDev' for lognormal), 'max' for
+	 * uniform, and a min not above the max.
+	 *
+	 * @throws IllegalArgumentException if a parameter is missing or invalid
+	 */
+	public static void validate(LatencyConfig latency) {
+		if(latency == null || latency.getDistribution() == null) {
+			return;
+		}
+		final String distribution = latency.getDistribution();
+		switch (distribution) {
+		case "fixed":
+			require(distribution, "mean", latency.getMean() != null && latency.getMean() >= 0);
+			break;
+		case "uniform":
+			require(distribution, "max", latency.getMax() != null);
+			break;
+		case "exponential":
+			require(distribution, "mean", latency.getMean() != null && latency.getMean() > 0);
+			break;
+		case "lognormal":
+			require(distribution, "mean", latency.getMean() != null && latency.getMean() > 0);
+			require(distribution, "stdDev", latency.getStdDev() != null && latency.getStdDev() >= 0);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown latency distribution : " + distribution);
+		}
+		if(latency.getMin() != null && latency.getMin() < 0) {
+			throw new IllegalArgumentException("The latency 'min' can't be negative : " + latency.getMin());
+		}
+		if(latency.getMin() != null && latency.getMax() != null && latency.getMin() > latency.getMax()) {
+			throw new IllegalArgumentException("The latency 'min' is above its 'max' : " + latency.getMin()
+					+ " > " + latency.getMax());
+		}
+	}
+
+	private static void require(String distribution, String parameter, boolean valid) {
+		if(!valid) {
+			throw new IllegalArgumentException("The " + distribution + " latency distribution needs a valid '"
+					+ parameter + "'");
+		}
+	}
+
+	/**
+	 * Samples a latency from the configured distribution (checked with
+	 * {@link #validate}), bounded by its min & max.
+	 *
+	 * @return The latency in milliseconds (0 if no distribution is configured)
+	 */
+	public static double sampleMillis(LatencyConfig latency) {
+		if(latency == null || latency.getDistribution() == null) {
+			return 0;
+		}
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final double min = latency.getMin() != null ? latency.getMin() : 0;
+		final double max = latency.getMax() != null ? latency.getMax() : Double.MAX_VALUE;
+		final double sample;
+		switch (latency.getDistribution()) {
+		case "fixed":
+			sample = latency.getMean();
+			break;
+		case "uniform":
+			sample = min + random.nextDouble() * (max - min);
+			break;
+		case "exponential":
+			sample = -latency.getMean() * Math.log(1 - random.nextDouble());
+			break;
+		case "lognormal":
+			// Parameters of the underlying normal distribution from the mean & standard deviation
+			final double variance = latency.getStdDev() * latency.getStdDev();
+			final double mean = latency.getMean();
+			final double sigma = Math.sqrt(Math.log(1 + variance / (mean * mean)));
+			final double mu = Math.log(mean) - sigma * sigma / 2;
+			sample = Math.exp(mu + sigma * random.nextGaussian());
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown latency distribution : " + latency.getDistribution());
+		}
+		return Math.min(max, Math.max(min, sample));
+	}
+}
@@ -0,0 +1,176 @@
+package application.simulator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+import application.SpreadCalculatorTask;
+import application.SpreadInfo;
+import application.configuration.AppConfig;
+import application.configuration.ExchangeConfig;
+import application.configuration.SimulatorConfig;
+import application.exchange.BaseExchangeConnector;
+import application.exchange.QuoteSlots;
+
+/**
+ * Load test driver : starts the {@link ExchangeSimulator} with the given
+ * number of synthetic exchanges and currency pairs, points the regular
+ * connectors at it and runs spread calculation cycles at a fixed rate.
+ *
+ * The cycle latency is measured from the <i>intended</i> start of each cycle,
+ * which corrects it for coordinated omission : a slow cycle also accounts for
+ * the cycles that it delayed. </br>
+ *
+ * The quote age is the time from the arrival of each quote ranked by a cycle
+ * (its timestamp) to the end of that cycle : the latency from the exchange
+ * to the ranking, polling interval included.
+ *
+ * Arguments (all optional) : exchanges pairs durationSeconds intervalMillis pollingLimit
+ */
+public class LoadTestRunner {
+
+	private static final String QUOTE_CURRENCY = "AUD";
+
+	public static void main(String args[]) throws Exception {
+
+		final int exchanges = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		final int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+		final long durationSeconds = args.length > 2 ? Long.parseLong(args[2]) : 60;
+		final long intervalMillis = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+		final double pollingLimit = args.length > 4 ? Double.parseDouble(args[4]) : 20;
+
+		final List<String> currencyPairs = new ArrayList<>(pairs);
+		for (int i = 1; i <= pairs; i++) {
+			currencyPairs.add(String.format("P%04d-%s", i, QUOTE_CURRENCY));
+		}
+
+		final SimulatorConfig simulatorConfig = ExchangeSimulator.loadConfig(null);
+		simulatorConfig.setPort(0);
+		simulatorConfig.setCurrencyPairs(currencyPairs);
+		simulatorConfig.setBtcMarketsExchanges(exchanges - exchanges / 2);
+		simulatorConfig.setAcxExchanges(exchanges / 2);
+		final ExchangeSimulator simulator = new ExchangeSimulator(simulatorConfig);
+		simulator.start();
+
+		final AppConfig appConfig = createAppConfig(simulator, simulatorConfig, currencyPairs, intervalMillis, pollingLimit);
+
+		System.out.println(String.format("Load test : %d exchanges x %d pairs, %d s, cycle interval %d ms",
+				exchanges, pairs, durationSeconds, intervalMillis));
+
+		final SpreadCalculatorTask task = new SpreadCalculatorTask(appConfig);
+		final Histogram latencyHistogram = new Histogram(TimeUnit.MINUTES.toMicros(10), 3);
+		final Histogram quoteAgeHistogram = new Histogram(TimeUnit.MINUTES.toMillis(10), 3);
+		final QuoteSlots.Quote quote = new QuoteSlots.Quote();
+
+		final long startNanos = System.nanoTime();
+		final long endNanos = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+		final long startServed = simulator.getServedCount();
+		long cycles = 0;
+		long rankedSpreads = 0;
+		int lastRanked = 0;
+		while (true) {
+			final long intendedStartNanos = startNanos + cycles * TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+			if(intendedStartNanos >= endNanos) {
+				break;
+			}
+			final long waitNanos = intendedStartNanos - System.nanoTime();
+			if(waitNanos > 0) {
+				TimeUnit.NANOSECONDS.sleep(waitNanos);
+			}
+
+			final List<SpreadInfo> spreads = task.calculateSpreads().blockingGet();
+
+			final long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStartNanos);
+			latencyHistogram.recordValue(latencyMicros);
+			recordQuoteAges(task, currencyPairs.size(), System.currentTimeMillis(), quote, quoteAgeHistogram);
+			lastRanked = spreads.size();
+			rankedSpreads += lastRanked;
+			cycles++;
+		}
+		final double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+		System.out.println("--------------------------------------------------------------------------------");
+		System.out.println(String.format("Cycles             : %d (%.2f / s)", cycles, cycles / elapsedSeconds));
+		System.out.println(String.format("Ranked spreads     : %d (%.2f / s), last cycle %d of %d pairs",
+				rankedSpreads, rankedSpreads / elapsedSeconds, lastRanked, pairs));
+		System.out.println(String.format("Exchange requests  : %.2f / s served, %d errors, %d throttled (429)",
+				(simulator.getServedCount() - startServed) / elapsedSeconds, simulator.getErrorCount(),
+				simulator.getThrottledCount()));
+		System.out.println(String.format("Stale quotes       : %d", task.getMetrics().getStaleQuotes()));
+		System.out.println("Cycle latency (ms, from the intended start of the cycle) :");
+		System.out.println(String.format("  p50 %.3f  p90 %.3f  p99 %.3f  p99.9 %.3f  max %.3f",
+				latencyHistogram.getValueAtPercentile(50) / 1000.0,
+				latencyHistogram.getValueAtPercentile(90) / 1000.0,
+				latencyHistogram.getValueAtPercentile(99) / 1000.0,
+				latencyHistogram.getValueAtPercentile(99.9) / 1000.0,
+				latencyHistogram.getMaxValue() / 1000.0));
+		System.out.println("Quote age at ranking (ms, from the arrival of the quote to the end of the cycle) :");
+		System.out.println(String.format("  p50 %d  p90 %d  p99 %d  p99.9 %d  max %d",
+				quoteAgeHistogram.getValueAtPercentile(50),
+				quoteAgeHistogram.getValueAtPercentile(90),
+				quoteAgeHistogram.getValueAtPercentile(99),
+				quoteAgeHistogram.getValueAtPercentile(99.9),
+				quoteAgeHistogram.getMaxValue()));
+
+		simulator.stop();
+		System.exit(0);
+	}
+
+	/**
+	 * Records the age of every quote the cycle ranked, at the end of the cycle
+	 */
+	private static void recordQuoteAges(SpreadCalculatorTask task, int pairs, long cycleTimestamp,
+			QuoteSlots.Quote quote, Histogram quoteAgeHistogram) {
+		for (final BaseExchangeConnector connector : task.getExchangeConnectors()) {
+			for (int pair = 0; pair < pairs; pair++) {
+				if(connector.getQuoteSlots().read(pair, quote)) {
+					final long age = Math.max(0, cycleTimestamp - quote.getTimestamp());
+					quoteAgeHistogram.recordValue(age);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the application configuration pointing one connector at each
+	 * synthetic exchange of the simulator.
+	 */
+	static AppConfig createAppConfig(ExchangeSimulator simulator, SimulatorConfig simulatorConfig,
+			List<String> currencyPairs, long intervalMillis, double pollingLimit) {
+
+		final List<ExchangeConfig> exchangeConfigs = new ArrayList<>();
+		for (int i = 0; i < simulatorConfig.getBtcMarketsExchanges(); i++) {
+			final ExchangeConfig exchangeConfig = createExchangeConfig("SIM-BTC-" + i,
+					"application.exchange.btcmarkets.BTCMarketsConnector", simulator.getBTCMarketsBaseUrl(i), pollingLimit);
+			// One request per pair loop, as each loop blocks its thread while throttled
+			exchangeConfig.setMaxConcurrency(Math.min(currencyPairs.size(), 16));
+			exchangeConfigs.add(exchangeConfig);
+		}
+		for (int i = 0; i < simulatorConfig.getAcxExchanges(); i++) {
+			final ExchangeConfig exchangeConfig = createExchangeConfig("SIM-ACX-" + i,
+					"application.exchange.acx.ACXConnector", simulator.getACXBaseUrl(i), pollingLimit);
+			exchangeConfig.setMaxConcurrency(1);
+			exchangeConfigs.add(exchangeConfig);
+		}
+
+		final AppConfig appConfig = new AppConfig();
+		appConfig.setCurrencyPairs(currencyPairs);
+		appConfig.setRefreshInterval(intervalMillis);
+		appConfig.setExchanges(exchangeConfigs);
+		return appConfig;
+	}
+
+	private static ExchangeConfig createExchangeConfig(String id, String connectorClass, String baseUrl,
+			double pollingLimit) {
+		final ExchangeConfig exchangeConfig = new ExchangeConfig();
+		exchangeConfig.setId(id);
+		exchangeConfig.setFee(new BigDecimal("0.99"));
+		exchangeConfig.setConnectorClass(connectorClass);
+		exchangeConfig.setBaseUrl(baseUrl);
+		exchangeConfig.setPollingLimit(pollingLimit);
+		return exchangeConfig;
+	}
+}
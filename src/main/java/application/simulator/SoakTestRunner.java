@@ -0,0 +1,182 @@
+package application.simulator;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import application.SpreadCalculatorTask;
+import application.configuration.AppConfig;
+import application.configuration.SimulatorConfig;
+import application.exchange.BaseExchangeConnector;
+import application.exchange.PollingEngine;
+
+/**
+ * Soak test driver : runs the regular connectors against the
+ * {@link ExchangeSimulator} for a long time, with a spread calculation cycle
+ * every second, and stops and restarts the polling of every connector at a
+ * fixed interval.
+ *
+ * At each sample, the heap used after a full GC and the live threads are
+ * recorded. The test fails (exit code 1) if the heap floor of the last
+ * quarter of the samples is above the heap ceiling of the first quarter by
+ * more than the tolerance, if the last quarter has more threads than the
+ * first one (plus the tolerance of the elastic IO pool), if a stop leaves a
+ * poll running or if the polling stalls.
+ *
+ * Arguments (all optional) : exchanges pairs durationMinutes sampleIntervalSeconds restartIntervalSeconds
+ */
+public class SoakTestRunner {
+
+	private static final long CYCLE_INTERVAL_MILLIS = 1000;
+	private static final double POLLING_LIMIT = 20;
+
+	/**
+	 * The time given to the polls in progress to complete after a stop
+	 */
+	private static final long STOP_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+	private static final double HEAP_TOLERANCE = 0.1;
+	private static final long HEAP_SLACK_BYTES = 2 * 1024 * 1024;
+	private static final int THREAD_TOLERANCE = 2;
+
+	public static void main(String args[]) throws Exception {
+
+		final int exchanges = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+		final int pairs = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		final long durationMinutes = args.length > 2 ? Long.parseLong(args[2]) : 10;
+		final long sampleIntervalSeconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+		final long restartIntervalSeconds = args.length > 4 ? Long.parseLong(args[4]) : 30;
+
+		final List<String> currencyPairs = new ArrayList<>(pairs);
+		for (int i = 1; i <= pairs; i++) {
+			currencyPairs.add(String.format("P%04d-AUD", i));
+		}
+		final SimulatorConfig simulatorConfig = ExchangeSimulator.loadConfig(null);
+		simulatorConfig.setPort(0);
+		simulatorConfig.setCurrencyPairs(currencyPairs);
+		simulatorConfig.setBtcMarketsExchanges(exchanges - exchanges / 2);
+		simulatorConfig.setAcxExchanges(exchanges / 2);
+		final ExchangeSimulator simulator = new ExchangeSimulator(simulatorConfig);
+		simulator.start();
+
+		final AppConfig appConfig = LoadTestRunner.createAppConfig(simulator, simulatorConfig, currencyPairs,
+				CYCLE_INTERVAL_MILLIS, POLLING_LIMIT);
+		final SpreadCalculatorTask task = new SpreadCalculatorTask(appConfig);
+		final List<PollingEngine> engines = new ArrayList<>();
+		for (final BaseExchangeConnector connector : task.getExchangeConnectors()) {
+			engines.add(connector.getPollingEngine());
+		}
+
+		System.out.println(String.format("Soak test : %d exchanges x %d pairs, %d min, sample every %d s, restart every %d s",
+				exchanges, pairs, durationMinutes, sampleIntervalSeconds, restartIntervalSeconds));
+		System.out.println(String.format("%8s%12s%10s%12s%10s", "Time(s)", "Heap(KB)", "Threads", "Polls/s", "Failures"));
+
+		final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+		final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		final List<Long> heapSamples = new ArrayList<>();
+		final List<Integer> threadSamples = new ArrayList<>();
+		final List<String> failures = new ArrayList<>();
+
+		final long startNanos = System.nanoTime();
+		final long endNanos = startNanos + TimeUnit.MINUTES.toNanos(durationMinutes);
+		long nextSampleNanos = startNanos + TimeUnit.SECONDS.toNanos(sampleIntervalSeconds);
+		long nextRestartNanos = restartIntervalSeconds > 0
+				? startNanos + TimeUnit.SECONDS.toNanos(restartIntervalSeconds) : Long.MAX_VALUE;
+		long lastPolls = countPolls(engines);
+		while (System.nanoTime() < endNanos) {
+			task.calculateSpreads().blockingGet();
+			TimeUnit.MILLISECONDS.sleep(CYCLE_INTERVAL_MILLIS);
+
+			if(System.nanoTime() >= nextRestartNanos) {
+				nextRestartNanos += TimeUnit.SECONDS.toNanos(restartIntervalSeconds);
+				engines.forEach(PollingEngine::stop);
+				if(!awaitIdle(engines)) {
+					failures.add("A poll was still running " + STOP_TIMEOUT_MILLIS + " ms after the stop");
+				}
+				engines.forEach(PollingEngine::start);
+			}
+
+			if(System.nanoTime() >= nextSampleNanos) {
+				nextSampleNanos += TimeUnit.SECONDS.toNanos(sampleIntervalSeconds);
+				System.gc();
+				final long heap = memory.getHeapMemoryUsage().getUsed();
+				final int threadCount = threads.getThreadCount();
+				final long polls = countPolls(engines);
+				heapSamples.add(heap);
+				threadSamples.add(threadCount);
+				System.out.println(String.format("%8d%12d%10d%12.1f%10d",
+						TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos), heap / 1024, threadCount,
+						(polls - lastPolls) / (double) sampleIntervalSeconds, countFailures(engines)));
+				if(polls == lastPolls) {
+					failures.add("No poll completed in the " + sampleIntervalSeconds + " s before the sample "
+							+ heapSamples.size());
+				}
+				lastPolls = polls;
+			}
+		}
+
+		checkStable(heapSamples, threadSamples, failures);
+		simulator.stop();
+		System.out.println("--------------------------------------------------------------------------------");
+		if(failures.isEmpty()) {
+			System.out.println("PASSED");
+			System.exit(0);
+		}
+		failures.forEach(failure -> System.out.println("FAILED : " + failure));
+		System.exit(1);
+	}
+
+	/**
+	 * Compares the last quarter of the samples with the first one
+	 */
+	private static void checkStable(List<Long> heapSamples, List<Integer> threadSamples, List<String> failures) {
+		final int quarter = heapSamples.size() / 4;
+		if(quarter == 0) {
+			failures.add("Not enough samples (" + heapSamples.size() + ") : run longer or sample more often");
+			return;
+		}
+		final List<Long> firstHeap = heapSamples.subList(0, quarter);
+		final List<Long> lastHeap = heapSamples.subList(heapSamples.size() - quarter, heapSamples.size());
+		final long heapCeiling = firstHeap.stream().mapToLong(Long::longValue).max().getAsLong();
+		final long heapFloor = lastHeap.stream().mapToLong(Long::longValue).min().getAsLong();
+		final long heapLimit = (long) (heapCeiling * (1 + HEAP_TOLERANCE)) + HEAP_SLACK_BYTES;
+		System.out.println(String.format("Heap after GC : first quarter max %d KB, last quarter min %d KB (limit %d KB)",
+				heapCeiling / 1024, heapFloor / 1024, heapLimit / 1024));
+		if(heapFloor > heapLimit) {
+			failures.add("The heap grew from " + heapCeiling / 1024 + " KB to " + heapFloor / 1024 + " KB");
+		}
+
+		final int firstThreads = threadSamples.subList(0, quarter).stream().mapToInt(Integer::intValue).max().getAsInt();
+		final int lastThreads = threadSamples.subList(threadSamples.size() - quarter, threadSamples.size()).stream()
+				.mapToInt(Integer::intValue).max().getAsInt();
+		System.out.println(String.format("Threads : first quarter max %d, last quarter max %d", firstThreads, lastThreads));
+		if(lastThreads > firstThreads + THREAD_TOLERANCE) {
+			failures.add("The thread count grew from " + firstThreads + " to " + lastThreads);
+		}
+	}
+
+	/**
+	 * Waits until no poll is in progress
+	 */
+	private static boolean awaitIdle(List<PollingEngine> engines) throws InterruptedException {
+		final long deadline = System.currentTimeMillis() + STOP_TIMEOUT_MILLIS;
+		while (System.currentTimeMillis() < deadline) {
+			if(engines.stream().allMatch(engine -> engine.getActivePolls() == 0)) {
+				return true;
+			}
+			TimeUnit.MILLISECONDS.sleep(10);
+		}
+		return false;
+	}
+
+	private static long countPolls(List<PollingEngine> engines) {
+		return engines.stream().mapToLong(PollingEngine::getPolls).sum();
+	}
+
+	private static long countFailures(List<PollingEngine> engines) {
+		return engines.stream().mapToLong(PollingEngine::getFailures).sum();
+	}
+}
@@ -0,0 +1,241 @@
+package application.strategy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.SpreadInfo;
+import application.Utils;
+import application.configuration.AppConfig;
+import application.configuration.ExchangeConfig;
+import application.configuration.StrategyConfig;
+import application.exchange.BaseExchangeConnector;
+import application.exchange.QuoteSlots;
+import application.kernel.ColumnarSpreadKernel;
+
+/**
+ * A spread ranking with its own fees, currency pairs, thresholds and output,
+ * calculated from the quote slots of the shared connectors : the strategies
+ * add no request to the exchanges, only the reading of the quotes.
+ *
+ * The quotes are stored net of the fee of the exchange configuration, which
+ * is replaced by the fee of the strategy. The spreads are calculated in batch
+ * (see {@link ColumnarSpreadKernel}) on the calling thread, so a strategy only
+ * ever uses the thread it is run on.
+ */
+public class Strategy implements Runnable {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(Strategy.class);
+
+	private final String id;
+	private final List<String> currencyPairs;
+
+	/**
+	 * The index of each currency pair of the strategy in the quote slots
+	 */
+	private final int[] quoteSlotIndexes;
+
+	private final List<BaseExchangeConnector> connectors;
+
+	/**
+	 * The factor replacing the fee of each connector by the fee of the
+	 * strategy
+	 */
+	private final double[] feeAdjustments;
+
+	private final long refreshInterval;
+	private final double minSpread;
+	private final int maxSpreads;
+
+	/**
+	 * The file the ranking is written to (null for the console)
+	 */
+	private final Path outputFile;
+
+	/**
+	 * Whether the console is drawn by the dashboard : the rankings without an
+	 * output file are then logged, so that they don't corrupt its frames
+	 */
+	private final boolean consoleInUse;
+
+	private final ColumnarSpreadKernel spreadKernel;
+	private final QuoteSlots.Quote quote;
+
+	/**
+	 * The ranking of the latest calculation
+	 */
+	private volatile List<SpreadInfo> latestSpreads;
+
+	/**
+	 * Written by the running calculation only
+	 */
+	private volatile long calculations;
+	private volatile long overruns;
+	private volatile long lastDurationNanos;
+
+	public Strategy(StrategyConfig config, AppConfig appConfig, List<BaseExchangeConnector> connectors) {
+		this.id = config.getId();
+		this.currencyPairs = config.getCurrencyPairs() != null ? config.getCurrencyPairs() : appConfig.getCurrencyPairs();
+		this.quoteSlotIndexes = new int[currencyPairs.size()];
+		for (int pair = 0; pair < currencyPairs.size(); pair++) {
+			quoteSlotIndexes[pair] = appConfig.getCurrencyPairs().indexOf(currencyPairs.get(pair));
+			if(quoteSlotIndexes[pair] < 0) {
+				throw new IllegalArgumentException("Strategy " + id + " : the currency pair " + currencyPairs.get(pair)
+						+ " is not polled (missing in 'currencyPairs')");
+			}
+		}
+		this.connectors = connectors;
+		final Map<String, Double> exchangeFees = new HashMap<>();
+		for (final ExchangeConfig exchange : appConfig.getExchanges()) {
+			exchangeFees.put(exchange.getId(), exchange.getFee().doubleValue());
+		}
+		this.feeAdjustments = new double[connectors.size()];
+		for (int exchange = 0; exchange < connectors.size(); exchange++) {
+			final String exchangeId = connectors.get(exchange).getExchangeId();
+			final BigDecimal fee = config.getFees() != null ? config.getFees().get(exchangeId) : null;
+			feeAdjustments[exchange] = fee != null ? fee.doubleValue() / exchangeFees.get(exchangeId) : 1;
+		}
+		this.refreshInterval = config.getRefreshInterval() != null
+				? config.getRefreshInterval() : appConfig.getRefreshInterval();
+		this.minSpread = config.getMinSpread() != null ? config.getMinSpread() : Double.NEGATIVE_INFINITY;
+		this.maxSpreads = config.getMaxSpreads() != null ? config.getMaxSpreads() : Integer.MAX_VALUE;
+		this.outputFile = config.getOutputFile() != null ? Paths.get(config.getOutputFile()) : null;
+		this.consoleInUse = appConfig.getDashboard() != null;
+		this.spreadKernel = new ColumnarSpreadKernel(currencyPairs.size(), connectors.size(), null);
+		this.quote = new QuoteSlots.Quote();
+		this.latestSpreads = Collections.emptyList();
+	}
+
+	/**
+	 * Calculates and outputs the ranking. The errors are logged, so that the
+	 * next calculations still run.
+	 */
+	@Override
+	public void run() {
+		final long startNanos = System.nanoTime();
+		try {
+			final List<SpreadInfo> spreads = calculateSpreads();
+			latestSpreads = spreads;
+			output(spreads);
+		} catch (final IOException | RuntimeException e) {
+			LOGGER.warn("Strategy " + id + " : calculation failed", e);
+		}
+		final long durationNanos = System.nanoTime() - startNanos;
+		lastDurationNanos = durationNanos;
+		calculations++;
+		if(durationNanos > TimeUnit.MILLISECONDS.toNanos(refreshInterval)) {
+			overruns++;
+			if(LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Strategy " + id + " : calculation took " + TimeUnit.NANOSECONDS.toMillis(durationNanos)
+						+ " ms, more than its refresh interval");
+			}
+		}
+	}
+
+	/**
+	 * Reads the quotes of the pairs of the strategy with its fees into the
+	 * kernel, and ranks the spreads above the threshold.
+	 */
+	private List<SpreadInfo> calculateSpreads() {
+		for (int exchange = 0; exchange < connectors.size(); exchange++) {
+			final QuoteSlots quoteSlots = connectors.get(exchange).getQuoteSlots();
+			final double feeAdjustment = feeAdjustments[exchange];
+			for (int pair = 0; pair < currencyPairs.size(); pair++) {
+				if(quoteSlots.read(quoteSlotIndexes[pair], quote)) {
+					spreadKernel.setQuote(pair, exchange, quote.getNetAskPrice() * feeAdjustment,
+							quote.getNetBidPrice() * feeAdjustment);
+				} else {
+					spreadKernel.clearQuote(pair, exchange);
+				}
+			}
+		}
+
+		spreadKernel.compute();
+
+		final List<SpreadInfo> spreads = new ArrayList<>();
+		for (int pair = 0; pair < currencyPairs.size(); pair++) {
+			if(!spreadKernel.hasSpread(pair) || spreadKernel.getSpread(pair) <= minSpread) {
+				continue;
+			}
+			final SpreadInfo spread = new SpreadInfo();
+			spread.setCcyPair(currencyPairs.get(pair));
+			spread.setBestAskPrice(BigDecimal.valueOf(spreadKernel.getBestAskPrice(pair)));
+			spread.setBestAskExchange(connectors.get(spreadKernel.getBestAskExchange(pair)).getExchangeId());
+			spread.setBestBidPrice(BigDecimal.valueOf(spreadKernel.getBestBidPrice(pair)));
+			spread.setBestBidExchange(connectors.get(spreadKernel.getBestBidExchange(pair)).getExchangeId());
+			spread.setSpreadPercent(BigDecimal.valueOf(spreadKernel.getSpread(pair)).setScale(4, RoundingMode.HALF_UP));
+			spreads.add(spread);
+		}
+		spreads.sort((spread1, spread2) -> spread2.getSpreadPercent().compareTo(spread1.getSpreadPercent()));
+		return spreads.size() > maxSpreads ? new ArrayList<>(spreads.subList(0, maxSpreads)) : spreads;
+	}
+
+	/**
+	 * Prints the ranking on the console (logs it when the dashboard draws the
+	 * console), or replaces the output file with it (written aside, then
+	 * moved, so that the readers never see a partial one)
+	 */
+	private void output(List<SpreadInfo> spreads) throws IOException {
+		final String ranking = "\nStrategy : " + id + Utils.formatConsolePrint(spreads);
+		if(outputFile == null) {
+			if(consoleInUse) {
+				LOGGER.info(ranking);
+			} else {
+				System.out.println(ranking);
+			}
+			return;
+		}
+		final Path tempFile = outputFile.resolveSibling(outputFile.getFileName() + ".tmp");
+		Files.write(tempFile, ranking.getBytes(StandardCharsets.UTF_8));
+		Files.move(tempFile, outputFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the time between the end of a calculation and the start of the
+	 * next one (in milliseconds)
+	 */
+	public long getRefreshInterval() {
+		return refreshInterval;
+	}
+
+	/**
+	 * Returns the ranking of the latest calculation (empty until the first one)
+	 */
+	public List<SpreadInfo> getLatestSpreads() {
+		return latestSpreads;
+	}
+
+	public long getCalculations() {
+		return calculations;
+	}
+
+	/**
+	 * Returns the number of calculations that took longer than the refresh
+	 * interval
+	 */
+	public long getOverruns() {
+		return overruns;
+	}
+
+	public long getLastDurationNanos() {
+		return lastDurationNanos;
+	}
+}
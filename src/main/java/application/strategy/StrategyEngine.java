@@ -0,0 +1,68 @@
+package application.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.configuration.AppConfig;
+import application.configuration.StrategyConfig;
+import application.exchange.BaseExchangeConnector;
+
+/**
+ * Runs the strategies of the application on a shared pool of threads. All the
+ * strategies read the quotes of the same connectors, so the polling is paid
+ * once however many strategies run.
+ *
+ * Each strategy runs again its refresh interval after the end of its previous
+ * calculation, and the pool runs the strategies in the order they are due. A
+ * strategy slower than its refresh interval therefore only delays its own
+ * next calculation : it never queues several calculations ahead of the other
+ * strategies, which each get their turn in between.
+ */
+public class StrategyEngine {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(StrategyEngine.class);
+
+	private final List<Strategy> strategies;
+	private final ScheduledThreadPoolExecutor executor;
+
+	public StrategyEngine(AppConfig appConfig, List<BaseExchangeConnector> connectors) {
+		final List<Strategy> strategies = new ArrayList<>();
+		for (final StrategyConfig config : appConfig.getStrategies()) {
+			strategies.add(new Strategy(config, appConfig, connectors));
+		}
+		this.strategies = Collections.unmodifiableList(strategies);
+		final int threads = appConfig.getStrategyThreads() != null ? appConfig.getStrategyThreads()
+				: Math.max(1, Math.min(strategies.size(), Runtime.getRuntime().availableProcessors()));
+		this.executor = new ScheduledThreadPoolExecutor(threads,
+				new ThreadFactoryBuilder().setNameFormat("strategy-%d").setDaemon(true).build());
+	}
+
+	/**
+	 * Starts the calculation of all the strategies
+	 */
+	public void start() {
+		for (final Strategy strategy : strategies) {
+			executor.scheduleWithFixedDelay(strategy, 0, strategy.getRefreshInterval(), TimeUnit.MILLISECONDS);
+		}
+		LOGGER.info("Strategies started : " + strategies.size() + " on " + executor.getCorePoolSize() + " threads");
+	}
+
+	/**
+	 * Stops the calculations, the ones in progress complete
+	 */
+	public void stop() {
+		executor.shutdown();
+	}
+
+	public List<Strategy> getStrategies() {
+		return strategies;
+	}
+}
@@ -0,0 +1,25 @@
+package application.subscription;
+
+import application.SpreadInfo;
+
+/**
+ * Receives the spread updates of the currency pairs of a subscription. It is
+ * called on a dispatcher thread, never concurrently for the same subscription,
+ * and only with the latest spread of each pair : the updates that arrive
+ * while the listener is busy are conflated.
+ */
+public interface SpreadListener {
+
+	/**
+	 * Called with the latest spread of one of the subscribed currency pairs.
+	 */
+	void onSpreadUpdate(SpreadInfo spread);
+
+	/**
+	 * Called when one of the subscribed currency pairs drops out of the
+	 * spreads (e.g. fewer than two exchanges quote it any more) : its last
+	 * spread no longer holds, until the next update.
+	 */
+	default void onSpreadRemoved(String ccyPair) {
+	}
+}
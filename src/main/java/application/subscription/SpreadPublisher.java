@@ -0,0 +1,195 @@
+package application.subscription;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import application.SnapshotListener;
+import application.SpreadInfo;
+import application.SpreadSnapshot;
+
+/**
+ * Fans the spread updates out to the subscribers.
+ *
+ * The calculation thread only hands each snapshot over (latest one wins) ;
+ * finding the changed spreads and filling the subscriptions runs on a small
+ * dispatcher pool, which also calls the listeners. So the number and speed of
+ * the subscribers don't affect the calculation.
+ */
+public class SpreadPublisher implements SnapshotListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(SpreadPublisher.class);
+
+	/**
+	 * The index of each configured pair (slot and bit of the subscriptions)
+	 */
+	private final Map<String, Integer> pairIndexes;
+
+	private final List<SpreadSubscription> subscriptions;
+
+	private final ExecutorService dispatcher;
+
+	/**
+	 * The latest snapshot not fanned out yet
+	 */
+	private final AtomicReference<SpreadSnapshot> pendingSnapshot;
+
+	/**
+	 * True while a fan-out is scheduled or running
+	 */
+	private final AtomicBoolean fanOutScheduled;
+
+	/**
+	 * The last spread fanned out for each pair, null if it isn't in the
+	 * spreads (only used by the fan-out)
+	 */
+	private final SpreadInfo[] lastSpreads;
+
+	/**
+	 * The removal marker of each pair, and the pairs in the snapshot being
+	 * fanned out
+	 */
+	private final SpreadInfo[] removals;
+	private final boolean[] fannedOutPairs;
+
+	public SpreadPublisher(List<String> currencyPairs, int dispatcherThreads) {
+		this.pairIndexes = new HashMap<>();
+		for (int i = 0; i < currencyPairs.size(); i++) {
+			pairIndexes.put(currencyPairs.get(i), i);
+		}
+		this.subscriptions = new CopyOnWriteArrayList<>();
+		this.dispatcher = Executors.newFixedThreadPool(dispatcherThreads,
+				new ThreadFactoryBuilder().setNameFormat("spread-dispatcher-%d").setDaemon(true).build());
+		this.pendingSnapshot = new AtomicReference<>();
+		this.fanOutScheduled = new AtomicBoolean();
+		this.lastSpreads = new SpreadInfo[currencyPairs.size()];
+		this.removals = new SpreadInfo[currencyPairs.size()];
+		for (int i = 0; i < currencyPairs.size(); i++) {
+			removals[i] = SpreadSubscription.removal(currencyPairs.get(i));
+		}
+		this.fannedOutPairs = new boolean[currencyPairs.size()];
+	}
+
+	/**
+	 * Subscribes the listener to the given currency pairs. It first receives
+	 * the spreads of the next snapshot, then only the spreads that changed.
+	 *
+	 * @throws IllegalArgumentException if a pair isn't configured
+	 */
+	public SpreadSubscription subscribe(Collection<String> currencyPairs, SpreadListener listener) {
+		final long[] subscribedPairs = new long[(pairIndexes.size() + 63) >>> 6];
+		for (final String currencyPair : currencyPairs) {
+			final Integer pair = pairIndexes.get(currencyPair);
+			if(pair == null) {
+				throw new IllegalArgumentException("Currency pair not configured : " + currencyPair);
+			}
+			subscribedPairs[pair >>> 6] |= 1L << pair;
+		}
+		final SpreadSubscription subscription =
+				new SpreadSubscription(listener, dispatcher, subscribedPairs, pairIndexes.size());
+		subscriptions.add(subscription);
+
+		// The current spreads, so the new subscriber doesn't wait for a change
+		synchronized (lastSpreads) {
+			for (int pair = 0; pair < lastSpreads.length; pair++) {
+				if(lastSpreads[pair] != null && subscription.isSubscribed(pair)) {
+					subscription.offer(pair, lastSpreads[pair]);
+				}
+			}
+		}
+		subscription.schedule();
+		return subscription;
+	}
+
+	/**
+	 * Returns the number of active subscriptions
+	 */
+	public int getSubscriptionCount() {
+		return subscriptions.size();
+	}
+
+	@Override
+	public void onSnapshot(SpreadSnapshot snapshot) {
+		pendingSnapshot.set(snapshot);
+		if(fanOutScheduled.compareAndSet(false, true)) {
+			dispatcher.execute(this::fanOut);
+		}
+	}
+
+	/**
+	 * Offers the changed spreads of the pending snapshot to the subscriptions
+	 * of their pair, and a removal for the pairs that were in the previous
+	 * snapshot and aren't in this one.
+	 */
+	private void fanOut() {
+		try {
+			final SpreadSnapshot snapshot = pendingSnapshot.getAndSet(null);
+			if(snapshot == null) {
+				return;
+			}
+			subscriptions.removeIf(SpreadSubscription::isCancelled);
+			synchronized (lastSpreads) {
+				Arrays.fill(fannedOutPairs, false);
+				for (final SpreadInfo spread : snapshot.getSpreads()) {
+					final Integer pair = pairIndexes.get(spread.getCcyPair());
+					if(pair == null) {
+						continue;
+					}
+					fannedOutPairs[pair] = true;
+					if(!isUnchanged(lastSpreads[pair], spread)) {
+						lastSpreads[pair] = spread;
+						offer(pair, spread);
+					}
+				}
+				for (int pair = 0; pair < lastSpreads.length; pair++) {
+					if(lastSpreads[pair] != null && !fannedOutPairs[pair]) {
+						lastSpreads[pair] = null;
+						offer(pair, removals[pair]);
+					}
+				}
+			}
+			for (final SpreadSubscription subscription : subscriptions) {
+				subscription.schedule();
+			}
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Failed to fan out the spread updates", e);
+		} finally {
+			fanOutScheduled.set(false);
+		}
+		if(pendingSnapshot.get() != null && fanOutScheduled.compareAndSet(false, true)) {
+			dispatcher.execute(this::fanOut);
+		}
+	}
+
+	/**
+	 * Offers a spread (or a removal) to the subscriptions of its pair
+	 */
+	private void offer(int pair, SpreadInfo spread) {
+		for (final SpreadSubscription subscription : subscriptions) {
+			if(subscription.isSubscribed(pair)) {
+				subscription.offer(pair, spread);
+			}
+		}
+	}
+
+	private static boolean isUnchanged(SpreadInfo previous, SpreadInfo spread) {
+		return previous != null
+				&& previous.getSpreadPercent().compareTo(spread.getSpreadPercent()) == 0
+				&& previous.getBestAskPrice().compareTo(spread.getBestAskPrice()) == 0
+				&& previous.getBestBidPrice().compareTo(spread.getBestBidPrice()) == 0
+				&& previous.getBestAskExchange().equals(spread.getBestAskExchange())
+				&& previous.getBestBidExchange().equals(spread.getBestBidExchange());
+	}
+}
@@ -0,0 +1,165 @@
+package application.subscription;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.SpreadInfo;
+
+/**
+ * The subscription of one listener to some currency pairs.
+ *
+ * Each pair has one slot holding its latest spread and one bit in a dirty
+ * bitmap. An update overwrites the slot and sets the bit, so a subscriber
+ * that can't keep up only ever holds one pending spread per pair : its memory
+ * is bounded by the number of pairs, whatever the update rate.
+ */
+public class SpreadSubscription {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(SpreadSubscription.class);
+
+	private final SpreadListener listener;
+
+	/**
+	 * The pool delivering the updates
+	 */
+	private final Executor dispatcher;
+
+	/**
+	 * The subscribed pairs (bit i of word i / 64 is the pair with index i)
+	 */
+	private final long[] subscribedPairs;
+
+	/**
+	 * The latest undelivered spread of each pair, or its removal marker (see
+	 * {@link #isRemoval})
+	 */
+	private final AtomicReferenceArray<SpreadInfo> slots;
+
+	/**
+	 * The pairs whose slot holds an undelivered spread
+	 */
+	private final AtomicLongArray dirtyPairs;
+
+	/**
+	 * True while a delivery is scheduled or running
+	 */
+	private final AtomicBoolean scheduled;
+
+	private volatile boolean cancelled;
+
+	SpreadSubscription(SpreadListener listener, Executor dispatcher, long[] subscribedPairs, int pairCount) {
+		this.listener = listener;
+		this.dispatcher = dispatcher;
+		this.subscribedPairs = subscribedPairs;
+		this.slots = new AtomicReferenceArray<>(pairCount);
+		this.dirtyPairs = new AtomicLongArray(subscribedPairs.length);
+		this.scheduled = new AtomicBoolean();
+	}
+
+	/**
+	 * Returns true if the pair with the given index is subscribed
+	 */
+	boolean isSubscribed(int pair) {
+		return (subscribedPairs[pair >>> 6] & (1L << pair)) != 0;
+	}
+
+	/**
+	 * Replaces the pending spread of a pair (the previous one is conflated)
+	 */
+	void offer(int pair, SpreadInfo spread) {
+		slots.set(pair, spread);
+		final int word = pair >>> 6;
+		final long bit = 1L << pair;
+		long dirty;
+		do {
+			dirty = dirtyPairs.get(word);
+		} while ((dirty & bit) == 0 && !dirtyPairs.compareAndSet(word, dirty, dirty | bit));
+	}
+
+	/**
+	 * Schedules the delivery of the pending spreads, unless there are none or
+	 * it is already scheduled
+	 */
+	void schedule() {
+		if(!cancelled && hasPendingUpdates() && scheduled.compareAndSet(false, true)) {
+			dispatcher.execute(this::deliver);
+		}
+	}
+
+	/**
+	 * Delivers the pending spreads once, then gives the dispatcher thread back
+	 * (re-scheduling if more arrived meanwhile), so one slow listener can't
+	 * hold a thread while the other subscriptions wait. A listener failing on
+	 * one spread doesn't stop the delivery of the others.
+	 */
+	private void deliver() {
+		try {
+			for (int word = 0; word < dirtyPairs.length() && !cancelled; word++) {
+				long dirty = dirtyPairs.getAndSet(word, 0);
+				while (dirty != 0) {
+					final int pair = (word << 6) + Long.numberOfTrailingZeros(dirty);
+					dirty &= dirty - 1;
+					final SpreadInfo spread = slots.getAndSet(pair, null);
+					if(spread != null) {
+						notifyListener(spread);
+					}
+				}
+			}
+		} finally {
+			scheduled.set(false);
+		}
+		schedule();
+	}
+
+	private void notifyListener(SpreadInfo spread) {
+		try {
+			if(isRemoval(spread)) {
+				listener.onSpreadRemoved(spread.getCcyPair());
+			} else {
+				listener.onSpreadUpdate(spread);
+			}
+		} catch (final RuntimeException e) {
+			LOGGER.warn("Spread listener failed on " + spread.getCcyPair(), e);
+		}
+	}
+
+	/**
+	 * Returns a marker offered in the slot of a pair that dropped out of the
+	 * spreads : it conflates with the updates like a spread
+	 */
+	static SpreadInfo removal(String ccyPair) {
+		final SpreadInfo removal = new SpreadInfo();
+		removal.setCcyPair(ccyPair);
+		return removal;
+	}
+
+	static boolean isRemoval(SpreadInfo spread) {
+		return spread.getSpreadPercent() == null;
+	}
+
+	private boolean hasPendingUpdates() {
+		for (int word = 0; word < dirtyPairs.length(); word++) {
+			if(dirtyPairs.get(word) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Stops the deliveries (a delivery in progress may still call the listener
+	 * once)
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+}
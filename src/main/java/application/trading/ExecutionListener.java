@@ -0,0 +1,15 @@
+package application.trading;
+
+/**
+ * Listener notified of the acknowledgements of the paper-trading orders. It
+ * is called on the thread of the mock exchange, so it must return quickly,
+ * and must not keep the intent (it is reused afterwards).
+ */
+public interface ExecutionListener {
+
+	/**
+	 * Called when an order is acknowledged (filled, partially filled or
+	 * rejected).
+	 */
+	void onExecution(OrderIntent intent);
+}
@@ -0,0 +1,114 @@
+package application.trading;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An order sent to the paper-trading exchange for one leg of a spread : buy
+ * on the bid exchange, sell on the ask exchange. It carries its own
+ * acknowledgement (status, filled quantity & price) when it comes back.
+ *
+ * The intents are preallocated and reused : an intent is only valid until
+ * the {@link ExecutionListener} returns.
+ */
+public class OrderIntent implements Delayed {
+
+	public enum Side {
+		BUY, SELL
+	}
+
+	public enum Status {
+		/**
+		 * Sent, not acknowledged yet
+		 */
+		NEW,
+		FILLED,
+		PARTIALLY_FILLED,
+		/**
+		 * Nothing filled : no quote, price moved away or no quantity left
+		 */
+		REJECTED
+	}
+
+	long id;
+	Side side;
+	String ccyPair;
+	int pair;
+	String exchangeId;
+	int exchange;
+	double limitPrice;
+	double quantity;
+
+	/**
+	 * The time the spread was calculated (System.nanoTime)
+	 */
+	long signalNanos;
+
+	Status status;
+	double filledQuantity;
+	double fillPrice;
+
+	/**
+	 * The time the acknowledgement was received (System.nanoTime)
+	 */
+	long ackNanos;
+
+	/**
+	 * The time the intent reaches its next step at the exchange (arrival, then
+	 * acknowledgement)
+	 */
+	long dueNanos;
+
+	@Override
+	public long getDelay(TimeUnit unit) {
+		return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public int compareTo(Delayed other) {
+		return Long.compare(dueNanos, ((OrderIntent) other).dueNanos);
+	}
+
+	public long getId() {
+		return id;
+	}
+	public Side getSide() {
+		return side;
+	}
+	public String getCcyPair() {
+		return ccyPair;
+	}
+	public String getExchangeId() {
+		return exchangeId;
+	}
+	public double getLimitPrice() {
+		return limitPrice;
+	}
+	public double getQuantity() {
+		return quantity;
+	}
+	public Status getStatus() {
+		return status;
+	}
+	public double getFilledQuantity() {
+		return filledQuantity;
+	}
+	public double getFillPrice() {
+		return fillPrice;
+	}
+
+	/**
+	 * Returns the time from the spread calculation to the acknowledgement (in
+	 * nanoseconds)
+	 */
+	public long getSignalToAckNanos() {
+		return ackNanos - signalNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "OrderIntent [id=" + id + ", side=" + side + ", ccyPair=" + ccyPair + ", exchangeId=" + exchangeId
+				+ ", limitPrice=" + limitPrice + ", quantity=" + quantity + ", status=" + status
+				+ ", filledQuantity=" + filledQuantity + ", fillPrice=" + fillPrice + "]";
+	}
+}
@@ -0,0 +1,170 @@
+package application.trading;
+
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.configuration.LatencyConfig;
+import application.exchange.QuoteSlots;
+import application.simulator.LatencySampler;
+
+/**
+ * A local mock exchange matching the paper-trading orders against the latest
+ * quotes of the real exchanges.
+ *
+ * Each exchange & currency pair has a one level book on each side, priced at
+ * the latest net quote of the exchange and holding the configured depth. The
+ * book is replenished when the quote changes. The orders are immediate or
+ * cancel and cross the book like on a real exchange : a buy fills against the
+ * ask side at the net ask price, a sell against the bid side at the net bid
+ * price, if the limit price is still reachable and as far as the quantity
+ * left at that price allows.
+ *
+ * The orders travel with the configured one-way latency in each direction.
+ * They wait in a delay queue ordered by their due time, served by a single
+ * thread that matches them on arrival and acknowledges them when their way
+ * back is over. So sending an order only enqueues the preallocated intent.
+ */
+public class PaperExchange {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(PaperExchange.class);
+
+	/**
+	 * The quotes of each exchange, indexed like the intents' exchanges
+	 */
+	private final List<QuoteSlots> exchangeQuotes;
+	private final int pairCount;
+
+	private final double depth;
+	private final LatencyConfig latency;
+	private final ExecutionListener listener;
+
+	/**
+	 * The orders on their way to the exchange or back
+	 */
+	private final DelayQueue<OrderIntent> inFlight;
+
+	/**
+	 * The books, indexed by exchange * pairs + pair : the quantity left on
+	 * each side and the time of the quote it rests at
+	 */
+	private final double[] askQuantities;
+	private final double[] bidQuantities;
+	private final long[] bookTimestamps;
+
+	/**
+	 * The holder the quotes are read into (exchange thread only)
+	 */
+	private final QuoteSlots.Quote quote;
+
+	private final Thread thread;
+
+	public PaperExchange(List<QuoteSlots> exchangeQuotes, int pairCount, double depth, LatencyConfig latency,
+			ExecutionListener listener) {
+		LatencySampler.validate(latency);
+		this.exchangeQuotes = exchangeQuotes;
+		this.pairCount = pairCount;
+		this.depth = depth;
+		this.latency = latency;
+		this.listener = listener;
+		this.inFlight = new DelayQueue<>();
+		this.askQuantities = new double[exchangeQuotes.size() * pairCount];
+		this.bidQuantities = new double[exchangeQuotes.size() * pairCount];
+		this.bookTimestamps = new long[exchangeQuotes.size() * pairCount];
+		this.quote = new QuoteSlots.Quote();
+		this.thread = new Thread(this::run, "paper-exchange");
+		this.thread.setDaemon(true);
+	}
+
+	public void start() {
+		thread.start();
+	}
+
+	/**
+	 * Sends an order, acknowledged later to the listener on the exchange
+	 * thread.
+	 */
+	public void send(OrderIntent intent) {
+		intent.status = OrderIntent.Status.NEW;
+		intent.dueNanos = System.nanoTime() + sampleLatencyNanos();
+		inFlight.offer(intent);
+	}
+
+	private void run() {
+		while (!Thread.currentThread().isInterrupted()) {
+			final OrderIntent intent;
+			try {
+				intent = inFlight.take();
+			} catch (final InterruptedException e) {
+				return;
+			}
+			try {
+				if(intent.status == OrderIntent.Status.NEW) {
+					// Arrived : matched, then on its way back
+					match(intent);
+					intent.dueNanos = System.nanoTime() + sampleLatencyNanos();
+					inFlight.offer(intent);
+				} else {
+					intent.ackNanos = System.nanoTime();
+					listener.onExecution(intent);
+				}
+			} catch (final RuntimeException e) {
+				LOGGER.error("Failed to process the paper-trading order : " + intent, e);
+			}
+		}
+	}
+
+	/**
+	 * Fills an order against the book of its exchange & pair.
+	 */
+	private void match(OrderIntent intent) {
+		intent.filledQuantity = 0;
+		intent.fillPrice = 0;
+		if(!exchangeQuotes.get(intent.exchange).read(intent.pair, quote)) {
+			intent.status = OrderIntent.Status.REJECTED;
+			return;
+		}
+
+		final int book = intent.exchange * pairCount + intent.pair;
+		if(bookTimestamps[book] != quote.getTimestamp()) {
+			bookTimestamps[book] = quote.getTimestamp();
+			askQuantities[book] = depth;
+			bidQuantities[book] = depth;
+		}
+
+		final double fillQuantity;
+		if(intent.side == OrderIntent.Side.BUY) {
+			if(intent.limitPrice < quote.getNetAskPrice()) {
+				fillQuantity = 0;
+			} else {
+				fillQuantity = Math.min(intent.quantity, askQuantities[book]);
+				askQuantities[book] -= fillQuantity;
+				intent.fillPrice = quote.getNetAskPrice();
+			}
+		} else {
+			if(intent.limitPrice > quote.getNetBidPrice()) {
+				fillQuantity = 0;
+			} else {
+				fillQuantity = Math.min(intent.quantity, bidQuantities[book]);
+				bidQuantities[book] -= fillQuantity;
+				intent.fillPrice = quote.getNetBidPrice();
+			}
+		}
+
+		intent.filledQuantity = fillQuantity;
+		if(fillQuantity <= 0) {
+			intent.status = OrderIntent.Status.REJECTED;
+		} else if(fillQuantity < intent.quantity) {
+			intent.status = OrderIntent.Status.PARTIALLY_FILLED;
+		} else {
+			intent.status = OrderIntent.Status.FILLED;
+		}
+	}
+
+	private long sampleLatencyNanos() {
+		return (long) (LatencySampler.sampleMillis(latency) * TimeUnit.MILLISECONDS.toNanos(1));
+	}
+}
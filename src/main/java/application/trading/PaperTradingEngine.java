@@ -0,0 +1,347 @@
+package application.trading;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import application.SpreadInfo;
+import application.configuration.PaperTradingConfig;
+import application.exchange.QuoteSlots;
+
+/**
+ * Paper trades the spreads : the order-intent stage turns each spread above
+ * the threshold into a buy on its best bid exchange and a sell on its best
+ * ask exchange, sent to the {@link PaperExchange}, and measures the latency
+ * from the calculation of the spread to the acknowledgement of each order.
+ *
+ * The stage runs on the thread that calculated the spreads, before the
+ * snapshot is published, so nothing is queued between the signal and the
+ * orders. It is allocation free : the intents come from a preallocated pool,
+ * the limit prices are read from the quote slots and the pairs with orders
+ * still in flight are skipped. The spreads of the venues converted from
+ * other quote currencies have no exchange to trade on and are skipped too,
+ * as are the spreads that can't be crossed any more (the bid of the selling
+ * exchange isn't above the ask of the buying one when the orders are sent).
+ *
+ * Once both legs of a spread are acknowledged, the realized edge (sell fill
+ * less buy fill, relative to the buy fill) is recorded next to the latencies.
+ */
+public class PaperTradingEngine implements ExecutionListener {
+
+	private static Logger LOGGER = LoggerFactory.getLogger(PaperTradingEngine.class);
+
+	private static final int DEFAULT_MAX_OPEN_ORDERS = 64;
+
+	/**
+	 * The interval at which the summary is logged
+	 */
+	private static final long REPORT_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private final BigDecimal minSpread;
+	private final double quantity;
+
+	/**
+	 * The index of each currency pair and exchange, and the quotes of each
+	 * exchange
+	 */
+	private final Map<String, Integer> pairIndexes;
+	private final Map<String, Integer> exchangeIndexes;
+	private final List<QuoteSlots> exchangeQuotes;
+
+	private final PaperExchange exchange;
+
+	/**
+	 * The intents not in flight
+	 */
+	private final ArrayBlockingQueue<OrderIntent> freeIntents;
+
+	/**
+	 * The number of orders in flight for each pair
+	 */
+	private final AtomicIntegerArray openOrders;
+
+	private final List<ExecutionListener> listeners;
+
+	/**
+	 * The holder the limit prices are read into (stage only)
+	 */
+	private final QuoteSlots.Quote quote;
+	private long nextIntentId;
+
+	/**
+	 * Time from the spread calculation to the orders sent, and to each
+	 * acknowledgement (in nanoseconds)
+	 */
+	private final Recorder decisionLatencies;
+	private final Recorder signalToAckLatencies;
+
+	/**
+	 * The realized edges of the spreads with both legs filled, in millionths
+	 * of the buy fill : the gains and the losses
+	 */
+	private final Recorder realizedGains;
+	private final Recorder realizedLosses;
+
+	/**
+	 * The fill of each leg of the spread in flight for each pair (exchange
+	 * thread only), 0 if not filled
+	 */
+	private final double[] buyFillPrices;
+	private final double[] sellFillPrices;
+
+	private final LongAdder signals;
+	private final LongAdder droppedSignals;
+	private final LongAdder uncrossableSignals;
+	private final LongAdder filledOrders;
+	private final LongAdder partiallyFilledOrders;
+	private final LongAdder rejectedOrders;
+
+	/**
+	 * The time when the summary was last logged (exchange thread only)
+	 */
+	private long lastReportNanos;
+
+	/**
+	 * @param exchangeQuotes The quote slots of each exchange (key is exchange ID)
+	 */
+	public PaperTradingEngine(List<String> currencyPairs, Map<String, QuoteSlots> exchangeQuotes,
+			PaperTradingConfig config) {
+		this.minSpread = BigDecimal.valueOf(config.getMinSpread());
+		this.quantity = config.getQuantity();
+		this.pairIndexes = new HashMap<>();
+		for (int i = 0; i < currencyPairs.size(); i++) {
+			pairIndexes.put(currencyPairs.get(i), i);
+		}
+		this.exchangeIndexes = new HashMap<>();
+		this.exchangeQuotes = new ArrayList<>();
+		for (final Map.Entry<String, QuoteSlots> exchangeEntry : exchangeQuotes.entrySet()) {
+			exchangeIndexes.put(exchangeEntry.getKey(), this.exchangeQuotes.size());
+			this.exchangeQuotes.add(exchangeEntry.getValue());
+		}
+		this.exchange = new PaperExchange(this.exchangeQuotes, currencyPairs.size(),
+				config.getDepth() != null ? config.getDepth() : quantity, config.getLatency(), this);
+
+		final int maxOpenOrders = config.getMaxOpenOrders() != null ? config.getMaxOpenOrders() : DEFAULT_MAX_OPEN_ORDERS;
+		this.freeIntents = new ArrayBlockingQueue<>(maxOpenOrders);
+		for (int i = 0; i < maxOpenOrders; i++) {
+			freeIntents.offer(new OrderIntent());
+		}
+		this.openOrders = new AtomicIntegerArray(currencyPairs.size());
+		this.listeners = new CopyOnWriteArrayList<>();
+		this.quote = new QuoteSlots.Quote();
+		this.decisionLatencies = new Recorder(3);
+		this.signalToAckLatencies = new Recorder(3);
+		this.realizedGains = new Recorder(3);
+		this.realizedLosses = new Recorder(3);
+		this.buyFillPrices = new double[currencyPairs.size()];
+		this.sellFillPrices = new double[currencyPairs.size()];
+		this.signals = new LongAdder();
+		this.droppedSignals = new LongAdder();
+		this.uncrossableSignals = new LongAdder();
+		this.filledOrders = new LongAdder();
+		this.partiallyFilledOrders = new LongAdder();
+		this.rejectedOrders = new LongAdder();
+		this.lastReportNanos = System.nanoTime();
+		exchange.start();
+	}
+
+	/**
+	 * Registers a listener of the order acknowledgements
+	 */
+	public void addListener(ExecutionListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * The order-intent stage : sends the orders for the spreads of a cycle,
+	 * on the thread that calculated them.
+	 *
+	 * @param spreads The spreads sorted in descending order
+	 * @param signalNanos The time the spreads were calculated (System.nanoTime)
+	 */
+	public synchronized void onSpreads(List<SpreadInfo> spreads, long signalNanos) {
+		for (int i = 0; i < spreads.size(); i++) {
+			final SpreadInfo spread = spreads.get(i);
+			if(spread.getSpreadPercent().compareTo(minSpread) <= 0) {
+				break;
+			}
+			final Integer pair = pairIndexes.get(spread.getCcyPair());
+			final Integer askExchange = exchangeIndexes.get(spread.getBestAskExchange());
+			final Integer bidExchange = exchangeIndexes.get(spread.getBestBidExchange());
+			if(pair == null || askExchange == null || bidExchange == null || openOrders.get(pair) > 0) {
+				continue;
+			}
+			// The ranking buys where the net bid is the lowest and sells where
+			// the net ask is the highest. The orders cross the books, so their
+			// limits are the prices they can trade at : the ask of the buying
+			// exchange and the bid of the selling one, as read now
+			if(!exchangeQuotes.get(askExchange).read(pair, quote)) {
+				continue;
+			}
+			final double sellPrice = quote.getNetBidPrice();
+			if(!exchangeQuotes.get(bidExchange).read(pair, quote)) {
+				continue;
+			}
+			final double buyPrice = quote.getNetAskPrice();
+			if(sellPrice <= buyPrice) {
+				// The spread was gone by the time the orders would be sent
+				uncrossableSignals.increment();
+				continue;
+			}
+
+			signals.increment();
+			final OrderIntent buy = freeIntents.poll();
+			final OrderIntent sell = buy != null ? freeIntents.poll() : null;
+			if(sell == null) {
+				if(buy != null) {
+					freeIntents.offer(buy);
+				}
+				droppedSignals.increment();
+				continue;
+			}
+			openOrders.set(pair, 2);
+			send(buy, OrderIntent.Side.BUY, spread.getCcyPair(), pair, spread.getBestBidExchange(), bidExchange,
+					buyPrice, signalNanos);
+			send(sell, OrderIntent.Side.SELL, spread.getCcyPair(), pair, spread.getBestAskExchange(), askExchange,
+					sellPrice, signalNanos);
+			decisionLatencies.recordValue(System.nanoTime() - signalNanos);
+		}
+	}
+
+	private void send(OrderIntent intent, OrderIntent.Side side, String ccyPair, int pair, String exchangeId,
+			int exchangeIndex, double limitPrice, long signalNanos) {
+		intent.id = ++nextIntentId;
+		intent.side = side;
+		intent.ccyPair = ccyPair;
+		intent.pair = pair;
+		intent.exchangeId = exchangeId;
+		intent.exchange = exchangeIndex;
+		intent.limitPrice = limitPrice;
+		intent.quantity = quantity;
+		intent.signalNanos = signalNanos;
+		exchange.send(intent);
+	}
+
+	/**
+	 * Records the acknowledgement of an order and returns its intent to the
+	 * pool (exchange thread).
+	 */
+	@Override
+	public void onExecution(OrderIntent intent) {
+		signalToAckLatencies.recordValue(intent.getSignalToAckNanos());
+		switch (intent.status) {
+		case FILLED:
+			filledOrders.increment();
+			break;
+		case PARTIALLY_FILLED:
+			partiallyFilledOrders.increment();
+			break;
+		default:
+			rejectedOrders.increment();
+			break;
+		}
+		for (final ExecutionListener listener : listeners) {
+			listener.onExecution(intent);
+		}
+		final double fillPrice = intent.filledQuantity > 0 ? intent.fillPrice : 0;
+		if(intent.side == OrderIntent.Side.BUY) {
+			buyFillPrices[intent.pair] = fillPrice;
+		} else {
+			sellFillPrices[intent.pair] = fillPrice;
+		}
+		if(openOrders.get(intent.pair) == 1) {
+			// Last leg of the spread
+			recordRealizedEdge(intent.pair);
+		}
+		openOrders.decrementAndGet(intent.pair);
+		freeIntents.offer(intent);
+
+		final long now = System.nanoTime();
+		if(now - lastReportNanos >= REPORT_INTERVAL_NANOS) {
+			lastReportNanos = now;
+			logSummary();
+		}
+	}
+
+	/**
+	 * Records the edge realized by the two legs of the spread of a pair, if
+	 * both were filled (exchange thread)
+	 */
+	private void recordRealizedEdge(int pair) {
+		final double buyFillPrice = buyFillPrices[pair];
+		final double sellFillPrice = sellFillPrices[pair];
+		buyFillPrices[pair] = 0;
+		sellFillPrices[pair] = 0;
+		if(buyFillPrice <= 0 || sellFillPrice <= 0) {
+			return;
+		}
+		final long edge = Math.round((sellFillPrice - buyFillPrice) / buyFillPrice * 1e6);
+		if(edge >= 0) {
+			realizedGains.recordValue(edge);
+		} else {
+			realizedLosses.recordValue(-edge);
+		}
+	}
+
+	public long getSignals() {
+		return signals.sum();
+	}
+
+	public long getDroppedSignals() {
+		return droppedSignals.sum();
+	}
+
+	/**
+	 * Returns the number of spreads skipped because they couldn't be crossed
+	 * any more when the orders were about to be sent
+	 */
+	public long getUncrossableSignals() {
+		return uncrossableSignals.sum();
+	}
+
+	public long getFilledOrders() {
+		return filledOrders.sum();
+	}
+
+	public long getPartiallyFilledOrders() {
+		return partiallyFilledOrders.sum();
+	}
+
+	public long getRejectedOrders() {
+		return rejectedOrders.sum();
+	}
+
+	/**
+	 * Logs the totals, the latency percentiles and the realized edges since the
+	 * previous summary.
+	 */
+	private void logSummary() {
+		final Histogram decisions = decisionLatencies.getIntervalHistogram();
+		final Histogram acks = signalToAckLatencies.getIntervalHistogram();
+		final Histogram gains = realizedGains.getIntervalHistogram();
+		final Histogram losses = realizedLosses.getIntervalHistogram();
+		LOGGER.info(String.format(
+				"Paper trading : %d signals, %d dropped, %d uncrossable ; orders %d filled, %d partially filled, %d rejected ; "
+				+ "signal to orders (us) p50 %.1f p99 %.1f max %.1f ; signal to ack (ms) p50 %.3f p99 %.3f max %.3f ; "
+				+ "realized edge (%%) %d gains p50 %.3f max %.3f, %d losses p50 %.3f max %.3f",
+				getSignals(), getDroppedSignals(), getUncrossableSignals(),
+				getFilledOrders(), getPartiallyFilledOrders(), getRejectedOrders(),
+				decisions.getValueAtPercentile(50) / 1e3, decisions.getValueAtPercentile(99) / 1e3,
+				decisions.getMaxValue() / 1e3,
+				acks.getValueAtPercentile(50) / 1e6, acks.getValueAtPercentile(99) / 1e6, acks.getMaxValue() / 1e6,
+				gains.getTotalCount(), gains.getValueAtPercentile(50) / 1e4, gains.getMaxValue() / 1e4,
+				losses.getTotalCount(), losses.getValueAtPercentile(50) / 1e4, losses.getMaxValue() / 1e4));
+	}
+}